@@ -24,6 +24,8 @@ import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.phoss.smp.audit.ISMPQueuedAuditManager;
+import com.helger.phoss.smp.audit.SMPAuditItemQueue;
 import com.helger.photon.audit.IAuditItem;
 import com.helger.photon.audit.IAuditManager;
 import com.helger.photon.audit.IAuditor;
@@ -34,7 +36,7 @@ import com.helger.photon.security.login.LoggedInUserManager;
  *
  * @author Philip Helger
  */
-public class AuditManagerMongoDB implements IAuditManager
+public class AuditManagerMongoDB implements ISMPQueuedAuditManager
 {
   private final AuditorMongoDB m_aAuditor;
 
@@ -68,9 +70,16 @@ public class AuditManagerMongoDB implements IAuditManager
     return m_aAuditor.getLastAuditItems (nMaxItems);
   }
 
+  @Nonnull
+  public SMPAuditItemQueue getAuditItemQueue ()
+  {
+    return m_aAuditor.getAuditItemQueue ();
+  }
+
   public void stop ()
   {
-    // Nothing to do
+    // Write all queued items
+    m_aAuditor.getAuditItemQueue ().stop ();
   }
 
   @Nullable
@@ -38,6 +38,8 @@ import com.helger.commons.state.ESuccess;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.type.ObjectType;
 import com.helger.commons.typeconvert.TypeConverter;
+import com.helger.phoss.smp.audit.ESMPAuditDurability;
+import com.helger.phoss.smp.audit.SMPAuditItemQueue;
 import com.helger.phoss.smp.backend.mongodb.MongoClientProvider;
 import com.helger.phoss.smp.backend.mongodb.MongoClientSingleton;
 import com.helger.photon.audit.AuditItem;
@@ -48,10 +50,13 @@ import com.helger.photon.audit.IAuditor;
 import com.helger.security.authentication.subject.user.CUserID;
 import com.helger.security.authentication.subject.user.ICurrentUserIDProvider;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
 
 /**
  * A special implementation of {@link IAuditor} writing data to a MongoDB
- * collection
+ * collection. Depending on the configured {@link ESMPAuditDurability} the audit
+ * items are written immediately or queued and written in batches.
  *
  * @author Philip Helger
  */
@@ -70,6 +75,7 @@ public class AuditorMongoDB implements IAuditor
 
   private final MongoCollection <Document> m_aCollection;
   private final ICurrentUserIDProvider m_aCurrentUserIDProvider;
+  private final SMPAuditItemQueue m_aQueue;
 
   /**
    * Default constructor using {@link #DEFAULT_COLLECTION_NAME} as the
@@ -97,6 +103,45 @@ public class AuditorMongoDB implements IAuditor
     ValueEnforcer.notEmpty (sCollectionName, "CollectionName");
     m_aCollection = MongoClientSingleton.getInstance ().getCollection (sCollectionName);
     m_aCurrentUserIDProvider = ValueEnforcer.notNull (aCurrentUserIDProvider, "UserIDProvider");
+
+    // Avoid a full sort when reading the latest or earliest items
+    if (MongoClientSingleton.isDBWritable ())
+      m_aCollection.createIndex (Indexes.ascending (BSON_DT));
+
+    m_aQueue = SMPAuditItemQueue.createFromConfiguration (sCollectionName, this::_writeBatch);
+  }
+
+  private void _writeBatch (@Nonnull final ICommonsList <IAuditItem> aItems)
+  {
+    if (!MongoClientSingleton.isDBWritable ())
+    {
+      LOGGER.warn ("Dropping " + aItems.size () + " audit item(s), because MongoDB is in non-writable state");
+      return;
+    }
+
+    if (aItems.size () == 1)
+    {
+      if (!m_aCollection.insertOne (toBson (aItems.getFirstOrNull ())).wasAcknowledged ())
+        throw new IllegalStateException ("Failed to insert into MongoDB Collection");
+    }
+    else
+    {
+      // Unordered, so that one failing item does not prevent the others
+      if (!m_aCollection.insertMany (aItems.getAllMapped (AuditorMongoDB::toBson),
+                                     new InsertManyOptions ().ordered (false))
+                        .wasAcknowledged ())
+        throw new IllegalStateException ("Failed to insert many into MongoDB Collection");
+    }
+  }
+
+  /**
+   * @return The queue used to write the audit items. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public SMPAuditItemQueue getAuditItemQueue ()
+  {
+    return m_aQueue;
   }
 
   @Nonnull
@@ -152,13 +197,7 @@ public class AuditorMongoDB implements IAuditor
                                                                       aArgs);
     final IAuditItem aAuditItem = new AuditItem (sUserID, eActionType, eSuccess, sFullAction);
 
-    if (MongoClientSingleton.isDBWritable ())
-    {
-      if (!m_aCollection.insertOne (toBson (aAuditItem)).wasAcknowledged ())
-        throw new IllegalStateException ("Failed to insert into MongoDB Collection");
-    }
-    else
-      LOGGER.warn ("Dropping audit item, because MongoDB is in non-writable state");
+    m_aQueue.add (aAuditItem);
   }
 
   @Nonnull
@@ -16,24 +16,35 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
 
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.timing.StopWatch;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
 import com.helger.phoss.smp.backend.mongodb.MongoClientSingleton;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
 
 /**
  * Abstract base class for MongoDB backends
@@ -78,6 +89,90 @@ public abstract class AbstractManagerMongoDB implements AutoCloseable
     return m_aCollection;
   }
 
+  /**
+   * Get the name of the provided index. This is either the explicitly provided
+   * name or the default name MongoDB would create (e.g. "sgid_1_doctypeid_1").
+   *
+   * @param aIndex
+   *        The index to get the name from. May not be <code>null</code>.
+   * @return The name of the index. Neither <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public static String getIndexName (@Nonnull final IndexModel aIndex)
+  {
+    final String sName = aIndex.getOptions ().getName ();
+    if (sName != null)
+      return sName;
+
+    final BsonDocument aKeys = aIndex.getKeys ()
+                                     .toBsonDocument (BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry ());
+    final StringBuilder aSB = new StringBuilder ();
+    for (final Map.Entry <String, BsonValue> aEntry : aKeys.entrySet ())
+    {
+      if (aSB.length () > 0)
+        aSB.append ('_');
+      final BsonValue aValue = aEntry.getValue ();
+      aSB.append (aEntry.getKey ())
+         .append ('_')
+         .append (aValue.isNumber () ? Integer.toString (aValue.asNumber ().intValue ())
+                                     : aValue.asString ().getValue ());
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Make sure all the provided indexes exist on the collection of this
+   * manager. This is called upon startup and creates the indexes that are
+   * missing, so existing databases are migrated automatically. The indexes
+   * are created one after the other and the progress is logged, as building an
+   * index on a large collection may take some time.
+   *
+   * @param aIndexes
+   *        The indexes that are required by the queries of this manager. May
+   *        not be <code>null</code>.
+   */
+  protected final void ensureIndexes (@Nonnull final IndexModel... aIndexes)
+  {
+    ValueEnforcer.notNull (aIndexes, "Indexes");
+
+    final ICommonsSet <String> aExistingNames = new CommonsHashSet <> ();
+    m_aCollection.listIndexes ().forEach (x -> aExistingNames.add (x.getString ("name")));
+
+    int nIndex = 0;
+    for (final IndexModel aIndex : aIndexes)
+    {
+      ++nIndex;
+      final String sName = getIndexName (aIndex);
+      if (aExistingNames.contains (sName))
+        continue;
+
+      LOGGER.info ("Creating MongoDB index '" +
+                   sName +
+                   "' on collection '" +
+                   m_sCollectionName +
+                   "' with " +
+                   m_aCollection.estimatedDocumentCount () +
+                   " documents (" +
+                   nIndex +
+                   "/" +
+                   aIndexes.length +
+                   ")");
+      final StopWatch aSW = StopWatch.createdStarted ();
+      final Bson aKeys = aIndex.getKeys ();
+      final IndexOptions aOptions = aIndex.getOptions ();
+      m_aCollection.createIndex (aKeys, aOptions.name (sName));
+      aSW.stop ();
+      LOGGER.info ("Finished creating MongoDB index '" +
+                   sName +
+                   "' on collection '" +
+                   m_sCollectionName +
+                   "' after " +
+                   aSW.getMillis () +
+                   " ms");
+    }
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public static Document toBson (@Nonnull final IIdentifier aValue)
@@ -34,6 +34,7 @@ import com.helger.peppol.sml.ISMLInfo;
 import com.helger.peppol.sml.SMLInfo;
 import com.helger.phoss.smp.domain.sml.ISMLInfoManager;
 import com.helger.photon.audit.AuditHelper;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
@@ -54,7 +55,7 @@ public class SMLInfoManagerMongoDB extends AbstractManagerMongoDB implements ISM
   public SMLInfoManagerMongoDB ()
   {
     super ("smp-smlinfo");
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)));
   }
 
   @Nonnull
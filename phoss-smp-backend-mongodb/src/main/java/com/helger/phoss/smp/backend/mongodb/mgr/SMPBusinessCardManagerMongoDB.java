@@ -52,6 +52,7 @@ import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardIdentifier;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardName;
 import com.helger.photon.audit.AuditHelper;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.result.DeleteResult;
 
@@ -90,7 +91,7 @@ public final class SMPBusinessCardManagerMongoDB extends AbstractManagerMongoDB
   {
     super ("smp-businesscard");
     m_aIdentifierFactory = aIdentifierFactory;
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)));
   }
 
   @Nonnull
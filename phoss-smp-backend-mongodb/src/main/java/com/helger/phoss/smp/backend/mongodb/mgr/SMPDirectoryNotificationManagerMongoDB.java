@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.mongodb.mgr;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.bson.Document;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.commons.typeconvert.TypeConverter;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.pdnotification.EDirectoryNotificationAction;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotification;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
+import com.helger.phoss.smp.domain.pdnotification.SMPDirectoryNotification;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Implementation of {@link ISMPDirectoryNotificationManager} for MongoDB
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public final class SMPDirectoryNotificationManagerMongoDB extends AbstractManagerMongoDB implements
+                                                          ISMPDirectoryNotificationManager
+{
+  private static final String BSON_ID = "id";
+  private static final String BSON_PARTICIPANT_ID = "pid";
+  private static final String BSON_ACTION = "action";
+  private static final String BSON_QUEUE_DT = "queuedt";
+
+  public SMPDirectoryNotificationManagerMongoDB ()
+  {
+    super ("smp-directory-notification");
+    // One entry per participant
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID), new IndexOptions ().unique (true)));
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public static Document toBson (@Nonnull final ISMPDirectoryNotification aValue)
+  {
+    return new Document ().append (BSON_ID, aValue.getID ())
+                          .append (BSON_PARTICIPANT_ID, toBson (aValue.getParticipantIdentifier ()))
+                          .append (BSON_ACTION, aValue.getAction ().getID ())
+                          .append (BSON_QUEUE_DT, TypeConverter.convert (aValue.getQueueDateTime (), Date.class));
+  }
+
+  @Nullable
+  @ReturnsMutableCopy
+  public static SMPDirectoryNotification toDomain (@Nonnull final Document aDoc)
+  {
+    final IParticipantIdentifier aParticipantID = toParticipantID (aDoc.get (BSON_PARTICIPANT_ID, Document.class));
+    final EDirectoryNotificationAction eAction = EDirectoryNotificationAction.getFromIDOrNull (aDoc.getString (BSON_ACTION));
+    final LocalDateTime aQueueDT = TypeConverter.convert (aDoc.getDate (BSON_QUEUE_DT), LocalDateTime.class);
+    if (aParticipantID == null || eAction == null || aQueueDT == null)
+      return null;
+    return new SMPDirectoryNotification (aParticipantID, eAction, aQueueDT);
+  }
+
+  @Nonnull
+  public EChange storeDirectoryNotification (@Nonnull final ISMPDirectoryNotification aNotification)
+  {
+    ValueEnforcer.notNull (aNotification, "Notification");
+
+    final UpdateResult aUR = getCollection ().replaceOne (new Document (BSON_ID, aNotification.getID ()),
+                                                          toBson (aNotification),
+                                                          new ReplaceOptions ().upsert (true));
+    return EChange.valueOf (aUR.wasAcknowledged ());
+  }
+
+  @Nonnull
+  public EChange deleteDirectoryNotification (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    if (aParticipantID == null)
+      return EChange.UNCHANGED;
+
+    final DeleteResult aDR = getCollection ().deleteOne (new Document (BSON_ID,
+                                                                       SMPDirectoryNotification.createID (aParticipantID)));
+    return EChange.valueOf (aDR.wasAcknowledged () && aDR.getDeletedCount () > 0);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPDirectoryNotification> getAllDirectoryNotifications ()
+  {
+    final ICommonsList <ISMPDirectoryNotification> ret = new CommonsArrayList <> ();
+    getCollection ().find ().forEach (x -> {
+      final SMPDirectoryNotification aNotification = toDomain (x);
+      if (aNotification != null)
+        ret.add (aNotification);
+    });
+    return ret;
+  }
+}
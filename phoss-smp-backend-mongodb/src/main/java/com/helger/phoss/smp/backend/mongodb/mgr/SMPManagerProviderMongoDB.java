@@ -25,6 +25,7 @@ import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.backend.mongodb.PhotonSecurityManagerFactoryMongoDB;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -49,6 +50,12 @@ public final class SMPManagerProviderMongoDB implements ISMPManagerProvider
     PhotonSecurityManager.getInstance ();
   }
 
+  @Override
+  public boolean isStorageSharable ()
+  {
+    return true;
+  }
+
   @Nonnull
   public ETriState getBackendConnectionEstablishedDefaultState ()
   {
@@ -99,6 +106,12 @@ public final class SMPManagerProviderMongoDB implements ISMPManagerProvider
     return new SMPParticipantMigrationManagerMongoDB ();
   }
 
+  @Nonnull
+  public ISMPDirectoryNotificationManager createDirectoryNotificationMgr ()
+  {
+    return new SMPDirectoryNotificationManagerMongoDB ();
+  }
+
   @Nullable
   public ISMPBusinessCardManager createBusinessCardMgr (@Nonnull final IIdentifierFactory aIdentifierFactory,
                                                         @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
@@ -41,6 +41,7 @@ import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigration;
 import com.helger.photon.audit.AuditHelper;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.result.DeleteResult;
 
@@ -63,7 +64,10 @@ public final class SMPParticipantMigrationManagerMongoDB extends AbstractManager
   public SMPParticipantMigrationManagerMongoDB ()
   {
     super ("smp-participant-migration");
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)),
+                   // Also used for the queries by participant ID only
+                   new IndexModel (Indexes.ascending (BSON_PARTICIPANT_ID, BSON_DIRECTION, BSON_STATE)),
+                   new IndexModel (Indexes.ascending (BSON_DIRECTION, BSON_STATE)));
   }
 
   @Nonnull
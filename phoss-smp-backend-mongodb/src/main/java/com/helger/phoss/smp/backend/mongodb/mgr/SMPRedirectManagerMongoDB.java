@@ -17,12 +17,14 @@
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
 import java.security.cert.X509Certificate;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,16 +41,20 @@ import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.redirect.SMPRedirect;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.photon.audit.AuditHelper;
 import com.helger.security.certificate.CertificateHelper;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -78,7 +84,9 @@ public final class SMPRedirectManagerMongoDB extends AbstractManagerMongoDB impl
     super ("smp-redirect");
     m_aIdentifierFactory = aIdentifierFactory;
     m_aServiceGroupMgr = aServiceGroupMgr;
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)),
+                   // Also used for the queries by service group ID only
+                   new IndexModel (Indexes.ascending (BSON_SERVICE_GROUP_ID, BSON_DOCTYPE_ID)));
   }
 
   @Nonnull
@@ -113,7 +121,7 @@ public final class SMPRedirectManagerMongoDB extends AbstractManagerMongoDB impl
     // The ID itself is derived from ServiceGroupID and DocTypeID
     final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aIdentifierFactory.parseParticipantIdentifier (aDoc.getString (BSON_SERVICE_GROUP_ID)));
     final IDocumentTypeIdentifier aDocTypeID = toDocumentTypeID (aDoc.get (BSON_DOCTYPE_ID, Document.class));
-    final X509Certificate aCert = CertificateHelper.convertStringToCertficateOrNull (aDoc.getString (BSON_TARGET_CERTIFICATE));
+    final X509Certificate aCert = SMPCertificateCache.getInstance ().getX509Certificate (aDoc.getString (BSON_TARGET_CERTIFICATE));
     return new SMPRedirect (aServiceGroup,
                             aDocTypeID,
                             aDoc.getString (BSON_TARGET_HREF),
@@ -275,6 +283,33 @@ public final class SMPRedirectManagerMongoDB extends AbstractManagerMongoDB impl
     return ret;
   }
 
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPRedirect> getSMPRedirectPage (@Nullable final String sFilter,
+                                                          final boolean bAscending,
+                                                          @Nonnegative final int nOffset,
+                                                          @Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    final long nTotalCount = getCollection ().countDocuments ();
+    final Bson aFilter = StringHelper.hasText (sFilter) ? Filters.regex (BSON_SERVICE_GROUP_ID,
+                                                                         Pattern.quote (sFilter),
+                                                                         "i") : new Document ();
+    final long nFilteredCount = StringHelper.hasText (sFilter) ? getCollection ().countDocuments (aFilter)
+                                                               : nTotalCount;
+
+    // The ID starts with the service group ID and is indexed
+    final ICommonsList <ISMPRedirect> aItems = new CommonsArrayList <> ();
+    getCollection ().find (aFilter)
+                    .sort (bAscending ? Sorts.ascending (BSON_ID) : Sorts.descending (BSON_ID))
+                    .skip (nOffset)
+                    .limit (nCount)
+                    .forEach (x -> aItems.add (toDomain (x)));
+    return new SMPResultPage <> (aItems, nTotalCount, nFilteredCount);
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsList <ISMPRedirect> getAllSMPRedirectsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
@@ -16,11 +16,15 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +41,7 @@ import com.helger.commons.state.EChange;
 import com.helger.commons.string.StringHelper;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
@@ -50,7 +55,10 @@ import com.helger.phoss.smp.smlhook.IRegistrationHook;
 import com.helger.phoss.smp.smlhook.RegistrationHookException;
 import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.photon.audit.AuditHelper;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 
@@ -72,7 +80,10 @@ public final class SMPServiceGroupManagerMongoDB extends AbstractManagerMongoDB
   public SMPServiceGroupManagerMongoDB ()
   {
     super ("smp-servicegroup");
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)),
+                   // For getAllSMPServiceGroupsOfOwner and
+                   // getSMPServiceGroupCountOfOwner
+                   new IndexModel (Indexes.ascending (BSON_OWNER_ID)));
   }
 
   @Nonnull
@@ -290,6 +301,41 @@ public final class SMPServiceGroupManagerMongoDB extends AbstractManagerMongoDB
     return ret;
   }
 
+  @Override
+  public void forEachSMPServiceGroup (@Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    // The cursor fetches the documents in batches, sorted via the ID index
+    getCollection ().find ().sort (Sorts.ascending (BSON_ID)).forEach (x -> aConsumer.accept (toDomain (x)));
+  }
+
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPServiceGroup> getSMPServiceGroupPage (@Nullable final String sFilter,
+                                                                  final boolean bAscending,
+                                                                  @Nonnegative final int nOffset,
+                                                                  @Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    final long nTotalCount = getCollection ().countDocuments ();
+    final Bson aFilter = StringHelper.hasText (sFilter) ? Filters.regex (BSON_ID, Pattern.quote (sFilter), "i")
+                                                        : new Document ();
+    final long nFilteredCount = StringHelper.hasText (sFilter) ? getCollection ().countDocuments (aFilter)
+                                                               : nTotalCount;
+
+    // Skip and limit are applied on the server, sorted via the ID index
+    final ICommonsList <ISMPServiceGroup> aItems = new CommonsArrayList <> ();
+    getCollection ().find (aFilter)
+                    .sort (bAscending ? Sorts.ascending (BSON_ID) : Sorts.descending (BSON_ID))
+                    .skip (nOffset)
+                    .limit (nCount)
+                    .forEach (x -> aItems.add (toDomain (x)));
+    return new SMPResultPage <> (aItems, nTotalCount, nFilteredCount);
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsSet <String> getAllSMPServiceGroupIDs ()
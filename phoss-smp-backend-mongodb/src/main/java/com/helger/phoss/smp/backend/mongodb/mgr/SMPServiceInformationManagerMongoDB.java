@@ -25,6 +25,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,7 +34,9 @@ import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.datetime.XMLOffsetDateTime;
 import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.state.EChange;
@@ -56,6 +59,10 @@ import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
 import com.helger.photon.audit.AuditHelper;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -71,6 +78,9 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
   private static final String BSON_ID = "id";
   private static final String BSON_SERVICE_GROUP_ID = "sgid";
   private static final String BSON_DOCTYPE_ID = "doctypeid";
+  // The fields of the document type identifier as created by toBson
+  private static final String BSON_DOCTYPE_ID_SCHEME = BSON_DOCTYPE_ID + ".scheme";
+  private static final String BSON_DOCTYPE_ID_VALUE = BSON_DOCTYPE_ID + ".value";
   private static final String BSON_PROCESSES = "processes";
   private static final String BSON_PROCESS_ID = "processid";
   private static final String BSON_ENDPOINTS = "endpoints";
@@ -96,6 +106,15 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     super ("smp-serviceinfo");
     m_aIdentifierFactory = aIdentifierFactory;
     m_aServiceGroupMgr = aServiceGroupMgr;
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)),
+                   // Also used for the queries by service group ID only
+                   new IndexModel (Indexes.ascending (BSON_SERVICE_GROUP_ID, BSON_DOCTYPE_ID)),
+                   // For the ordered pages of a service group
+                   new IndexModel (Indexes.ascending (BSON_SERVICE_GROUP_ID,
+                                                      BSON_DOCTYPE_ID_SCHEME,
+                                                      BSON_DOCTYPE_ID_VALUE)),
+                   // For containsAnyEndpointWithTransportProfile
+                   new IndexModel (Indexes.ascending (BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_TRANSPORT_PROFILE)));
   }
 
   @Nonnull
@@ -453,6 +472,33 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     return ret;
   }
 
+  @Override
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getSMPServiceInformationPageOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                                                          @Nullable final IDocumentTypeIdentifier aAfterDocTypeID,
+                                                                                          @Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+
+    final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> ();
+    if (aServiceGroup != null)
+    {
+      Bson aFilter = Filters.eq (BSON_SERVICE_GROUP_ID, aServiceGroup.getID ());
+      if (aAfterDocTypeID != null)
+        aFilter = Filters.and (aFilter,
+                               Filters.or (Filters.gt (BSON_DOCTYPE_ID_SCHEME, aAfterDocTypeID.getScheme ()),
+                                           Filters.and (Filters.eq (BSON_DOCTYPE_ID_SCHEME, aAfterDocTypeID.getScheme ()),
+                                                        Filters.gt (BSON_DOCTYPE_ID_VALUE, aAfterDocTypeID.getValue ()))));
+      // The cursor only fetches the documents of the page
+      getCollection ().find (aFilter)
+                      .sort (Sorts.ascending (BSON_DOCTYPE_ID_SCHEME, BSON_DOCTYPE_ID_VALUE))
+                      .limit (nMaxCount)
+                      .forEach ((Consumer <Document>) x -> ret.add (toServiceInformation (x, true)));
+    }
+    return ret;
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsList <IDocumentTypeIdentifier> getAllSMPDocumentTypesOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
@@ -467,6 +513,35 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     return ret;
   }
 
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesWithEndpointsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (aServiceGroup != null)
+    {
+      // Only fetch the fields required for counting
+      getCollection ().find (new Document (BSON_SERVICE_GROUP_ID, aServiceGroup.getID ()))
+                      .projection (Projections.include (BSON_DOCTYPE_ID,
+                                                        BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_TRANSPORT_PROFILE))
+                      .forEach ((Consumer <Document>) x -> {
+                        int nEndpointCount = 0;
+                        final List <Document> aProcessDocs = x.getList (BSON_PROCESSES, Document.class);
+                        if (aProcessDocs != null)
+                          for (final Document aDocP : aProcessDocs)
+                          {
+                            final List <Document> aEndpointDocs = aDocP.getList (BSON_ENDPOINTS, Document.class);
+                            if (aEndpointDocs != null)
+                              nEndpointCount += aEndpointDocs.size ();
+                          }
+                        if (nEndpointCount > 0)
+                          ret.put (toDocumentTypeID (x.get (BSON_DOCTYPE_ID, Document.class)),
+                                   Integer.valueOf (nEndpointCount));
+                      });
+    }
+    return ret;
+  }
+
   @Nullable
   public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType (@Nullable final ISMPServiceGroup aServiceGroup,
                                                                                        @Nullable final IDocumentTypeIdentifier aDocumentTypeIdentifier)
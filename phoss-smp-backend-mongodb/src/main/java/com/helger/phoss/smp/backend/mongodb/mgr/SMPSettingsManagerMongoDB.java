@@ -16,8 +16,6 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -27,10 +25,14 @@ import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.state.EChange;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.settings.ISMPSettingsCallback;
 import com.helger.phoss.smp.settings.ISMPSettingsManager;
 import com.helger.phoss.smp.settings.SMPSettings;
+import com.helger.phoss.smp.settings.SMPSettingsSnapshotCache;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
 
 /**
  * Implementation of {@link ISMPSettingsManager} for MongoDB
@@ -50,10 +52,11 @@ public class SMPSettingsManagerMongoDB extends AbstractManagerMongoDB implements
   private static final String BSON_SML_REQUIRED = "sml-required";
   private static final String BSON_SML_ENABLED = "sml-enabled";
   private static final String BSON_SML_INFO_ID = "smlinfo-id";
+  // Changed with every update of the settings
+  private static final String BSON_VERSION = "version";
 
-  private final SMPSettings m_aSettings = new SMPSettings (true);
   private final CallbackList <ISMPSettingsCallback> m_aCallbacks = new CallbackList <> ();
-  private final AtomicBoolean m_aInsertDocument = new AtomicBoolean ();
+  private final SMPSettingsSnapshotCache m_aSnapshotCache;
 
   @Nonnull
   @ReturnsMutableCopy
@@ -93,10 +96,32 @@ public class SMPSettingsManagerMongoDB extends AbstractManagerMongoDB implements
   public SMPSettingsManagerMongoDB ()
   {
     super ("smp-settings");
+    m_aSnapshotCache = new SMPSettingsSnapshotCache (this::_readVersion,
+                                                     this::_readSettings,
+                                                     x -> m_aCallbacks.forEach (y -> y.onSMPSettingsChanged (x)),
+                                                     SMPServerConfiguration.getSettingsVersionCheckSeconds ());
+    // Read initially
+    m_aSnapshotCache.getSettings ();
+  }
+
+  @Nullable
+  private String _readVersion ()
+  {
+    final Document aDoc = getCollection ().find (new Document (BSON_ID, ID_SETTINGS))
+                                          .projection (Projections.include (BSON_VERSION))
+                                          .first ();
+    return aDoc == null ? null : aDoc.getString (BSON_VERSION);
+  }
+
+  @Nonnull
+  private ISMPSettings _readSettings ()
+  {
+    // Values from the configuration are used, if nothing was stored yet
+    final SMPSettings ret = new SMPSettings (true);
     final Document aDoc = getCollection ().find (new Document (BSON_ID, ID_SETTINGS)).first ();
     if (aDoc != null)
-      toDomain (aDoc, m_aSettings);
-    m_aInsertDocument.set (aDoc == null);
+      toDomain (aDoc, ret);
+    return ret;
   }
 
   @Nonnull
@@ -109,7 +134,8 @@ public class SMPSettingsManagerMongoDB extends AbstractManagerMongoDB implements
   @Nonnull
   public ISMPSettings getSettings ()
   {
-    return m_aSettings;
+    // Usually served without a DB query
+    return m_aSnapshotCache.getSettings ();
   }
 
   @Nonnull
@@ -122,32 +148,39 @@ public class SMPSettingsManagerMongoDB extends AbstractManagerMongoDB implements
                                  final boolean bSMLRequired,
                                  @Nullable final String sSMLInfoID)
   {
+    // Published settings are never modified
+    final ISMPSettings aOldSettings = getSettings ();
+    final SMPSettings aNewSettings = new SMPSettings (false);
+    aNewSettings.setRESTWritableAPIDisabled (aOldSettings.isRESTWritableAPIDisabled ());
+    aNewSettings.setDirectoryIntegrationEnabled (aOldSettings.isDirectoryIntegrationEnabled ());
+    aNewSettings.setDirectoryIntegrationRequired (aOldSettings.isDirectoryIntegrationRequired ());
+    aNewSettings.setDirectoryIntegrationAutoUpdate (aOldSettings.isDirectoryIntegrationAutoUpdate ());
+    aNewSettings.setDirectoryHostName (aOldSettings.getDirectoryHostName ());
+    aNewSettings.setSMLEnabled (aOldSettings.isSMLEnabled ());
+    aNewSettings.setSMLRequired (aOldSettings.isSMLRequired ());
+    aNewSettings.setSMLInfoID (aOldSettings.getSMLInfoID ());
+
     EChange eChange = EChange.UNCHANGED;
-    eChange = eChange.or (m_aSettings.setRESTWritableAPIDisabled (bRESTWritableAPIDisabled));
-    eChange = eChange.or (m_aSettings.setDirectoryIntegrationEnabled (bDirectoryIntegrationEnabled));
-    eChange = eChange.or (m_aSettings.setDirectoryIntegrationRequired (bDirectoryIntegrationRequired));
-    eChange = eChange.or (m_aSettings.setDirectoryIntegrationAutoUpdate (bDirectoryIntegrationAutoUpdate));
-    eChange = eChange.or (m_aSettings.setDirectoryHostName (sDirectoryHostName));
-    eChange = eChange.or (m_aSettings.setSMLEnabled (bSMLEnabled));
-    eChange = eChange.or (m_aSettings.setSMLRequired (bSMLRequired));
-    eChange = eChange.or (m_aSettings.setSMLInfoID (sSMLInfoID));
+    eChange = eChange.or (aNewSettings.setRESTWritableAPIDisabled (bRESTWritableAPIDisabled));
+    eChange = eChange.or (aNewSettings.setDirectoryIntegrationEnabled (bDirectoryIntegrationEnabled));
+    eChange = eChange.or (aNewSettings.setDirectoryIntegrationRequired (bDirectoryIntegrationRequired));
+    eChange = eChange.or (aNewSettings.setDirectoryIntegrationAutoUpdate (bDirectoryIntegrationAutoUpdate));
+    eChange = eChange.or (aNewSettings.setDirectoryHostName (sDirectoryHostName));
+    eChange = eChange.or (aNewSettings.setSMLEnabled (bSMLEnabled));
+    eChange = eChange.or (aNewSettings.setSMLRequired (bSMLRequired));
+    eChange = eChange.or (aNewSettings.setSMLInfoID (sSMLInfoID));
     if (eChange.isChanged ())
     {
-      // Write to DB
-      final Document aDoc = toBson (m_aSettings);
-      if (m_aInsertDocument.getAndSet (false))
-      {
-        if (!getCollection ().insertOne (aDoc).wasAcknowledged ())
-          throw new IllegalStateException ("Failed to insert into MongoDB Collection");
-      }
-      else
-      {
-        if (!getCollection ().replaceOne (new Document (BSON_ID, ID_SETTINGS), aDoc).wasAcknowledged ())
-          throw new IllegalStateException ("Failed to replace in MongoDB Collection");
-      }
+      // Write to DB - let the other nodes know about the change
+      final String sVersion = SMPSettingsSnapshotCache.createNewVersion ();
+      final Document aDoc = toBson (aNewSettings).append (BSON_VERSION, sVersion);
+      if (!getCollection ().replaceOne (new Document (BSON_ID, ID_SETTINGS), aDoc, new ReplaceOptions ().upsert (true))
+                           .wasAcknowledged ())
+        throw new IllegalStateException ("Failed to replace in MongoDB Collection");
+      m_aSnapshotCache.setSettings (aNewSettings, sVersion);
 
       // Invoke callbacks
-      m_aCallbacks.forEach (x -> x.onSMPSettingsChanged (m_aSettings));
+      m_aCallbacks.forEach (x -> x.onSMPSettingsChanged (aNewSettings));
     }
 
     return eChange;
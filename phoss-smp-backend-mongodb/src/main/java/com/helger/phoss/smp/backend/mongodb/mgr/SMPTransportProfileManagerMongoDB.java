@@ -34,6 +34,7 @@ import com.helger.peppol.smp.SMPTransportProfile;
 import com.helger.phoss.smp.domain.redirect.SMPRedirect;
 import com.helger.phoss.smp.domain.transportprofile.ISMPTransportProfileManager;
 import com.helger.photon.audit.AuditHelper;
+import com.mongodb.client.model.IndexModel;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
@@ -55,7 +56,7 @@ public final class SMPTransportProfileManagerMongoDB extends AbstractManagerMong
   public SMPTransportProfileManagerMongoDB ()
   {
     super ("smp-transportprofile");
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndexes (new IndexModel (Indexes.ascending (BSON_ID)));
   }
 
   @Nonnull
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.mongodb.mgr;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.mongodb.client.model.Filters;
+
+/**
+ * Test that all query shapes used by the MongoDB managers are backed by an
+ * index. A query without matching index results in a "COLLSCAN" stage in the
+ * query plan.
+ *
+ * @author Philip Helger
+ */
+public final class MongoDBIndexUsageTest
+{
+  @Rule
+  public final SMPServerTestRule m_aTestRule = new SMPServerTestRule ();
+
+  private static boolean _containsCollectionScan (@Nonnull final Object aObj)
+  {
+    if (aObj instanceof Document)
+    {
+      for (final Map.Entry <String, Object> aEntry : ((Document) aObj).entrySet ())
+      {
+        if ("stage".equals (aEntry.getKey ()) && "COLLSCAN".equals (aEntry.getValue ()))
+          return true;
+        if (aEntry.getValue () != null && _containsCollectionScan (aEntry.getValue ()))
+          return true;
+      }
+    }
+    else
+      if (aObj instanceof List <?>)
+      {
+        for (final Object aElement : (List <?>) aObj)
+          if (aElement != null && _containsCollectionScan (aElement))
+            return true;
+      }
+    return false;
+  }
+
+  private static void _assertIndexUsed (@Nonnull final AbstractManagerMongoDB aMgr, @Nonnull final Bson aFilter)
+  {
+    final Document aPlan = aMgr.getCollection ().find (aFilter).explain ();
+    final Object aQueryPlanner = aPlan.get ("queryPlanner");
+    assertFalse ("Query " + aFilter + " on collection '" + aMgr.getCollectionName () + "' does not use an index",
+                 _containsCollectionScan (aQueryPlanner != null ? aQueryPlanner : aPlan));
+  }
+
+  @Nonnull
+  private static Document _id (@Nonnull final String sScheme, @Nonnull final String sValue)
+  {
+    return new Document ("scheme", sScheme).append ("value", sValue);
+  }
+
+  @Test
+  public void testServiceGroup ()
+  {
+    final AbstractManagerMongoDB aMgr = (AbstractManagerMongoDB) SMPMetaManager.getServiceGroupMgr ();
+    _assertIndexUsed (aMgr, new Document ("id", "iso6523-actorid-upis::0088:test"));
+    _assertIndexUsed (aMgr, new Document ("ownerid", "user"));
+  }
+
+  @Test
+  public void testServiceInformation ()
+  {
+    final AbstractManagerMongoDB aMgr = (AbstractManagerMongoDB) SMPMetaManager.getServiceInformationMgr ();
+    _assertIndexUsed (aMgr, new Document ("id", "any"));
+    _assertIndexUsed (aMgr, new Document ("sgid", "iso6523-actorid-upis::0088:test"));
+    _assertIndexUsed (aMgr,
+                      Filters.and (new Document ("sgid", "iso6523-actorid-upis::0088:test"),
+                                   new Document ("doctypeid", _id ("busdox-docid-qns", "doc"))));
+    _assertIndexUsed (aMgr, new Document ("processes.endpoints.transportprofile", "peppol-transport-as4-v2_0"));
+  }
+
+  @Test
+  public void testRedirect ()
+  {
+    final AbstractManagerMongoDB aMgr = (AbstractManagerMongoDB) SMPMetaManager.getRedirectMgr ();
+    _assertIndexUsed (aMgr, new Document ("id", "any"));
+    _assertIndexUsed (aMgr, new Document ("sgid", "iso6523-actorid-upis::0088:test"));
+    _assertIndexUsed (aMgr,
+                      Filters.and (new Document ("sgid", "iso6523-actorid-upis::0088:test"),
+                                   new Document ("doctypeid", _id ("busdox-docid-qns", "doc"))));
+  }
+
+  @Test
+  public void testBusinessCard ()
+  {
+    final AbstractManagerMongoDB aMgr = (AbstractManagerMongoDB) SMPMetaManager.getBusinessCardMgr ();
+    _assertIndexUsed (aMgr, new Document ("id", "iso6523-actorid-upis::0088:test"));
+  }
+
+  @Test
+  public void testParticipantMigration ()
+  {
+    final AbstractManagerMongoDB aMgr = (AbstractManagerMongoDB) SMPMetaManager.getParticipantMigrationMgr ();
+    final Document aPID = _id ("iso6523-actorid-upis", "0088:test");
+    _assertIndexUsed (aMgr, new Document ("id", "any"));
+    _assertIndexUsed (aMgr, new Document ("pid", aPID));
+    _assertIndexUsed (aMgr, new Document ("direction", "outbound"));
+    _assertIndexUsed (aMgr, Filters.and (new Document ("direction", "outbound"), new Document ("state", "inprogress")));
+    _assertIndexUsed (aMgr,
+                      Filters.and (new Document ("direction", "outbound"),
+                                   new Document ("state", "inprogress"),
+                                   new Document ("pid", aPID)));
+  }
+
+  @Test
+  public void testOthers ()
+  {
+    _assertIndexUsed ((AbstractManagerMongoDB) SMPMetaManager.getTransportProfileMgr (), new Document ("id", "any"));
+    _assertIndexUsed ((AbstractManagerMongoDB) SMPMetaManager.getSMLInfoMgr (), new Document ("id", "any"));
+    _assertIndexUsed ((AbstractManagerMongoDB) SMPMetaManager.getDirectoryNotificationMgr (),
+                      new Document ("id", "any"));
+  }
+}
@@ -16,6 +16,9 @@
  */
 package com.helger.phoss.smp.backend.sql;
 
+import java.util.List;
+
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -62,6 +65,59 @@ public enum EDatabaseType implements IHasID <String>, IHasDisplayName
     return m_sDisplayName;
   }
 
+  /**
+   * @return <code>true</code> if this database uses the
+   *         <code>LIMIT ? OFFSET ?</code> syntax for paging,
+   *         <code>false</code> if it uses the SQL standard
+   *         <code>OFFSET ? ROWS FETCH NEXT ? ROWS ONLY</code> syntax.
+   * @since 7.1.4
+   */
+  public boolean isLimitOffsetPaging ()
+  {
+    return this == MYSQL;
+  }
+
+  /**
+   * @return The SQL clause to be appended to an ordered query to retrieve a
+   *         single page. It contains two parameters, to be filled via
+   *         {@link #addPagingParameters(List, int, int)}. Never
+   *         <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  @Nonempty
+  public String getPagingClause ()
+  {
+    return isLimitOffsetPaging () ? " LIMIT ? OFFSET ?" : " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+  }
+
+  /**
+   * Add the parameters for {@link #getPagingClause()} in the correct order.
+   *
+   * @param aParams
+   *        The statement parameters to add to. May not be <code>null</code>.
+   * @param nOffset
+   *        The index of the first row to return. Must be &ge; 0.
+   * @param nCount
+   *        The maximum number of rows to return. Must be &gt; 0.
+   * @since 7.1.4
+   */
+  public void addPagingParameters (@Nonnull final List <Object> aParams,
+                                   @Nonnegative final int nOffset,
+                                   @Nonnegative final int nCount)
+  {
+    if (isLimitOffsetPaging ())
+    {
+      aParams.add (Integer.valueOf (nCount));
+      aParams.add (Integer.valueOf (nOffset));
+    }
+    else
+    {
+      aParams.add (Integer.valueOf (nOffset));
+      aParams.add (Integer.valueOf (nCount));
+    }
+  }
+
   @Nullable
   public static EDatabaseType getFromCaseIDInsensitiveOrNull (@Nullable final String sID)
   {
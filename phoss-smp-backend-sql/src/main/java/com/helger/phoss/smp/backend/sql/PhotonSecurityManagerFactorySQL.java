@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.phoss.smp.backend.sql.audit.SMPAuditManagerJDBC;
+import com.helger.photon.audit.IAuditManager;
+import com.helger.photon.jdbc.PhotonSecurityManagerFactoryJDBC;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+
+/**
+ * The SMP specific {@link PhotonSecurityManager} factory for SQL. It uses the
+ * JDBC based managers from ph-oton but replaces the audit manager with
+ * {@link SMPAuditManagerJDBC}, that supports asynchronous batch writes.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class PhotonSecurityManagerFactorySQL extends PhotonSecurityManagerFactoryJDBC
+{
+  private final Supplier <? extends DBExecutor> m_aDBExecSupplier;
+  private final Function <String, String> m_aTableNameCustomizer;
+
+  public PhotonSecurityManagerFactorySQL (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                          @Nonnull final Function <String, String> aTableNameCustomizer)
+  {
+    super (aDBExecSupplier, aTableNameCustomizer);
+    m_aDBExecSupplier = aDBExecSupplier;
+    m_aTableNameCustomizer = aTableNameCustomizer;
+  }
+
+  @Override
+  @Nonnull
+  public IAuditManager createAuditManager ()
+  {
+    return new SMPAuditManagerJDBC (m_aDBExecSupplier, m_aTableNameCustomizer);
+  }
+
+  /**
+   * Install this factory for the {@link PhotonSecurityManager}.
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aTableNameCustomizer
+   *        A customizer for database table names. May not be
+   *        <code>null</code>.
+   */
+  public static void install (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                              @Nonnull final Function <String, String> aTableNameCustomizer)
+  {
+    PhotonSecurityManager.setFactory (new PhotonSecurityManagerFactorySQL (aDBExecSupplier, aTableNameCustomizer));
+  }
+}
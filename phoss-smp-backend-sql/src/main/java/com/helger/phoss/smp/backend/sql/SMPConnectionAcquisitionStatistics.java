@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
+import com.helger.commons.statistics.StatisticsManager;
+
+/**
+ * Statistics on the time needed to acquire a JDBC connection from the pool.
+ * The durations are collected in a histogram with fixed bucket limits, and
+ * additionally in the global {@link StatisticsManager}.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPConnectionAcquisitionStatistics
+{
+  /** The upper bucket limits in milliseconds. */
+  private static final long [] BUCKET_LIMITS_MS = { 1, 5, 10, 50, 100, 500, 1_000, 5_000 };
+
+  private static final IMutableStatisticsHandlerTimer STATS_TIMER = StatisticsManager.getTimerHandler (SMPConnectionAcquisitionStatistics.class.getName () +
+                                                                                                       "$acquire");
+
+  // One additional bucket for everything above the last limit
+  private final AtomicLongArray m_aBuckets = new AtomicLongArray (BUCKET_LIMITS_MS.length + 1);
+  private final AtomicLong m_aTotalMillis = new AtomicLong (0);
+  private final AtomicLong m_aMaxMillis = new AtomicLong (0);
+  private final AtomicLong m_aFailures = new AtomicLong (0);
+  private final AtomicLong m_aWaiting = new AtomicLong (0);
+
+  SMPConnectionAcquisitionStatistics ()
+  {}
+
+  void onAcquisitionStart ()
+  {
+    m_aWaiting.incrementAndGet ();
+  }
+
+  void onAcquisitionEnd (@Nonnegative final long nMillis, final boolean bSuccess)
+  {
+    m_aWaiting.decrementAndGet ();
+    if (bSuccess)
+    {
+      int nBucket = 0;
+      while (nBucket < BUCKET_LIMITS_MS.length && nMillis > BUCKET_LIMITS_MS[nBucket])
+        nBucket++;
+      m_aBuckets.incrementAndGet (nBucket);
+      m_aTotalMillis.addAndGet (nMillis);
+      m_aMaxMillis.accumulateAndGet (nMillis, Math::max);
+      STATS_TIMER.addTime (nMillis);
+    }
+    else
+      m_aFailures.incrementAndGet ();
+  }
+
+  /**
+   * @return The number of threads currently waiting for a connection.
+   */
+  @Nonnegative
+  public long getWaitingCount ()
+  {
+    return m_aWaiting.get ();
+  }
+
+  /**
+   * @return The number of successful connection acquisitions.
+   */
+  @Nonnegative
+  public long getCount ()
+  {
+    long ret = 0;
+    for (int i = 0; i < m_aBuckets.length (); ++i)
+      ret += m_aBuckets.get (i);
+    return ret;
+  }
+
+  /**
+   * @return The number of failed connection acquisitions.
+   */
+  @Nonnegative
+  public long getFailureCount ()
+  {
+    return m_aFailures.get ();
+  }
+
+  /**
+   * @return The sum of all successful acquisition durations in milliseconds.
+   */
+  @Nonnegative
+  public long getTotalMillis ()
+  {
+    return m_aTotalMillis.get ();
+  }
+
+  /**
+   * @return The maximum successful acquisition duration in milliseconds.
+   */
+  @Nonnegative
+  public long getMaxMillis ()
+  {
+    return m_aMaxMillis.get ();
+  }
+
+  /**
+   * @return The histogram as a map from the bucket name (e.g.
+   *         <code>le-10ms</code> or <code>gt-5000ms</code>) to the number of
+   *         acquisitions in that bucket. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, Long> getHistogram ()
+  {
+    final ICommonsOrderedMap <String, Long> ret = new CommonsLinkedHashMap <> ();
+    for (int i = 0; i < BUCKET_LIMITS_MS.length; ++i)
+      ret.put ("le-" + BUCKET_LIMITS_MS[i] + "ms", Long.valueOf (m_aBuckets.get (i)));
+    ret.put ("gt-" + BUCKET_LIMITS_MS[BUCKET_LIMITS_MS.length - 1] + "ms",
+             Long.valueOf (m_aBuckets.get (BUCKET_LIMITS_MS.length)));
+    return ret;
+  }
+}
@@ -18,6 +18,8 @@ package com.helger.phoss.smp.backend.sql;
 
 import java.util.function.Function;
 
+import javax.annotation.Nonnull;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,9 +47,17 @@ public final class SMPDBExecutor extends DBExecutor
 
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPDBExecutor.class);
 
+  /**
+   * Constructor for an executor working on the primary database.
+   */
   public SMPDBExecutor ()
   {
-    super (SMPDataSourceSingleton.getInstance ().getDataSourceProvider ());
+    this (SMPDataSourceSingleton.getInstance ().getDataSourceProvider ());
+  }
+
+  private SMPDBExecutor (@Nonnull final SMPDataSourceProvider aDSP)
+  {
+    super (aDSP);
 
     // This is ONLY for debugging
     setDebugConnections (SMPJDBCConfiguration.isJdbcDebugConnections ());
@@ -71,4 +81,18 @@ public final class SMPDBExecutor extends DBExecutor
       setExecutionDurationWarnMS (0);
     }
   }
+
+  /**
+   * Create a new executor that works on the read-only replica if one is
+   * configured, or on the primary database otherwise. Only use this for
+   * statements that don't modify data.
+   *
+   * @return A new executor and never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public static SMPDBExecutor createReadOnly ()
+  {
+    return new SMPDBExecutor (SMPDataSourceSingleton.getInstance ().getReadOnlyOrPrimaryDataSourceProvider ());
+  }
 }
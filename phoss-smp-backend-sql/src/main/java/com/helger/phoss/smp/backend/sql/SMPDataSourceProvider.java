@@ -19,70 +19,277 @@ package com.helger.phoss.smp.backend.sql;
 import java.io.Closeable;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Duration;
 
+import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.commons.string.StringHelper;
 import com.helger.db.jdbc.IHasDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 /**
  * The main data source provider, only instantiated from
- * {@link SMPDataSourceSingleton}.
+ * {@link SMPDataSourceSingleton}. The pool implementation and its settings are
+ * taken from {@link SMPJDBCConfiguration}. The time to acquire connections is
+ * measured.
  *
  * @author Philip Helger
  */
 public final class SMPDataSourceProvider implements IHasDataSource, Closeable
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPDataSourceProvider.class);
-  private final BasicDataSource m_aDataSource;
+
+  private final boolean m_bReadOnly;
+  private final EConnectionPoolType m_ePoolType;
+  // Either BasicDataSource or HikariDataSource
+  private final DataSource m_aPoolDataSource;
+  private final SMPConnectionAcquisitionStatistics m_aAcquisitionStats = new SMPConnectionAcquisitionStatistics ();
+  private final DataSource m_aDataSource;
 
   SMPDataSourceProvider ()
+  {
+    this (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bReadOnly
+   *        <code>true</code> to connect to the read-only replica configured
+   *        via <code>jdbc.readonly.*</code>, <code>false</code> to connect to
+   *        the primary database.
+   * @since 7.1.4
+   */
+  SMPDataSourceProvider (final boolean bReadOnly)
   {
     // build data source
     // This is usually only called once on startup and than the same
     // DataSource is reused during the entire lifetime
-    m_aDataSource = new BasicDataSource ();
-    m_aDataSource.setDriverClassName (SMPJDBCConfiguration.getJdbcDriver ());
-    final String sUserName = SMPJDBCConfiguration.getJdbcUser ();
+    m_bReadOnly = bReadOnly;
+    final String sUrl = bReadOnly ? SMPJDBCConfiguration.getJdbcReadOnlyUrl () : SMPJDBCConfiguration.getJdbcUrl ();
+    final String sUserName = bReadOnly ? SMPJDBCConfiguration.getJdbcReadOnlyUser ()
+                                       : SMPJDBCConfiguration.getJdbcUser ();
+    final String sPassword = bReadOnly ? SMPJDBCConfiguration.getJdbcReadOnlyPassword ()
+                                       : SMPJDBCConfiguration.getJdbcPassword ();
+    m_ePoolType = SMPJDBCConfiguration.getJdbcPoolType ();
+    switch (m_ePoolType)
+    {
+      case HIKARI:
+        m_aPoolDataSource = _createHikari (sUrl, sUserName, sPassword, bReadOnly);
+        break;
+      case DBCP2:
+      default:
+        m_aPoolDataSource = _createDBCP2 (sUrl, sUserName, sPassword, bReadOnly);
+        break;
+    }
+    m_aDataSource = new SMPInstrumentedDataSource (m_aPoolDataSource, m_aAcquisitionStats);
+
+    LOGGER.info ("Created new " +
+                 m_ePoolType.getDisplayName () +
+                 (bReadOnly ? " read-only" : "") +
+                 " DataSource " +
+                 m_aPoolDataSource);
+  }
+
+  @Nonnull
+  private static BasicDataSource _createDBCP2 (@Nullable final String sUrl,
+                                              @Nullable final String sUserName,
+                                              @Nullable final String sPassword,
+                                              final boolean bReadOnly)
+  {
+    final BasicDataSource ret = new BasicDataSource ();
+    ret.setDriverClassName (SMPJDBCConfiguration.getJdbcDriver ());
     if (sUserName != null)
-      m_aDataSource.setUsername (sUserName);
-    final String sPassword = SMPJDBCConfiguration.getJdbcPassword ();
+      ret.setUsername (sUserName);
     if (sPassword != null)
-      m_aDataSource.setPassword (sPassword);
-    m_aDataSource.setUrl (SMPJDBCConfiguration.getJdbcUrl ());
+      ret.setPassword (sPassword);
+    ret.setUrl (sUrl);
 
     // settings
-    m_aDataSource.setDefaultAutoCommit (Boolean.FALSE);
-    m_aDataSource.setPoolPreparedStatements (true);
+    ret.setDefaultAutoCommit (Boolean.FALSE);
+    if (bReadOnly)
+      ret.setDefaultReadOnly (Boolean.TRUE);
+    ret.setPoolPreparedStatements (true);
 
-    LOGGER.info ("Created new DataSource " + m_aDataSource);
+    // Pool sizing
+    ret.setMaxTotal (SMPJDBCConfiguration.getJdbcPoolMaxTotal ());
+    ret.setMaxIdle (SMPJDBCConfiguration.getJdbcPoolMaxIdle ());
+    ret.setMinIdle (SMPJDBCConfiguration.getJdbcPoolMinIdle ());
+    ret.setMaxWait (Duration.ofMillis (SMPJDBCConfiguration.getJdbcPoolMaxWaitMilliseconds ()));
+
+    // Validation
+    final String sValidationQuery = SMPJDBCConfiguration.getJdbcPoolValidationQuery ();
+    if (StringHelper.hasText (sValidationQuery))
+      ret.setValidationQuery (sValidationQuery);
+    ret.setValidationQueryTimeout (Duration.ofSeconds (SMPJDBCConfiguration.getJdbcPoolValidationTimeoutSeconds ()));
+    ret.setTestOnBorrow (SMPJDBCConfiguration.isJdbcPoolTestOnBorrow ());
+    ret.setTestWhileIdle (SMPJDBCConfiguration.isJdbcPoolTestWhileIdle ());
+
+    // Eviction
+    final long nEvictionIntervalMS = SMPJDBCConfiguration.getJdbcPoolEvictionIntervalMilliseconds ();
+    if (nEvictionIntervalMS > 0)
+      ret.setDurationBetweenEvictionRuns (Duration.ofMillis (nEvictionIntervalMS));
+    ret.setMinEvictableIdle (Duration.ofMillis (SMPJDBCConfiguration.getJdbcPoolMinEvictableIdleMilliseconds ()));
+    final long nMaxLifetimeMS = SMPJDBCConfiguration.getJdbcPoolMaxLifetimeMilliseconds ();
+    if (nMaxLifetimeMS > 0)
+      ret.setMaxConn (Duration.ofMillis (nMaxLifetimeMS));
+    return ret;
   }
 
   @Nonnull
-  public BasicDataSource getDataSource ()
+  private static HikariDataSource _createHikari (@Nullable final String sUrl,
+                                                 @Nullable final String sUserName,
+                                                 @Nullable final String sPassword,
+                                                 final boolean bReadOnly)
+  {
+    final HikariConfig aConfig = new HikariConfig ();
+    aConfig.setPoolName (bReadOnly ? "phoss-smp-readonly" : "phoss-smp");
+    aConfig.setDriverClassName (SMPJDBCConfiguration.getJdbcDriver ());
+    if (sUserName != null)
+      aConfig.setUsername (sUserName);
+    if (sPassword != null)
+      aConfig.setPassword (sPassword);
+    aConfig.setJdbcUrl (sUrl);
+
+    // settings
+    aConfig.setAutoCommit (false);
+    aConfig.setReadOnly (bReadOnly);
+    aConfig.setMaximumPoolSize (SMPJDBCConfiguration.getJdbcPoolMaxTotal ());
+    aConfig.setMinimumIdle (SMPJDBCConfiguration.getJdbcPoolMinIdle ());
+    aConfig.setConnectionTimeout (SMPJDBCConfiguration.getJdbcPoolMaxWaitMilliseconds ());
+    final String sValidationQuery = SMPJDBCConfiguration.getJdbcPoolValidationQuery ();
+    if (StringHelper.hasText (sValidationQuery))
+      aConfig.setConnectionTestQuery (sValidationQuery);
+    aConfig.setValidationTimeout (Duration.ofSeconds (SMPJDBCConfiguration.getJdbcPoolValidationTimeoutSeconds ())
+                                          .toMillis ());
+    aConfig.setIdleTimeout (SMPJDBCConfiguration.getJdbcPoolMinEvictableIdleMilliseconds ());
+    final long nMaxLifetimeMS = SMPJDBCConfiguration.getJdbcPoolMaxLifetimeMilliseconds ();
+    aConfig.setMaxLifetime (nMaxLifetimeMS > 0 ? nMaxLifetimeMS : 0);
+    aConfig.setRegisterMbeans (true);
+    return new HikariDataSource (aConfig);
+  }
+
+  /**
+   * @return The instrumented data source to be used. Never <code>null</code>.
+   */
+  @Nonnull
+  public DataSource getDataSource ()
   {
     return m_aDataSource;
   }
 
+  /**
+   * @return <code>true</code> if this provider connects to the read-only
+   *         replica, <code>false</code> if it connects to the primary.
+   * @since 7.1.4
+   */
+  public boolean isReadOnly ()
+  {
+    return m_bReadOnly;
+  }
+
+  /**
+   * @return The connection pool implementation in use. Never
+   *         <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public EConnectionPoolType getPoolType ()
+  {
+    return m_ePoolType;
+  }
+
+  /**
+   * @return The statistics on connection acquisition. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public SMPConnectionAcquisitionStatistics getAcquisitionStatistics ()
+  {
+    return m_aAcquisitionStats;
+  }
+
+  /**
+   * @return The maximum number of connections of the pool.
+   * @since 7.1.4
+   */
+  public int getMaxTotalConnectionCount ()
+  {
+    if (m_aPoolDataSource instanceof HikariDataSource)
+      return ((HikariDataSource) m_aPoolDataSource).getMaximumPoolSize ();
+    return ((BasicDataSource) m_aPoolDataSource).getMaxTotal ();
+  }
+
+  /**
+   * @return The number of connections currently in use or -1 if unknown.
+   * @since 7.1.4
+   */
+  @CheckForSigned
+  public int getActiveConnectionCount ()
+  {
+    if (m_aPoolDataSource instanceof HikariDataSource)
+    {
+      final HikariPoolMXBean aPool = ((HikariDataSource) m_aPoolDataSource).getHikariPoolMXBean ();
+      return aPool == null ? -1 : aPool.getActiveConnections ();
+    }
+    return ((BasicDataSource) m_aPoolDataSource).getNumActive ();
+  }
+
+  /**
+   * @return The number of idle connections in the pool or -1 if unknown.
+   * @since 7.1.4
+   */
+  @CheckForSigned
+  public int getIdleConnectionCount ()
+  {
+    if (m_aPoolDataSource instanceof HikariDataSource)
+    {
+      final HikariPoolMXBean aPool = ((HikariDataSource) m_aPoolDataSource).getHikariPoolMXBean ();
+      return aPool == null ? -1 : aPool.getIdleConnections ();
+    }
+    return ((BasicDataSource) m_aPoolDataSource).getNumIdle ();
+  }
+
   public void close () throws IOException
   {
+    if (m_aPoolDataSource instanceof HikariDataSource)
+    {
+      final HikariDataSource aHikariDS = (HikariDataSource) m_aPoolDataSource;
+      if (!aHikariDS.isClosed ())
+      {
+        if (LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Now closing DataSource");
+
+        aHikariDS.close ();
+        LOGGER.info ("Successfully closed DataSource");
+      }
+      return;
+    }
+
+    final BasicDataSource aBasicDS = (BasicDataSource) m_aPoolDataSource;
     try
     {
-      if (m_aDataSource != null && !m_aDataSource.isClosed ())
+      if (!aBasicDS.isClosed ())
       {
         if (LOGGER.isDebugEnabled ())
           LOGGER.debug ("Now closing DataSource");
 
-        m_aDataSource.close ();
+        aBasicDS.close ();
         LOGGER.info ("Successfully closed DataSource");
       }
     }
     catch (final SQLException ex)
     {
-      throw new IllegalStateException ("Failed to close DataSource " + m_aDataSource, ex);
+      throw new IllegalStateException ("Failed to close DataSource " + aBasicDS, ex);
     }
   }
 }
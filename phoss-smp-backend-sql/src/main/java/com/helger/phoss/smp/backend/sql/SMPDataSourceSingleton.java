@@ -17,6 +17,7 @@
 package com.helger.phoss.smp.backend.sql;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 import com.helger.commons.annotation.UsedViaReflection;
@@ -61,6 +62,8 @@ public final class SMPDataSourceSingleton extends AbstractGlobalSingleton
   }
 
   private final SMPDataSourceProvider m_aDSP = new SMPDataSourceProvider ();
+  private final SMPDataSourceProvider m_aReadOnlyDSP = SMPJDBCConfiguration.isJdbcReadOnlyEnabled () ? new SMPDataSourceProvider (true)
+                                                                                                    : null;
 
   /**
    * @deprecated Only called via reflection
@@ -79,7 +82,8 @@ public final class SMPDataSourceSingleton extends AbstractGlobalSingleton
   @Override
   protected void onBeforeDestroy (@Nonnull final IScope aScopeToBeDestroyed) throws Exception
   {
-    // Close the DataSource provider
+    // Close the DataSource providers
+    StreamHelper.close (m_aReadOnlyDSP);
     StreamHelper.close (m_aDSP);
   }
 
@@ -92,4 +96,27 @@ public final class SMPDataSourceSingleton extends AbstractGlobalSingleton
   {
     return m_aDSP;
   }
+
+  /**
+   * @return The DataSource provider of the read-only replica or
+   *         <code>null</code> if no replica is configured.
+   * @since 7.1.4
+   */
+  @Nullable
+  public SMPDataSourceProvider getReadOnlyDataSourceProvider ()
+  {
+    return m_aReadOnlyDSP;
+  }
+
+  /**
+   * @return The DataSource provider of the read-only replica if one is
+   *         configured, the one of the primary database otherwise. Never
+   *         <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public SMPDataSourceProvider getReadOnlyOrPrimaryDataSourceProvider ()
+  {
+    return m_aReadOnlyDSP != null ? m_aReadOnlyDSP : m_aDSP;
+  }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.timing.StopWatch;
+
+/**
+ * A {@link DataSource} wrapper that measures the time needed to acquire a
+ * connection from the underlying pool.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+final class SMPInstrumentedDataSource implements DataSource
+{
+  private final DataSource m_aDelegate;
+  private final SMPConnectionAcquisitionStatistics m_aStats;
+
+  SMPInstrumentedDataSource (@Nonnull final DataSource aDelegate,
+                             @Nonnull final SMPConnectionAcquisitionStatistics aStats)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aStats, "Stats");
+    m_aDelegate = aDelegate;
+    m_aStats = aStats;
+  }
+
+  @FunctionalInterface
+  private interface IConnectionSupplier
+  {
+    Connection get () throws SQLException;
+  }
+
+  @Nonnull
+  private Connection _acquire (@Nonnull final IConnectionSupplier aSupplier) throws SQLException
+  {
+    final StopWatch aSW = StopWatch.createdStarted ();
+    m_aStats.onAcquisitionStart ();
+    boolean bSuccess = false;
+    try
+    {
+      final Connection ret = aSupplier.get ();
+      bSuccess = ret != null;
+      return ret;
+    }
+    finally
+    {
+      m_aStats.onAcquisitionEnd (aSW.stopAndGetMillis (), bSuccess);
+    }
+  }
+
+  public Connection getConnection () throws SQLException
+  {
+    return _acquire (m_aDelegate::getConnection);
+  }
+
+  public Connection getConnection (final String sUsername, final String sPassword) throws SQLException
+  {
+    return _acquire ( () -> m_aDelegate.getConnection (sUsername, sPassword));
+  }
+
+  public PrintWriter getLogWriter () throws SQLException
+  {
+    return m_aDelegate.getLogWriter ();
+  }
+
+  public void setLogWriter (final PrintWriter aOut) throws SQLException
+  {
+    m_aDelegate.setLogWriter (aOut);
+  }
+
+  public void setLoginTimeout (final int nSeconds) throws SQLException
+  {
+    m_aDelegate.setLoginTimeout (nSeconds);
+  }
+
+  public int getLoginTimeout () throws SQLException
+  {
+    return m_aDelegate.getLoginTimeout ();
+  }
+
+  public Logger getParentLogger () throws SQLFeatureNotSupportedException
+  {
+    return m_aDelegate.getParentLogger ();
+  }
+
+  public <T> T unwrap (final Class <T> aClass) throws SQLException
+  {
+    if (aClass.isInstance (m_aDelegate))
+      return aClass.cast (m_aDelegate);
+    return m_aDelegate.unwrap (aClass);
+  }
+
+  public boolean isWrapperFor (final Class <?> aClass) throws SQLException
+  {
+    return aClass.isInstance (m_aDelegate) || m_aDelegate.isWrapperFor (aClass);
+  }
+}
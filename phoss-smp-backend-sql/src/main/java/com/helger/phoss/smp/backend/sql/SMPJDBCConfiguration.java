@@ -16,12 +16,14 @@
  */
 package com.helger.phoss.smp.backend.sql;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.annotation.Since;
+import com.helger.commons.string.StringHelper;
 import com.helger.config.IConfig;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.phoss.smp.config.SMPConfigProvider;
@@ -56,6 +58,26 @@ public final class SMPJDBCConfiguration
   @Since ("5.3.0")
   private static final String CONFIG_JDBC_CACHE_SG_ENABLED = "jdbc.cache.sg.enabled";
   private static final boolean DEFAULT_JDBC_CACHE_SG_ENABLED = true;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_CACHE_SG_MAX_ENTRIES = "jdbc.cache.sg.max-entries";
+  private static final int DEFAULT_JDBC_CACHE_SG_MAX_ENTRIES = 100_000;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_CACHE_SG_MAX_SIZE_MB = "jdbc.cache.sg.max-size-mb";
+  private static final long DEFAULT_JDBC_CACHE_SG_MAX_SIZE_MB = 64;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_CACHE_SG_TTL_SECONDS = "jdbc.cache.sg.ttl-seconds";
+  private static final long DEFAULT_JDBC_CACHE_SG_TTL_SECONDS = 60;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_CACHE_SG_INVALIDATION_TRANSPORT = "jdbc.cache.sg.invalidation.transport";
+  public static final String JDBC_CACHE_SG_INVALIDATION_TRANSPORT_JDBC = "jdbc";
+  public static final String JDBC_CACHE_SG_INVALIDATION_TRANSPORT_NONE = "none";
+  private static final String DEFAULT_JDBC_CACHE_SG_INVALIDATION_TRANSPORT = JDBC_CACHE_SG_INVALIDATION_TRANSPORT_JDBC;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_CACHE_SG_INVALIDATION_POLL_MS = "jdbc.cache.sg.invalidation.poll-ms";
+  private static final long DEFAULT_JDBC_CACHE_SG_INVALIDATION_POLL_MS = 500;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_CACHE_SG_INVALIDATION_RETENTION_SECONDS = "jdbc.cache.sg.invalidation.retention-seconds";
+  private static final long DEFAULT_JDBC_CACHE_SG_INVALIDATION_RETENTION_SECONDS = 3600;
   @Since ("5.3.0")
   private static final String CONFIG_JDBC_DEBUG_CONNECTIONS = "jdbc.debug.connections";
   private static final boolean DEFAULT_JDBC_DEBUG_CONNECTIONS = false;
@@ -66,6 +88,51 @@ public final class SMPJDBCConfiguration
   private static final String CONFIG_JDBC_DEBUG_SQL = "jdbc.debug.sql";
   private static final boolean DEFAULT_JDBC_DEBUG_SQL = false;
 
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_TYPE = "jdbc.pool.type";
+  private static final EConnectionPoolType DEFAULT_JDBC_POOL_TYPE = EConnectionPoolType.DBCP2;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_MAX_TOTAL = "jdbc.pool.max-total";
+  private static final int DEFAULT_JDBC_POOL_MAX_TOTAL = 20;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_MAX_IDLE = "jdbc.pool.max-idle";
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_MIN_IDLE = "jdbc.pool.min-idle";
+  private static final int DEFAULT_JDBC_POOL_MIN_IDLE = 2;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_MAX_WAIT_MS = "jdbc.pool.max-wait-ms";
+  private static final long DEFAULT_JDBC_POOL_MAX_WAIT_MS = 10_000;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_VALIDATION_QUERY = "jdbc.pool.validation-query";
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_VALIDATION_TIMEOUT_SECONDS = "jdbc.pool.validation-timeout-seconds";
+  private static final int DEFAULT_JDBC_POOL_VALIDATION_TIMEOUT_SECONDS = 5;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_TEST_ON_BORROW = "jdbc.pool.test-on-borrow";
+  private static final boolean DEFAULT_JDBC_POOL_TEST_ON_BORROW = true;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_TEST_WHILE_IDLE = "jdbc.pool.test-while-idle";
+  private static final boolean DEFAULT_JDBC_POOL_TEST_WHILE_IDLE = true;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_EVICTION_INTERVAL_MS = "jdbc.pool.eviction-interval-ms";
+  private static final long DEFAULT_JDBC_POOL_EVICTION_INTERVAL_MS = 60_000;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_MIN_EVICTABLE_IDLE_MS = "jdbc.pool.min-evictable-idle-ms";
+  private static final long DEFAULT_JDBC_POOL_MIN_EVICTABLE_IDLE_MS = 600_000;
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_POOL_MAX_LIFETIME_MS = "jdbc.pool.max-lifetime-ms";
+  private static final long DEFAULT_JDBC_POOL_MAX_LIFETIME_MS = 1_800_000;
+
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_READONLY_URL = "jdbc.readonly.url";
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_READONLY_USER = "jdbc.readonly.user";
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_READONLY_PASSWORD = "jdbc.readonly.password";
+  @Since ("7.1.4")
+  private static final String CONFIG_JDBC_READONLY_PRIMARY_AFTER_WRITE_MS = "jdbc.readonly.primary-after-write-ms";
+  private static final long DEFAULT_JDBC_READONLY_PRIMARY_AFTER_WRITE_MS = 5_000;
+
   private static final String CONFIG_SMP_STATUS_SQL_ENABLED = "smp.status.sql.enabled";
   private static final boolean DEFAULT_SMP_STATUS_SQL_ENABLED = true;
 
@@ -139,6 +206,83 @@ public final class SMPJDBCConfiguration
     return _getConfig ().getAsBoolean (CONFIG_JDBC_CACHE_SG_ENABLED, DEFAULT_JDBC_CACHE_SG_ENABLED);
   }
 
+  /**
+   * @return The maximum number of service groups in the cache. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getJdbcServiceGroupCacheMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (CONFIG_JDBC_CACHE_SG_MAX_ENTRIES, DEFAULT_JDBC_CACHE_SG_MAX_ENTRIES);
+    return ret > 0 ? ret : DEFAULT_JDBC_CACHE_SG_MAX_ENTRIES;
+  }
+
+  /**
+   * @return The maximum estimated size of the service group cache in bytes.
+   *         Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getJdbcServiceGroupCacheMaxSizeBytes ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_CACHE_SG_MAX_SIZE_MB, DEFAULT_JDBC_CACHE_SG_MAX_SIZE_MB);
+    return (ret > 0 ? ret : DEFAULT_JDBC_CACHE_SG_MAX_SIZE_MB) * 1024 * 1024;
+  }
+
+  /**
+   * @return The number of seconds after which a service group cache entry
+   *         expires. This is the upper bound for stale reads, if an
+   *         invalidation of another node gets lost. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getJdbcServiceGroupCacheTTLSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_CACHE_SG_TTL_SECONDS, DEFAULT_JDBC_CACHE_SG_TTL_SECONDS);
+    return ret > 0 ? ret : DEFAULT_JDBC_CACHE_SG_TTL_SECONDS;
+  }
+
+  /**
+   * @return The transport to distribute service group cache invalidations
+   *         between nodes. Either {@link #JDBC_CACHE_SG_INVALIDATION_TRANSPORT_JDBC},
+   *         {@link #JDBC_CACHE_SG_INVALIDATION_TRANSPORT_NONE} or the fully
+   *         qualified name of a class implementing
+   *         <code>ISMPCacheInvalidationTransport</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public static String getJdbcServiceGroupCacheInvalidationTransport ()
+  {
+    return _getConfig ().getAsString (CONFIG_JDBC_CACHE_SG_INVALIDATION_TRANSPORT,
+                                      DEFAULT_JDBC_CACHE_SG_INVALIDATION_TRANSPORT);
+  }
+
+  /**
+   * @return The interval in milliseconds in which the database change log is
+   *         polled for changes of other nodes. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getJdbcServiceGroupCacheInvalidationPollMilliseconds ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_CACHE_SG_INVALIDATION_POLL_MS,
+                                              DEFAULT_JDBC_CACHE_SG_INVALIDATION_POLL_MS);
+    return ret > 0 ? ret : DEFAULT_JDBC_CACHE_SG_INVALIDATION_POLL_MS;
+  }
+
+  /**
+   * @return The number of seconds after which database change log entries are
+   *         deleted. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getJdbcServiceGroupCacheInvalidationRetentionSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_CACHE_SG_INVALIDATION_RETENTION_SECONDS,
+                                              DEFAULT_JDBC_CACHE_SG_INVALIDATION_RETENTION_SECONDS);
+    return ret > 0 ? ret : DEFAULT_JDBC_CACHE_SG_INVALIDATION_RETENTION_SECONDS;
+  }
+
   public static boolean isJdbcDebugConnections ()
   {
     return _getConfig ().getAsBoolean (CONFIG_JDBC_DEBUG_CONNECTIONS, DEFAULT_JDBC_DEBUG_CONNECTIONS);
@@ -154,6 +298,203 @@ public final class SMPJDBCConfiguration
     return _getConfig ().getAsBoolean (CONFIG_JDBC_DEBUG_SQL, DEFAULT_JDBC_DEBUG_SQL);
   }
 
+  /**
+   * @return The connection pool implementation to use. Never
+   *         <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public static EConnectionPoolType getJdbcPoolType ()
+  {
+    final String sPoolType = _getConfig ().getAsString (CONFIG_JDBC_POOL_TYPE);
+    if (sPoolType == null)
+      return DEFAULT_JDBC_POOL_TYPE;
+    final EConnectionPoolType ret = EConnectionPoolType.getFromCaseIDInsensitiveOrNull (sPoolType);
+    if (ret == null)
+      throw new IllegalStateException ("Unsupported connection pool type '" + sPoolType + "' provided");
+    return ret;
+  }
+
+  /**
+   * @return The maximum number of connections in the pool. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getJdbcPoolMaxTotal ()
+  {
+    final int ret = _getConfig ().getAsInt (CONFIG_JDBC_POOL_MAX_TOTAL, DEFAULT_JDBC_POOL_MAX_TOTAL);
+    return ret > 0 ? ret : DEFAULT_JDBC_POOL_MAX_TOTAL;
+  }
+
+  /**
+   * @return The maximum number of idle connections in the pool. Defaults to
+   *         the maximum total. Only used by DBCP2.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getJdbcPoolMaxIdle ()
+  {
+    final int nMaxTotal = getJdbcPoolMaxTotal ();
+    final int ret = _getConfig ().getAsInt (CONFIG_JDBC_POOL_MAX_IDLE, nMaxTotal);
+    return ret >= 0 ? Math.min (ret, nMaxTotal) : nMaxTotal;
+  }
+
+  /**
+   * @return The minimum number of idle connections kept in the pool.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getJdbcPoolMinIdle ()
+  {
+    final int ret = _getConfig ().getAsInt (CONFIG_JDBC_POOL_MIN_IDLE, DEFAULT_JDBC_POOL_MIN_IDLE);
+    return ret >= 0 ? Math.min (ret, getJdbcPoolMaxTotal ()) : DEFAULT_JDBC_POOL_MIN_IDLE;
+  }
+
+  /**
+   * @return The maximum number of milliseconds to wait for a free connection
+   *         before an error is raised. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getJdbcPoolMaxWaitMilliseconds ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_POOL_MAX_WAIT_MS, DEFAULT_JDBC_POOL_MAX_WAIT_MS);
+    return ret > 0 ? ret : DEFAULT_JDBC_POOL_MAX_WAIT_MS;
+  }
+
+  /**
+   * @return The SQL query used to validate connections. If <code>null</code>
+   *         the JDBC 4 <code>Connection.isValid</code> method is used.
+   * @since 7.1.4
+   */
+  @Nullable
+  public static String getJdbcPoolValidationQuery ()
+  {
+    return _getConfig ().getAsString (CONFIG_JDBC_POOL_VALIDATION_QUERY);
+  }
+
+  /**
+   * @return The maximum number of seconds a connection validation may take.
+   *         Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getJdbcPoolValidationTimeoutSeconds ()
+  {
+    final int ret = _getConfig ().getAsInt (CONFIG_JDBC_POOL_VALIDATION_TIMEOUT_SECONDS,
+                                            DEFAULT_JDBC_POOL_VALIDATION_TIMEOUT_SECONDS);
+    return ret > 0 ? ret : DEFAULT_JDBC_POOL_VALIDATION_TIMEOUT_SECONDS;
+  }
+
+  /**
+   * @return <code>true</code> if connections should be validated before they
+   *         are handed out. Only used by DBCP2 - HikariCP always validates.
+   * @since 7.1.4
+   */
+  public static boolean isJdbcPoolTestOnBorrow ()
+  {
+    return _getConfig ().getAsBoolean (CONFIG_JDBC_POOL_TEST_ON_BORROW, DEFAULT_JDBC_POOL_TEST_ON_BORROW);
+  }
+
+  /**
+   * @return <code>true</code> if idle connections should be validated by the
+   *         evictor. Only used by DBCP2.
+   * @since 7.1.4
+   */
+  public static boolean isJdbcPoolTestWhileIdle ()
+  {
+    return _getConfig ().getAsBoolean (CONFIG_JDBC_POOL_TEST_WHILE_IDLE, DEFAULT_JDBC_POOL_TEST_WHILE_IDLE);
+  }
+
+  /**
+   * @return The interval in milliseconds in which idle connections are
+   *         checked. Values &le; 0 disable the eviction. Only used by DBCP2.
+   * @since 7.1.4
+   */
+  public static long getJdbcPoolEvictionIntervalMilliseconds ()
+  {
+    return _getConfig ().getAsLong (CONFIG_JDBC_POOL_EVICTION_INTERVAL_MS, DEFAULT_JDBC_POOL_EVICTION_INTERVAL_MS);
+  }
+
+  /**
+   * @return The number of milliseconds after which an idle connection may be
+   *         closed. Always &gt; 0.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getJdbcPoolMinEvictableIdleMilliseconds ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_POOL_MIN_EVICTABLE_IDLE_MS,
+                                              DEFAULT_JDBC_POOL_MIN_EVICTABLE_IDLE_MS);
+    return ret > 0 ? ret : DEFAULT_JDBC_POOL_MIN_EVICTABLE_IDLE_MS;
+  }
+
+  /**
+   * @return The maximum lifetime of a connection in milliseconds. Values &le;
+   *         0 mean unlimited.
+   * @since 7.1.4
+   */
+  public static long getJdbcPoolMaxLifetimeMilliseconds ()
+  {
+    return _getConfig ().getAsLong (CONFIG_JDBC_POOL_MAX_LIFETIME_MS, DEFAULT_JDBC_POOL_MAX_LIFETIME_MS);
+  }
+
+  /**
+   * @return The JDBC URL of the read-only replica or <code>null</code> if no
+   *         replica is configured.
+   * @since 7.1.4
+   */
+  @Nullable
+  public static String getJdbcReadOnlyUrl ()
+  {
+    return _getConfig ().getAsString (CONFIG_JDBC_READONLY_URL);
+  }
+
+  /**
+   * @return <code>true</code> if a read-only replica is configured and read
+   *         operations should be routed to it.
+   * @since 7.1.4
+   */
+  public static boolean isJdbcReadOnlyEnabled ()
+  {
+    return StringHelper.hasText (getJdbcReadOnlyUrl ());
+  }
+
+  /**
+   * @return The user name for the read-only replica. Falls back to
+   *         {@link #getJdbcUser()} if not configured.
+   * @since 7.1.4
+   */
+  @Nullable
+  public static String getJdbcReadOnlyUser ()
+  {
+    return _getConfig ().getAsString (CONFIG_JDBC_READONLY_USER, getJdbcUser ());
+  }
+
+  /**
+   * @return The password for the read-only replica. Falls back to
+   *         {@link #getJdbcPassword()} if not configured.
+   * @since 7.1.4
+   */
+  @Nullable
+  public static String getJdbcReadOnlyPassword ()
+  {
+    return _getConfig ().getAsString (CONFIG_JDBC_READONLY_PASSWORD, getJdbcPassword ());
+  }
+
+  /**
+   * @return The number of milliseconds after a local write, in which all reads
+   *         are still performed on the primary database, to cover the
+   *         replication lag. Always &ge; 0.
+   * @since 7.1.4
+   */
+  public static long getJdbcReadOnlyPrimaryAfterWriteMilliseconds ()
+  {
+    final long ret = _getConfig ().getAsLong (CONFIG_JDBC_READONLY_PRIMARY_AFTER_WRITE_MS,
+                                              DEFAULT_JDBC_READONLY_PRIMARY_AFTER_WRITE_MS);
+    return ret >= 0 ? ret : DEFAULT_JDBC_READONLY_PRIMARY_AFTER_WRITE_MS;
+  }
+
   public static boolean isStatusEnabled ()
   {
     return _getConfig ().getAsBoolean (CONFIG_SMP_STATUS_SQL_ENABLED, DEFAULT_SMP_STATUS_SQL_ENABLED);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.annotation.PresentForCodeCoverage;
+
+/**
+ * SQL helper methods that are independent of a specific table.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@Immutable
+public final class SMPSQLHelper
+{
+  @PresentForCodeCoverage
+  private static final SMPSQLHelper INSTANCE = new SMPSQLHelper ();
+
+  private SMPSQLHelper ()
+  {}
+
+  /**
+   * Create a case insensitive "contains" pattern for a <code>LIKE</code>
+   * comparison against a lower case value. The pattern must be used together
+   * with <code>ESCAPE '!'</code>.<br>
+   * Note: because of the leading wildcard, such a comparison cannot use a
+   * B-tree index and always scans the table. This is acceptable for the
+   * filtering of the UI lists, but must not be used on the hot path.
+   *
+   * @param sFilter
+   *        The filter text. May not be <code>null</code>.
+   * @return The pattern to be used as a statement parameter. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static String getLikeContainsPattern (@Nonnull final String sFilter)
+  {
+    return "%" +
+           sFilter.toLowerCase (Locale.ROOT).replace ("!", "!!").replace ("%", "!%").replace ("_", "!_") +
+           "%";
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.audit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.type.ObjectType;
+import com.helger.commons.wrapper.Wrapper;
+import com.helger.db.api.helper.DBValueHelper;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.executor.DBResultRow;
+import com.helger.phoss.smp.audit.ESMPAuditDurability;
+import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.phoss.smp.audit.SMPAuditItemQueue;
+import com.helger.photon.audit.AuditItem;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditActionStringProvider;
+import com.helger.photon.audit.IAuditItem;
+import com.helger.photon.audit.IAuditor;
+import com.helger.security.authentication.subject.user.CUserID;
+import com.helger.security.authentication.subject.user.ICurrentUserIDProvider;
+
+/**
+ * A special implementation of {@link IAuditor} writing data to the SQL table
+ * <code>smp_audit</code>. Depending on the configured
+ * {@link ESMPAuditDurability} the audit items are written immediately or
+ * queued and written in batches, each in a single transaction.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPAuditorJDBC implements IAuditor
+{
+  private final Supplier <? extends DBExecutor> m_aDBExecSupplier;
+  private final String m_sTableName;
+  private final ICurrentUserIDProvider m_aCurrentUserIDProvider;
+  private final SMPAuditItemQueue m_aQueue;
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aTableNameCustomizer
+   *        A customizer for database table names used by this class. May not
+   *        be <code>null</code>.
+   * @param aCurrentUserIDProvider
+   *        The current user ID provider. May not be <code>null</code>.
+   */
+  public SMPAuditorJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                         @Nonnull final Function <String, String> aTableNameCustomizer,
+                         @Nonnull final ICurrentUserIDProvider aCurrentUserIDProvider)
+  {
+    ValueEnforcer.notNull (aDBExecSupplier, "DBExecSupplier");
+    ValueEnforcer.notNull (aTableNameCustomizer, "TableNameCustomizer");
+    m_aDBExecSupplier = aDBExecSupplier;
+    m_sTableName = aTableNameCustomizer.apply ("audit");
+    m_aCurrentUserIDProvider = ValueEnforcer.notNull (aCurrentUserIDProvider, "UserIDProvider");
+    m_aQueue = SMPAuditItemQueue.createFromConfiguration ("sql", this::_writeBatch);
+  }
+
+  private void _insert (@Nonnull final DBExecutor aExecutor, @Nonnull final IAuditItem aItem)
+  {
+    final long nCreated = aExecutor.insertOrUpdateOrDelete ("INSERT INTO " +
+                                                            m_sTableName +
+                                                            " (dt, userid, actiontype, success, action) VALUES (?, ?, ?, ?, ?)",
+                                                            new ConstantPreparedStatementDataProvider (DBValueHelper.toTimestamp (aItem.getDateTime ()),
+                                                                                                       aItem.getUserID (),
+                                                                                                       aItem.getTypeID (),
+                                                                                                       Boolean.valueOf (aItem.isSuccess ()),
+                                                                                                       aItem.getAction ()));
+    if (nCreated != 1)
+      throw new IllegalStateException ("Failed to insert audit item into " + m_sTableName);
+  }
+
+  private void _writeBatch (@Nonnull final ICommonsList <IAuditItem> aItems)
+  {
+    final DBExecutor aExecutor = m_aDBExecSupplier.get ();
+    if (aItems.size () == 1)
+    {
+      // No transaction needed for a single item (synchronous mode)
+      _insert (aExecutor, aItems.getFirstOrNull ());
+      return;
+    }
+
+    // One transaction for the whole batch - an exception rolls it back
+    final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
+      for (final IAuditItem aItem : aItems)
+        _insert (aExecutor, aItem);
+    });
+    if (eSuccess.isFailure ())
+      throw new IllegalStateException ("Failed to insert " + aItems.size () + " audit item(s) into " + m_sTableName);
+  }
+
+  /**
+   * @return The queue used to write the audit items. Never <code>null</code>.
+   */
+  @Nonnull
+  public SMPAuditItemQueue getAuditItemQueue ()
+  {
+    return m_aQueue;
+  }
+
+  public void createAuditItem (@Nonnull final EAuditActionType eActionType,
+                               @Nonnull final ESuccess eSuccess,
+                               @Nullable final ObjectType aActionObjectType,
+                               @Nullable final String sAction,
+                               @Nullable final Object... aArgs)
+  {
+    final String sUserID = StringHelper.getNotEmpty (m_aCurrentUserIDProvider.getCurrentUserID (),
+                                                     CUserID.USER_ID_GUEST);
+    final String sFullAction = IAuditActionStringProvider.JSON.apply (aActionObjectType != null ? aActionObjectType.getName ()
+                                                                                                : sAction,
+                                                                      aArgs);
+    final IAuditItem aAuditItem = new AuditItem (sUserID, eActionType, eSuccess, sFullAction);
+
+    m_aQueue.add (aAuditItem);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IAuditItem> getLastAuditItems (@Nonnegative final int nMaxItems)
+  {
+    ValueEnforcer.isGT0 (nMaxItems, "MaxItems");
+
+    // Read backwards along the index on "dt"
+    final EDatabaseType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    eDBType.addPagingParameters (aParams, 0, nMaxItems);
+
+    final ICommonsList <IAuditItem> ret = new CommonsArrayList <> ();
+    m_aDBExecSupplier.get ()
+                     .queryAll ("SELECT dt, userid, actiontype, success, action FROM " +
+                                m_sTableName +
+                                " ORDER BY dt DESC" +
+                                eDBType.getPagingClause (),
+                                new ConstantPreparedStatementDataProvider (aParams.toArray ()),
+                                aRow -> ret.add (new AuditItem (aRow.getAsLocalDateTime (0),
+                                                                aRow.getAsString (1),
+                                                                EAuditActionType.getFromIDOrNull (aRow.getAsString (2)),
+                                                                ESuccess.valueOf (aRow.getAsBoolean (3, false)),
+                                                                aRow.getAsString (4))));
+    return ret;
+  }
+
+  @Nullable
+  public LocalDate getEarliestAuditDate ()
+  {
+    // Uses the index on "dt"
+    final Wrapper <DBResultRow> aResult = new Wrapper <> ();
+    m_aDBExecSupplier.get ().querySingle ("SELECT MIN(dt) FROM " + m_sTableName, aResult::set);
+    // MIN of an empty table is NULL
+    final LocalDateTime aDT = aResult.isSet () ? aResult.get ().getAsLocalDateTime (0) : null;
+    return aDT == null ? null : aDT.toLocalDate ();
+  }
+}
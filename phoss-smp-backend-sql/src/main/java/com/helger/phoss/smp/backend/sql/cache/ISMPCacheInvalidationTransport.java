@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.cache;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.annotation.Nonempty;
+
+/**
+ * A transport that distributes cache invalidations between all SMP nodes that
+ * share the same database. Each node publishes the IDs of the changed objects
+ * and receives the IDs changed by the other nodes. Implementations must have a
+ * public no-argument constructor, if they should be configured via
+ * <code>jdbc.cache.sg.invalidation.transport</code>.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public interface ISMPCacheInvalidationTransport
+{
+  /**
+   * Start receiving the invalidations of the other nodes.
+   *
+   * @param aInvalidationHandler
+   *        The handler to be invoked with the ID of each object changed by
+   *        another node. May not be <code>null</code>.
+   */
+  void start (@Nonnull Consumer <String> aInvalidationHandler);
+
+  /**
+   * Publish the change of an object to all other nodes. This is called after
+   * the change was committed. Errors must be handled internally - the cache
+   * entries of the other nodes expire in any case.
+   *
+   * @param sID
+   *        The ID of the changed object. May neither be <code>null</code> nor
+   *        empty.
+   */
+  void publishInvalidation (@Nonnull @Nonempty String sID);
+
+  /**
+   * Stop receiving invalidations and release all resources.
+   */
+  void stop ();
+}
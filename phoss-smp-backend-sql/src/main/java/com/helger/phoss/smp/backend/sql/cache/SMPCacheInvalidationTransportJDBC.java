@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.cache;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsTreeSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSortedSet;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.wrapper.Wrapper;
+import com.helger.db.api.helper.DBValueHelper;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.executor.DBResultRow;
+import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
+import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
+import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
+
+/**
+ * The default {@link ISMPCacheInvalidationTransport} that uses the change log
+ * table <code>smp_sg_changelog</code> of the shared database. Each change is
+ * inserted with a monotonically increasing ID and all nodes poll for entries
+ * with a higher ID than the last one they have seen. Entries created by the
+ * node itself are ignored. Because IDs of concurrent transactions may become
+ * visible out of order, each poll re-reads a small window of already seen IDs.
+ * The IDs dispatched within that window are remembered, so that each entry is
+ * dispatched only once. Old entries are deleted regularly.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public class SMPCacheInvalidationTransportJDBC extends AbstractJDBCEnabledManager implements
+                                               ISMPCacheInvalidationTransport
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPCacheInvalidationTransportJDBC.class);
+
+  /** The number of already seen IDs that are read again in each poll */
+  private static final long SEQUENCE_LOOKBACK = 64;
+  /** Delete outdated entries every n polls */
+  private static final int CLEANUP_EVERY_N_POLLS = 1000;
+
+  private final String m_sNodeID = UUID.randomUUID ().toString ();
+  private final long m_nPollMillis;
+  private final long m_nRetentionSeconds;
+
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  @GuardedBy ("m_aRWLock")
+  private ScheduledExecutorService m_aExecSvc;
+  // Only accessed from the polling thread
+  private long m_nLastSeenID = 0;
+  private int m_nPollCount = 0;
+  // The handled IDs within the lookback window
+  private final ICommonsSortedSet <Long> m_aHandledIDs = new CommonsTreeSet <> ();
+
+  private final AtomicLong m_aPublished = new AtomicLong (0);
+  private final AtomicLong m_aReceived = new AtomicLong (0);
+  private final AtomicLong m_aErrors = new AtomicLong (0);
+
+  /**
+   * Default constructor using the configuration values and the default
+   * {@link SMPDBExecutor}.
+   */
+  public SMPCacheInvalidationTransportJDBC ()
+  {
+    this (SMPDBExecutor::new,
+          SMPJDBCConfiguration.getJdbcServiceGroupCacheInvalidationPollMilliseconds (),
+          SMPJDBCConfiguration.getJdbcServiceGroupCacheInvalidationRetentionSeconds ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param nPollMillis
+   *        The polling interval in milliseconds. Must be &gt; 0.
+   * @param nRetentionSeconds
+   *        The number of seconds after which change log entries are deleted.
+   *        Must be &gt; 0.
+   */
+  public SMPCacheInvalidationTransportJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                            @Nonnegative final long nPollMillis,
+                                            @Nonnegative final long nRetentionSeconds)
+  {
+    super (aDBExecSupplier);
+    ValueEnforcer.isGT0 (nPollMillis, "PollMillis");
+    ValueEnforcer.isGT0 (nRetentionSeconds, "RetentionSeconds");
+    m_nPollMillis = nPollMillis;
+    m_nRetentionSeconds = nRetentionSeconds;
+  }
+
+  /**
+   * @return The unique ID of this node, as used in the change log. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public final String getNodeID ()
+  {
+    return m_sNodeID;
+  }
+
+  /**
+   * @return The smallest ID that needs to be read in the next poll.
+   */
+  @Nonnegative
+  final long getPollStartID ()
+  {
+    return Math.max (0, m_nLastSeenID - SEQUENCE_LOOKBACK);
+  }
+
+  /**
+   * Handle a single change log entry read in a poll.
+   *
+   * @param nID
+   *        The change log ID.
+   * @param sPID
+   *        The ID of the changed service group. May not be <code>null</code>.
+   * @param sNodeID
+   *        The ID of the node that created the entry. May be
+   *        <code>null</code>.
+   * @param aInvalidationHandler
+   *        The handler to be invoked for changes of other nodes. May not be
+   *        <code>null</code>.
+   * @return <code>true</code> if the handler was invoked, <code>false</code> if
+   *         the entry was handled before or was created by this node.
+   */
+  final boolean handleChangeLogEntry (final long nID,
+                                      @Nonnull final String sPID,
+                                      @Nullable final String sNodeID,
+                                      @Nonnull final Consumer <String> aInvalidationHandler)
+  {
+    if (nID > m_nLastSeenID)
+      m_nLastSeenID = nID;
+
+    // Already handled in a previous poll?
+    if (!m_aHandledIDs.add (Long.valueOf (nID)))
+      return false;
+
+    if (m_sNodeID.equals (sNodeID))
+      return false;
+
+    aInvalidationHandler.accept (sPID);
+    m_aReceived.incrementAndGet ();
+    return true;
+  }
+
+  /**
+   * Forget all handled IDs that are outside of the lookback window, as they
+   * will not be read again.
+   */
+  final void pruneHandledIDs ()
+  {
+    m_aHandledIDs.headSet (Long.valueOf (getPollStartID () + 1)).clear ();
+  }
+
+  /**
+   * @return The number of remembered handled IDs. For testing only.
+   */
+  @Nonnegative
+  final int getHandledIDCount ()
+  {
+    return m_aHandledIDs.size ();
+  }
+
+  private void _poll (@Nonnull final Consumer <String> aInvalidationHandler)
+  {
+    try
+    {
+      final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT id, pid, nodeid FROM smp_sg_changelog WHERE id>? ORDER BY id",
+                                                                           new ConstantPreparedStatementDataProvider (Long.valueOf (getPollStartID ())));
+      if (aDBResult != null)
+        for (final DBResultRow aRow : aDBResult)
+          handleChangeLogEntry (aRow.getAsLong (0), aRow.getAsString (1), aRow.getAsString (2), aInvalidationHandler);
+      pruneHandledIDs ();
+
+      if (++m_nPollCount % CLEANUP_EVERY_N_POLLS == 0)
+      {
+        final LocalDateTime aThreshold = PDTFactory.getCurrentLocalDateTime ().minusSeconds (m_nRetentionSeconds);
+        final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM smp_sg_changelog WHERE changedt<?",
+                                                                     new ConstantPreparedStatementDataProvider (DBValueHelper.toTimestamp (aThreshold)));
+        if (nDeleted > 0 && LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Deleted " + nDeleted + " outdated Service Group change log entries");
+      }
+    }
+    catch (final RuntimeException ex)
+    {
+      // Never let the scheduled task die
+      m_aErrors.incrementAndGet ();
+      LOGGER.error ("Error polling the Service Group change log", ex);
+    }
+  }
+
+  public void start (@Nonnull final Consumer <String> aInvalidationHandler)
+  {
+    ValueEnforcer.notNull (aInvalidationHandler, "InvalidationHandler");
+
+    m_aRWLock.writeLocked ( () -> {
+      if (m_aExecSvc != null)
+        throw new IllegalStateException ("The transport was already started");
+
+      // Start with the current state - everything older is irrelevant
+      final Wrapper <DBResultRow> aResult = new Wrapper <> ();
+      newExecutor ().querySingle ("SELECT MAX(id) FROM smp_sg_changelog", aResult::set);
+      // MAX of an empty table is NULL
+      final Object aMaxID = aResult.isSet () ? aResult.get ().getValue (0) : null;
+      m_nLastSeenID = aMaxID instanceof Number ? ((Number) aMaxID).longValue () : 0;
+      m_aHandledIDs.clear ();
+
+      m_aExecSvc = Executors.newSingleThreadScheduledExecutor (r -> {
+        final Thread aThread = new Thread (r, "smp-sg-cache-invalidation");
+        aThread.setDaemon (true);
+        return aThread;
+      });
+      m_aExecSvc.scheduleWithFixedDelay ( () -> _poll (aInvalidationHandler),
+                                          m_nPollMillis,
+                                          m_nPollMillis,
+                                          TimeUnit.MILLISECONDS);
+    });
+    LOGGER.info ("Started Service Group cache invalidation via the database change log as node '" +
+                 m_sNodeID +
+                 "' polling every " +
+                 m_nPollMillis +
+                 " ms");
+  }
+
+  public void publishInvalidation (@Nonnull @Nonempty final String sID)
+  {
+    ValueEnforcer.notEmpty (sID, "ID");
+
+    final long nCount = newExecutor ().insertOrUpdateOrDelete ("INSERT INTO smp_sg_changelog (pid, nodeid, changedt) VALUES (?, ?, ?)",
+                                                               new ConstantPreparedStatementDataProvider (sID,
+                                                                                                          m_sNodeID,
+                                                                                                          DBValueHelper.toTimestamp (PDTFactory.getCurrentLocalDateTime ())));
+    if (nCount == 1)
+      m_aPublished.incrementAndGet ();
+    else
+    {
+      m_aErrors.incrementAndGet ();
+      LOGGER.warn ("Failed to publish the change of Service Group '" +
+                   sID +
+                   "' to the other nodes. Their cache entries expire regularly.");
+    }
+  }
+
+  public void stop ()
+  {
+    final ScheduledExecutorService aExecSvc = m_aRWLock.writeLockedGet ( () -> {
+      final ScheduledExecutorService ret = m_aExecSvc;
+      m_aExecSvc = null;
+      return ret;
+    });
+    if (aExecSvc != null)
+    {
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecSvc);
+      LOGGER.info ("Stopped Service Group cache invalidation via the database change log");
+    }
+  }
+
+  /**
+   * @return The number of invalidations published by this node.
+   */
+  @Nonnegative
+  public long getPublishedCount ()
+  {
+    return m_aPublished.get ();
+  }
+
+  /**
+   * @return The number of invalidations received from other nodes.
+   */
+  @Nonnegative
+  public long getReceivedCount ()
+  {
+    return m_aReceived.get ();
+  }
+
+  /**
+   * @return The number of errors publishing or polling.
+   */
+  @Nonnegative
+  public long getErrorCount ()
+  {
+    return m_aErrors.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("NodeID", m_sNodeID)
+                                       .append ("PollMillis", m_nPollMillis)
+                                       .append ("RetentionSeconds", m_nRetentionSeconds)
+                                       .getToString ();
+  }
+}
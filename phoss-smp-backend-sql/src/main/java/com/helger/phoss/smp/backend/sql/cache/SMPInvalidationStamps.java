@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Invalidation stamps per cache key. A stamp is retrieved before a value is
+ * read from the database, and the value may only be cached if the stamp of the
+ * key is still the same afterwards. The stamps are kept in a fixed number of
+ * stripes selected by the hash code of the key, so that the memory usage is
+ * constant and an invalidation only affects the concurrent reads of the keys in
+ * the same stripe.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+final class SMPInvalidationStamps
+{
+  /** The number of stripes. Must be a power of 2. */
+  static final int STRIPES = 256;
+
+  private final AtomicLongArray m_aStamps = new AtomicLongArray (STRIPES);
+
+  @Nonnegative
+  static int getStripe (@Nonnull final String sKey)
+  {
+    final int nHash = sKey.hashCode ();
+    return (nHash ^ (nHash >>> 16)) & (STRIPES - 1);
+  }
+
+  /**
+   * @param sKey
+   *        The cache key. May not be <code>null</code>.
+   * @return The current stamp of the key.
+   */
+  long getStamp (@Nonnull final String sKey)
+  {
+    return m_aStamps.get (getStripe (sKey));
+  }
+
+  /**
+   * @param sKey
+   *        The cache key. May not be <code>null</code>.
+   * @param nStamp
+   *        The stamp retrieved via {@link #getStamp(String)}.
+   * @return <code>true</code> if the key was not invalidated since the stamp
+   *         was retrieved.
+   */
+  boolean isCurrent (@Nonnull final String sKey, final long nStamp)
+  {
+    return m_aStamps.get (getStripe (sKey)) == nStamp;
+  }
+
+  /**
+   * Invalidate all stamps retrieved for the provided key so far.
+   *
+   * @param sKey
+   *        The cache key. May not be <code>null</code>.
+   */
+  void invalidate (@Nonnull final String sKey)
+  {
+    m_aStamps.incrementAndGet (getStripe (sKey));
+  }
+
+  /**
+   * Invalidate all stamps retrieved so far.
+   */
+  void invalidateAll ()
+  {
+    for (int i = 0; i < STRIPES; ++i)
+      m_aStamps.incrementAndGet (i);
+  }
+}
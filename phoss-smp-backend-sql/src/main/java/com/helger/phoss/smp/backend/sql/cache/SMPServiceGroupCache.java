@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+
+/**
+ * A bounded cache for {@link SMPServiceGroup} objects. The cache is limited
+ * both by the number of entries and by the estimated memory size of the
+ * entries. If one of the limits is exceeded, the least recently used entries
+ * are evicted. Additionally each entry expires after a configurable time to
+ * live.<br>
+ * To avoid that a value read from the database before a concurrent change is
+ * put into the cache after the respective invalidation, each
+ * {@link #put(String, SMPServiceGroup, long)} call takes the invalidation stamp
+ * that was retrieved via {@link #getInvalidationStamp(String)} before reading
+ * from the database. If an invalidation of the same key happened in between,
+ * the value is not cached.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPServiceGroupCache
+{
+  @Immutable
+  private static final class Entry
+  {
+    private final SMPServiceGroup m_aValue;
+    private final long m_nWeight;
+    private final long m_nExpirationNanos;
+
+    Entry (@Nonnull final SMPServiceGroup aValue, final long nWeight, final long nExpirationNanos)
+    {
+      m_aValue = aValue;
+      m_nWeight = nWeight;
+      m_nExpirationNanos = nExpirationNanos;
+    }
+  }
+
+  /** The approximate fixed memory overhead of a single entry in bytes */
+  private static final long ENTRY_OVERHEAD_BYTES = 160;
+
+  private final int m_nMaxEntries;
+  private final long m_nMaxWeightBytes;
+  private final long m_nTTLNanos;
+
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  // Access order - the eldest entry is the least recently used one
+  @GuardedBy ("m_aRWLock")
+  private final LinkedHashMap <String, Entry> m_aMap = new LinkedHashMap <> (16, 0.75f, true);
+  @GuardedBy ("m_aRWLock")
+  private long m_nWeightBytes = 0;
+
+  private final SMPInvalidationStamps m_aInvalidationStamps = new SMPInvalidationStamps ();
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+  private final AtomicLong m_aEvictions = new AtomicLong (0);
+  private final AtomicLong m_aExpirations = new AtomicLong (0);
+  private final AtomicLong m_aInvalidations = new AtomicLong (0);
+
+  /**
+   * Constructor
+   *
+   * @param nMaxEntries
+   *        The maximum number of entries. Must be &gt; 0.
+   * @param nMaxWeightBytes
+   *        The maximum estimated memory size of all entries in bytes. Must be
+   *        &gt; 0.
+   * @param nTTLSeconds
+   *        The number of seconds after which an entry expires. Must be &gt; 0.
+   */
+  public SMPServiceGroupCache (@Nonnegative final int nMaxEntries,
+                               @Nonnegative final long nMaxWeightBytes,
+                               @Nonnegative final long nTTLSeconds)
+  {
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    ValueEnforcer.isGT0 (nMaxWeightBytes, "MaxWeightBytes");
+    ValueEnforcer.isGT0 (nTTLSeconds, "TTLSeconds");
+    m_nMaxEntries = nMaxEntries;
+    m_nMaxWeightBytes = nMaxWeightBytes;
+    m_nTTLNanos = TimeUnit.SECONDS.toNanos (nTTLSeconds);
+  }
+
+  @Nonnegative
+  private static long _getWeight (@Nonnull final String sKey, @Nonnull final SMPServiceGroup aValue)
+  {
+    // Strings are counted with 2 bytes per char
+    long nChars = sKey.length ();
+    nChars += aValue.getID ().length ();
+    nChars += aValue.getOwnerID ().length ();
+    nChars += aValue.getParticipantIdentifier ().getScheme ().length ();
+    nChars += aValue.getParticipantIdentifier ().getValue ().length ();
+    nChars += StringHelper.getLength (aValue.getExtensions ().getExtensionsAsJsonString ());
+    return ENTRY_OVERHEAD_BYTES + 2 * nChars;
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private void _removeEntry (@Nonnull final Iterator <Map.Entry <String, Entry>> aIter,
+                             @Nonnull final Entry aEntry)
+  {
+    aIter.remove ();
+    m_nWeightBytes -= aEntry.m_nWeight;
+  }
+
+  /**
+   * Get the cached service group with the provided ID.
+   *
+   * @param sKey
+   *        The service group ID. May be <code>null</code>.
+   * @return <code>null</code> if no such entry is cached or if it expired.
+   */
+  @Nullable
+  public SMPServiceGroup get (@Nullable final String sKey)
+  {
+    if (sKey == null)
+      return null;
+
+    // Write lock, because the access order changes
+    final SMPServiceGroup ret = m_aRWLock.writeLockedGet ( () -> {
+      final Entry aEntry = m_aMap.get (sKey);
+      if (aEntry == null)
+        return null;
+      if (aEntry.m_nExpirationNanos - System.nanoTime () <= 0)
+      {
+        m_aMap.remove (sKey);
+        m_nWeightBytes -= aEntry.m_nWeight;
+        m_aExpirations.incrementAndGet ();
+        return null;
+      }
+      return aEntry.m_aValue;
+    });
+
+    if (ret != null)
+      m_aHits.incrementAndGet ();
+    else
+      m_aMisses.incrementAndGet ();
+    return ret;
+  }
+
+  /**
+   * @param sKey
+   *        The service group ID. May not be <code>null</code>.
+   * @return The current invalidation stamp of the key to be passed into
+   *         {@link #put(String, SMPServiceGroup, long)}. Must be retrieved
+   *         before the value is read from the database.
+   */
+  public long getInvalidationStamp (@Nonnull final String sKey)
+  {
+    return m_aInvalidationStamps.getStamp (sKey);
+  }
+
+  /**
+   * Put a service group into the cache. If an invalidation happened since the
+   * provided stamp was retrieved, the value is not cached.
+   *
+   * @param sKey
+   *        The service group ID. May neither be <code>null</code> nor empty.
+   * @param aValue
+   *        The value to cache. May not be <code>null</code>.
+   * @param nInvalidationStamp
+   *        The invalidation stamp retrieved via
+   *        {@link #getInvalidationStamp(String)} before the value was read.
+   */
+  public void put (@Nonnull @Nonempty final String sKey,
+                   @Nonnull final SMPServiceGroup aValue,
+                   final long nInvalidationStamp)
+  {
+    ValueEnforcer.notEmpty (sKey, "Key");
+    ValueEnforcer.notNull (aValue, "Value");
+
+    final long nWeight = _getWeight (sKey, aValue);
+    if (nWeight > m_nMaxWeightBytes)
+    {
+      // Too big to be cached at all
+      return;
+    }
+
+    m_aRWLock.writeLocked ( () -> {
+      // Check inside the lock, because invalidations also take the lock
+      if (!m_aInvalidationStamps.isCurrent (sKey, nInvalidationStamp))
+        return;
+
+      final Entry aOld = m_aMap.put (sKey, new Entry (aValue, nWeight, System.nanoTime () + m_nTTLNanos));
+      if (aOld != null)
+        m_nWeightBytes -= aOld.m_nWeight;
+      m_nWeightBytes += nWeight;
+
+      // Evict the least recently used entries
+      final Iterator <Map.Entry <String, Entry>> aIter = m_aMap.entrySet ().iterator ();
+      while ((m_aMap.size () > m_nMaxEntries || m_nWeightBytes > m_nMaxWeightBytes) && aIter.hasNext ())
+      {
+        final Map.Entry <String, Entry> aEldest = aIter.next ();
+        if (!aEldest.getKey ().equals (sKey))
+        {
+          _removeEntry (aIter, aEldest.getValue ());
+          m_aEvictions.incrementAndGet ();
+        }
+      }
+    });
+  }
+
+  /**
+   * Remove the entry with the provided ID from the cache and make sure that
+   * values read concurrently are not cached.
+   *
+   * @param sKey
+   *        The service group ID. May be <code>null</code>.
+   */
+  public void invalidate (@Nullable final String sKey)
+  {
+    if (sKey == null)
+      return;
+
+    m_aRWLock.writeLocked ( () -> {
+      m_aInvalidationStamps.invalidate (sKey);
+      final Entry aOld = m_aMap.remove (sKey);
+      if (aOld != null)
+        m_nWeightBytes -= aOld.m_nWeight;
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * Remove all entries from the cache.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_aInvalidationStamps.invalidateAll ();
+      m_aMap.clear ();
+      m_nWeightBytes = 0;
+    });
+  }
+
+  @Nonnegative
+  public int getMaxEntries ()
+  {
+    return m_nMaxEntries;
+  }
+
+  @Nonnegative
+  public long getMaxWeightBytes ()
+  {
+    return m_nMaxWeightBytes;
+  }
+
+  @Nonnegative
+  public int size ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  /**
+   * @return The estimated memory size of all cached entries in bytes.
+   */
+  @Nonnegative
+  public long getWeightBytes ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nWeightBytes);
+  }
+
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  /**
+   * @return The number of entries removed because a size limit was exceeded.
+   */
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictions.get ();
+  }
+
+  /**
+   * @return The number of entries removed because they expired.
+   */
+  @Nonnegative
+  public long getExpirationCount ()
+  {
+    return m_aExpirations.get ();
+  }
+
+  /**
+   * @return The number of invalidations, both local and remote.
+   */
+  @Nonnegative
+  public long getInvalidationCount ()
+  {
+    return m_aInvalidations.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxEntries", m_nMaxEntries)
+                                       .append ("MaxWeightBytes", m_nMaxWeightBytes)
+                                       .append ("TTLNanos", m_nTTLNanos)
+                                       .append ("Hits", m_aHits.get ())
+                                       .append ("Misses", m_aMisses.get ())
+                                       .getToString ();
+  }
+}
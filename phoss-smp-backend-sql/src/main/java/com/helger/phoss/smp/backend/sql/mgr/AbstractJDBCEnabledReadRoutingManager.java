@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.mutable.MutableInt;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
+
+/**
+ * Abstract JDBC enabled manager that can route read-only statements to a
+ * separate (replicated) database. Reads are only routed to the read-only
+ * database, if
+ * <ul>
+ * <li>a supplier for read-only executors is present,</li>
+ * <li>the current thread is not inside {@link #readFromPrimary(Supplier)}
+ * and</li>
+ * <li>there was no local write in the last configurable number of
+ * milliseconds, so that the own writes are visible despite a replication
+ * lag.</li>
+ * </ul>
+ * All other statements are executed on the primary database.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public abstract class AbstractJDBCEnabledReadRoutingManager extends AbstractJDBCEnabledManager
+{
+  // Shared between all managers, as the data of different managers depends on
+  // each other
+  private static final AtomicLong LAST_WRITE_NANOS = new AtomicLong (System.nanoTime () - TimeUnit.DAYS.toNanos (1));
+  private static final ThreadLocal <MutableInt> PRIMARY_SCOPE_DEPTH = new ThreadLocal <> ();
+
+  private final Supplier <? extends DBExecutor> m_aReadOnlyDBExecSupplier;
+  private final long m_nPrimaryAfterWriteNanos;
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects of the primary
+   *        database. May not be <code>null</code>.
+   * @param aReadOnlyDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects of the read-only
+   *        database. May be <code>null</code> in which case all statements are
+   *        executed on the primary database.
+   * @param nPrimaryAfterWriteMillis
+   *        The number of milliseconds after a write, in which reads are still
+   *        performed on the primary database. Must be &ge; 0.
+   */
+  protected AbstractJDBCEnabledReadRoutingManager (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                                   @Nullable final Supplier <? extends DBExecutor> aReadOnlyDBExecSupplier,
+                                                   @Nonnegative final long nPrimaryAfterWriteMillis)
+  {
+    super (aDBExecSupplier);
+    ValueEnforcer.isGE0 (nPrimaryAfterWriteMillis, "PrimaryAfterWriteMillis");
+    m_aReadOnlyDBExecSupplier = aReadOnlyDBExecSupplier;
+    m_nPrimaryAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos (nPrimaryAfterWriteMillis);
+  }
+
+  /**
+   * @return <code>true</code> if a read-only database is configured.
+   */
+  public final boolean isReadOnlyRoutingEnabled ()
+  {
+    return m_aReadOnlyDBExecSupplier != null;
+  }
+
+  /**
+   * Remember that data was modified, so that the following reads are
+   * performed on the primary database for the configured duration. Must be
+   * called after each write.
+   */
+  protected static final void onDataModified ()
+  {
+    LAST_WRITE_NANOS.set (System.nanoTime ());
+  }
+
+  /**
+   * Execute the provided reader while forcing all reads of the current thread
+   * to be performed on the primary database. This must be used for reads that
+   * are part of a write operation.
+   *
+   * @param aReader
+   *        The reader to invoke. May not be <code>null</code>.
+   * @return The result of the reader.
+   * @param <T>
+   *        result type
+   */
+  @Nullable
+  protected static final <T> T readFromPrimary (@Nonnull final Supplier <T> aReader)
+  {
+    MutableInt aDepth = PRIMARY_SCOPE_DEPTH.get ();
+    if (aDepth == null)
+    {
+      aDepth = new MutableInt (0);
+      PRIMARY_SCOPE_DEPTH.set (aDepth);
+    }
+    aDepth.inc ();
+    try
+    {
+      return aReader.get ();
+    }
+    finally
+    {
+      if (aDepth.dec () == 0)
+        PRIMARY_SCOPE_DEPTH.remove ();
+    }
+  }
+
+  /**
+   * @return A new {@link DBExecutor} for statements that don't modify data.
+   *         Depending on the configuration and the current state, this may be
+   *         the read-only or the primary database. Never <code>null</code>.
+   */
+  @Nonnull
+  protected final DBExecutor newReadOnlyExecutor ()
+  {
+    if (m_aReadOnlyDBExecSupplier != null &&
+        PRIMARY_SCOPE_DEPTH.get () == null &&
+        System.nanoTime () - LAST_WRITE_NANOS.get () >= m_nPrimaryAfterWriteNanos)
+    {
+      final DBExecutor ret = m_aReadOnlyDBExecSupplier.get ();
+      if (ret != null)
+        return ret;
+    }
+    return newExecutor ();
+  }
+}
@@ -46,7 +46,6 @@ import com.helger.commons.string.StringHelper;
 import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.db.jdbc.executor.DBResultRow;
-import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
 import com.helger.json.IJson;
 import com.helger.json.IJsonArray;
 import com.helger.json.IJsonObject;
@@ -57,6 +56,7 @@ import com.helger.json.serialize.JsonReader;
 import com.helger.json.serialize.JsonWriterSettings;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
@@ -74,7 +74,7 @@ import com.helger.photon.audit.AuditHelper;
  * @author Philip Helger
  * @since 9.2.4
  */
-public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager implements ISMPBusinessCardManager
+public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledReadRoutingManager implements ISMPBusinessCardManager
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPBusinessCardManagerJDBC.class);
 
@@ -92,7 +92,27 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
    */
   public SMPBusinessCardManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier)
   {
-    super (aDBExecSupplier);
+    this (aDBExecSupplier, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aReadOnlyDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects that are used for
+   *        read-only statements. May be <code>null</code> in which case all
+   *        statements are executed via <code>aDBExecSupplier</code>.
+   * @since 7.1.4
+   */
+  public SMPBusinessCardManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                     @Nullable final Supplier <? extends DBExecutor> aReadOnlyDBExecSupplier)
+  {
+    super (aDBExecSupplier,
+           aReadOnlyDBExecSupplier,
+           SMPJDBCConfiguration.getJdbcReadOnlyPrimaryAfterWriteMilliseconds ());
   }
 
   @Nonnull
@@ -243,6 +263,7 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
                                                                                      aEntity.getRegistrationDate ()));
       }
     });
+    onDataModified ();
     if (eSucces.isFailure ())
     {
       if (aUpdated.booleanValue ())
@@ -289,6 +310,7 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
 
     final long nCount = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM smp_bce" + " WHERE pid=?",
                                                                new ConstantPreparedStatementDataProvider (aSMPBusinessCard.getID ()));
+    onDataModified ();
     if (nCount <= 0)
     {
       if (LOGGER.isDebugEnabled ())
@@ -349,7 +371,7 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
   public ICommonsList <ISMPBusinessCard> getAllSMPBusinessCards ()
   {
     final ICommonsList <ISMPBusinessCard> ret = new CommonsArrayList <> ();
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT id, pid, name, names, country, geoinfo, identifiers, websites, contacts, addon, regdate" +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT id, pid, name, names, country, geoinfo, identifiers, websites, contacts, addon, regdate" +
                                                                           " FROM smp_bce");
     if (aDBResult != null)
     {
@@ -399,7 +421,7 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
   public ICommonsSet <String> getAllSMPBusinessCardIDs ()
   {
     final ICommonsSet <String> ret = new CommonsHashSet <> ();
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT pid" + " FROM smp_bce");
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT pid" + " FROM smp_bce");
     if (aDBResult != null)
       for (final DBResultRow aRow : aDBResult)
         ret.add (aRow.getAsString (0));
@@ -412,7 +434,7 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
     if (aID == null)
       return null;
 
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT id, name, names, country, geoinfo, identifiers, websites, contacts, addon, regdate" +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT id, name, names, country, geoinfo, identifiers, websites, contacts, addon, regdate" +
                                                                           " FROM smp_bce" +
                                                                           " WHERE pid=?",
                                                                           new ConstantPreparedStatementDataProvider (aID.getURIEncoded ()));
@@ -444,6 +466,6 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
   @Nonnegative
   public long getSMPBusinessCardCount ()
   {
-    return newExecutor ().queryCount ("SELECT COUNT (DISTINCT pid) FROM smp_bce");
+    return newReadOnlyExecutor ().queryCount ("SELECT COUNT (DISTINCT pid) FROM smp_bce");
   }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.commons.state.ESuccess;
+import com.helger.db.api.helper.DBValueHelper;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.executor.DBResultRow;
+import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.pdnotification.EDirectoryNotificationAction;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotification;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
+import com.helger.phoss.smp.domain.pdnotification.SMPDirectoryNotification;
+
+/**
+ * Implementation of {@link ISMPDirectoryNotificationManager} for JDBC
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPDirectoryNotificationManagerJDBC extends AbstractJDBCEnabledManager implements
+                                                 ISMPDirectoryNotificationManager
+{
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   */
+  public SMPDirectoryNotificationManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier)
+  {
+    super (aDBExecSupplier);
+  }
+
+  @Nonnull
+  public EChange storeDirectoryNotification (@Nonnull final ISMPDirectoryNotification aNotification)
+  {
+    ValueEnforcer.notNull (aNotification, "Notification");
+
+    final DBExecutor aExecutor = newExecutor ();
+    final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
+      // Try to update an existing entry first
+      final long nUpdated = aExecutor.insertOrUpdateOrDelete ("UPDATE smp_pdnotification SET action=?, queuedt=? WHERE pid=?",
+                                                              new ConstantPreparedStatementDataProvider (aNotification.getAction ()
+                                                                                                                      .getID (),
+                                                                                                         DBValueHelper.toTimestamp (aNotification.getQueueDateTime ()),
+                                                                                                         aNotification.getID ()));
+      if (nUpdated == 0)
+      {
+        // Create new
+        final long nCreated = aExecutor.insertOrUpdateOrDelete ("INSERT INTO smp_pdnotification (pid, action, queuedt) VALUES (?, ?, ?)",
+                                                                new ConstantPreparedStatementDataProvider (aNotification.getID (),
+                                                                                                           aNotification.getAction ()
+                                                                                                                        .getID (),
+                                                                                                           DBValueHelper.toTimestamp (aNotification.getQueueDateTime ())));
+        if (nCreated != 1)
+          throw new IllegalStateException ("Failed to create new DB entry (" + nCreated + ")");
+      }
+    });
+    return EChange.valueOf (eSuccess.isSuccess ());
+  }
+
+  @Nonnull
+  public EChange deleteDirectoryNotification (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    if (aParticipantID == null)
+      return EChange.UNCHANGED;
+
+    final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM smp_pdnotification WHERE pid=?",
+                                                                 new ConstantPreparedStatementDataProvider (SMPDirectoryNotification.createID (aParticipantID)));
+    return EChange.valueOf (nDeleted > 0);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPDirectoryNotification> getAllDirectoryNotifications ()
+  {
+    final ICommonsList <ISMPDirectoryNotification> ret = new CommonsArrayList <> ();
+    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT pid, action, queuedt FROM smp_pdnotification");
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+      {
+        final IParticipantIdentifier aPI = SMPMetaManager.getIdentifierFactory ()
+                                                         .parseParticipantIdentifier (aRow.getAsString (0));
+        final EDirectoryNotificationAction eAction = EDirectoryNotificationAction.getFromIDOrNull (aRow.getAsString (1));
+        if (aPI != null && eAction != null)
+          ret.add (new SMPDirectoryNotification (aPI, eAction, aRow.getAsLocalDateTime (2)));
+      }
+    return ret;
+  }
+}
@@ -16,25 +16,33 @@
  */
 package com.helger.phoss.smp.backend.sql.mgr;
 
+import java.util.function.Supplier;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.commons.lang.GenericReflection;
 import com.helger.commons.state.ETriState;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.dao.DAOException;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.PhotonSecurityManagerFactorySQL;
 import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
 import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
 import com.helger.phoss.smp.backend.sql.SMPFlywayConfiguration;
 import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
+import com.helger.phoss.smp.backend.sql.cache.ISMPCacheInvalidationTransport;
+import com.helger.phoss.smp.backend.sql.cache.SMPCacheInvalidationTransportJDBC;
+import com.helger.phoss.smp.backend.sql.cache.SMPServiceGroupCache;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -43,7 +51,6 @@ import com.helger.phoss.smp.domain.sml.ISMLInfoManager;
 import com.helger.phoss.smp.domain.sml.SMLInfoManagerXML;
 import com.helger.phoss.smp.domain.transportprofile.ISMPTransportProfileManager;
 import com.helger.phoss.smp.settings.ISMPSettingsManager;
-import com.helger.photon.jdbc.PhotonSecurityManagerFactoryJDBC;
 
 /**
  * A JDBC based implementation of the {@link ISMPManagerProvider} interface.
@@ -58,6 +65,7 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
   private static final String SML_INFO_XML = "sml-info.xml";
 
   private final EDatabaseType m_eDBType;
+  private ISMPCacheInvalidationTransport m_aSGCacheInvalidationTransport;
 
   public SMPManagerProviderSQL ()
   {
@@ -69,7 +77,7 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
   {
     // Set the special PhotonSecurityManager factory
     // Must be before Flyway, so that auditing of Flyway actions (may) work
-    PhotonSecurityManagerFactoryJDBC.install (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_CUSTOMIZER);
+    PhotonSecurityManagerFactorySQL.install (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_CUSTOMIZER);
 
     // Flyway migration is enabled by default
     if (SMPFlywayConfiguration.isFlywayEnabled ())
@@ -88,6 +96,22 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
                   .setBackendConnectionStateChangeCallback (eNew -> DBExecutor.resetConnectionEstablished ());
   }
 
+  @Override
+  public void beforeDestroyManagers ()
+  {
+    if (m_aSGCacheInvalidationTransport != null)
+    {
+      m_aSGCacheInvalidationTransport.stop ();
+      m_aSGCacheInvalidationTransport = null;
+    }
+  }
+
+  @Override
+  public boolean isStorageSharable ()
+  {
+    return true;
+  }
+
   @Nonnull
   public ETriState getBackendConnectionEstablishedDefaultState ()
   {
@@ -120,12 +144,56 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
     return new SMPTransportProfileManagerJDBC (SMPDBExecutor::new);
   }
 
+  @Nullable
+  private static ISMPCacheInvalidationTransport _createSGCacheInvalidationTransport ()
+  {
+    final String sTransport = SMPJDBCConfiguration.getJdbcServiceGroupCacheInvalidationTransport ();
+    if (SMPJDBCConfiguration.JDBC_CACHE_SG_INVALIDATION_TRANSPORT_NONE.equalsIgnoreCase (sTransport))
+    {
+      LOGGER.warn ("The Service Group cache is not invalidated between SMP nodes - only use this for single node installations");
+      return null;
+    }
+    if (SMPJDBCConfiguration.JDBC_CACHE_SG_INVALIDATION_TRANSPORT_JDBC.equalsIgnoreCase (sTransport))
+      return new SMPCacheInvalidationTransportJDBC ();
+
+    final ISMPCacheInvalidationTransport ret = GenericReflection.newInstance (sTransport,
+                                                                              ISMPCacheInvalidationTransport.class);
+    if (ret == null)
+      throw new IllegalStateException ("Failed to create Service Group cache invalidation transport '" +
+                                       sTransport +
+                                       "'");
+    return ret;
+  }
+
+  /**
+   * @return The supplier for executors of read-only statements or
+   *         <code>null</code> if no read-only database is configured.
+   */
+  @Nullable
+  private static Supplier <SMPDBExecutor> _getReadOnlyExecutorSupplier ()
+  {
+    return SMPJDBCConfiguration.isJdbcReadOnlyEnabled () ? SMPDBExecutor::createReadOnly : null;
+  }
+
   @Nonnull
   public ISMPServiceGroupManager createServiceGroupMgr ()
   {
-    final SMPServiceGroupManagerJDBC ret = new SMPServiceGroupManagerJDBC (SMPDBExecutor::new);
+    final SMPServiceGroupManagerJDBC ret = new SMPServiceGroupManagerJDBC (SMPDBExecutor::new,
+                                                                           _getReadOnlyExecutorSupplier ());
     // Enable cache by default
-    ret.setCacheEnabled (SMPJDBCConfiguration.isJdbcServiceGroupCacheEnabled ());
+    if (SMPJDBCConfiguration.isJdbcServiceGroupCacheEnabled ())
+    {
+      final SMPServiceGroupCache aCache = new SMPServiceGroupCache (SMPJDBCConfiguration.getJdbcServiceGroupCacheMaxEntries (),
+                                                                    SMPJDBCConfiguration.getJdbcServiceGroupCacheMaxSizeBytes (),
+                                                                    SMPJDBCConfiguration.getJdbcServiceGroupCacheTTLSeconds ());
+      final ISMPCacheInvalidationTransport aTransport = _createSGCacheInvalidationTransport ();
+      if (aTransport != null)
+      {
+        aTransport.start (aCache::invalidate);
+        m_aSGCacheInvalidationTransport = aTransport;
+      }
+      ret.setCache (aCache, aTransport);
+    }
     return ret;
   }
 
@@ -133,14 +201,16 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
   public ISMPRedirectManager createRedirectMgr (@Nonnull final IIdentifierFactory aIdentifierFactory,
                                                 @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
   {
-    return new SMPRedirectManagerJDBC (SMPDBExecutor::new, aServiceGroupMgr);
+    return new SMPRedirectManagerJDBC (SMPDBExecutor::new, _getReadOnlyExecutorSupplier (), aServiceGroupMgr);
   }
 
   @Nonnull
   public ISMPServiceInformationManager createServiceInformationMgr (@Nonnull final IIdentifierFactory aIdentifierFactory,
                                                                     @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
   {
-    return new SMPServiceInformationManagerJDBC (SMPDBExecutor::new, aServiceGroupMgr);
+    return new SMPServiceInformationManagerJDBC (SMPDBExecutor::new,
+                                                 _getReadOnlyExecutorSupplier (),
+                                                 aServiceGroupMgr);
   }
 
   @Nonnull
@@ -149,11 +219,17 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
     return new SMPParticipantMigrationManagerJDBC (SMPDBExecutor::new);
   }
 
+  @Nonnull
+  public ISMPDirectoryNotificationManager createDirectoryNotificationMgr ()
+  {
+    return new SMPDirectoryNotificationManagerJDBC (SMPDBExecutor::new);
+  }
+
   @Nullable
   public ISMPBusinessCardManager createBusinessCardMgr (@Nonnull final IIdentifierFactory aIdentifierFactory,
                                                         @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
   {
-    return new SMPBusinessCardManagerJDBC (SMPDBExecutor::new);
+    return new SMPBusinessCardManagerJDBC (SMPDBExecutor::new, _getReadOnlyExecutorSupplier ());
   }
 
   @Override
@@ -36,21 +36,28 @@ import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.mutable.MutableBoolean;
 import com.helger.commons.state.EChange;
 import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
 import com.helger.commons.wrapper.Wrapper;
 import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.db.jdbc.executor.DBResultRow;
-import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
+import com.helger.peppolid.CIdentifier;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
 import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
+import com.helger.phoss.smp.backend.sql.SMPSQLHelper;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.redirect.SMPRedirect;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.photon.audit.AuditHelper;
 import com.helger.security.certificate.CertificateHelper;
 
@@ -60,7 +67,7 @@ import com.helger.security.certificate.CertificateHelper;
  * @author Philip Helger
  * @since 9.2.4
  */
-public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager implements ISMPRedirectManager
+public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledReadRoutingManager implements ISMPRedirectManager
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPRedirectManagerJDBC.class);
 
@@ -79,7 +86,30 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
   public SMPRedirectManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
                                  @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
   {
-    super (aDBExecSupplier);
+    this (aDBExecSupplier, null, aServiceGroupMgr);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aReadOnlyDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects that are used for
+   *        read-only statements. May be <code>null</code> in which case all
+   *        statements are executed via <code>aDBExecSupplier</code>.
+   * @param aServiceGroupMgr
+   *        The service group manager to use. May not be <code>null</code>.
+   * @since 7.1.4
+   */
+  public SMPRedirectManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                 @Nullable final Supplier <? extends DBExecutor> aReadOnlyDBExecSupplier,
+                                 @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
+  {
+    super (aDBExecSupplier,
+           aReadOnlyDBExecSupplier,
+           SMPJDBCConfiguration.getJdbcReadOnlyPrimaryAfterWriteMilliseconds ());
     m_aServiceGroupMgr = aServiceGroupMgr;
   }
 
@@ -105,7 +135,8 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
 
     final DBExecutor aExecutor = newExecutor ();
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
-      final ISMPRedirect aDBRedirect = getSMPRedirectOfServiceGroupAndDocumentType (aServiceGroup, aDocTypeID);
+      final ISMPRedirect aDBRedirect = readFromPrimary ( () -> getSMPRedirectOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                          aDocTypeID));
 
       final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
       final String sCertificate = aCertificate == null ? null
@@ -146,6 +177,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
         aCreatedNew.set (false);
       }
     });
+    onDataModified ();
 
     if (eSuccess.isFailure ())
     {
@@ -203,6 +235,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
                                                                                                             aParticipantID.getValue (),
                                                                                                             aDocTypeID.getScheme (),
                                                                                                             aDocTypeID.getValue ()));
+    onDataModified ();
     if (nDeleted == 0)
     {
       AuditHelper.onAuditDeleteFailure (SMPRedirect.OT, aSMPRedirect.getID (), "no-such-id");
@@ -224,7 +257,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
       return EChange.UNCHANGED;
 
     // Remember all existing
-    final ICommonsList <ISMPRedirect> aDeletedRedirects = getAllSMPRedirectsOfServiceGroup (aServiceGroup);
+    final ICommonsList <ISMPRedirect> aDeletedRedirects = readFromPrimary ( () -> getAllSMPRedirectsOfServiceGroup (aServiceGroup));
 
     // Now delete
     final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
@@ -232,6 +265,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
                                                                  " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
                                                                  new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
                                                                                                             aParticipantID.getValue ()));
+    onDataModified ();
     if (nDeleted == 0)
     {
       return EChange.UNCHANGED;
@@ -263,7 +297,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
   @ReturnsMutableCopy
   public ICommonsList <ISMPRedirect> getAllSMPRedirects ()
   {
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
                                                                           " FROM smp_service_metadata_red");
     final ICommonsList <ISMPRedirect> ret = new CommonsArrayList <> ();
     if (aDBResult != null)
@@ -271,7 +305,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
       {
         final ISMPServiceGroup aServiceGroup = m_aServiceGroupMgr.getSMPServiceGroupOfID (new SimpleParticipantIdentifier (aRow.getAsString (0),
                                                                                                                            aRow.getAsString (1)));
-        final X509Certificate aCertificate = CertificateHelper.convertStringToCertficateOrNull (aRow.getAsString (6));
+        final X509Certificate aCertificate = SMPCertificateCache.getInstance ().getX509Certificate (aRow.getAsString (6));
         ret.add (new SMPRedirect (aServiceGroup,
                                   new SimpleDocumentTypeIdentifier (aRow.getAsString (2), aRow.getAsString (3)),
                                   aRow.getAsString (4),
@@ -282,6 +316,69 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
     return ret;
   }
 
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPRedirect> getSMPRedirectPage (@Nullable final String sFilter,
+                                                          final boolean bAscending,
+                                                          @Nonnegative final int nOffset,
+                                                          @Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    final DBExecutor aExecutor = newReadOnlyExecutor ();
+    final long nTotalCount = Math.max (aExecutor.queryCount ("SELECT COUNT(*) FROM smp_service_metadata_red"), 0);
+
+    // The filter is applied on the URI encoded participant ID
+    final boolean bFilter = StringHelper.hasText (sFilter);
+    final String sWhere = bFilter ? " WHERE LOWER(CONCAT(CONCAT(businessIdentifierScheme, '" +
+                                    CIdentifier.URL_SCHEME_VALUE_SEPARATOR +
+                                    "'), businessIdentifier)) LIKE ? ESCAPE '!'"
+                                  : "";
+    final String sFilterPattern = bFilter ? SMPSQLHelper.getLikeContainsPattern (sFilter) : null;
+    final long nFilteredCount;
+    if (bFilter)
+      nFilteredCount = Math.max (aExecutor.queryCount ("SELECT COUNT(*) FROM smp_service_metadata_red" + sWhere,
+                                                       new ConstantPreparedStatementDataProvider (sFilterPattern)),
+                                 0);
+    else
+      nFilteredCount = nTotalCount;
+
+    final String sDir = bAscending ? " ASC" : " DESC";
+    final EDatabaseType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+    final String sSQL = "SELECT businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
+                        " FROM smp_service_metadata_red" +
+                        sWhere +
+                        " ORDER BY businessIdentifierScheme" +
+                        sDir +
+                        ", businessIdentifier" +
+                        sDir +
+                        ", documentIdentifierScheme" +
+                        sDir +
+                        ", documentIdentifier" +
+                        sDir +
+                        eDBType.getPagingClause ();
+
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    if (bFilter)
+      aParams.add (sFilterPattern);
+    eDBType.addPagingParameters (aParams, nOffset, nCount);
+
+    final ICommonsList <ISMPRedirect> aItems = new CommonsArrayList <> ();
+    aExecutor.queryAll (sSQL, new ConstantPreparedStatementDataProvider (aParams.toArray ()), aRow -> {
+      final ISMPServiceGroup aServiceGroup = m_aServiceGroupMgr.getSMPServiceGroupOfID (new SimpleParticipantIdentifier (aRow.getAsString (0),
+                                                                                                                         aRow.getAsString (1)));
+      final X509Certificate aCertificate = SMPCertificateCache.getInstance ().getX509Certificate (aRow.getAsString (6));
+      aItems.add (new SMPRedirect (aServiceGroup,
+                                   new SimpleDocumentTypeIdentifier (aRow.getAsString (2), aRow.getAsString (3)),
+                                   aRow.getAsString (4),
+                                   aRow.getAsString (5),
+                                   aCertificate,
+                                   aRow.getAsString (7)));
+    });
+    return new SMPResultPage <> (aItems, nTotalCount, nFilteredCount);
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsList <ISMPRedirect> getAllSMPRedirectsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
@@ -290,7 +387,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
     if (aServiceGroup != null)
     {
       final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
-      final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
+      final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
                                                                             " FROM smp_service_metadata_red" +
                                                                             " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
                                                                             new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
@@ -298,7 +395,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
       if (aDBResult != null)
         for (final DBResultRow aRow : aDBResult)
         {
-          final X509Certificate aCertificate = CertificateHelper.convertStringToCertficateOrNull (aRow.getAsString (4));
+          final X509Certificate aCertificate = SMPCertificateCache.getInstance ().getX509Certificate (aRow.getAsString (4));
           ret.add (new SMPRedirect (aServiceGroup,
                                     new SimpleDocumentTypeIdentifier (aRow.getAsString (0), aRow.getAsString (1)),
                                     aRow.getAsString (2),
@@ -313,7 +410,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
   @Nonnegative
   public long getSMPRedirectCount ()
   {
-    return newExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_metadata_red");
+    return newReadOnlyExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_metadata_red");
   }
 
   @Nullable
@@ -327,7 +424,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
 
     final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
     final Wrapper <DBResultRow> aDBResult = new Wrapper <> ();
-    newExecutor ().querySingle ("SELECT redirectionUrl, certificateUID, certificate, extension" +
+    newReadOnlyExecutor ().querySingle ("SELECT redirectionUrl, certificateUID, certificate, extension" +
                                 " FROM smp_service_metadata_red" +
                                 " WHERE businessIdentifierScheme=? AND businessIdentifier=? AND documentIdentifierScheme=? and documentIdentifier=?",
                                 new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
@@ -339,7 +436,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
       return null;
 
     final DBResultRow aRow = aDBResult.get ();
-    final X509Certificate aCertificate = CertificateHelper.convertStringToCertficateOrNull (aRow.getAsString (2));
+    final X509Certificate aCertificate = SMPCertificateCache.getInstance ().getX509Certificate (aRow.getAsString (2));
     return new SMPRedirect (aServiceGroup,
                             aDocTypeID,
                             aRow.getAsString (0),
@@ -16,7 +16,7 @@
  */
 package com.helger.phoss.smp.backend.sql.mgr;
 
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import javax.annotation.CheckForSigned;
@@ -45,10 +45,16 @@ import com.helger.commons.wrapper.Wrapper;
 import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.db.jdbc.executor.DBResultRow;
-import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
 import com.helger.peppolid.CIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
+import com.helger.phoss.smp.backend.sql.SMPSQLHelper;
+import com.helger.phoss.smp.backend.sql.cache.ISMPCacheInvalidationTransport;
+import com.helger.phoss.smp.backend.sql.cache.SMPServiceGroupCache;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -62,22 +68,22 @@ import com.helger.phoss.smp.smlhook.RegistrationHookException;
 import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.photon.audit.AuditHelper;
 
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
-
 /**
  * A JDBC based implementation of the {@link ISMPServiceGroupManager} interface.
  *
  * @author Philip Helger
  * @since 5.3.0
  */
-public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager implements ISMPServiceGroupManager
+public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledReadRoutingManager implements ISMPServiceGroupManager
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPServiceGroupManagerJDBC.class);
+  // The number of service groups read at once in forEachSMPServiceGroup
+  private static final int FOR_EACH_PAGE_SIZE = 500;
 
   private final CallbackList <ISMPServiceGroupCallback> m_aCBs = new CallbackList <> ();
 
-  private ExpiringMap <String, SMPServiceGroup> m_aCache;
+  private SMPServiceGroupCache m_aCache;
+  private ISMPCacheInvalidationTransport m_aInvalidationTransport;
 
   /**
    * Constructor
@@ -88,7 +94,27 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
    */
   public SMPServiceGroupManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier)
   {
-    super (aDBExecSupplier);
+    this (aDBExecSupplier, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aReadOnlyDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects that are used for
+   *        read-only statements. May be <code>null</code> in which case all
+   *        statements are executed via <code>aDBExecSupplier</code>.
+   * @since 7.1.4
+   */
+  public SMPServiceGroupManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                     @Nullable final Supplier <? extends DBExecutor> aReadOnlyDBExecSupplier)
+  {
+    super (aDBExecSupplier,
+           aReadOnlyDBExecSupplier,
+           SMPJDBCConfiguration.getJdbcReadOnlyPrimaryAfterWriteMilliseconds ());
   }
 
   public boolean isCacheEnabled ()
@@ -96,15 +122,78 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     return m_aCache != null;
   }
 
+  /**
+   * Enable or disable the cache. If enabled, a local cache with the configured
+   * limits and without invalidation transport is used. Use
+   * {@link #setCache(SMPServiceGroupCache, ISMPCacheInvalidationTransport)}
+   * for a cluster-coherent cache.
+   *
+   * @param bEnabled
+   *        <code>true</code> to enable, <code>false</code> to disable.
+   */
   public void setCacheEnabled (final boolean bEnabled)
   {
     if (bEnabled)
-      m_aCache = ExpiringMap.builder ()
-                            .expiration (60, TimeUnit.SECONDS)
-                            .expirationPolicy (ExpirationPolicy.CREATED)
-                            .build ();
+      setCache (new SMPServiceGroupCache (SMPJDBCConfiguration.getJdbcServiceGroupCacheMaxEntries (),
+                                          SMPJDBCConfiguration.getJdbcServiceGroupCacheMaxSizeBytes (),
+                                          SMPJDBCConfiguration.getJdbcServiceGroupCacheTTLSeconds ()),
+                null);
     else
-      m_aCache = null;
+      setCache (null, null);
+  }
+
+  /**
+   * Set the cache to be used together with the transport to exchange
+   * invalidations with other nodes. The transport must already be started and
+   * invalidate the provided cache on remote changes.
+   *
+   * @param aCache
+   *        The cache to use. May be <code>null</code> to disable caching.
+   * @param aInvalidationTransport
+   *        The transport to publish local changes. May be <code>null</code> if
+   *        this is a single node installation.
+   * @since 7.1.4
+   */
+  public void setCache (@Nullable final SMPServiceGroupCache aCache,
+                        @Nullable final ISMPCacheInvalidationTransport aInvalidationTransport)
+  {
+    m_aCache = aCache;
+    m_aInvalidationTransport = aCache == null ? null : aInvalidationTransport;
+  }
+
+  /**
+   * @return The cache in use or <code>null</code> if caching is disabled.
+   * @since 7.1.4
+   */
+  @Nullable
+  public SMPServiceGroupCache getCache ()
+  {
+    return m_aCache;
+  }
+
+  /**
+   * @return The invalidation transport in use or <code>null</code> if there is
+   *         none.
+   * @since 7.1.4
+   */
+  @Nullable
+  public ISMPCacheInvalidationTransport getCacheInvalidationTransport ()
+  {
+    return m_aInvalidationTransport;
+  }
+
+  private void _onServiceGroupChanged (@Nonnull final String sID, @Nullable final SMPServiceGroup aNewServiceGroup)
+  {
+    final SMPServiceGroupCache aCache = m_aCache;
+    if (aCache != null)
+    {
+      // Invalidate first, so that concurrent readers cannot put old data
+      aCache.invalidate (sID);
+      if (m_aInvalidationTransport != null)
+        m_aInvalidationTransport.publishInvalidation (sID);
+      if (aNewServiceGroup != null)
+        aCache.put (sID, aNewServiceGroup, aCache.getInvalidationStamp (sID));
+    }
   }
 
   @Nonnull
@@ -141,7 +230,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     final DBExecutor aExecutor = newExecutor ();
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
       // Check if the passed service group ID is already in use
-      final SMPServiceGroup aDBServiceGroup = getSMPServiceGroupOfID (aParticipantID);
+      final SMPServiceGroup aDBServiceGroup = readFromPrimary ( () -> getSMPServiceGroupOfID (aParticipantID));
       if (aDBServiceGroup != null)
         throw new IllegalStateException ("The service group with ID " +
                                          aParticipantID.getURIEncoded () +
@@ -168,6 +257,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
                                                                                      sOwnerID));
       }
     }, aCaughtException::set);
+    onDataModified ();
 
     if (aCreatedSGHook.booleanValue () && !aCreatedSGDB.booleanValue ())
     {
@@ -210,8 +300,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
                                       Boolean.valueOf (bCreateInSML));
 
     final SMPServiceGroup aServiceGroup = new SMPServiceGroup (sOwnerID, aParticipantID, sExtension);
-    if (m_aCache != null)
-      m_aCache.put (aParticipantID.getURIEncoded (), aServiceGroup);
+    _onServiceGroupChanged (aParticipantID.getURIEncoded (), aServiceGroup);
 
     m_aCBs.forEach (x -> x.onSMPServiceGroupCreated (aServiceGroup, bCreateInSML));
     return aServiceGroup;
@@ -239,7 +328,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     final DBExecutor aExecutor = newExecutor ();
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
       // Check if the passed service group ID is already in use
-      final SMPServiceGroup aDBServiceGroup = getSMPServiceGroupOfID (aParticipantID);
+      final SMPServiceGroup aDBServiceGroup = readFromPrimary ( () -> getSMPServiceGroupOfID (aParticipantID));
       if (aDBServiceGroup == null)
         throw new SMPNotFoundException ("The service group with ID " +
                                         aParticipantID.getURIEncoded () +
@@ -273,6 +362,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
         aWrappedChange.set (EChange.CHANGED);
       }
     }, aCaughtException::set);
+    onDataModified ();
 
     if (eSuccess.isFailure () || aCaughtException.isSet ())
     {
@@ -301,7 +391,11 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
 
     // Callback only if something changed
     if (eChange.isChanged ())
+    {
+      _onServiceGroupChanged (aParticipantID.getURIEncoded (),
+                              new SMPServiceGroup (sNewOwnerID, aParticipantID, sNewExtension));
       m_aCBs.forEach (x -> x.onSMPServiceGroupUpdated (aParticipantID));
+    }
 
     return eChange;
   }
@@ -322,7 +416,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     final DBExecutor aExecutor = newExecutor ();
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
       // Check if the passed service group ID is already in use
-      final SMPServiceGroup aDBServiceGroup = getSMPServiceGroupOfID (aParticipantID);
+      final SMPServiceGroup aDBServiceGroup = readFromPrimary ( () -> getSMPServiceGroupOfID (aParticipantID));
       if (aDBServiceGroup == null)
         throw new SMPNotFoundException ("The service group with ID " +
                                         aParticipantID.getURIEncoded () +
@@ -344,6 +438,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
         throw new IllegalStateException ("Failed to delete service group");
       aWrappedChange.set (EChange.CHANGED);
     }, aCaughtException::set);
+    onDataModified ();
 
     if (eSuccess.isFailure ())
     {
@@ -383,8 +478,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     {
       AuditHelper.onAuditDeleteSuccess (SMPServiceGroup.OT, aParticipantID.getURIEncoded ());
 
-      if (m_aCache != null)
-        m_aCache.remove (aParticipantID.getURIEncoded ());
+      _onServiceGroupChanged (aParticipantID.getURIEncoded (), null);
       m_aCBs.forEach (x -> x.onSMPServiceGroupDeleted (aParticipantID, bDeleteInSML));
     }
 
@@ -398,7 +492,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("getAllSMPServiceGroups()");
 
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension, so.username" +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension, so.username" +
                                                                           " FROM smp_service_group sg, smp_ownership so" +
                                                                           " WHERE so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier");
 
@@ -411,6 +505,112 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     return ret;
   }
 
+  @Override
+  public void forEachSMPServiceGroup (@Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("forEachSMPServiceGroup()");
+
+    // Read page by page, keyed by the last ID of the previous page. The
+    // connection is released before the consumer is invoked, so that nested
+    // queries of the consumer don't need a second connection, and the driver
+    // never buffers more than one page.
+    final EDatabaseType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+    final ICommonsList <ISMPServiceGroup> aPage = new CommonsArrayList <> ();
+    IParticipantIdentifier aLastPID = null;
+    do
+    {
+      final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+      String sWhere = "";
+      if (aLastPID != null)
+      {
+        sWhere = " AND (sg.businessIdentifierScheme>? OR (sg.businessIdentifierScheme=? AND sg.businessIdentifier>?))";
+        aParams.add (aLastPID.getScheme ());
+        aParams.add (aLastPID.getScheme ());
+        aParams.add (aLastPID.getValue ());
+      }
+      eDBType.addPagingParameters (aParams, 0, FOR_EACH_PAGE_SIZE);
+
+      aPage.clear ();
+      newReadOnlyExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension, so.username" +
+                                       " FROM smp_service_group sg, smp_ownership so" +
+                                       " WHERE so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier" +
+                                       sWhere +
+                                       " ORDER BY sg.businessIdentifierScheme, sg.businessIdentifier" +
+                                       eDBType.getPagingClause (),
+                                       new ConstantPreparedStatementDataProvider (aParams.toArray ()),
+                                       aRow -> aPage.add (new SMPServiceGroup (aRow.getAsString (3),
+                                                                               new SimpleParticipantIdentifier (aRow.getAsString (0),
+                                                                                                                aRow.getAsString (1)),
+                                                                               aRow.getAsString (2))));
+      aPage.forEach (aConsumer);
+      if (aPage.isNotEmpty ())
+        aLastPID = aPage.getLastOrNull ().getParticipantIdentifier ();
+    } while (aPage.size () == FOR_EACH_PAGE_SIZE);
+  }
+
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPServiceGroup> getSMPServiceGroupPage (@Nullable final String sFilter,
+                                                                  final boolean bAscending,
+                                                                  @Nonnegative final int nOffset,
+                                                                  @Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("getSMPServiceGroupPage(" + sFilter + ", " + bAscending + ", " + nOffset + ", " + nCount + ")");
+
+    final DBExecutor aExecutor = newReadOnlyExecutor ();
+    final long nTotalCount = Math.max (aExecutor.queryCount ("SELECT COUNT(*) FROM smp_service_group"), 0);
+
+    // The filter is applied on the URI encoded participant ID
+    final boolean bFilter = StringHelper.hasText (sFilter);
+    final String sWhere = bFilter ? " AND LOWER(CONCAT(CONCAT(sg.businessIdentifierScheme, '" +
+                                    CIdentifier.URL_SCHEME_VALUE_SEPARATOR +
+                                    "'), sg.businessIdentifier)) LIKE ? ESCAPE '!'"
+                                  : "";
+    final String sFilterPattern = bFilter ? SMPSQLHelper.getLikeContainsPattern (sFilter) : null;
+    final long nFilteredCount;
+    if (bFilter)
+      nFilteredCount = Math.max (aExecutor.queryCount ("SELECT COUNT(*) FROM smp_service_group sg" +
+                                                       " WHERE 1=1" +
+                                                       sWhere,
+                                                       new ConstantPreparedStatementDataProvider (sFilterPattern)),
+                                 0);
+    else
+      nFilteredCount = nTotalCount;
+
+    final String sDir = bAscending ? " ASC" : " DESC";
+    final EDatabaseType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+    final String sSQL = "SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension, so.username" +
+                        " FROM smp_service_group sg, smp_ownership so" +
+                        " WHERE so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier" +
+                        sWhere +
+                        " ORDER BY sg.businessIdentifierScheme" +
+                        sDir +
+                        ", sg.businessIdentifier" +
+                        sDir +
+                        eDBType.getPagingClause ();
+
+    final ICommonsList <Object> aParams = new CommonsArrayList <> ();
+    if (bFilter)
+      aParams.add (sFilterPattern);
+    eDBType.addPagingParameters (aParams, nOffset, nCount);
+
+    final ICommonsList <ISMPServiceGroup> aItems = new CommonsArrayList <> ();
+    aExecutor.queryAll (sSQL,
+                        new ConstantPreparedStatementDataProvider (aParams.toArray ()),
+                        aRow -> aItems.add (new SMPServiceGroup (aRow.getAsString (3),
+                                                                 new SimpleParticipantIdentifier (aRow.getAsString (0),
+                                                                                                  aRow.getAsString (1)),
+                                                                 aRow.getAsString (2))));
+    return new SMPResultPage <> (aItems, nTotalCount, nFilteredCount);
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsSet <String> getAllSMPServiceGroupIDs ()
@@ -418,7 +618,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("getAllSMPServiceGroupIDs()");
 
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier" +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier" +
                                                                           " FROM smp_service_group sg");
 
     final ICommonsSet <String> ret = new CommonsHashSet <> ();
@@ -435,7 +635,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("getAllSMPServiceGroupsOfOwner(" + sOwnerID + ")");
 
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension" +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension" +
                                                                           " FROM smp_service_group sg, smp_ownership so" +
                                                                           " WHERE so.username=?" +
                                                                           " AND so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier",
@@ -456,7 +656,7 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("getSMPServiceGroupCountOfOwner(" + sOwnerID + ")");
 
-    return newExecutor ().queryCount ("SELECT COUNT(sg.businessIdentifier)" +
+    return newReadOnlyExecutor ().queryCount ("SELECT COUNT(sg.businessIdentifier)" +
                                       " FROM smp_service_group sg, smp_ownership so" +
                                       " WHERE so.username=?" +
                                       " AND so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier",
@@ -475,13 +675,24 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
       return null;
 
     // Use cache
-    SMPServiceGroup ret = m_aCache == null ? null : m_aCache.get (aParticipantID.getURIEncoded ());
-    if (ret != null)
-      return ret;
+    final SMPServiceGroupCache aCache = m_aCache;
+    final String sCacheKey = aParticipantID.getURIEncoded ();
+    long nInvalidationStamp = 0;
+    if (aCache != null)
+    {
+      final SMPServiceGroup aCached = aCache.get (sCacheKey);
+      if (aCached != null)
+        return aCached;
+      // Must be retrieved before the DB is read
+      nInvalidationStamp = aCache.getInvalidationStamp (sCacheKey);
+    }
 
     // Not in cache
+    // If a cache is used, read from the primary, so that a lagging read-only
+    // database cannot put outdated data into the cache after an invalidation
+    final DBExecutor aExecutor = aCache != null ? newExecutor () : newReadOnlyExecutor ();
     final Wrapper <DBResultRow> aResult = new Wrapper <> ();
-    newExecutor ().querySingle ("SELECT sg.extension, so.username" +
+    aExecutor.querySingle ("SELECT sg.extension, so.username" +
                                 " FROM smp_service_group sg, smp_ownership so" +
                                 " WHERE sg.businessIdentifierScheme=? AND sg.businessIdentifier=?" +
                                 " AND so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier",
@@ -491,9 +702,11 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     if (aResult.isNotSet ())
       return null;
 
-    ret = new SMPServiceGroup (aResult.get ().getAsString (1), aParticipantID, aResult.get ().getAsString (0));
-    if (m_aCache != null)
-      m_aCache.put (aParticipantID.getURIEncoded (), ret);
+    final SMPServiceGroup ret = new SMPServiceGroup (aResult.get ().getAsString (1),
+                                                     aParticipantID,
+                                                     aResult.get ().getAsString (0));
+    if (aCache != null)
+      aCache.put (sCacheKey, ret, nInvalidationStamp);
     return ret;
   }
 
@@ -508,10 +721,11 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
       return false;
 
     // Cache check first
-    if (m_aCache != null && m_aCache.containsKey (aParticipantID.getURIEncoded ()))
+    final SMPServiceGroupCache aCache = m_aCache;
+    if (aCache != null && aCache.get (aParticipantID.getURIEncoded ()) != null)
       return true;
 
-    return 1 == newExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_group" +
+    return 1 == newReadOnlyExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_group" +
                                            " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
                                            new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
                                                                                       aParticipantID.getValue ()));
@@ -523,6 +737,6 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("getSMPServiceGroupCount()");
 
-    return newExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_group");
+    return newReadOnlyExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_group");
   }
 }
@@ -30,8 +30,10 @@ import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.hashcode.HashCodeGenerator;
 import com.helger.commons.mutable.MutableBoolean;
@@ -43,7 +45,6 @@ import com.helger.db.api.helper.DBValueHelper;
 import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.db.jdbc.executor.DBResultRow;
-import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
 import com.helger.peppol.smp.ISMPTransportProfile;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
@@ -51,6 +52,9 @@ import com.helger.peppolid.IProcessIdentifier;
 import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
 import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
 import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.backend.sql.EDatabaseType;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
@@ -70,7 +74,7 @@ import com.helger.photon.audit.AuditHelper;
  * @author Philip Helger
  * @since 5.3.0
  */
-public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledManager implements
+public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledReadRoutingManager implements
                                                     ISMPServiceInformationManager
 {
   @MustImplementEqualsAndHashcode
@@ -118,7 +122,30 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
   public SMPServiceInformationManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
                                            @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
   {
-    super (aDBExecSupplier);
+    this (aDBExecSupplier, null, aServiceGroupMgr);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects. May not be
+   *        <code>null</code>.
+   * @param aReadOnlyDBExecSupplier
+   *        The supplier for {@link DBExecutor} objects that are used for
+   *        read-only statements. May be <code>null</code> in which case all
+   *        statements are executed via <code>aDBExecSupplier</code>.
+   * @param aServiceGroupMgr
+   *        The service group manager to use. May not be <code>null</code>.
+   * @since 7.1.4
+   */
+  public SMPServiceInformationManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier,
+                                           @Nullable final Supplier <? extends DBExecutor> aReadOnlyDBExecSupplier,
+                                           @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
+  {
+    super (aDBExecSupplier,
+           aReadOnlyDBExecSupplier,
+           SMPJDBCConfiguration.getJdbcReadOnlyPrimaryAfterWriteMilliseconds ());
     m_aServiceGroupMgr = aServiceGroupMgr;
   }
 
@@ -129,6 +156,34 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     return m_aCBs;
   }
 
+  /**
+   * Execute the provided insert statement once for each row. Must be called
+   * inside a transaction, so that all rows use the same connection.
+   *
+   * @param aExecutor
+   *        The executor of the current transaction. May not be
+   *        <code>null</code>.
+   * @param sSQL
+   *        The SQL statement with placeholders. May not be <code>null</code>.
+   * @param aRows
+   *        The values of the placeholders per row. May not be
+   *        <code>null</code>.
+   * @throws IllegalStateException
+   *         If a row could not be inserted, so that the transaction is rolled
+   *         back
+   */
+  private static void _insertRows (@Nonnull final DBExecutor aExecutor,
+                                   @Nonnull final String sSQL,
+                                   @Nonnull final ICommonsList <Object []> aRows)
+  {
+    for (final Object [] aRow : aRows)
+      if (aExecutor.insertOrUpdateOrDelete (sSQL, new ConstantPreparedStatementDataProvider (aRow)) != 1)
+      {
+        // Make sure the transaction is rolled back
+        throw new IllegalStateException ("Failed to execute '" + sSQL + "'");
+      }
+  }
+
   @Nonnull
   public ESuccess mergeSMPServiceInformation (@Nonnull final ISMPServiceInformation aSMPServiceInformation)
   {
@@ -154,45 +209,52 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                                                    aSMPServiceInformation.getExtensions ()
                                                                                                          .getExtensionsAsJsonString ()));
 
+      // Insert new processes and endpoints
+      final ICommonsList <Object []> aProcessRows = new CommonsArrayList <> ();
+      final ICommonsList <Object []> aEndpointRows = new CommonsArrayList <> ();
       for (final ISMPProcess aProcess : aSMPServiceInformation.getAllProcesses ())
       {
         final IProcessIdentifier aProcessID = aProcess.getProcessIdentifier ();
-        aExecutor.insertOrUpdateOrDelete ("INSERT INTO smp_process (businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, processIdentifierType, processIdentifier, extension) VALUES (?, ?, ?, ?, ?, ?, ?)",
-                                          new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                     aPID.getValue (),
-                                                                                     aDocTypeID.getScheme (),
-                                                                                     aDocTypeID.getValue (),
-                                                                                     aProcessID.getScheme (),
-                                                                                     aProcessID.getValue (),
-                                                                                     aProcess.getExtensions ()
-                                                                                             .getExtensionsAsJsonString ()));
-        // Insert new endpoints
+        aProcessRows.add (new Object [] { aPID.getScheme (),
+                                          aPID.getValue (),
+                                          aDocTypeID.getScheme (),
+                                          aDocTypeID.getValue (),
+                                          aProcessID.getScheme (),
+                                          aProcessID.getValue (),
+                                          aProcess.getExtensions ().getExtensionsAsJsonString () });
         for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
         {
-          aExecutor.insertOrUpdateOrDelete ("INSERT INTO smp_endpoint (businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, processIdentifierType, processIdentifier," +
-                                            " certificate, endpointReference, minimumAuthenticationLevel, requireBusinessLevelSignature, serviceActivationDate, serviceDescription, serviceExpirationDate, technicalContactUrl, technicalInformationUrl, transportProfile," +
-                                            " extension) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                                            new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                       aPID.getValue (),
-                                                                                       aDocTypeID.getScheme (),
-                                                                                       aDocTypeID.getValue (),
-                                                                                       aProcessID.getScheme (),
-                                                                                       aProcessID.getValue (),
-                                                                                       aEndpoint.getCertificate (),
-                                                                                       aEndpoint.getEndpointReference (),
-                                                                                       aEndpoint.getMinimumAuthenticationLevel (),
-                                                                                       Boolean.valueOf (aEndpoint.isRequireBusinessLevelSignature ()),
-                                                                                       DBValueHelper.toTimestamp (aEndpoint.getServiceActivationDateTime ()),
-                                                                                       aEndpoint.getServiceDescription (),
-                                                                                       DBValueHelper.toTimestamp (aEndpoint.getServiceExpirationDateTime ()),
-                                                                                       aEndpoint.getTechnicalContactUrl (),
-                                                                                       aEndpoint.getTechnicalInformationUrl (),
-                                                                                       aEndpoint.getTransportProfile (),
-                                                                                       aEndpoint.getExtensions ()
-                                                                                                .getExtensionsAsJsonString ()));
+          aEndpointRows.add (new Object [] { aPID.getScheme (),
+                                             aPID.getValue (),
+                                             aDocTypeID.getScheme (),
+                                             aDocTypeID.getValue (),
+                                             aProcessID.getScheme (),
+                                             aProcessID.getValue (),
+                                             aEndpoint.getCertificate (),
+                                             aEndpoint.getEndpointReference (),
+                                             aEndpoint.getMinimumAuthenticationLevel (),
+                                             Boolean.valueOf (aEndpoint.isRequireBusinessLevelSignature ()),
+                                             DBValueHelper.toTimestamp (aEndpoint.getServiceActivationDateTime ()),
+                                             aEndpoint.getServiceDescription (),
+                                             DBValueHelper.toTimestamp (aEndpoint.getServiceExpirationDateTime ()),
+                                             aEndpoint.getTechnicalContactUrl (),
+                                             aEndpoint.getTechnicalInformationUrl (),
+                                             aEndpoint.getTransportProfile (),
+                                             aEndpoint.getExtensions ().getExtensionsAsJsonString () });
         }
       }
+
+      // All statements use the connection of the current transaction
+      _insertRows (aExecutor,
+                   "INSERT INTO smp_process (businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, processIdentifierType, processIdentifier, extension) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                   aProcessRows);
+      _insertRows (aExecutor,
+                   "INSERT INTO smp_endpoint (businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, processIdentifierType, processIdentifier," +
+                              " certificate, endpointReference, minimumAuthenticationLevel, requireBusinessLevelSignature, serviceActivationDate, serviceDescription, serviceExpirationDate, technicalContactUrl, technicalInformationUrl, transportProfile," +
+                              " extension) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                   aEndpointRows);
     });
+    onDataModified ();
     if (eSuccess.isFailure ())
       return ESuccess.FAILURE;
 
@@ -252,26 +314,16 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
       final IParticipantIdentifier aPID = aSMPServiceInformation.getServiceGroup ().getParticipantIdentifier ();
       final IDocumentTypeIdentifier aDocTypeID = aSMPServiceInformation.getDocumentTypeIdentifier ();
-      final long nCountEP = aExecutor.insertOrUpdateOrDelete ("DELETE FROM smp_endpoint" +
-                                                              " WHERE businessIdentifierScheme=? AND businessIdentifier=? AND documentIdentifierScheme=? AND documentIdentifier=?",
-                                                              new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                                         aPID.getValue (),
-                                                                                                         aDocTypeID.getScheme (),
-                                                                                                         aDocTypeID.getValue ()));
-      final long nCountProc = aExecutor.insertOrUpdateOrDelete ("DELETE FROM smp_process" +
-                                                                " WHERE businessIdentifierScheme=? AND businessIdentifier=? AND documentIdentifierScheme=? AND documentIdentifier=?",
-                                                                new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                                           aPID.getValue (),
-                                                                                                           aDocTypeID.getScheme (),
-                                                                                                           aDocTypeID.getValue ()));
+      // Processes and endpoints are deleted via "ON DELETE CASCADE"
       final long nCountSM = aExecutor.insertOrUpdateOrDelete ("DELETE FROM smp_service_metadata" +
                                                               " WHERE businessIdentifierScheme=? AND businessIdentifier=? AND documentIdentifierScheme=? AND documentIdentifier=?",
                                                               new ConstantPreparedStatementDataProvider (aPID.getScheme (),
                                                                                                          aPID.getValue (),
                                                                                                          aDocTypeID.getScheme (),
                                                                                                          aDocTypeID.getValue ()));
-      ret.set (Long.valueOf (nCountEP + nCountProc + nCountSM));
+      ret.set (Long.valueOf (nCountSM));
     });
+    onDataModified ();
     if (eSuccess.isFailure ())
       return EChange.UNCHANGED;
     return EChange.valueOf (ret.get ().longValue () > 0);
@@ -309,23 +361,17 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     final DBExecutor aExecutor = newExecutor ();
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
       // get the old ones first
-      aAllDeleted.set (getAllSMPServiceInformationOfServiceGroup (aServiceGroup));
+      aAllDeleted.set (readFromPrimary ( () -> getAllSMPServiceInformationOfServiceGroup (aServiceGroup)));
 
       final IParticipantIdentifier aPID = aServiceGroup.getParticipantIdentifier ();
-      final long nCountEP = aExecutor.insertOrUpdateOrDelete ("DELETE FROM smp_endpoint" +
-                                                              " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
-                                                              new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                                         aPID.getValue ()));
-      final long nCountProc = aExecutor.insertOrUpdateOrDelete ("DELETE FROM smp_process" +
-                                                                " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
-                                                                new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                                           aPID.getValue ()));
+      // Processes and endpoints are deleted via "ON DELETE CASCADE"
       final long nCountSM = aExecutor.insertOrUpdateOrDelete ("DELETE FROM smp_service_metadata" +
                                                               " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
                                                               new ConstantPreparedStatementDataProvider (aPID.getScheme (),
                                                                                                          aPID.getValue ()));
-      ret.set (Long.valueOf (nCountEP + nCountProc + nCountSM));
+      ret.set (Long.valueOf (nCountSM));
     });
+    onDataModified ();
     if (eSuccess.isFailure () || ret.get ().longValue () <= 0)
     {
       AuditHelper.onAuditDeleteFailure (SMPServiceInformation.OT, "no-such-id", aServiceGroup.getID ());
@@ -374,10 +420,14 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                                                                            aProcessID.getValue ()));
       ret.set (Long.valueOf (nCountEP + nCountProc));
     });
+    onDataModified ();
     if (eSuccess.isFailure ())
       return EChange.UNCHANGED;
 
-    return EChange.valueOf (ret.get ().longValue () > 0);
+    final EChange eChange = EChange.valueOf (ret.get ().longValue () > 0);
+    if (eChange.isChanged ())
+      m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aSMPServiceInformation));
+    return eChange;
   }
 
   @Nonnull
@@ -385,7 +435,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
   public ICommonsList <ISMPServiceInformation> getAllSMPServiceInformation ()
   {
     final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> ();
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.businessIdentifierScheme, sm.businessIdentifier, sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sm.businessIdentifierScheme, sm.businessIdentifier, sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
                                                                           "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
                                                                           "   se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
                                                                           "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
@@ -469,7 +519,62 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
   @Nonnegative
   public long getSMPServiceInformationCount ()
   {
-    return newExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_metadata");
+    return newReadOnlyExecutor ().queryCount ("SELECT COUNT(*) FROM smp_service_metadata");
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  private static ICommonsList <ISMPServiceInformation> _toServiceInformation (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                                             @Nonnull final ICommonsList <DBResultRow> aDBResult)
+  {
+    final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> ();
+    final ICommonsMap <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>> aGrouping = new CommonsHashMap <> ();
+    for (final DBResultRow aDBRow : aDBResult)
+    {
+      // Document type ID and extension
+      final IDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (aDBRow.getAsString (0),
+                                                                                   aDBRow.getAsString (1));
+      final String sServiceInformationExtension = aDBRow.getAsString (2);
+      // Process without endpoints
+      final SMPProcess aProcess = new SMPProcess (new SimpleProcessIdentifier (aDBRow.getAsString (3),
+                                                                               aDBRow.getAsString (4)),
+                                                  null,
+                                                  aDBRow.getAsString (5));
+      // Don't add endpoint to process, because that impacts
+      // SMPProcess.equals/hashcode
+      final SMPEndpoint aEndpoint = new SMPEndpoint (aDBRow.getAsString (6),
+                                                     aDBRow.getAsString (7),
+                                                     aDBRow.getAsBoolean (8,
+                                                                          SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE),
+                                                     aDBRow.getAsString (9),
+                                                     aDBRow.getAsXMLOffsetDateTime (10),
+                                                     aDBRow.getAsXMLOffsetDateTime (11),
+                                                     aDBRow.getAsString (12),
+                                                     aDBRow.getAsString (13),
+                                                     aDBRow.getAsString (14),
+                                                     aDBRow.getAsString (15),
+                                                     aDBRow.getAsString (16));
+      aGrouping.computeIfAbsent (new DocTypeAndExtension (aDocTypeID, sServiceInformationExtension),
+                                 k -> new CommonsHashMap <> ())
+               .computeIfAbsent (aProcess, k -> new CommonsArrayList <> ())
+               .add (aEndpoint);
+    }
+
+    for (final Map.Entry <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>> aEntry : aGrouping.entrySet ())
+    {
+      // Flatten list
+      final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> ();
+      for (final Map.Entry <SMPProcess, ICommonsList <SMPEndpoint>> aEntry2 : aEntry.getValue ().entrySet ())
+      {
+        final SMPProcess aProcess = aEntry2.getKey ();
+        aProcess.addEndpoints (aEntry2.getValue ());
+        aProcesses.add (aProcess);
+      }
+
+      final DocTypeAndExtension aDE = aEntry.getKey ();
+      ret.add (new SMPServiceInformation (aServiceGroup, aDE.m_aDocTypeID, aProcesses, aDE.m_sExt));
+    }
+    return ret;
   }
 
   @Nonnull
@@ -480,7 +585,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     if (aServiceGroup != null)
     {
       final IParticipantIdentifier aPID = aServiceGroup.getParticipantIdentifier ();
-      final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
+      final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
                                                                             "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
                                                                             "   se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
                                                                             "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
@@ -497,52 +602,90 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                                             new ConstantPreparedStatementDataProvider (aPID.getScheme (),
                                                                                                                        aPID.getValue ()));
       if (aDBResult != null)
-      {
-        final ICommonsMap <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>> aGrouping = new CommonsHashMap <> ();
-        for (final DBResultRow aDBRow : aDBResult)
-        {
-          // Document type ID and extension
-          final IDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (aDBRow.getAsString (0),
-                                                                                       aDBRow.getAsString (1));
-          final String sServiceInformationExtension = aDBRow.getAsString (2);
-          // Process without endpoints
-          final SMPProcess aProcess = new SMPProcess (new SimpleProcessIdentifier (aDBRow.getAsString (3),
-                                                                                   aDBRow.getAsString (4)),
-                                                      null,
-                                                      aDBRow.getAsString (5));
-          // Don't add endpoint to process, because that impacts
-          // SMPProcess.equals/hashcode
-          final SMPEndpoint aEndpoint = new SMPEndpoint (aDBRow.getAsString (6),
-                                                         aDBRow.getAsString (7),
-                                                         aDBRow.getAsBoolean (8,
-                                                                              SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE),
-                                                         aDBRow.getAsString (9),
-                                                         aDBRow.getAsXMLOffsetDateTime (10),
-                                                         aDBRow.getAsXMLOffsetDateTime (11),
-                                                         aDBRow.getAsString (12),
-                                                         aDBRow.getAsString (13),
-                                                         aDBRow.getAsString (14),
-                                                         aDBRow.getAsString (15),
-                                                         aDBRow.getAsString (16));
-          aGrouping.computeIfAbsent (new DocTypeAndExtension (aDocTypeID, sServiceInformationExtension),
-                                     k -> new CommonsHashMap <> ())
-                   .computeIfAbsent (aProcess, k -> new CommonsArrayList <> ())
-                   .add (aEndpoint);
-        }
+        ret.addAll (_toServiceInformation (aServiceGroup, aDBResult));
+    }
+    return ret;
+  }
+
+  @Override
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getSMPServiceInformationPageOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                                                          @Nullable final IDocumentTypeIdentifier aAfterDocTypeID,
+                                                                                          @Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
 
-        for (final Map.Entry <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>> aEntry : aGrouping.entrySet ())
+    final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> ();
+    if (aServiceGroup != null)
+    {
+      final IParticipantIdentifier aPID = aServiceGroup.getParticipantIdentifier ();
+      final EDatabaseType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+      final DBExecutor aExecutor = newReadOnlyExecutor ();
+
+      // Determine the document types of the page in the database order. Only
+      // document types with endpoints are returned by the main query anyway.
+      final ICommonsList <Object> aParams = new CommonsArrayList <> (aPID.getScheme (), aPID.getValue ());
+      String sAfterCondition = "";
+      if (aAfterDocTypeID != null)
+      {
+        sAfterCondition = " AND (se.documentIdentifierScheme>? OR (se.documentIdentifierScheme=? AND se.documentIdentifier>?))";
+        aParams.addAll (aAfterDocTypeID.getScheme (), aAfterDocTypeID.getScheme (), aAfterDocTypeID.getValue ());
+      }
+      eDBType.addPagingParameters (aParams, 0, nMaxCount);
+      final ICommonsList <IDocumentTypeIdentifier> aPageDocTypeIDs = new CommonsArrayList <> ();
+      aExecutor.queryAll ("SELECT se.documentIdentifierScheme, se.documentIdentifier" +
+                          " FROM smp_endpoint se" +
+                          " WHERE se.businessIdentifierScheme=? AND se.businessIdentifier=?" +
+                          sAfterCondition +
+                          " GROUP BY se.documentIdentifierScheme, se.documentIdentifier" +
+                          " ORDER BY se.documentIdentifierScheme, se.documentIdentifier" +
+                          eDBType.getPagingClause (),
+                          new ConstantPreparedStatementDataProvider (aParams.toArray ()),
+                          aRow -> aPageDocTypeIDs.add (new SimpleDocumentTypeIdentifier (aRow.getAsString (0),
+                                                                                         aRow.getAsString (1))));
+
+      if (aPageDocTypeIDs.isNotEmpty ())
+      {
+        // Read the complete page in one query by the document type range
+        final IDocumentTypeIdentifier aFirst = aPageDocTypeIDs.getFirstOrNull ();
+        final IDocumentTypeIdentifier aLast = aPageDocTypeIDs.getLastOrNull ();
+        final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
+                                                                         "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
+                                                                         "   se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
+                                                                         "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
+                                                                         "     se.technicalContactUrl, se.technicalInformationUrl, se.extension" +
+                                                                         " FROM smp_service_metadata sm" +
+                                                                         " INNER JOIN smp_process sp" +
+                                                                         "   ON sm.businessIdentifierScheme=sp.businessIdentifierScheme AND sm.businessIdentifier=sp.businessIdentifier" +
+                                                                         "   AND sm.documentIdentifierScheme=sp.documentIdentifierScheme AND sm.documentIdentifier=sp.documentIdentifier" +
+                                                                         " INNER JOIN smp_endpoint se" +
+                                                                         "   ON sp.businessIdentifierScheme=se.businessIdentifierScheme AND sp.businessIdentifier=se.businessIdentifier" +
+                                                                         "   AND sp.documentIdentifierScheme=se.documentIdentifierScheme AND sp.documentIdentifier=se.documentIdentifier" +
+                                                                         "   AND sp.processIdentifierType=se.processIdentifierType AND sp.processIdentifier=se.processIdentifier" +
+                                                                         " WHERE sm.businessIdentifierScheme=? AND sm.businessIdentifier=?" +
+                                                                         "   AND (sm.documentIdentifierScheme>? OR (sm.documentIdentifierScheme=? AND sm.documentIdentifier>=?))" +
+                                                                         "   AND (sm.documentIdentifierScheme<? OR (sm.documentIdentifierScheme=? AND sm.documentIdentifier<=?))",
+                                                                         new ConstantPreparedStatementDataProvider (aPID.getScheme (),
+                                                                                                                    aPID.getValue (),
+                                                                                                                    aFirst.getScheme (),
+                                                                                                                    aFirst.getScheme (),
+                                                                                                                    aFirst.getValue (),
+                                                                                                                    aLast.getScheme (),
+                                                                                                                    aLast.getScheme (),
+                                                                                                                    aLast.getValue ()));
+        if (aDBResult != null)
         {
-          // Flatten list
-          final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> ();
-          for (final Map.Entry <SMPProcess, ICommonsList <SMPEndpoint>> aEntry2 : aEntry.getValue ().entrySet ())
+          // Restore the page order
+          final ICommonsMap <IDocumentTypeIdentifier, ISMPServiceInformation> aMap = new CommonsHashMap <> ();
+          for (final ISMPServiceInformation aServiceInfo : _toServiceInformation (aServiceGroup, aDBResult))
+            aMap.put (aServiceInfo.getDocumentTypeIdentifier (), aServiceInfo);
+          for (final IDocumentTypeIdentifier aDocTypeID : aPageDocTypeIDs)
           {
-            final SMPProcess aProcess = aEntry2.getKey ();
-            aProcess.addEndpoints (aEntry2.getValue ());
-            aProcesses.add (aProcess);
+            final ISMPServiceInformation aServiceInfo = aMap.get (aDocTypeID);
+            if (aServiceInfo != null)
+              ret.add (aServiceInfo);
           }
-
-          final DocTypeAndExtension aDE = aEntry.getKey ();
-          ret.add (new SMPServiceInformation (aServiceGroup, aDE.m_aDocTypeID, aProcesses, aDE.m_sExt));
         }
       }
     }
@@ -557,7 +700,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     if (aServiceGroup != null)
     {
       final IParticipantIdentifier aPID = aServiceGroup.getParticipantIdentifier ();
-      final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier" +
+      final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier" +
                                                                             " FROM smp_service_metadata sm" +
                                                                             " WHERE sm.businessIdentifierScheme=? AND sm.businessIdentifier=?",
                                                                             new ConstantPreparedStatementDataProvider (aPID.getScheme (),
@@ -569,6 +712,33 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     return ret;
   }
 
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesWithEndpointsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (aServiceGroup != null)
+    {
+      final IParticipantIdentifier aPID = aServiceGroup.getParticipantIdentifier ();
+      // Each endpoint implies an existing process and service metadata
+      final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT se.documentIdentifierScheme, se.documentIdentifier, COUNT(*)" +
+                                                                            " FROM smp_endpoint se" +
+                                                                            " WHERE se.businessIdentifierScheme=? AND se.businessIdentifier=?" +
+                                                                            " GROUP BY se.documentIdentifierScheme, se.documentIdentifier",
+                                                                            new ConstantPreparedStatementDataProvider (aPID.getScheme (),
+                                                                                                                       aPID.getValue ()));
+      if (aDBResult != null)
+        for (final DBResultRow aRow : aDBResult)
+        {
+          final int nEndpointCount = aRow.getAsInt (2);
+          if (nEndpointCount > 0)
+            ret.put (new SimpleDocumentTypeIdentifier (aRow.getAsString (0), aRow.getAsString (1)),
+                     Integer.valueOf (nEndpointCount));
+        }
+    }
+    return ret;
+  }
+
   @Nullable
   public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType (@Nullable final ISMPServiceGroup aServiceGroup,
                                                                                        @Nullable final IDocumentTypeIdentifier aDocTypeID)
@@ -579,7 +749,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
       return null;
 
     final IParticipantIdentifier aPID = aServiceGroup.getParticipantIdentifier ();
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.extension," +
+    final ICommonsList <DBResultRow> aDBResult = newReadOnlyExecutor ().queryAll ("SELECT sm.extension," +
                                                                           "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
                                                                           "   se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
                                                                           "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
@@ -642,7 +812,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     if (StringHelper.hasNoText (sTransportProfileID))
       return false;
 
-    final long nCount = newExecutor ().queryCount ("SELECT COUNT(*) FROM smp_endpoint WHERE transportProfile=?",
+    final long nCount = newReadOnlyExecutor ().queryCount ("SELECT COUNT(*) FROM smp_endpoint WHERE transportProfile=?",
                                                    new ConstantPreparedStatementDataProvider (sTransportProfileID));
     return nCount > 0;
   }
@@ -22,14 +22,10 @@ import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
-import com.helger.commons.annotation.UsedViaReflection;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.attr.IStringMap;
 import com.helger.commons.collection.attr.StringMap;
@@ -46,11 +42,12 @@ import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
 import com.helger.db.jdbc.executor.DBResultRow;
 import com.helger.db.jdbc.mgr.AbstractJDBCEnabledManager;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.settings.ISMPSettingsCallback;
 import com.helger.phoss.smp.settings.ISMPSettingsManager;
 import com.helger.phoss.smp.settings.SMPSettings;
-import com.helger.web.scope.singleton.AbstractRequestWebSingleton;
+import com.helger.phoss.smp.settings.SMPSettingsSnapshotCache;
 
 public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implements ISMPSettingsManager
 {
@@ -62,8 +59,11 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
   private static final String SML_REQUIRED = "sml-required";
   private static final String SML_ENABLED = "sml-enabled";
   private static final String SML_INFO_ID = "smlinfo-id";
+  // Changed with every update of the settings
+  private static final String SETTINGS_VERSION = "settings-version";
 
   private final CallbackList <ISMPSettingsCallback> m_aCallbacks = new CallbackList <> ();
+  private final SMPSettingsSnapshotCache m_aSnapshotCache;
 
   /**
    * Constructor
@@ -75,6 +75,10 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
   public SMPSettingsManagerJDBC (@Nonnull final Supplier <? extends DBExecutor> aDBExecSupplier)
   {
     super (aDBExecSupplier);
+    m_aSnapshotCache = new SMPSettingsSnapshotCache ( () -> getSettingsValue (SETTINGS_VERSION),
+                                                      () -> _toSettings (getAllSettingsValuesFromDB ()),
+                                                      x -> m_aCallbacks.forEach (y -> y.onSMPSettingsChanged (x)),
+                                                      SMPServerConfiguration.getSettingsVersionCheckSeconds ());
   }
 
   @Nonnull
@@ -164,68 +168,30 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
     return getSettingsValueFromDB (newExecutor (), sKey);
   }
 
-  public static class SettingsSingleton extends AbstractRequestWebSingleton
+  @Nonnull
+  private static ISMPSettings _toSettings (@Nonnull final Map <String, String> aValues)
   {
-    private static final Logger LOGGER = LoggerFactory.getLogger (SMPSettingsManagerJDBC.SettingsSingleton.class);
-    private ISMPSettings m_aSettings;
-
-    @Deprecated
-    @UsedViaReflection
-    public SettingsSingleton ()
-    {}
-
-    @Nonnull
-    public static SettingsSingleton getInstance ()
-    {
-      return getRequestSingleton (SettingsSingleton.class);
-    }
-
-    @Nonnull
-    private ISMPSettings _getSettingsFromDB (@Nonnull final SMPSettingsManagerJDBC aMgr)
-    {
-      // Queries DB
-      final ICommonsMap <String, String> aValues = aMgr.getAllSettingsValuesFromDB ();
-
-      final SMPSettings ret = new SMPSettings (false);
-      ret.setRESTWritableAPIDisabled (StringParser.parseBool (aValues.get (SMP_REST_WRITABLE_API_DISABLED),
-                                                              SMPSettings.DEFAULT_SMP_REST_WRITABLE_API_DISABLED));
-      ret.setDirectoryIntegrationEnabled (StringParser.parseBool (aValues.get (DIRECTORY_INTEGRATION_ENABLED),
-                                                                  SMPSettings.DEFAULT_SMP_DIRECTORY_INTEGRATION_ENABLED));
-      ret.setDirectoryIntegrationRequired (StringParser.parseBool (aValues.get (DIRECTORY_INTEGRATION_REQUIRED),
-                                                                   SMPSettings.DEFAULT_SMP_DIRECTORY_INTEGRATION_REQUIRED));
-      ret.setDirectoryIntegrationAutoUpdate (StringParser.parseBool (aValues.get (DIRECTORY_INTEGRATION_AUTO_UPDATE),
-                                                                     SMPSettings.DEFAULT_SMP_DIRECTORY_INTEGRATION_AUTO_UPDATE));
-      ret.setDirectoryHostName (aValues.get (DIRECTORY_HOSTNAME));
-      ret.setSMLEnabled (StringParser.parseBool (aValues.get (SML_ENABLED), SMPSettings.DEFAULT_SML_ENABLED));
-      ret.setSMLRequired (StringParser.parseBool (aValues.get (SML_REQUIRED), SMPSettings.DEFAULT_SML_REQUIRED));
-      ret.setSMLInfoID (aValues.get (SML_INFO_ID));
-      return ret;
-    }
-
-    @Nonnull
-    public ISMPSettings getSettings (@Nonnull final SMPSettingsManagerJDBC aMgr)
-    {
-      ISMPSettings ret = m_aSettings;
-      if (ret == null)
-      {
-        if (LOGGER.isDebugEnabled ())
-          LOGGER.debug ("Loading SMP settings from DB");
-        ret = m_aSettings = _getSettingsFromDB (aMgr);
-      }
-      else
-      {
-        if (LOGGER.isDebugEnabled ())
-          LOGGER.debug ("Reusing SMP settings of request");
-      }
-      return ret;
-    }
+    final SMPSettings ret = new SMPSettings (false);
+    ret.setRESTWritableAPIDisabled (StringParser.parseBool (aValues.get (SMP_REST_WRITABLE_API_DISABLED),
+                                                            SMPSettings.DEFAULT_SMP_REST_WRITABLE_API_DISABLED));
+    ret.setDirectoryIntegrationEnabled (StringParser.parseBool (aValues.get (DIRECTORY_INTEGRATION_ENABLED),
+                                                                SMPSettings.DEFAULT_SMP_DIRECTORY_INTEGRATION_ENABLED));
+    ret.setDirectoryIntegrationRequired (StringParser.parseBool (aValues.get (DIRECTORY_INTEGRATION_REQUIRED),
+                                                                 SMPSettings.DEFAULT_SMP_DIRECTORY_INTEGRATION_REQUIRED));
+    ret.setDirectoryIntegrationAutoUpdate (StringParser.parseBool (aValues.get (DIRECTORY_INTEGRATION_AUTO_UPDATE),
+                                                                   SMPSettings.DEFAULT_SMP_DIRECTORY_INTEGRATION_AUTO_UPDATE));
+    ret.setDirectoryHostName (aValues.get (DIRECTORY_HOSTNAME));
+    ret.setSMLEnabled (StringParser.parseBool (aValues.get (SML_ENABLED), SMPSettings.DEFAULT_SML_ENABLED));
+    ret.setSMLRequired (StringParser.parseBool (aValues.get (SML_REQUIRED), SMPSettings.DEFAULT_SML_REQUIRED));
+    ret.setSMLInfoID (aValues.get (SML_INFO_ID));
+    return ret;
   }
 
   @Nonnull
   public ISMPSettings getSettings ()
   {
-    // Construct to read the settings only once per request
-    return SettingsSingleton.getInstance ().getSettings (this);
+    // Usually served without a DB query
+    return m_aSnapshotCache.getSettings ();
   }
 
   @Nonnull
@@ -247,10 +213,19 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
     aMap.putIn (SML_ENABLED, bSMLEnabled);
     aMap.putIn (SML_REQUIRED, bSMLRequired);
     aMap.putIn (SML_INFO_ID, sSMLInfoID);
+    // Let the other nodes know about the change
+    final String sVersion = SMPSettingsSnapshotCache.createNewVersion ();
+    aMap.putIn (SETTINGS_VERSION, sVersion);
 
     // Save
     if (setSettingsValuesInDB (aMap).isFailure ())
       return EChange.UNCHANGED;
+
+    final ISMPSettings aSettings = _toSettings (aMap);
+    m_aSnapshotCache.setSettings (aSettings, sVersion);
+
+    // Invoke callbacks
+    m_aCallbacks.forEach (x -> x.onSMPSettingsChanged (aSettings));
     return EChange.CHANGED;
   }
 }
@@ -0,0 +1,27 @@
+--
+-- Copyright (C) 2019-2024 Philip Helger and contributors
+-- philip[at]helger[dot]com
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+CREATE TABLE smp_sg_changelog (
+    id       bigint       NOT NULL  GENERATED ALWAYS AS IDENTITY (START WITH 1 INCREMENT BY 1),
+    pid      varchar(255) NOT NULL,
+    nodeid   varchar(64)  NOT NULL,
+    changedt timestamp    NOT NULL,
+    CONSTRAINT pk_smp_sg_changelog PRIMARY KEY
+      (id)
+  );
+
+CREATE INDEX idx_smp_sg_changelog_dt ON smp_sg_changelog (changedt);
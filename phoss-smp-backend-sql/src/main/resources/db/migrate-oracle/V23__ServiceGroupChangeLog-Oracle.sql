@@ -0,0 +1,31 @@
+--
+-- Copyright (C) 2019-2024 Philip Helger and contributors
+-- philip[at]helger[dot]com
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+CREATE TABLE smp_sg_changelog (
+  id       number       GENERATED BY DEFAULT ON NULL AS IDENTITY,
+  pid      varchar(255) NOT NULL,
+  nodeid   varchar(64)  NOT NULL,
+  changedt timestamp    NOT NULL,
+  CONSTRAINT smp_sg_changelog_pk PRIMARY KEY (id) USING INDEX tablespace USERS
+) tablespace USERS;
+
+CREATE INDEX idx_smp_sg_changelog_dt ON smp_sg_changelog (changedt) tablespace USERS;
+
+COMMENT ON COLUMN smp_sg_changelog.id       IS 'Monotonically increasing sequence';
+COMMENT ON COLUMN smp_sg_changelog.pid      IS 'Participant/Business ID';
+COMMENT ON COLUMN smp_sg_changelog.nodeid   IS 'The ID of the SMP node that performed the change';
+COMMENT ON COLUMN smp_sg_changelog.changedt IS 'The date and time of the change';
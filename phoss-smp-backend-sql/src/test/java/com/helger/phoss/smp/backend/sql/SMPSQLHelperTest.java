@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPSQLHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPSQLHelperTest
+{
+  @Test
+  public void testGetLikeContainsPattern ()
+  {
+    assertEquals ("%%", SMPSQLHelper.getLikeContainsPattern (""));
+    assertEquals ("%iso6523-actorid-upis::0088:abc%", SMPSQLHelper.getLikeContainsPattern ("iso6523-actorid-upis::0088:ABC"));
+    // Wildcards and the escape character are escaped
+    assertEquals ("%a!%b!_c!!d%", SMPSQLHelper.getLikeContainsPattern ("a%b_c!d"));
+  }
+}
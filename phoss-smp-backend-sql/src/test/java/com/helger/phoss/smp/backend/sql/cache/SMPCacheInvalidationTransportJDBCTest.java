@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+
+/**
+ * Test class for class {@link SMPCacheInvalidationTransportJDBC}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCacheInvalidationTransportJDBCTest
+{
+  @Nonnull
+  private static SMPCacheInvalidationTransportJDBC _createTransport ()
+  {
+    // No database access in these tests
+    return new SMPCacheInvalidationTransportJDBC ( () -> {
+      throw new UnsupportedOperationException ();
+    }, 1000, 3600);
+  }
+
+  @Test
+  public void testDispatchOnce ()
+  {
+    final SMPCacheInvalidationTransportJDBC aTransport = _createTransport ();
+    final ICommonsList <String> aReceived = new CommonsArrayList <> ();
+    final Consumer <String> aHandler = aReceived::add;
+
+    assertTrue (aTransport.handleChangeLogEntry (1, "a", "other", aHandler));
+    assertTrue (aTransport.handleChangeLogEntry (2, "b", "other", aHandler));
+    aTransport.pruneHandledIDs ();
+
+    // The next poll reads the same rows again within the lookback window
+    assertEquals (0, aTransport.getPollStartID ());
+    assertFalse (aTransport.handleChangeLogEntry (1, "a", "other", aHandler));
+    assertFalse (aTransport.handleChangeLogEntry (2, "b", "other", aHandler));
+    assertTrue (aTransport.handleChangeLogEntry (3, "c", "other", aHandler));
+    aTransport.pruneHandledIDs ();
+
+    assertEquals (new CommonsArrayList <> ("a", "b", "c"), aReceived);
+    assertEquals (3, aTransport.getReceivedCount ());
+  }
+
+  @Test
+  public void testOwnNode ()
+  {
+    final SMPCacheInvalidationTransportJDBC aTransport = _createTransport ();
+    final ICommonsList <String> aReceived = new CommonsArrayList <> ();
+
+    assertFalse (aTransport.handleChangeLogEntry (1, "a", aTransport.getNodeID (), aReceived::add));
+    assertTrue (aReceived.isEmpty ());
+    assertEquals (0, aTransport.getReceivedCount ());
+  }
+
+  @Test
+  public void testOutOfOrder ()
+  {
+    final SMPCacheInvalidationTransportJDBC aTransport = _createTransport ();
+    final ICommonsList <String> aReceived = new CommonsArrayList <> ();
+    final Consumer <String> aHandler = aReceived::add;
+
+    // ID 2 becomes visible before ID 1
+    assertTrue (aTransport.handleChangeLogEntry (2, "b", "other", aHandler));
+    aTransport.pruneHandledIDs ();
+    assertTrue (aTransport.handleChangeLogEntry (1, "a", "other", aHandler));
+    assertFalse (aTransport.handleChangeLogEntry (2, "b", "other", aHandler));
+    aTransport.pruneHandledIDs ();
+
+    assertEquals (new CommonsArrayList <> ("b", "a"), aReceived);
+  }
+
+  @Test
+  public void testPrune ()
+  {
+    final SMPCacheInvalidationTransportJDBC aTransport = _createTransport ();
+    final Consumer <String> aHandler = x -> {};
+
+    for (int i = 1; i <= 1000; ++i)
+      aTransport.handleChangeLogEntry (i, "a" + i, "other", aHandler);
+    aTransport.pruneHandledIDs ();
+
+    // Only the IDs that are read again are remembered
+    final long nStartID = aTransport.getPollStartID ();
+    assertTrue (nStartID > 0);
+    assertEquals (1000 - nStartID, aTransport.getHandledIDCount ());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2019-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPInvalidationStamps}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPInvalidationStampsTest
+{
+  private static final String KEY1 = "iso6523-actorid-upis::0088:1";
+  private static final String KEY2 = "iso6523-actorid-upis::0088:2";
+
+  @Test
+  public void testSameKey ()
+  {
+    final SMPInvalidationStamps aStamps = new SMPInvalidationStamps ();
+    final long nStamp = aStamps.getStamp (KEY1);
+    assertTrue (aStamps.isCurrent (KEY1, nStamp));
+
+    // A read started before the invalidation must not be cached
+    aStamps.invalidate (KEY1);
+    assertFalse (aStamps.isCurrent (KEY1, nStamp));
+
+    // A read started after the invalidation may be cached
+    assertTrue (aStamps.isCurrent (KEY1, aStamps.getStamp (KEY1)));
+  }
+
+  @Test
+  public void testOtherKey ()
+  {
+    assertNotEquals (SMPInvalidationStamps.getStripe (KEY1), SMPInvalidationStamps.getStripe (KEY2));
+
+    final SMPInvalidationStamps aStamps = new SMPInvalidationStamps ();
+    final long nStamp2 = aStamps.getStamp (KEY2);
+
+    // An invalidation of another key must not prevent caching
+    aStamps.invalidate (KEY1);
+    assertTrue (aStamps.isCurrent (KEY2, nStamp2));
+    assertEquals (nStamp2, aStamps.getStamp (KEY2));
+  }
+
+  @Test
+  public void testInvalidateAll ()
+  {
+    final SMPInvalidationStamps aStamps = new SMPInvalidationStamps ();
+    final long nStamp1 = aStamps.getStamp (KEY1);
+    final long nStamp2 = aStamps.getStamp (KEY2);
+
+    aStamps.invalidateAll ();
+    assertFalse (aStamps.isCurrent (KEY1, nStamp1));
+    assertFalse (aStamps.isCurrent (KEY2, nStamp2));
+  }
+
+  @Test
+  public void testStripe ()
+  {
+    for (final String sKey : new String [] { "", "a", KEY1, KEY2, "a very long key that is used for testing" })
+    {
+      final int nStripe = SMPInvalidationStamps.getStripe (sKey);
+      assertTrue (nStripe >= 0);
+      assertTrue (nStripe < SMPInvalidationStamps.STRIPES);
+    }
+  }
+}
@@ -25,6 +25,8 @@ import com.helger.dao.DAOException;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
+import com.helger.phoss.smp.domain.pdnotification.SMPDirectoryNotificationManagerXML;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.pmigration.SMPParticipantMigrationManagerXML;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
@@ -52,6 +54,7 @@ public final class SMPManagerProviderXML implements ISMPManagerProvider
   public static final String SMP_SERVICE_INFORMATION_XML = "smp-serviceinformation.xml";
   public static final String SMP_PARTICIPANT_MIGRATION_XML = "smp-participant-migration.xml";
   public static final String SMP_BUSINESS_CARD_XML = "smp-business-card.xml";
+  public static final String SMP_DIRECTORY_NOTIFICATION_XML = "smp-directory-notification.xml";
 
   public SMPManagerProviderXML ()
   {}
@@ -155,6 +158,19 @@ public final class SMPManagerProviderXML implements ISMPManagerProvider
     }
   }
 
+  @Nonnull
+  public ISMPDirectoryNotificationManager createDirectoryNotificationMgr ()
+  {
+    try
+    {
+      return new SMPDirectoryNotificationManagerXML (SMP_DIRECTORY_NOTIFICATION_XML);
+    }
+    catch (final DAOException ex)
+    {
+      throw new RuntimeException (ex.getMessage (), ex);
+    }
+  }
+
   @Nullable
   public ISMPBusinessCardManager createBusinessCardMgr (@Nonnull final IIdentifierFactory aIdentifierFactory,
                                                         @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
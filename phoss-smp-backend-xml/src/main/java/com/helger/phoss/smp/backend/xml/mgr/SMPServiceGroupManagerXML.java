@@ -16,6 +16,10 @@
  */
 package com.helger.phoss.smp.backend.xml.mgr;
 
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -28,6 +32,7 @@ import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsSet;
 import com.helger.commons.state.EChange;
@@ -35,6 +40,7 @@ import com.helger.commons.string.StringHelper;
 import com.helger.dao.DAOException;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
@@ -64,10 +70,13 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPServiceGroupManagerXML.class);
 
   private final CallbackList <ISMPServiceGroupCallback> m_aCBs = new CallbackList <> ();
+  // All service group IDs in sort order - guarded by m_aRWLock
+  private final NavigableSet <String> m_aSortedIDs = new TreeSet <> ();
 
   public SMPServiceGroupManagerXML (@Nonnull @Nonempty final String sFilename) throws DAOException
   {
     super (SMPServiceGroup.class, sFilename);
+    m_aRWLock.writeLocked ( () -> m_aSortedIDs.addAll (getAllIDs ()));
   }
 
   @Nonnull
@@ -115,6 +124,7 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
     try
     {
       internalCreateItem (aSMPServiceGroup);
+      m_aSortedIDs.add (aSMPServiceGroup.getID ());
     }
     catch (final RuntimeException ex)
     {
@@ -267,6 +277,7 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
         }
         return EChange.UNCHANGED;
       }
+      m_aSortedIDs.remove (aSMPServiceGroup.getID ());
 
       // Remember all redirects (in case of an error) and delete them
       aOldRedirects = aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aSMPServiceGroup);
@@ -282,7 +293,10 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
 
       // Try to rollback the actions
       if (!containsWithID (aSMPServiceGroup.getID ()))
+      {
         internalCreateItem (aSMPServiceGroup);
+        m_aSortedIDs.add (aSMPServiceGroup.getID ());
+      }
 
       // Restore redirects (if any)
       if (aOldRedirects != null)
@@ -338,6 +352,41 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
     return getAll ();
   }
 
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPServiceGroup> getSMPServiceGroupPage (@Nullable final String sFilter,
+                                                                  final boolean bAscending,
+                                                                  @Nonnegative final int nOffset,
+                                                                  @Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    final ICommonsList <ISMPServiceGroup> aItems = new CommonsArrayList <> ();
+    m_aRWLock.readLock ().lock ();
+    try
+    {
+      // Walk the sorted IDs and only resolve the items of the requested page
+      final Iterator <String> it = bAscending ? m_aSortedIDs.iterator () : m_aSortedIDs.descendingIterator ();
+      int nFilteredCount = 0;
+      while (it.hasNext ())
+      {
+        final String sID = it.next ();
+        if (SMPResultPage.matchesFilter (sID, sFilter))
+        {
+          if (nFilteredCount >= nOffset && aItems.size () < nCount)
+            aItems.add (getOfID (sID));
+          nFilteredCount++;
+        }
+      }
+      return new SMPResultPage <> (aItems, m_aSortedIDs.size (), nFilteredCount);
+    }
+    finally
+    {
+      m_aRWLock.readLock ().unlock ();
+    }
+  }
+
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsSet <String> getAllSMPServiceGroupIDs ()
@@ -24,12 +24,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ELockType;
+import com.helger.commons.annotation.MustBeLocked;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.equals.EqualsHelper;
 import com.helger.commons.state.EChange;
 import com.helger.commons.state.ESuccess;
@@ -62,9 +68,82 @@ public final class SMPServiceInformationManagerXML extends
 
   private final CallbackList <ISMPServiceInformationCallback> m_aCBs = new CallbackList <> ();
 
+  /**
+   * Secondary index: service group ID to (document type ID to service
+   * information). The inner map provides the lookup by the composite key
+   * (service group ID, document type ID). Must be accessed with
+   * {@link #m_aRWLock}.
+   */
+  private final ICommonsMap <String, ICommonsOrderedMap <String, SMPServiceInformation>> m_aIndexSG = new CommonsHashMap <> ();
+
   public SMPServiceInformationManagerXML (@Nonnull @Nonempty final String sFilename) throws DAOException
   {
     super (SMPServiceInformation.class, sFilename);
+
+    // The initial read does not go through internalCreateItem, so build the
+    // index from the read data
+    final ICommonsList <ISMPServiceInformation> aAll = getAll ();
+    m_aRWLock.writeLocked ( () -> {
+      for (final ISMPServiceInformation aSI : aAll)
+        _addToIndex ((SMPServiceInformation) aSI);
+    });
+  }
+
+  @Nonnull
+  private static String _getDocTypeKey (@Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return aDocTypeID.getURIEncoded ();
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _addToIndex (@Nonnull final SMPServiceInformation aSI)
+  {
+    m_aIndexSG.computeIfAbsent (aSI.getServiceGroupID (), k -> new CommonsLinkedHashMap <> ())
+              .put (_getDocTypeKey (aSI.getDocumentTypeIdentifier ()), aSI);
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _removeFromIndex (@Nonnull final SMPServiceInformation aSI)
+  {
+    final String sServiceGroupID = aSI.getServiceGroupID ();
+    final ICommonsOrderedMap <String, SMPServiceInformation> aDocTypeMap = m_aIndexSG.get (sServiceGroupID);
+    if (aDocTypeMap != null)
+    {
+      final String sDocTypeKey = _getDocTypeKey (aSI.getDocumentTypeIdentifier ());
+      // Only remove if it is the same object
+      if (EqualsHelper.identityEqual (aDocTypeMap.get (sDocTypeKey), aSI))
+      {
+        aDocTypeMap.remove (sDocTypeKey);
+        if (aDocTypeMap.isEmpty ())
+          m_aIndexSG.remove (sServiceGroupID);
+      }
+    }
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _createItem (@Nonnull final SMPServiceInformation aSI)
+  {
+    internalCreateItem (aSI);
+    _addToIndex (aSI);
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _updateItem (@Nonnull final SMPServiceInformation aSI)
+  {
+    internalUpdateItem (aSI);
+    // Service group and document type are immutable - just ensure the latest
+    // object is referenced
+    _addToIndex (aSI);
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  @Nullable
+  private SMPServiceInformation _deleteItem (@Nullable final String sID)
+  {
+    final SMPServiceInformation ret = internalDeleteItem (sID);
+    if (ret != null)
+      _removeFromIndex (ret);
+    return ret;
   }
 
   @Nonnull
@@ -120,7 +199,7 @@ public final class SMPServiceInformationManagerXML extends
     {
       // Edit existing
       m_aRWLock.writeLocked ( () -> {
-        internalUpdateItem (aOldInformation);
+        _updateItem (aOldInformation);
       });
 
       AuditHelper.onAuditModifySuccess (SMPServiceInformation.OT,
@@ -146,11 +225,11 @@ public final class SMPServiceInformationManagerXML extends
         if (aOldInformation != null)
         {
           // Delete only if present
-          final SMPServiceInformation aDeletedInformation = internalDeleteItem (aOldInformation.getID ());
+          final SMPServiceInformation aDeletedInformation = _deleteItem (aOldInformation.getID ());
           bRemovedOld = EqualsHelper.identityEqual (aDeletedInformation, aOldInformation);
         }
 
-        internalCreateItem (aSMPServiceInformation);
+        _createItem (aSMPServiceInformation);
       }
       finally
       {
@@ -206,7 +285,7 @@ public final class SMPServiceInformationManagerXML extends
     m_aRWLock.writeLock ().lock ();
     try
     {
-      final SMPServiceInformation aRealServiceInformation = internalDeleteItem (aSMPServiceInformation.getID ());
+      final SMPServiceInformation aRealServiceInformation = _deleteItem (aSMPServiceInformation.getID ());
       if (aRealServiceInformation == null)
       {
         AuditHelper.onAuditDeleteFailure (SMPServiceInformation.OT, aSMPServiceInformation.getID (), "no-such-id");
@@ -279,7 +358,7 @@ public final class SMPServiceInformationManagerXML extends
       }
 
       // Save changes
-      internalUpdateItem (aRealServiceInformation);
+      _updateItem (aRealServiceInformation);
     }
     finally
     {
@@ -292,6 +371,8 @@ public final class SMPServiceInformationManagerXML extends
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("deleteSMPProcess - success");
 
+    m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aRealServiceInformation));
+
     return EChange.CHANGED;
   }
 
@@ -316,7 +397,11 @@ public final class SMPServiceInformationManagerXML extends
     if (aServiceGroup != null)
     {
       final String sServiceGroupID = aServiceGroup.getID ();
-      findAll (x -> x.getServiceGroupID ().equals (sServiceGroupID), ret::add);
+      m_aRWLock.readLocked ( () -> {
+        final ICommonsOrderedMap <String, SMPServiceInformation> aDocTypeMap = m_aIndexSG.get (sServiceGroupID);
+        if (aDocTypeMap != null)
+          ret.addAll (aDocTypeMap.values ());
+      });
     }
     return ret;
   }
@@ -329,9 +414,34 @@ public final class SMPServiceInformationManagerXML extends
     if (aServiceGroup != null)
     {
       final String sServiceGroupID = aServiceGroup.getID ();
-      findAllMapped (aSI -> aSI.getServiceGroupID ().equals (sServiceGroupID),
-                     ISMPServiceInformation::getDocumentTypeIdentifier,
-                     ret::add);
+      m_aRWLock.readLocked ( () -> {
+        final ICommonsOrderedMap <String, SMPServiceInformation> aDocTypeMap = m_aIndexSG.get (sServiceGroupID);
+        if (aDocTypeMap != null)
+          for (final SMPServiceInformation aSI : aDocTypeMap.values ())
+            ret.add (aSI.getDocumentTypeIdentifier ());
+      });
+    }
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesWithEndpointsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (aServiceGroup != null)
+    {
+      final String sServiceGroupID = aServiceGroup.getID ();
+      m_aRWLock.readLocked ( () -> {
+        final ICommonsOrderedMap <String, SMPServiceInformation> aDocTypeMap = m_aIndexSG.get (sServiceGroupID);
+        if (aDocTypeMap != null)
+          for (final SMPServiceInformation aSI : aDocTypeMap.values ())
+          {
+            final int nEndpointCount = aSI.getTotalEndpointCount ();
+            if (nEndpointCount > 0)
+              ret.put (aSI.getDocumentTypeIdentifier (), Integer.valueOf (nEndpointCount));
+          }
+      });
     }
     return ret;
   }
@@ -346,20 +456,11 @@ public final class SMPServiceInformationManagerXML extends
       return null;
 
     final String sServiceGroupID = aServiceGroup.getID ();
-    final ICommonsList <ISMPServiceInformation> ret = getAll (aSI -> aSI.getServiceGroupID ()
-                                                                        .equals (sServiceGroupID) &&
-                                                                     aSI.getDocumentTypeIdentifier ()
-                                                                        .hasSameContent (aDocumentTypeIdentifier));
-
-    if (ret.isEmpty ())
-      return null;
-    if (ret.size () > 1)
-      LOGGER.warn ("Found more than one entry for service group '" +
-                   sServiceGroupID +
-                   "' and document type '" +
-                   aDocumentTypeIdentifier.getValue () +
-                   "'. This seems to be a bug! Using the first one.");
-    return ret.getFirstOrNull ();
+    final String sDocTypeKey = _getDocTypeKey (aDocumentTypeIdentifier);
+    return m_aRWLock.readLockedGet ( () -> {
+      final ICommonsOrderedMap <String, SMPServiceInformation> aDocTypeMap = m_aIndexSG.get (sServiceGroupID);
+      return aDocTypeMap == null ? null : aDocTypeMap.get (sDocTypeKey);
+    });
   }
 
   public boolean containsAnyEndpointWithTransportProfile (@Nullable final String sTransportProfileID)
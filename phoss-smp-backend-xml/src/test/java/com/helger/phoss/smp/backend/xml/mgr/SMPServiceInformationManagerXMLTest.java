@@ -18,6 +18,8 @@ package com.helger.phoss.smp.backend.xml.mgr;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Rule;
@@ -233,4 +235,77 @@ public final class SMPServiceInformationManagerXMLTest
       aServiceGroupMgr.deleteSMPServiceGroup (aPI, true);
     }
   }
+
+  @Test
+  public void testLookupIndex () throws SMPServerException
+  {
+    final IUser aTestUser = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aTestUser);
+
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceInformationManager aServiceInformationMgr = SMPMetaManager.getServiceInformationMgr ();
+
+    final IParticipantIdentifier aPI = aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                       "0088:dummyindex");
+    aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, true);
+
+    final ISMPServiceGroup aSG = aServiceGroupMgr.createSMPServiceGroup (aTestUser.getID (), aPI, null, true);
+    assertNotNull (aSG);
+    try
+    {
+      final IProcessIdentifier aProcessID = aIdentifierFactory.createProcessIdentifier (PeppolIdentifierHelper.DEFAULT_PROCESS_SCHEME,
+                                                                                        "testproc");
+      final IDocumentTypeIdentifier aDocTypeID1 = aIdentifierFactory.createDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                   "xml::xml##testdoctype::1");
+      final IDocumentTypeIdentifier aDocTypeID2 = aIdentifierFactory.createDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                   "xml::xml##testdoctype::2");
+      final SMPEndpoint aEP = new SMPEndpoint ("tp",
+                                               "http://localhost/as2",
+                                               false,
+                                               "minauth",
+                                               null,
+                                               null,
+                                               "cert",
+                                               "sd",
+                                               "tc",
+                                               "ti",
+                                               null);
+
+      assertNull (aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG, aDocTypeID1));
+      assertEquals (0, aServiceInformationMgr.getAllSMPDocumentTypesOfServiceGroup (aSG).size ());
+
+      for (final IDocumentTypeIdentifier aDocTypeID : new IDocumentTypeIdentifier [] { aDocTypeID1, aDocTypeID2 })
+        assertTrue (aServiceInformationMgr.mergeSMPServiceInformation (new SMPServiceInformation (aSG,
+                                                                                                  aDocTypeID,
+                                                                                                  new CommonsArrayList <> (new SMPProcess (aProcessID,
+                                                                                                                                           new CommonsArrayList <> (aEP),
+                                                                                                                                           null)),
+                                                                                                  null))
+                                          .isSuccess ());
+      assertEquals (2, aServiceInformationMgr.getAllSMPDocumentTypesOfServiceGroup (aSG).size ());
+      assertEquals (2, aServiceInformationMgr.getAllSMPServiceInformationOfServiceGroup (aSG).size ());
+
+      // Replace with a new object for an existing document type
+      final SMPServiceInformation aNewSI = new SMPServiceInformation (aSG,
+                                                                      aDocTypeID1,
+                                                                      new CommonsArrayList <> (new SMPProcess (aProcessID,
+                                                                                                               new CommonsArrayList <> (aEP),
+                                                                                                               null)),
+                                                                      null);
+      assertTrue (aServiceInformationMgr.mergeSMPServiceInformation (aNewSI).isSuccess ());
+      assertSame (aNewSI, aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG, aDocTypeID1));
+      assertEquals (2, aServiceInformationMgr.getAllSMPDocumentTypesOfServiceGroup (aSG).size ());
+
+      // Delete one
+      assertTrue (aServiceInformationMgr.deleteSMPServiceInformation (aNewSI).isChanged ());
+      assertNull (aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG, aDocTypeID1));
+      assertNotNull (aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG, aDocTypeID2));
+      assertEquals (1, aServiceInformationMgr.getAllSMPServiceInformationOfServiceGroup (aSG).size ());
+    }
+    finally
+    {
+      aServiceGroupMgr.deleteSMPServiceGroup (aPI, true);
+    }
+  }
 }
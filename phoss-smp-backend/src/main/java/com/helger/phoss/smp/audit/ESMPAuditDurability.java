@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * Defines when audit items are written to a database based audit backend.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public enum ESMPAuditDurability implements IHasID <String>
+{
+  /**
+   * Each audit item is written in the thread that creates it. No audit item is
+   * lost, but each action waits for the database.
+   */
+  SYNC ("sync"),
+  /**
+   * Audit items are queued in memory and written in batches by a background
+   * thread. The queue is flushed on shutdown, but audit items may be lost if
+   * the process terminates abnormally.
+   */
+  ASYNC ("async");
+
+  private final String m_sID;
+
+  ESMPAuditDurability (@Nonnull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  public boolean isAsync ()
+  {
+    return this == ASYNC;
+  }
+
+  @Nullable
+  public static ESMPAuditDurability getFromIDCaseInsensitiveOrDefault (@Nullable final String sID,
+                                                                      @Nullable final ESMPAuditDurability eDefault)
+  {
+    return EnumHelper.getFromIDCaseInsensitiveOrDefault (ESMPAuditDurability.class, sID, eDefault);
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import javax.annotation.Nonnull;
+
+import com.helger.photon.audit.IAuditManager;
+
+/**
+ * An {@link IAuditManager} that writes the audit items via a
+ * {@link SMPAuditItemQueue}. This is mainly used to expose the queue
+ * statistics.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public interface ISMPQueuedAuditManager extends IAuditManager
+{
+  /**
+   * @return The audit item queue used. Never <code>null</code>.
+   */
+  @Nonnull
+  SMPAuditItemQueue getAuditItemQueue ();
+}
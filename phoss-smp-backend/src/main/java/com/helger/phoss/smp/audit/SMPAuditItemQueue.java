@@ -0,0 +1,441 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.photon.audit.IAuditItem;
+
+/**
+ * A bounded in-memory queue for audit items that are written to a database in
+ * batches by a background thread. If the queue is full, the creating thread
+ * waits until the background thread made room ("back-pressure"), so that no
+ * audit item is silently dropped. On {@link #stop()} all queued items are
+ * written.<br>
+ * With {@link ESMPAuditDurability#SYNC} no queue is used and each audit item
+ * is written in the calling thread.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPAuditItemQueue
+{
+  /**
+   * Writes a batch of audit items to the underlying storage.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  public interface IBatchWriter
+  {
+    /**
+     * @param aItems
+     *        The audit items to write in order. Never <code>null</code> nor
+     *        empty.
+     * @throws Exception
+     *         In case writing failed
+     */
+    void writeBatch (@Nonnull @Nonempty ICommonsList <IAuditItem> aItems) throws Exception;
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPAuditItemQueue.class);
+  // Maximum time the background thread waits before checking for a stop
+  private static final long MAX_POLL_MILLIS = 1_000;
+
+  private final String m_sName;
+  private final ESMPAuditDurability m_eDurability;
+  private final int m_nCapacity;
+  private final int m_nBatchSize;
+  private final long m_nFlushIntervalMillis;
+  private final IBatchWriter m_aWriter;
+  private final BlockingQueue <IAuditItem> m_aQueue;
+  private final Thread m_aFlusher;
+  // Ensures that the background thread and the final flush don't write in
+  // parallel. Not used for synchronous writes.
+  private final Lock m_aWriteLock = new ReentrantLock ();
+  private volatile boolean m_bStopped = false;
+
+  private final AtomicLong m_aQueuedCount = new AtomicLong (0);
+  private final AtomicLong m_aWrittenCount = new AtomicLong (0);
+  private final AtomicLong m_aFailedCount = new AtomicLong (0);
+  private final AtomicLong m_aBatchCount = new AtomicLong (0);
+  private final AtomicLong m_aBlockedCount = new AtomicLong (0);
+  private final AtomicInteger m_aMaxQueueSize = new AtomicInteger (0);
+
+  /**
+   * Constructor. In asynchronous mode the background thread is started
+   * immediately.
+   *
+   * @param sName
+   *        The name of the queue, used for logging and status reporting. May
+   *        neither be <code>null</code> nor empty.
+   * @param eDurability
+   *        The durability mode. May not be <code>null</code>.
+   * @param nCapacity
+   *        The maximum number of queued audit items. Must be &gt; 0.
+   * @param nBatchSize
+   *        The maximum number of audit items written at once. Must be &gt; 0.
+   * @param nFlushIntervalMillis
+   *        The maximum number of milliseconds a queued audit item waits for
+   *        more items to fill a batch. Must be &gt; 0.
+   * @param aWriter
+   *        The writer for the batches. May not be <code>null</code>.
+   */
+  public SMPAuditItemQueue (@Nonnull @Nonempty final String sName,
+                            @Nonnull final ESMPAuditDurability eDurability,
+                            @Nonnegative final int nCapacity,
+                            @Nonnegative final int nBatchSize,
+                            @Nonnegative final long nFlushIntervalMillis,
+                            @Nonnull final IBatchWriter aWriter)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    ValueEnforcer.notNull (eDurability, "Durability");
+    ValueEnforcer.isGT0 (nCapacity, "Capacity");
+    ValueEnforcer.isGT0 (nBatchSize, "BatchSize");
+    ValueEnforcer.isGT0 (nFlushIntervalMillis, "FlushIntervalMillis");
+    ValueEnforcer.notNull (aWriter, "Writer");
+    m_sName = sName;
+    m_eDurability = eDurability;
+    m_nCapacity = nCapacity;
+    m_nBatchSize = nBatchSize;
+    m_nFlushIntervalMillis = nFlushIntervalMillis;
+    m_aWriter = aWriter;
+
+    if (eDurability.isAsync ())
+    {
+      m_aQueue = new ArrayBlockingQueue <> (nCapacity);
+      m_aFlusher = new Thread (this::_runFlusher, "smp-audit-flusher-" + sName);
+      m_aFlusher.setDaemon (true);
+      m_aFlusher.start ();
+      LOGGER.info ("Started asynchronous audit queue '" +
+                   sName +
+                   "' with a capacity of " +
+                   nCapacity +
+                   " and a batch size of " +
+                   nBatchSize);
+    }
+    else
+    {
+      m_aQueue = null;
+      m_aFlusher = null;
+    }
+  }
+
+  /**
+   * Create a new queue based on the configuration in
+   * {@link SMPServerConfiguration}.
+   *
+   * @param sName
+   *        The name of the queue. May neither be <code>null</code> nor empty.
+   * @param aWriter
+   *        The writer for the batches. May not be <code>null</code>.
+   * @return The new queue and never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPAuditItemQueue createFromConfiguration (@Nonnull @Nonempty final String sName,
+                                                           @Nonnull final IBatchWriter aWriter)
+  {
+    return new SMPAuditItemQueue (sName,
+                                  SMPServerConfiguration.getAuditDurability (),
+                                  SMPServerConfiguration.getAuditQueueCapacity (),
+                                  SMPServerConfiguration.getAuditBatchSize (),
+                                  SMPServerConfiguration.getAuditFlushIntervalMilliseconds (),
+                                  aWriter);
+  }
+
+  private void _write (@Nonnull final ICommonsList <IAuditItem> aItems, final boolean bRethrow)
+  {
+    try
+    {
+      m_aWriter.writeBatch (aItems);
+      m_aWrittenCount.addAndGet (aItems.size ());
+      m_aBatchCount.incrementAndGet ();
+    }
+    catch (final Exception ex)
+    {
+      m_aFailedCount.addAndGet (aItems.size ());
+      if (bRethrow)
+        throw ex instanceof RuntimeException ? (RuntimeException) ex
+                                             : new IllegalStateException ("Failed to write audit item", ex);
+      LOGGER.error ("Failed to write " + aItems.size () + " audit item(s) of queue '" + m_sName + "'", ex);
+    }
+  }
+
+  private void _writeLocked (@Nonnull final ICommonsList <IAuditItem> aItems)
+  {
+    m_aWriteLock.lock ();
+    try
+    {
+      _write (aItems, false);
+    }
+    finally
+    {
+      m_aWriteLock.unlock ();
+    }
+  }
+
+  private void _runFlusher ()
+  {
+    final ICommonsList <IAuditItem> aBatch = new CommonsArrayList <> (m_nBatchSize);
+    while (!m_bStopped)
+    {
+      try
+      {
+        final IAuditItem aFirst = m_aQueue.poll (Math.min (m_nFlushIntervalMillis, MAX_POLL_MILLIS),
+                                                 TimeUnit.MILLISECONDS);
+        if (aFirst == null)
+          continue;
+        aBatch.add (aFirst);
+
+        // Wait a little for more items to fill the batch
+        final long nDeadline = System.nanoTime () + TimeUnit.MILLISECONDS.toNanos (m_nFlushIntervalMillis);
+        while (aBatch.size () < m_nBatchSize && !m_bStopped)
+        {
+          if (m_aQueue.drainTo (aBatch, m_nBatchSize - aBatch.size ()) > 0)
+            continue;
+          final long nRemainingNanos = nDeadline - System.nanoTime ();
+          if (nRemainingNanos <= 0)
+            break;
+          final IAuditItem aNext = m_aQueue.poll (nRemainingNanos, TimeUnit.NANOSECONDS);
+          if (aNext == null)
+            break;
+          aBatch.add (aNext);
+        }
+
+        _writeLocked (aBatch.getClone ());
+        aBatch.clear ();
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        break;
+      }
+    }
+
+    // Items taken from the queue before the stop
+    if (aBatch.isNotEmpty ())
+      _writeLocked (aBatch);
+  }
+
+  /**
+   * Add a new audit item. In synchronous mode the item is written
+   * immediately. In asynchronous mode the item is queued, and if the queue is
+   * full, this method blocks until there is room in the queue.
+   *
+   * @param aItem
+   *        The audit item to add. May not be <code>null</code>.
+   */
+  public void add (@Nonnull final IAuditItem aItem)
+  {
+    ValueEnforcer.notNull (aItem, "Item");
+
+    if (m_aQueue == null || m_bStopped)
+    {
+      // Synchronous mode or audit items created during shutdown
+      _write (new CommonsArrayList <> (aItem), m_aQueue == null);
+      return;
+    }
+
+    if (!m_aQueue.offer (aItem))
+    {
+      // Back-pressure: wait for the background thread to make room
+      m_aBlockedCount.incrementAndGet ();
+      try
+      {
+        while (!m_aQueue.offer (aItem, MAX_POLL_MILLIS, TimeUnit.MILLISECONDS))
+          if (m_bStopped)
+          {
+            _write (new CommonsArrayList <> (aItem), false);
+            return;
+          }
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        // Don't lose the item
+        _write (new CommonsArrayList <> (aItem), false);
+        return;
+      }
+    }
+    m_aQueuedCount.incrementAndGet ();
+    m_aMaxQueueSize.accumulateAndGet (m_aQueue.size (), Math::max);
+
+    // Stopped in the meantime - don't leave the item in the queue
+    if (m_bStopped)
+      _flushRemaining ();
+  }
+
+  @Nonnegative
+  private int _flushRemaining ()
+  {
+    int ret = 0;
+    final ICommonsList <IAuditItem> aBatch = new CommonsArrayList <> (m_nBatchSize);
+    while (m_aQueue.drainTo (aBatch, m_nBatchSize) > 0)
+    {
+      ret += aBatch.size ();
+      _writeLocked (aBatch.getClone ());
+      aBatch.clear ();
+    }
+    return ret;
+  }
+
+  /**
+   * Stop the background thread and write all queued audit items. Audit items
+   * added afterwards are written synchronously.
+   */
+  public void stop ()
+  {
+    if (m_aQueue == null || m_bStopped)
+      return;
+
+    m_bStopped = true;
+    try
+    {
+      m_aFlusher.join ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+    }
+
+    // Flush the rest
+    final int nFlushed = _flushRemaining ();
+    LOGGER.info ("Stopped asynchronous audit queue '" +
+                 m_sName +
+                 "'" +
+                 (nFlushed > 0 ? " after flushing " + nFlushed + " audit item(s)" : ""));
+  }
+
+  /**
+   * @return The name of the queue. Neither <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  /**
+   * @return The durability mode. Never <code>null</code>.
+   */
+  @Nonnull
+  public ESMPAuditDurability getDurability ()
+  {
+    return m_eDurability;
+  }
+
+  /**
+   * @return The maximum number of queued audit items.
+   */
+  @Nonnegative
+  public int getCapacity ()
+  {
+    return m_nCapacity;
+  }
+
+  /**
+   * @return The number of audit items currently waiting to be written. Always
+   *         0 in synchronous mode.
+   */
+  @Nonnegative
+  public int getQueueSize ()
+  {
+    return m_aQueue == null ? 0 : m_aQueue.size ();
+  }
+
+  /**
+   * @return The maximum number of audit items that were waiting at the same
+   *         time.
+   */
+  @Nonnegative
+  public int getMaxQueueSize ()
+  {
+    return m_aMaxQueueSize.get ();
+  }
+
+  /**
+   * @return The number of audit items that were added to the queue.
+   */
+  @Nonnegative
+  public long getQueuedCount ()
+  {
+    return m_aQueuedCount.get ();
+  }
+
+  /**
+   * @return The number of audit items that were successfully written.
+   */
+  @Nonnegative
+  public long getWrittenCount ()
+  {
+    return m_aWrittenCount.get ();
+  }
+
+  /**
+   * @return The number of audit items that could not be written.
+   */
+  @Nonnegative
+  public long getFailedCount ()
+  {
+    return m_aFailedCount.get ();
+  }
+
+  /**
+   * @return The number of successfully written batches.
+   */
+  @Nonnegative
+  public long getBatchCount ()
+  {
+    return m_aBatchCount.get ();
+  }
+
+  /**
+   * @return The number of times an audit item could not be queued
+   *         immediately, because the queue was full.
+   */
+  @Nonnegative
+  public long getBlockedCount ()
+  {
+    return m_aBlockedCount.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Name", m_sName)
+                                       .append ("Durability", m_eDurability)
+                                       .append ("Capacity", m_nCapacity)
+                                       .append ("BatchSize", m_nBatchSize)
+                                       .append ("FlushIntervalMillis", m_nFlushIntervalMillis)
+                                       .getToString ();
+  }
+}
@@ -10,6 +10,7 @@
  */
 package com.helger.phoss.smp.config;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -23,6 +24,7 @@ import com.helger.config.IConfig;
 import com.helger.peppolid.factory.ESMPIdentifierType;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.audit.ESMPAuditDurability;
 import com.helger.security.keystore.EKeyStoreType;
 
 /**
@@ -55,6 +57,17 @@ public final class SMPServerConfiguration
   public static final String KEY_SMP_REST_LOG_EXCEPTIONS = "smp.rest.log.exceptions";
   public static final String KEY_SMP_REST_PAYLOAD_ON_ERROR = "smp.rest.payload.on.error";
   public static final String KEY_SMP_REST_REMOTE_QUERY_API_DISABLED = "smp.rest.remote.queryapi.disabled";
+  public static final String KEY_SMP_REST_RESPONSE_CACHE_ENABLED = "smp.rest.response.cache.enabled";
+  public static final String KEY_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES = "smp.rest.response.cache.max.entries";
+  public static final String KEY_SMP_REST_SIGNING_STREAMING = "smp.rest.signing.streaming";
+  public static final String KEY_SMP_REST_CONDITIONAL_GET_ENABLED = "smp.rest.conditional.get.enabled";
+  public static final String KEY_SMP_REST_COMPRESSION_ENABLED = "smp.rest.compression.enabled";
+  public static final String KEY_SMP_REST_COMPRESSION_THRESHOLD = "smp.rest.compression.threshold";
+  private static final String KEY_SMP_REST_CACHECONTROL_MAXAGE_PREFIX = "smp.rest.cachecontrol.maxage.";
+  public static final String KEY_SMP_REST_COMPLETE_PAGE_SIZE_MAX = "smp.rest.complete.pagesize.max";
+  public static final String KEY_SMP_REST_AUTH_CACHE_ENABLED = "smp.rest.auth.cache.enabled";
+  public static final String KEY_SMP_REST_AUTH_CACHE_MAX_ENTRIES = "smp.rest.auth.cache.max.entries";
+  public static final String KEY_SMP_REST_AUTH_CACHE_TTL_SECONDS = "smp.rest.auth.cache.ttl.seconds";
 
   public static final String KEY_SMP_STATUS_ENABLED = "smp.status.enabled";
   public static final String KEY_SMP_STATUS_SHOW_CERTIFICATE_DATES = "smp.status.show.certificate.dates";
@@ -64,11 +77,34 @@ public final class SMPServerConfiguration
 
   public static final String KEY_SMP_TIMEZONE = "smp.timezone";
 
+  public static final String KEY_SMP_DIRECTORY_NOTIFICATION_WORKERS = "smp.directory.notification.workers";
+  public static final String KEY_SMP_DIRECTORY_NOTIFICATION_RETRY_INITIAL_SECONDS = "smp.directory.notification.retry.initial.seconds";
+  public static final String KEY_SMP_DIRECTORY_NOTIFICATION_RETRY_MAX_SECONDS = "smp.directory.notification.retry.max.seconds";
+
+  public static final String KEY_SMP_EXCHANGE_IMPORT_CHUNK_SIZE = "smp.exchange.import.chunksize";
+
+  public static final String KEY_SMP_DOMAIN_CACHE_ENABLED = "smp.domain.cache.enabled";
+  private static final String KEY_SMP_DOMAIN_CACHE_PREFIX = "smp.domain.cache.";
+
+  public static final String KEY_SMP_CERTIFICATE_CACHE_MAX_ENTRIES = "smp.certificate.cache.max.entries";
+  public static final String KEY_SMP_SIGNING_THREADS = "smp.signing.threads";
+  public static final String KEY_SMP_SETTINGS_VERSION_CHECK_SECONDS = "smp.settings.version.check.seconds";
+
+  public static final String KEY_SMP_AUDIT_DURABILITY = "smp.audit.durability";
+  public static final String KEY_SMP_AUDIT_QUEUE_CAPACITY = "smp.audit.queue.capacity";
+  public static final String KEY_SMP_AUDIT_BATCH_SIZE = "smp.audit.batch.size";
+  public static final String KEY_SMP_AUDIT_FLUSH_INTERVAL_MS = "smp.audit.flush.interval.ms";
+
+  public static final String KEY_SMP_TASKS_SWEEP_INTERVAL_MINUTES = "smp.tasks.sweep.interval.minutes";
+
   public static final String KEY_SML_SMPID = "sml.smpid";
   public static final String KEY_SML_SMP_IP = "sml.smp.ip";
   public static final String KEY_SML_SMP_HOSTNAME = "sml.smp.hostname";
   public static final String KEY_SML_CONNECTION_TIMEOUT_MS = "sml.connection.timeout.ms";
   public static final String KEY_SML_REQUEST_TIMEOUT_MS = "sml.request.timeout.ms";
+  public static final String KEY_SML_BULK_CHUNK_SIZE = "sml.bulk.chunksize";
+  public static final String KEY_SML_BULK_THREADS = "sml.bulk.threads";
+  public static final String KEY_SML_BULK_REQUESTS_PER_SECOND = "sml.bulk.requests.per.second";
 
   public static final boolean DEFAULT_SMP_FORCEROOT = false;
   public static final ESMPIdentifierType DEFAULT_SMP_IDENTIFIER_TYPE = ESMPIdentifierType.PEPPOL;
@@ -76,6 +112,16 @@ public final class SMPServerConfiguration
   public static final boolean DEFAULT_SMP_REST_LOG_EXCEPTIONS = false;
   public static final boolean DEFAULT_SMP_REST_PAYLOAD_ON_ERROR = true;
   public static final boolean DEFAULT_SMP_REST_REMOTE_QUERY_API_DISABLED = true;
+  public static final boolean DEFAULT_SMP_REST_RESPONSE_CACHE_ENABLED = false;
+  public static final int DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES = 10_000;
+  public static final boolean DEFAULT_SMP_REST_SIGNING_STREAMING = false;
+  public static final boolean DEFAULT_SMP_REST_CONDITIONAL_GET_ENABLED = false;
+  public static final boolean DEFAULT_SMP_REST_COMPRESSION_ENABLED = false;
+  public static final int DEFAULT_SMP_REST_COMPRESSION_THRESHOLD = 1024;
+  public static final int DEFAULT_SMP_REST_COMPLETE_PAGE_SIZE_MAX = 500;
+  public static final boolean DEFAULT_SMP_REST_AUTH_CACHE_ENABLED = false;
+  public static final int DEFAULT_SMP_REST_AUTH_CACHE_MAX_ENTRIES = 1_000;
+  public static final long DEFAULT_SMP_REST_AUTH_CACHE_TTL_SECONDS = 60;
 
   public static final boolean DEFAULT_SMP_STATUS_ENABLED = true;
   public static final boolean DEFAULT_SMP_STATUS_SHOW_CERTIFICATE_DATES = false;
@@ -84,7 +130,32 @@ public final class SMPServerConfiguration
                                                                                                    .getAsString ();
   public static final String DEFAULT_SMP_BDXR2_CERTIFICATE_TYPE_CODE = "bdxr-as4-signing-encryption";
 
+  public static final int DEFAULT_SMP_DIRECTORY_NOTIFICATION_WORKERS = 2;
+  public static final long DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_INITIAL_SECONDS = 10;
+  public static final long DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_MAX_SECONDS = 3600;
+
+  public static final int DEFAULT_SMP_EXCHANGE_IMPORT_CHUNK_SIZE = 500;
+
+  public static final boolean DEFAULT_SMP_DOMAIN_CACHE_ENABLED = false;
+  public static final int DEFAULT_SMP_DOMAIN_CACHE_MAX_ENTRIES = 10_000;
+  public static final long DEFAULT_SMP_DOMAIN_CACHE_TTL_SECONDS = 60;
+  public static final boolean DEFAULT_SMP_DOMAIN_CACHE_NEGATIVE = true;
+
+  public static final int DEFAULT_SMP_CERTIFICATE_CACHE_MAX_ENTRIES = 1_000;
+  public static final int DEFAULT_SMP_SIGNING_THREADS = 0;
+  public static final long DEFAULT_SMP_SETTINGS_VERSION_CHECK_SECONDS = 10;
+
+  public static final ESMPAuditDurability DEFAULT_SMP_AUDIT_DURABILITY = ESMPAuditDurability.SYNC;
+  public static final int DEFAULT_SMP_AUDIT_QUEUE_CAPACITY = 10_000;
+  public static final int DEFAULT_SMP_AUDIT_BATCH_SIZE = 100;
+  public static final long DEFAULT_SMP_AUDIT_FLUSH_INTERVAL_MS = 1_000;
+
+  public static final long DEFAULT_SMP_TASKS_SWEEP_INTERVAL_MINUTES = 60;
+
   public static final Timeout DEFAULT_SML_REQUEST_TIMEOUT = Timeout.ofSeconds (30);
+  public static final int DEFAULT_SML_BULK_CHUNK_SIZE = 100;
+  public static final int DEFAULT_SML_BULK_THREADS = 4;
+  public static final int DEFAULT_SML_BULK_REQUESTS_PER_SECOND = 10;
 
   private SMPServerConfiguration ()
   {}
@@ -283,6 +354,150 @@ public final class SMPServerConfiguration
                                        DEFAULT_SMP_REST_REMOTE_QUERY_API_DISABLED);
   }
 
+  /**
+   * @return <code>true</code> if the signed service metadata responses should
+   *         be cached in memory, <code>false</code> if not. Only enable this if
+   *         all modifications are done via this SMP instance, as the cache is
+   *         only invalidated locally. By default it is disabled.
+   * @since 7.1.4
+   */
+  public static boolean isRESTResponseCacheEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_RESPONSE_CACHE_ENABLED, DEFAULT_SMP_REST_RESPONSE_CACHE_ENABLED);
+  }
+
+  /**
+   * @return The maximum number of signed responses to be kept in the response
+   *         cache. Defaults to {@link #DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getRESTResponseCacheMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES,
+                                            DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_RESPONSE_CACHE_MAX_ENTRIES;
+  }
+
+  /**
+   * @return <code>true</code> if signed service metadata responses should be
+   *         written and signed as a stream, without creating a DOM document
+   *         first. The canonical form of the responses is identical to the
+   *         default DOM based signing. By default it is disabled.
+   * @since 7.1.4
+   */
+  public static boolean isRESTSigningStreaming ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_SIGNING_STREAMING, DEFAULT_SMP_REST_SIGNING_STREAMING);
+  }
+
+  /**
+   * @return <code>true</code> if the public service group, service metadata
+   *         and business card responses should contain <code>ETag</code> and
+   *         <code>Last-Modified</code> headers and conditional requests should
+   *         be answered with HTTP 304. Only enable this if all modifications
+   *         are done via this SMP instance, as the modification versions are
+   *         only tracked locally. By default it is disabled.
+   * @since 7.1.4
+   */
+  public static boolean isRESTConditionalGetEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_CONDITIONAL_GET_ENABLED, DEFAULT_SMP_REST_CONDITIONAL_GET_ENABLED);
+  }
+
+  /**
+   * @return <code>true</code> if REST responses should be compressed, if the
+   *         client supports it via the <code>Accept-Encoding</code> HTTP
+   *         header. The <code>gzip</code> and <code>deflate</code> content
+   *         codings are supported. By default it is disabled.
+   * @since 7.1.4
+   */
+  public static boolean isRESTCompressionEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_COMPRESSION_ENABLED, DEFAULT_SMP_REST_COMPRESSION_ENABLED);
+  }
+
+  /**
+   * @return The minimum size in bytes a REST response must have to be
+   *         compressed. Defaults to
+   *         {@link #DEFAULT_SMP_REST_COMPRESSION_THRESHOLD}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getRESTCompressionThreshold ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_COMPRESSION_THRESHOLD, DEFAULT_SMP_REST_COMPRESSION_THRESHOLD);
+    return ret >= 0 ? ret : DEFAULT_SMP_REST_COMPRESSION_THRESHOLD;
+  }
+
+  /**
+   * Get the <code>Cache-Control</code> max age of a public REST GET response
+   * type, configured via <code>smp.rest.cachecontrol.maxage.<i>name</i></code>.
+   *
+   * @param sResponseName
+   *        The response name, e.g. <code>servicegroup</code>. May not be
+   *        <code>null</code>.
+   * @return The number of seconds clients and proxies may cache the response.
+   *         0 means caching is disabled, which is the default.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getRESTCacheControlMaxAgeSeconds (@Nonnull @Nonempty final String sResponseName)
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_CACHECONTROL_MAXAGE_PREFIX + sResponseName, 0);
+    return ret > 0 ? ret : 0;
+  }
+
+  /**
+   * @return The maximum number of service metadata elements in a single page
+   *         of the paginated complete service group REST response. Bigger
+   *         requested page sizes are reduced to this value. Defaults to
+   *         {@link #DEFAULT_SMP_REST_COMPLETE_PAGE_SIZE_MAX}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getRESTCompletePageSizeMax ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_COMPLETE_PAGE_SIZE_MAX, DEFAULT_SMP_REST_COMPLETE_PAGE_SIZE_MAX);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_COMPLETE_PAGE_SIZE_MAX;
+  }
+
+  /**
+   * @return <code>true</code> if successfully validated credentials of the
+   *         writable REST API should be cached, <code>false</code> if not.
+   *         Defaults to {@link #DEFAULT_SMP_REST_AUTH_CACHE_ENABLED}.
+   * @since 7.1.4
+   */
+  public static boolean isRESTAuthCacheEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_AUTH_CACHE_ENABLED, DEFAULT_SMP_REST_AUTH_CACHE_ENABLED);
+  }
+
+  /**
+   * @return The maximum number of entries in the REST credentials cache.
+   *         Defaults to {@link #DEFAULT_SMP_REST_AUTH_CACHE_MAX_ENTRIES}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getRESTAuthCacheMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_REST_AUTH_CACHE_MAX_ENTRIES, DEFAULT_SMP_REST_AUTH_CACHE_MAX_ENTRIES);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_AUTH_CACHE_MAX_ENTRIES;
+  }
+
+  /**
+   * @return The number of seconds validated Basic Auth credentials are cached.
+   *         Defaults to {@link #DEFAULT_SMP_REST_AUTH_CACHE_TTL_SECONDS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getRESTAuthCacheTTLSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_REST_AUTH_CACHE_TTL_SECONDS,
+                                              DEFAULT_SMP_REST_AUTH_CACHE_TTL_SECONDS);
+    return ret > 0 ? ret : DEFAULT_SMP_REST_AUTH_CACHE_TTL_SECONDS;
+  }
+
   /**
    * @return <code>true</code> if the status servlet at
    *         <code>/smp-status/</code> is enabled, <code>false</code> if it is
@@ -337,6 +552,235 @@ public final class SMPServerConfiguration
     return _getConfig ().getAsString (KEY_SMP_TIMEZONE, CSMPServer.DEFAULT_TIMEZONE);
   }
 
+  /**
+   * @return The number of threads used to send queued notifications to the
+   *         Peppol Directory. Defaults to
+   *         {@link #DEFAULT_SMP_DIRECTORY_NOTIFICATION_WORKERS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getDirectoryNotificationWorkerCount ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_DIRECTORY_NOTIFICATION_WORKERS,
+                                            DEFAULT_SMP_DIRECTORY_NOTIFICATION_WORKERS);
+    return ret > 0 ? ret : DEFAULT_SMP_DIRECTORY_NOTIFICATION_WORKERS;
+  }
+
+  /**
+   * @return The delay in seconds before a failed Peppol Directory notification
+   *         is retried the first time. Each further retry doubles the delay.
+   *         Defaults to
+   *         {@link #DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_INITIAL_SECONDS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getDirectoryNotificationRetryInitialSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_DIRECTORY_NOTIFICATION_RETRY_INITIAL_SECONDS,
+                                              DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_INITIAL_SECONDS);
+    return ret > 0 ? ret : DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_INITIAL_SECONDS;
+  }
+
+  /**
+   * @return The maximum delay in seconds between two retries of a failed Peppol
+   *         Directory notification. Defaults to
+   *         {@link #DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_MAX_SECONDS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getDirectoryNotificationRetryMaxSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_DIRECTORY_NOTIFICATION_RETRY_MAX_SECONDS,
+                                              DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_MAX_SECONDS);
+    return ret > 0 ? ret : DEFAULT_SMP_DIRECTORY_NOTIFICATION_RETRY_MAX_SECONDS;
+  }
+
+  /**
+   * @return The number of Service Groups or Business Cards that are written
+   *         together in a streaming import. Defaults to
+   *         {@link #DEFAULT_SMP_EXCHANGE_IMPORT_CHUNK_SIZE}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getExchangeImportChunkSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_EXCHANGE_IMPORT_CHUNK_SIZE, DEFAULT_SMP_EXCHANGE_IMPORT_CHUNK_SIZE);
+    return ret > 0 ? ret : DEFAULT_SMP_EXCHANGE_IMPORT_CHUNK_SIZE;
+  }
+
+  /**
+   * Check if the read-through cache of the provided domain manager is enabled.
+   * This requires the global switch {@value #KEY_SMP_DOMAIN_CACHE_ENABLED} to
+   * be enabled, and <code>smp.domain.cache.<i>name</i>.enabled</code> not to be
+   * disabled.
+   *
+   * @param sCacheName
+   *        The cache name, e.g. <code>servicegroup</code>. May not be
+   *        <code>null</code>.
+   * @return <code>true</code> if the cache is enabled.
+   * @since 7.1.4
+   */
+  public static boolean isDomainCacheEnabled (@Nonnull @Nonempty final String sCacheName)
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_DOMAIN_CACHE_ENABLED, DEFAULT_SMP_DOMAIN_CACHE_ENABLED) &&
+           _getConfig ().getAsBoolean (KEY_SMP_DOMAIN_CACHE_PREFIX + sCacheName + ".enabled", true);
+  }
+
+  /**
+   * @param sCacheName
+   *        The cache name, e.g. <code>servicegroup</code>. May not be
+   *        <code>null</code>.
+   * @return The maximum number of entries of the provided domain cache.
+   *         Defaults to {@link #DEFAULT_SMP_DOMAIN_CACHE_MAX_ENTRIES}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getDomainCacheMaxEntries (@Nonnull @Nonempty final String sCacheName)
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_DOMAIN_CACHE_PREFIX + sCacheName + ".max.entries",
+                                            DEFAULT_SMP_DOMAIN_CACHE_MAX_ENTRIES);
+    return ret > 0 ? ret : DEFAULT_SMP_DOMAIN_CACHE_MAX_ENTRIES;
+  }
+
+  /**
+   * @param sCacheName
+   *        The cache name, e.g. <code>servicegroup</code>. May not be
+   *        <code>null</code>.
+   * @return The number of seconds after which an entry of the provided domain
+   *         cache expires. Defaults to
+   *         {@link #DEFAULT_SMP_DOMAIN_CACHE_TTL_SECONDS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getDomainCacheTTLSeconds (@Nonnull @Nonempty final String sCacheName)
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_DOMAIN_CACHE_PREFIX + sCacheName + ".ttl.seconds",
+                                              DEFAULT_SMP_DOMAIN_CACHE_TTL_SECONDS);
+    return ret > 0 ? ret : DEFAULT_SMP_DOMAIN_CACHE_TTL_SECONDS;
+  }
+
+  /**
+   * @param sCacheName
+   *        The cache name, e.g. <code>servicegroup</code>. May not be
+   *        <code>null</code>.
+   * @return <code>true</code> if the provided domain cache should also cache
+   *         unknown objects. Defaults to
+   *         {@link #DEFAULT_SMP_DOMAIN_CACHE_NEGATIVE}.
+   * @since 7.1.4
+   */
+  public static boolean isDomainCacheNegativeCaching (@Nonnull @Nonempty final String sCacheName)
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_DOMAIN_CACHE_PREFIX + sCacheName + ".negative",
+                                       DEFAULT_SMP_DOMAIN_CACHE_NEGATIVE);
+  }
+
+  /**
+   * @return The maximum number of distinct certificates kept in the shared
+   *         certificate cache. Defaults to
+   *         {@link #DEFAULT_SMP_CERTIFICATE_CACHE_MAX_ENTRIES}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getCertificateCacheMaxEntries ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_CERTIFICATE_CACHE_MAX_ENTRIES,
+                                            DEFAULT_SMP_CERTIFICATE_CACHE_MAX_ENTRIES);
+    return ret > 0 ? ret : DEFAULT_SMP_CERTIFICATE_CACHE_MAX_ENTRIES;
+  }
+
+  /**
+   * @return The number of dedicated threads used to create XML signatures of
+   *         REST responses. A value of 0 means that signing happens in the
+   *         request thread. Defaults to {@link #DEFAULT_SMP_SIGNING_THREADS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getSigningThreads ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_SIGNING_THREADS, DEFAULT_SMP_SIGNING_THREADS);
+    return ret >= 0 ? ret : DEFAULT_SMP_SIGNING_THREADS;
+  }
+
+  /**
+   * @return The number of seconds between two checks, if the SMP settings
+   *         stored in a database were changed by another node. A value of 0
+   *         means that the check happens on every access. Defaults to
+   *         {@link #DEFAULT_SMP_SETTINGS_VERSION_CHECK_SECONDS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getSettingsVersionCheckSeconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_SETTINGS_VERSION_CHECK_SECONDS,
+                                              DEFAULT_SMP_SETTINGS_VERSION_CHECK_SECONDS);
+    return ret >= 0 ? ret : DEFAULT_SMP_SETTINGS_VERSION_CHECK_SECONDS;
+  }
+
+  /**
+   * @return The durability mode of the database based audit backends. Never
+   *         <code>null</code>. Defaults to
+   *         {@link #DEFAULT_SMP_AUDIT_DURABILITY}.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public static ESMPAuditDurability getAuditDurability ()
+  {
+    final String sDurability = _getConfig ().getAsString (KEY_SMP_AUDIT_DURABILITY);
+    return ESMPAuditDurability.getFromIDCaseInsensitiveOrDefault (sDurability, DEFAULT_SMP_AUDIT_DURABILITY);
+  }
+
+  /**
+   * @return The maximum number of audit items waiting to be written in
+   *         asynchronous audit mode. Defaults to
+   *         {@link #DEFAULT_SMP_AUDIT_QUEUE_CAPACITY}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getAuditQueueCapacity ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_AUDIT_QUEUE_CAPACITY, DEFAULT_SMP_AUDIT_QUEUE_CAPACITY);
+    return ret > 0 ? ret : DEFAULT_SMP_AUDIT_QUEUE_CAPACITY;
+  }
+
+  /**
+   * @return The maximum number of audit items written at once in asynchronous
+   *         audit mode. Defaults to {@link #DEFAULT_SMP_AUDIT_BATCH_SIZE}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getAuditBatchSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SMP_AUDIT_BATCH_SIZE, DEFAULT_SMP_AUDIT_BATCH_SIZE);
+    return ret > 0 ? ret : DEFAULT_SMP_AUDIT_BATCH_SIZE;
+  }
+
+  /**
+   * @return The maximum number of milliseconds an audit item waits for a batch
+   *         to be filled in asynchronous audit mode. Defaults to
+   *         {@link #DEFAULT_SMP_AUDIT_FLUSH_INTERVAL_MS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getAuditFlushIntervalMilliseconds ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_AUDIT_FLUSH_INTERVAL_MS, DEFAULT_SMP_AUDIT_FLUSH_INTERVAL_MS);
+    return ret > 0 ? ret : DEFAULT_SMP_AUDIT_FLUSH_INTERVAL_MS;
+  }
+
+  /**
+   * @return The number of minutes between two analyses of all service groups
+   *         for tasks and problems like expiring certificates. Defaults to
+   *         {@link #DEFAULT_SMP_TASKS_SWEEP_INTERVAL_MINUTES}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static long getTasksSweepIntervalMinutes ()
+  {
+    final long ret = _getConfig ().getAsLong (KEY_SMP_TASKS_SWEEP_INTERVAL_MINUTES,
+                                              DEFAULT_SMP_TASKS_SWEEP_INTERVAL_MINUTES);
+    return ret > 0 ? ret : DEFAULT_SMP_TASKS_SWEEP_INTERVAL_MINUTES;
+  }
+
   /**
    * @return The SMP-ID to be used in the SML. Only relevant when SML connection
    *         is active. Property <code>sml.smpid</code>.
@@ -407,4 +851,43 @@ public final class SMPServerConfiguration
       return Timeout.ofMilliseconds (ret);
     return DEFAULT_SML_REQUEST_TIMEOUT;
   }
+
+  /**
+   * @return The maximum number of participants handled in a single SML list
+   *         call in bulk registrations. A value of 1 disables the usage of the
+   *         SML list operations. Defaults to
+   *         {@link #DEFAULT_SML_BULK_CHUNK_SIZE}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getSMLBulkChunkSize ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SML_BULK_CHUNK_SIZE, DEFAULT_SML_BULK_CHUNK_SIZE);
+    return ret > 0 ? ret : DEFAULT_SML_BULK_CHUNK_SIZE;
+  }
+
+  /**
+   * @return The number of SML calls performed in parallel in bulk
+   *         registrations. Defaults to {@link #DEFAULT_SML_BULK_THREADS}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getSMLBulkThreadCount ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SML_BULK_THREADS, DEFAULT_SML_BULK_THREADS);
+    return ret > 0 ? ret : DEFAULT_SML_BULK_THREADS;
+  }
+
+  /**
+   * @return The maximum number of SML calls per second in bulk registrations.
+   *         A value of 0 means no limit. Defaults to
+   *         {@link #DEFAULT_SML_BULK_REQUESTS_PER_SECOND}.
+   * @since 7.1.4
+   */
+  @Nonnegative
+  public static int getSMLBulkRequestsPerSecond ()
+  {
+    final int ret = _getConfig ().getAsInt (KEY_SML_BULK_REQUESTS_PER_SECOND, DEFAULT_SML_BULK_REQUESTS_PER_SECOND);
+    return ret >= 0 ? ret : DEFAULT_SML_BULK_REQUESTS_PER_SECOND;
+  }
 }
@@ -16,6 +16,7 @@ import javax.annotation.Nullable;
 import com.helger.commons.state.ETriState;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -50,6 +51,27 @@ public interface ISMPManagerProvider
   default void afterInitManagers ()
   {}
 
+  /**
+   * Callback to perform actions when the managers are about to be destroyed,
+   * e.g. to stop background threads started by the provider.
+   *
+   * @since 7.1.4
+   */
+  default void beforeDestroyManagers ()
+  {}
+
+  /**
+   * @return <code>true</code> if the data of this backend may be shared by
+   *         multiple SMP instances (e.g. a database server),
+   *         <code>false</code> if it is only accessible by this instance.
+   *         Local caches cannot see the changes of other instances.
+   * @since 7.1.4
+   */
+  default boolean isStorageSharable ()
+  {
+    return false;
+  }
+
   /**
    * @return The default backend connection state (e.g. to a database). For XML
    *         this should be TRUE for databases it should be UNDEFINED.
@@ -113,6 +135,14 @@ public interface ISMPManagerProvider
   @Nonnull
   ISMPParticipantMigrationManager createParticipantMigrationMgr ();
 
+  /**
+   * @return A new SMP Directory notification manager that persists the pending
+   *         Peppol Directory notifications. May not be <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  ISMPDirectoryNotificationManager createDirectoryNotificationMgr ();
+
   /**
    * @param aIdentifierFactory
    *        The identifier factory to be used. May not be <code>null</code>.
@@ -19,19 +19,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.exception.InitializationException;
 import com.helger.commons.lang.ClassHelper;
 import com.helger.commons.state.ETriState;
+import com.helger.peppol.smp.ISMPTransportProfile;
 import com.helger.peppolid.factory.ESMPIdentifierType;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.backend.SMPBackendRegistry;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.LoggingSMPBusinessCardCallback;
+import com.helger.phoss.smp.domain.cache.SMPBusinessCardManagerCaching;
+import com.helger.phoss.smp.domain.cache.SMPDomainCache;
+import com.helger.phoss.smp.domain.cache.SMPRedirectManagerCaching;
+import com.helger.phoss.smp.domain.cache.SMPServiceGroupManagerCaching;
+import com.helger.phoss.smp.domain.cache.SMPServiceInformationManagerCaching;
+import com.helger.phoss.smp.domain.cache.SMPTransportProfileManagerCaching;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
+import com.helger.phoss.smp.domain.problem.SMPProblemAnalyzer;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.redirect.LoggingSMPRedirectCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.servicegroup.LoggingSMPServiceGroupCallback;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
@@ -74,8 +89,11 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
   private ISMPServiceInformationManager m_aServiceInformationMgr;
   private ISMPBusinessCardManager m_aBusinessCardMgr;
   private ISMPParticipantMigrationManager m_aParticipantMigrationMgr;
+  private ISMPDirectoryNotificationManager m_aDirectoryNotificationMgr;
+  private SMPProblemAnalyzer m_aProblemAnalyzer;
   private ETriState m_eBackendConnectionState = ETriState.UNDEFINED;
   private Consumer <ETriState> m_aBackendConnectionStateChangeCallback;
+  private final ICommonsList <SMPDomainCache <?>> m_aDomainCaches = new CommonsArrayList <> ();
 
   /**
    * Set the manager provider to be used. This must be called exactly once
@@ -142,6 +160,15 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
       // Always log
       m_aBusinessCardMgr.bcCallbacks ().add (new LoggingSMPBusinessCardCallback ());
     }
+
+    // Keep the tasks and problems up to date
+    m_aProblemAnalyzer = new SMPProblemAnalyzer (m_aServiceGroupMgr,
+                                                 m_aServiceInformationMgr,
+                                                 m_aRedirectMgr,
+                                                 m_aBusinessCardMgr,
+                                                 () -> m_aSettingsMgr.getSettings ().isDirectoryIntegrationEnabled (),
+                                                 SMPServerConfiguration.getTasksSweepIntervalMinutes ());
+    m_aProblemAnalyzer.registerCallbacks ();
   }
 
   private void _performMigrations ()
@@ -169,6 +196,18 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     }
   }
 
+  @Nullable
+  private <V> SMPDomainCache <V> _createDomainCache (@Nonnull final String sName)
+  {
+    final SMPDomainCache <V> ret = SMPDomainCache.createFromConfiguration (sName);
+    if (ret != null)
+    {
+      m_aDomainCaches.add (ret);
+      LOGGER.info ("Using read-through domain cache " + ret);
+    }
+    return ret;
+  }
+
   @Override
   protected void onAfterInstantiation (@Nonnull final IScope aScope)
   {
@@ -223,27 +262,60 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
       m_aTransportProfileMgr = s_aManagerProvider.createTransportProfileMgr ();
       if (m_aTransportProfileMgr == null)
         throw new IllegalStateException ("Failed to create TransportProfile manager!");
+      final SMPDomainCache <ISMPTransportProfile> aTPCache = _createDomainCache (SMPTransportProfileManagerCaching.CACHE_NAME);
+      if (aTPCache != null)
+        m_aTransportProfileMgr = new SMPTransportProfileManagerCaching (m_aTransportProfileMgr, aTPCache);
 
       // Service group manager must be before redirect and service information!
       m_aServiceGroupMgr = s_aManagerProvider.createServiceGroupMgr ();
       if (m_aServiceGroupMgr == null)
         throw new IllegalStateException ("Failed to create ServiceGroup manager!");
+      final SMPDomainCache <ISMPServiceGroup> aSGCache = _createDomainCache (SMPServiceGroupManagerCaching.CACHE_NAME);
+      if (aSGCache != null)
+        m_aServiceGroupMgr = new SMPServiceGroupManagerCaching (m_aServiceGroupMgr, aSGCache);
 
       m_aRedirectMgr = s_aManagerProvider.createRedirectMgr (m_aIdentifierFactory, m_aServiceGroupMgr);
       if (m_aRedirectMgr == null)
         throw new IllegalStateException ("Failed to create Redirect manager!");
+      final SMPDomainCache <ISMPRedirect> aRedirectCache = _createDomainCache (SMPRedirectManagerCaching.CACHE_NAME);
+      if (aRedirectCache != null)
+        m_aRedirectMgr = new SMPRedirectManagerCaching (m_aRedirectMgr, aRedirectCache, m_aServiceGroupMgr);
 
       m_aServiceInformationMgr = s_aManagerProvider.createServiceInformationMgr (m_aIdentifierFactory,
                                                                                  m_aServiceGroupMgr);
       if (m_aServiceInformationMgr == null)
         throw new IllegalStateException ("Failed to create ServiceInformation manager!");
+      final SMPDomainCache <ISMPServiceInformation> aSICache = _createDomainCache (SMPServiceInformationManagerCaching.CACHE_NAME);
+      if (aSICache != null)
+        m_aServiceInformationMgr = new SMPServiceInformationManagerCaching (m_aServiceInformationMgr,
+                                                                            aSICache,
+                                                                            _createDomainCache (SMPServiceInformationManagerCaching.CACHE_NAME_DOCTYPES),
+                                                                            m_aServiceGroupMgr);
 
       m_aParticipantMigrationMgr = s_aManagerProvider.createParticipantMigrationMgr ();
       if (m_aParticipantMigrationMgr == null)
         throw new IllegalStateException ("Failed to create ParticipantMigration manager!");
 
+      m_aDirectoryNotificationMgr = s_aManagerProvider.createDirectoryNotificationMgr ();
+      if (m_aDirectoryNotificationMgr == null)
+        throw new IllegalStateException ("Failed to create DirectoryNotification manager!");
+
       // May be null!
       m_aBusinessCardMgr = s_aManagerProvider.createBusinessCardMgr (m_aIdentifierFactory, m_aServiceGroupMgr);
+      if (m_aBusinessCardMgr != null)
+      {
+        final SMPDomainCache <ISMPBusinessCard> aBCCache = _createDomainCache (SMPBusinessCardManagerCaching.CACHE_NAME);
+        if (aBCCache != null)
+          m_aBusinessCardMgr = new SMPBusinessCardManagerCaching (m_aBusinessCardMgr, aBCCache);
+      }
+
+      if (m_aDomainCaches.isNotEmpty () && s_aManagerProvider.isStorageSharable ())
+      {
+        // The caches are only invalidated by changes made via this instance
+        LOGGER.warn ("The domain caches only see the changes made on this SMP instance. If multiple SMP instances share the same backend, changes made on another instance are only visible after the cache entries expired. In that case disable the domain caches via '" +
+                     SMPServerConfiguration.KEY_SMP_DOMAIN_CACHE_ENABLED +
+                     "' or use a short TTL.");
+      }
 
       _initCallbacks ();
 
@@ -252,6 +324,8 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
       // After all
       s_aManagerProvider.afterInitManagers ();
 
+      m_aProblemAnalyzer.start ();
+
       LOGGER.info (ClassHelper.getClassLocalName (this) + " was initialized");
     }
     catch (final Exception ex)
@@ -260,6 +334,16 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     }
   }
 
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction)
+  {
+    if (m_aProblemAnalyzer != null)
+      m_aProblemAnalyzer.stop ();
+
+    if (s_aManagerProvider != null)
+      s_aManagerProvider.beforeDestroyManagers ();
+  }
+
   @Nonnull
   public static SMPMetaManager getInstance ()
   {
@@ -326,6 +410,17 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     return getInstance ().m_aParticipantMigrationMgr;
   }
 
+  /**
+   * @return The manager for the pending Peppol Directory notifications. Never
+   *         <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public static ISMPDirectoryNotificationManager getDirectoryNotificationMgr ()
+  {
+    return getInstance ().m_aDirectoryNotificationMgr;
+  }
+
   @Nullable
   public static ISMPBusinessCardManager getBusinessCardMgr ()
   {
@@ -341,6 +436,29 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     return getBusinessCardMgr () != null;
   }
 
+  /**
+   * @return The analyzer with the precomputed tasks and problems of all service
+   *         groups. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  public static SMPProblemAnalyzer getProblemAnalyzer ()
+  {
+    return getInstance ().m_aProblemAnalyzer;
+  }
+
+  /**
+   * @return All read-through domain caches that are in use. Never
+   *         <code>null</code> but maybe empty.
+   * @since 7.1.4
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <SMPDomainCache <?>> getAllDomainCaches ()
+  {
+    return getInstance ().m_aDomainCaches.getClone ();
+  }
+
   @Nonnull
   public ETriState getBackendConnectionState ()
   {
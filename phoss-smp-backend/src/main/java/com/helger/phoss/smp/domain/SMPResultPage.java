@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A single page of a sorted and optionally filtered query result, e.g. used
+ * for server side paging in the UI.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The element type
+ * @since 7.1.4
+ */
+@Immutable
+public final class SMPResultPage <T>
+{
+  private final ICommonsList <T> m_aItems;
+  private final long m_nTotalCount;
+  private final long m_nFilteredCount;
+
+  /**
+   * Constructor
+   *
+   * @param aItems
+   *        The items of this page. May not be <code>null</code>.
+   * @param nTotalCount
+   *        The total number of elements without filter.
+   * @param nFilteredCount
+   *        The total number of elements matching the filter.
+   */
+  public SMPResultPage (@Nonnull final ICommonsList <T> aItems,
+                        @Nonnegative final long nTotalCount,
+                        @Nonnegative final long nFilteredCount)
+  {
+    ValueEnforcer.notNull (aItems, "Items");
+    m_aItems = aItems;
+    m_nTotalCount = nTotalCount;
+    m_nFilteredCount = nFilteredCount;
+  }
+
+  /**
+   * @return A copy of the items of this page. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <T> getAllItems ()
+  {
+    return m_aItems.getClone ();
+  }
+
+  /**
+   * @return The total number of elements without filter.
+   */
+  @Nonnegative
+  public long getTotalCount ()
+  {
+    return m_nTotalCount;
+  }
+
+  /**
+   * @return The total number of elements matching the filter. Equals
+   *         {@link #getTotalCount()} if no filter was provided.
+   */
+  @Nonnegative
+  public long getFilteredCount ()
+  {
+    return m_nFilteredCount;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Items", m_aItems)
+                                       .append ("TotalCount", m_nTotalCount)
+                                       .append ("FilteredCount", m_nFilteredCount)
+                                       .getToString ();
+  }
+
+  /**
+   * Create a page out of a complete list, that is already filtered and
+   * sorted.
+   *
+   * @param <T>
+   *        The element type
+   * @param aFilteredItems
+   *        All filtered and sorted items. May not be <code>null</code>.
+   * @param nTotalCount
+   *        The total number of elements without filter.
+   * @param nOffset
+   *        The index of the first item of the page. Must be &ge; 0.
+   * @param nCount
+   *        The maximum number of items of the page. Must be &gt; 0.
+   * @return The new page and never <code>null</code>.
+   */
+  @Nonnull
+  public static <T> SMPResultPage <T> createFromList (@Nonnull final ICommonsList <T> aFilteredItems,
+                                                     @Nonnegative final long nTotalCount,
+                                                     @Nonnegative final int nOffset,
+                                                     @Nonnegative final int nCount)
+  {
+    ValueEnforcer.notNull (aFilteredItems, "FilteredItems");
+    ValueEnforcer.isGE0 (nOffset, "Offset");
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    final int nSize = aFilteredItems.size ();
+    final int nStart = Math.min (nOffset, nSize);
+    final int nEnd = (int) Math.min ((long) nOffset + nCount, nSize);
+    return new SMPResultPage <> (new CommonsArrayList <> (aFilteredItems.subList (nStart, nEnd)), nTotalCount, nSize);
+  }
+
+  /**
+   * Check if a value matches a filter as used by the paging query methods. The
+   * filter is a case insensitive "contains" check.
+   *
+   * @param sValue
+   *        The value to check. May not be <code>null</code>.
+   * @param sFilter
+   *        The filter. May be <code>null</code>.
+   * @return <code>true</code> if no filter is provided or if the value contains
+   *         the filter.
+   */
+  public static boolean matchesFilter (@Nonnull final String sValue, @Nullable final String sFilter)
+  {
+    if (StringHelper.hasNoText (sFilter))
+      return true;
+    return sValue.toLowerCase (Locale.ROOT).contains (sFilter.toLowerCase (Locale.ROOT));
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+
+/**
+ * A read-through caching decorator for {@link ISMPBusinessCardManager}. Only
+ * the lookup of a single business card is cached - all other methods are
+ * passed to the delegate. The cache is invalidated via the business card
+ * callbacks.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPBusinessCardManagerCaching implements ISMPBusinessCardManager
+{
+  public static final String CACHE_NAME = "businesscard";
+
+  private final ISMPBusinessCardManager m_aDelegate;
+  private final SMPDomainCache <ISMPBusinessCard> m_aCache;
+
+  public SMPBusinessCardManagerCaching (@Nonnull final ISMPBusinessCardManager aDelegate,
+                                       @Nonnull final SMPDomainCache <ISMPBusinessCard> aCache)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aCache, "Cache");
+    m_aDelegate = aDelegate;
+    m_aCache = aCache;
+
+    aDelegate.bcCallbacks ().add (new ISMPBusinessCardCallback ()
+    {
+      public void onSMPBusinessCardCreatedOrUpdated (@Nonnull final ISMPBusinessCard aBusinessCard)
+      {
+        aCache.invalidateGroup (_getGroupKey (aBusinessCard.getParticipantIdentifier ()));
+      }
+
+      public void onSMPBusinessCardDeleted (@Nonnull final ISMPBusinessCard aBusinessCard)
+      {
+        aCache.invalidateGroup (_getGroupKey (aBusinessCard.getParticipantIdentifier ()));
+      }
+    });
+  }
+
+  @Nonnull
+  private static String _getGroupKey (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    return SMPServiceGroup.createSMPServiceGroupID (aParticipantID);
+  }
+
+  /**
+   * @return The decorated manager. Never <code>null</code>.
+   */
+  @Nonnull
+  public final ISMPBusinessCardManager getDelegate ()
+  {
+    return m_aDelegate;
+  }
+
+  /**
+   * @return The cache in use. Never <code>null</code>.
+   */
+  @Nonnull
+  public final SMPDomainCache <ISMPBusinessCard> getCache ()
+  {
+    return m_aCache;
+  }
+
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPBusinessCardCallback> bcCallbacks ()
+  {
+    return m_aDelegate.bcCallbacks ();
+  }
+
+  @Nullable
+  public ISMPBusinessCard createOrUpdateSMPBusinessCard (@Nonnull final IParticipantIdentifier aParticipantID,
+                                                         @Nonnull final Collection <SMPBusinessCardEntity> aEntities)
+  {
+    return m_aDelegate.createOrUpdateSMPBusinessCard (aParticipantID, aEntities);
+  }
+
+  @Nonnull
+  public EChange deleteSMPBusinessCard (@Nullable final ISMPBusinessCard aSMPBusinessCard)
+  {
+    return m_aDelegate.deleteSMPBusinessCard (aSMPBusinessCard);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPBusinessCard> getAllSMPBusinessCards ()
+  {
+    return m_aDelegate.getAllSMPBusinessCards ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllSMPBusinessCardIDs ()
+  {
+    return m_aDelegate.getAllSMPBusinessCardIDs ();
+  }
+
+  @Nullable
+  public ISMPBusinessCard getSMPBusinessCardOfID (@Nullable final IParticipantIdentifier aID)
+  {
+    if (aID == null)
+      return null;
+
+    final String sGroupKey = _getGroupKey (aID);
+    return m_aCache.getOrLoad (sGroupKey, sGroupKey, () -> m_aDelegate.getSMPBusinessCardOfID (aID));
+  }
+
+  @Nonnegative
+  public long getSMPBusinessCardCount ()
+  {
+    return m_aDelegate.getSMPBusinessCardCount ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Delegate", m_aDelegate).append ("Cache", m_aCache).getToString ();
+  }
+}
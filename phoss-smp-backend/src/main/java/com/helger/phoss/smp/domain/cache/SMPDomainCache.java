@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+
+/**
+ * A size bound, expiring read-through cache used by the caching manager
+ * decorators. Each entry belongs to a group (usually the participant
+ * identifier), so that all entries of a participant can be invalidated at
+ * once. Optionally the absence of a value is cached as well ("negative
+ * caching").<br>
+ * To avoid caching outdated data, a value loaded while an invalidation
+ * happened in parallel is not stored.<br>
+ * The cache is only invalidated by changes made on this SMP instance. If
+ * multiple instances share the same database, changes made on another instance
+ * become visible after the TTL of the entries.
+ *
+ * @author Philip Helger
+ * @param <V>
+ *        The value type
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPDomainCache <V>
+{
+  private static final class Entry <V>
+  {
+    private final String m_sGroupKey;
+    private final V m_aValue;
+    private final long m_nExpirationNanos;
+
+    Entry (@Nonnull final String sGroupKey, @Nullable final V aValue, final long nExpirationNanos)
+    {
+      m_sGroupKey = sGroupKey;
+      m_aValue = aValue;
+      m_nExpirationNanos = nExpirationNanos;
+    }
+  }
+
+  private final String m_sName;
+  private final int m_nMaxEntries;
+  private final long m_nTTLSeconds;
+  private final boolean m_bNegativeCaching;
+
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  // Access ordered to have LRU semantics
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, Entry <V>> m_aMap;
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, ICommonsSet <String>> m_aKeysPerGroup = new CommonsHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private long m_nGeneration = 0;
+
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aNegativeHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+  private final AtomicLong m_aEvictions = new AtomicLong (0);
+  private final AtomicLong m_aInvalidations = new AtomicLong (0);
+
+  /**
+   * Constructor
+   *
+   * @param sName
+   *        The name of the cache, used in the status. May neither be
+   *        <code>null</code> nor empty.
+   * @param nMaxEntries
+   *        The maximum number of entries. Must be &gt; 0.
+   * @param nTTLSeconds
+   *        The number of seconds after which an entry expires. Must be &gt; 0.
+   * @param bNegativeCaching
+   *        <code>true</code> to cache the absence of values as well.
+   */
+  public SMPDomainCache (@Nonnull @Nonempty final String sName,
+                         @Nonnegative final int nMaxEntries,
+                         @Nonnegative final long nTTLSeconds,
+                         final boolean bNegativeCaching)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    ValueEnforcer.isGT0 (nTTLSeconds, "TTLSeconds");
+    m_sName = sName;
+    m_nMaxEntries = nMaxEntries;
+    m_nTTLSeconds = nTTLSeconds;
+    m_bNegativeCaching = bNegativeCaching;
+    m_aMap = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (@Nonnull final Map.Entry <String, Entry <V>> aEldest)
+      {
+        if (size () <= m_nMaxEntries)
+          return false;
+
+        _removeFromGroupIndex (aEldest.getValue ().m_sGroupKey, aEldest.getKey ());
+        m_aEvictions.incrementAndGet ();
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Create a new cache based on the configuration of the provided name.
+   *
+   * @param sName
+   *        The name of the cache as used in the configuration (e.g.
+   *        <code>servicegroup</code>). May neither be <code>null</code> nor
+   *        empty.
+   * @return <code>null</code> if this cache is disabled in the configuration.
+   * @see SMPServerConfiguration#isDomainCacheEnabled(String)
+   */
+  @Nullable
+  public static <V> SMPDomainCache <V> createFromConfiguration (@Nonnull @Nonempty final String sName)
+  {
+    if (!SMPServerConfiguration.isDomainCacheEnabled (sName))
+      return null;
+    return new SMPDomainCache <> (sName,
+                                  SMPServerConfiguration.getDomainCacheMaxEntries (sName),
+                                  SMPServerConfiguration.getDomainCacheTTLSeconds (sName),
+                                  SMPServerConfiguration.isDomainCacheNegativeCaching (sName));
+  }
+
+  private void _removeFromGroupIndex (@Nonnull final String sGroupKey, @Nonnull final String sKey)
+  {
+    final ICommonsSet <String> aKeys = m_aKeysPerGroup.get (sGroupKey);
+    if (aKeys != null)
+    {
+      aKeys.remove (sKey);
+      if (aKeys.isEmpty ())
+        m_aKeysPerGroup.remove (sGroupKey);
+    }
+  }
+
+  /**
+   * Get the cached value or load and cache it.
+   *
+   * @param sGroupKey
+   *        The group of the entry, e.g. the participant ID. May not be
+   *        <code>null</code>.
+   * @param sKey
+   *        The unique key of the entry. Must contain the group key. May not be
+   *        <code>null</code>.
+   * @param aLoader
+   *        The loader to be invoked if the value is not cached. May not be
+   *        <code>null</code>. It is invoked outside of any lock.
+   * @return The cached or loaded value. May be <code>null</code> if the
+   *         loader returned <code>null</code>.
+   */
+  @Nullable
+  public V getOrLoad (@Nonnull final String sGroupKey,
+                      @Nonnull final String sKey,
+                      @Nonnull final Supplier <? extends V> aLoader)
+  {
+    // Write lock, because of the access ordering
+    final Entry <V> aEntry = m_aRWLock.writeLockedGet ( () -> {
+      final Entry <V> ret = m_aMap.get (sKey);
+      if (ret != null && ret.m_nExpirationNanos - System.nanoTime () <= 0)
+      {
+        m_aMap.remove (sKey);
+        _removeFromGroupIndex (ret.m_sGroupKey, sKey);
+        return null;
+      }
+      return ret;
+    });
+    if (aEntry != null)
+    {
+      if (aEntry.m_aValue == null)
+        m_aNegativeHits.incrementAndGet ();
+      else
+        m_aHits.incrementAndGet ();
+      return aEntry.m_aValue;
+    }
+    m_aMisses.incrementAndGet ();
+
+    // Must be retrieved before loading
+    final long nGeneration = m_aRWLock.readLockedLong ( () -> m_nGeneration);
+    final V aValue = aLoader.get ();
+    if (aValue != null || m_bNegativeCaching)
+    {
+      final long nExpirationNanos = System.nanoTime () + TimeUnit.SECONDS.toNanos (m_nTTLSeconds);
+      m_aRWLock.writeLocked ( () -> {
+        if (nGeneration != m_nGeneration)
+        {
+          // Something changed while the value was loaded
+          return;
+        }
+        m_aKeysPerGroup.computeIfAbsent (sGroupKey, k -> new CommonsHashSet <> ()).add (sKey);
+        m_aMap.put (sKey, new Entry <> (sGroupKey, aValue, nExpirationNanos));
+      });
+    }
+    return aValue;
+  }
+
+  /**
+   * Remove all entries of the provided group.
+   *
+   * @param sGroupKey
+   *        The group to be invalidated. May be <code>null</code>.
+   */
+  public void invalidateGroup (@Nullable final String sGroupKey)
+  {
+    if (sGroupKey == null)
+      return;
+
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      final ICommonsSet <String> aKeys = m_aKeysPerGroup.remove (sGroupKey);
+      if (aKeys != null)
+        for (final String sKey : aKeys)
+          m_aMap.remove (sKey);
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * Remove all entries.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      m_aMap.clear ();
+      m_aKeysPerGroup.clear ();
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  @Nonnegative
+  public int getMaxEntries ()
+  {
+    return m_nMaxEntries;
+  }
+
+  @Nonnegative
+  public long getTTLSeconds ()
+  {
+    return m_nTTLSeconds;
+  }
+
+  public boolean isNegativeCaching ()
+  {
+    return m_bNegativeCaching;
+  }
+
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  @Nonnegative
+  public long getNegativeHitCount ()
+  {
+    return m_aNegativeHits.get ();
+  }
+
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictions.get ();
+  }
+
+  @Nonnegative
+  public long getInvalidationCount ()
+  {
+    return m_aInvalidations.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Name", m_sName)
+                                       .append ("MaxEntries", m_nMaxEntries)
+                                       .append ("TTLSeconds", m_nTTLSeconds)
+                                       .append ("NegativeCaching", m_bNegativeCaching)
+                                       .getToString ();
+  }
+}
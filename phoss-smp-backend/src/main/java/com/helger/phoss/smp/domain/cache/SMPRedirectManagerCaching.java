@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import java.security.cert.X509Certificate;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPResultPage;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+
+/**
+ * A read-through caching decorator for {@link ISMPRedirectManager}. Only the
+ * lookup of a single redirect is cached - all other methods are passed to the
+ * delegate. The cache is invalidated via the redirect and the service group
+ * callbacks.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPRedirectManagerCaching implements ISMPRedirectManager
+{
+  public static final String CACHE_NAME = "redirect";
+
+  private final ISMPRedirectManager m_aDelegate;
+  private final SMPDomainCache <ISMPRedirect> m_aCache;
+
+  public SMPRedirectManagerCaching (@Nonnull final ISMPRedirectManager aDelegate,
+                                    @Nonnull final SMPDomainCache <ISMPRedirect> aCache,
+                                    @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aCache, "Cache");
+    ValueEnforcer.notNull (aServiceGroupMgr, "ServiceGroupMgr");
+    m_aDelegate = aDelegate;
+    m_aCache = aCache;
+
+    aDelegate.redirectCallbacks ().add (new ISMPRedirectCallback ()
+    {
+      @Override
+      public void onSMPRedirectCreated (@Nonnull final ISMPRedirect aRedirect)
+      {
+        aCache.invalidateGroup (aRedirect.getServiceGroupID ());
+      }
+
+      @Override
+      public void onSMPRedirectUpdated (@Nonnull final ISMPRedirect aRedirect)
+      {
+        aCache.invalidateGroup (aRedirect.getServiceGroupID ());
+      }
+
+      @Override
+      public void onSMPRedirectDeleted (@Nonnull final ISMPRedirect aRedirect)
+      {
+        aCache.invalidateGroup (aRedirect.getServiceGroupID ());
+      }
+    });
+    // Redirects may be deleted together with the service group
+    aServiceGroupMgr.serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+    {
+      public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                            final boolean bCreateInSML)
+      {}
+
+      public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+      {}
+
+      public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                            final boolean bDeleteInSML)
+      {
+        aCache.invalidateGroup (SMPServiceGroup.createSMPServiceGroupID (aParticipantID));
+      }
+    });
+  }
+
+  /**
+   * @return The decorated manager. Never <code>null</code>.
+   */
+  @Nonnull
+  public final ISMPRedirectManager getDelegate ()
+  {
+    return m_aDelegate;
+  }
+
+  /**
+   * @return The cache in use. Never <code>null</code>.
+   */
+  @Nonnull
+  public final SMPDomainCache <ISMPRedirect> getCache ()
+  {
+    return m_aCache;
+  }
+
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPRedirectCallback> redirectCallbacks ()
+  {
+    return m_aDelegate.redirectCallbacks ();
+  }
+
+  @Nullable
+  public ISMPRedirect createOrUpdateSMPRedirect (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                 @Nonnull final IDocumentTypeIdentifier aDocumentTypeIdentifier,
+                                                 @Nonnull @Nonempty final String sTargetHref,
+                                                 @Nonnull @Nonempty final String sSubjectUniqueIdentifier,
+                                                 @Nullable final X509Certificate aCertificate,
+                                                 @Nullable final String sExtension)
+  {
+    return m_aDelegate.createOrUpdateSMPRedirect (aServiceGroup,
+                                                  aDocumentTypeIdentifier,
+                                                  sTargetHref,
+                                                  sSubjectUniqueIdentifier,
+                                                  aCertificate,
+                                                  sExtension);
+  }
+
+  @Nonnull
+  public EChange deleteSMPRedirect (@Nullable final ISMPRedirect aSMPRedirect)
+  {
+    return m_aDelegate.deleteSMPRedirect (aSMPRedirect);
+  }
+
+  @Nonnull
+  public EChange deleteAllSMPRedirectsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    final EChange ret = m_aDelegate.deleteAllSMPRedirectsOfServiceGroup (aServiceGroup);
+    if (aServiceGroup != null)
+      m_aCache.invalidateGroup (aServiceGroup.getID ());
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPRedirect> getAllSMPRedirects ()
+  {
+    return m_aDelegate.getAllSMPRedirects ();
+  }
+
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPRedirect> getSMPRedirectPage (@Nullable final String sFilter,
+                                                          final boolean bAscending,
+                                                          @Nonnegative final int nOffset,
+                                                          @Nonnegative final int nCount)
+  {
+    return m_aDelegate.getSMPRedirectPage (sFilter, bAscending, nOffset, nCount);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPRedirect> getAllSMPRedirectsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    return m_aDelegate.getAllSMPRedirectsOfServiceGroup (aServiceGroup);
+  }
+
+  @Nonnegative
+  public long getSMPRedirectCount ()
+  {
+    return m_aDelegate.getSMPRedirectCount ();
+  }
+
+  @Nullable
+  public ISMPRedirect getSMPRedirectOfServiceGroupAndDocumentType (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                                   @Nullable final IDocumentTypeIdentifier aDocTypeID)
+  {
+    if (aServiceGroup == null || aDocTypeID == null)
+      return null;
+
+    final String sGroupKey = aServiceGroup.getID ();
+    return m_aCache.getOrLoad (sGroupKey,
+                               sGroupKey + '\n' + aDocTypeID.getURIEncoded (),
+                               () -> m_aDelegate.getSMPRedirectOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                              aDocTypeID));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Delegate", m_aDelegate).append ("Cache", m_aCache).getToString ();
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import java.util.function.Consumer;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPResultPage;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.exception.SMPServerException;
+
+/**
+ * A read-through caching decorator for {@link ISMPServiceGroupManager}. Only
+ * the lookup of single service groups is cached - all other methods are
+ * passed to the delegate. The cache is invalidated via the service group
+ * callbacks.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPServiceGroupManagerCaching implements ISMPServiceGroupManager
+{
+  public static final String CACHE_NAME = "servicegroup";
+
+  private final ISMPServiceGroupManager m_aDelegate;
+  private final SMPDomainCache <ISMPServiceGroup> m_aCache;
+
+  public SMPServiceGroupManagerCaching (@Nonnull final ISMPServiceGroupManager aDelegate,
+                                       @Nonnull final SMPDomainCache <ISMPServiceGroup> aCache)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aCache, "Cache");
+    m_aDelegate = aDelegate;
+    m_aCache = aCache;
+
+    aDelegate.serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+    {
+      public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                            final boolean bCreateInSML)
+      {
+        // Remove a cached "not found"
+        aCache.invalidateGroup (aServiceGroup.getID ());
+      }
+
+      public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+      {
+        aCache.invalidateGroup (SMPServiceGroup.createSMPServiceGroupID (aParticipantID));
+      }
+
+      public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                            final boolean bDeleteInSML)
+      {
+        aCache.invalidateGroup (SMPServiceGroup.createSMPServiceGroupID (aParticipantID));
+      }
+    });
+  }
+
+  /**
+   * @return The decorated manager. Never <code>null</code>.
+   */
+  @Nonnull
+  public final ISMPServiceGroupManager getDelegate ()
+  {
+    return m_aDelegate;
+  }
+
+  /**
+   * @return The cache in use. Never <code>null</code>.
+   */
+  @Nonnull
+  public final SMPDomainCache <ISMPServiceGroup> getCache ()
+  {
+    return m_aCache;
+  }
+
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPServiceGroupCallback> serviceGroupCallbacks ()
+  {
+    return m_aDelegate.serviceGroupCallbacks ();
+  }
+
+  @Nonnull
+  public ISMPServiceGroup createSMPServiceGroup (@Nonnull @Nonempty final String sOwnerID,
+                                                 @Nonnull final IParticipantIdentifier aParticipantIdentifier,
+                                                 @Nullable final String sExtension,
+                                                 final boolean bCreateInSML) throws SMPServerException
+  {
+    return m_aDelegate.createSMPServiceGroup (sOwnerID, aParticipantIdentifier, sExtension, bCreateInSML);
+  }
+
+  @Nonnull
+  public EChange updateSMPServiceGroup (@Nonnull final IParticipantIdentifier aParticipantIdentifier,
+                                        @Nonnull @Nonempty final String sOwnerID,
+                                        @Nullable final String sExtension) throws SMPServerException
+  {
+    return m_aDelegate.updateSMPServiceGroup (aParticipantIdentifier, sOwnerID, sExtension);
+  }
+
+  @Nonnull
+  public EChange deleteSMPServiceGroup (@Nonnull final IParticipantIdentifier aParticipantIdentifier,
+                                        final boolean bDeleteInSML) throws SMPServerException
+  {
+    return m_aDelegate.deleteSMPServiceGroup (aParticipantIdentifier, bDeleteInSML);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroups ()
+  {
+    return m_aDelegate.getAllSMPServiceGroups ();
+  }
+
+  @Override
+  public void forEachSMPServiceGroup (@Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    m_aDelegate.forEachSMPServiceGroup (aConsumer);
+  }
+
+  @Override
+  @Nonnull
+  public SMPResultPage <ISMPServiceGroup> getSMPServiceGroupPage (@Nullable final String sFilter,
+                                                                  final boolean bAscending,
+                                                                  @Nonnegative final int nOffset,
+                                                                  @Nonnegative final int nCount)
+  {
+    return m_aDelegate.getSMPServiceGroupPage (sFilter, bAscending, nOffset, nCount);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllSMPServiceGroupIDs ()
+  {
+    return m_aDelegate.getAllSMPServiceGroupIDs ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfOwner (@Nonnull final String sOwnerID)
+  {
+    return m_aDelegate.getAllSMPServiceGroupsOfOwner (sOwnerID);
+  }
+
+  @Nonnegative
+  public long getSMPServiceGroupCountOfOwner (@Nonnull final String sOwnerID)
+  {
+    return m_aDelegate.getSMPServiceGroupCountOfOwner (sOwnerID);
+  }
+
+  @Nullable
+  public ISMPServiceGroup getSMPServiceGroupOfID (@Nullable final IParticipantIdentifier aParticipantIdentifier)
+  {
+    if (aParticipantIdentifier == null)
+      return null;
+
+    final String sID = SMPServiceGroup.createSMPServiceGroupID (aParticipantIdentifier);
+    return m_aCache.getOrLoad (sID, sID, () -> m_aDelegate.getSMPServiceGroupOfID (aParticipantIdentifier));
+  }
+
+  public boolean containsSMPServiceGroupWithID (@Nullable final IParticipantIdentifier aParticipantIdentifier)
+  {
+    return getSMPServiceGroupOfID (aParticipantIdentifier) != null;
+  }
+
+  @CheckForSigned
+  public long getSMPServiceGroupCount ()
+  {
+    return m_aDelegate.getSMPServiceGroupCount ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Delegate", m_aDelegate).append ("Cache", m_aCache).getToString ();
+  }
+}
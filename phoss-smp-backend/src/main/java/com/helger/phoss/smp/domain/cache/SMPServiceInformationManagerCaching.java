@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.state.EChange;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppol.smp.ISMPTransportProfile;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.IProcessIdentifier;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+
+/**
+ * A read-through caching decorator for {@link ISMPServiceInformationManager}.
+ * The lookup of a single service information and the document types of a
+ * service group are cached in separate caches - all other methods are passed
+ * to the delegate. The caches are invalidated via the service information and
+ * the service group callbacks.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPServiceInformationManagerCaching implements ISMPServiceInformationManager
+{
+  public static final String CACHE_NAME = "serviceinfo";
+  public static final String CACHE_NAME_DOCTYPES = "doctypes";
+
+  private final ISMPServiceInformationManager m_aDelegate;
+  private final SMPDomainCache <ISMPServiceInformation> m_aCache;
+  private final SMPDomainCache <ICommonsOrderedMap <IDocumentTypeIdentifier, Integer>> m_aDocTypesCache;
+
+  /**
+   * Constructor
+   *
+   * @param aDelegate
+   *        The manager to be decorated. May not be <code>null</code>.
+   * @param aCache
+   *        The cache for single service information objects. May not be
+   *        <code>null</code>.
+   * @param aDocTypesCache
+   *        The cache for the document types of a service group. May be
+   *        <code>null</code> to not cache them.
+   * @param aServiceGroupMgr
+   *        The service group manager to register the deletion callback. May not
+   *        be <code>null</code>.
+   */
+  public SMPServiceInformationManagerCaching (@Nonnull final ISMPServiceInformationManager aDelegate,
+                                              @Nonnull final SMPDomainCache <ISMPServiceInformation> aCache,
+                                              @Nullable final SMPDomainCache <ICommonsOrderedMap <IDocumentTypeIdentifier, Integer>> aDocTypesCache,
+                                              @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aCache, "Cache");
+    ValueEnforcer.notNull (aServiceGroupMgr, "ServiceGroupMgr");
+    m_aDelegate = aDelegate;
+    m_aCache = aCache;
+    m_aDocTypesCache = aDocTypesCache;
+
+    aDelegate.serviceInformationCallbacks ().add (new ISMPServiceInformationCallback ()
+    {
+      @Override
+      public void onSMPServiceInformationCreated (@Nonnull final ISMPServiceInformation aServiceInformation)
+      {
+        _invalidateGroup (aServiceInformation.getServiceGroupID ());
+      }
+
+      @Override
+      public void onSMPServiceInformationUpdated (@Nonnull final ISMPServiceInformation aServiceInformation)
+      {
+        _invalidateGroup (aServiceInformation.getServiceGroupID ());
+      }
+
+      @Override
+      public void onSMPServiceInformationDeleted (@Nonnull final ISMPServiceInformation aServiceInformation)
+      {
+        _invalidateGroup (aServiceInformation.getServiceGroupID ());
+      }
+    });
+    // Service information may be deleted together with the service group
+    aServiceGroupMgr.serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+    {
+      public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                            final boolean bCreateInSML)
+      {}
+
+      public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+      {}
+
+      public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                            final boolean bDeleteInSML)
+      {
+        _invalidateGroup (SMPServiceGroup.createSMPServiceGroupID (aParticipantID));
+      }
+    });
+  }
+
+  private void _invalidateGroup (@Nonnull final String sServiceGroupID)
+  {
+    m_aCache.invalidateGroup (sServiceGroupID);
+    if (m_aDocTypesCache != null)
+      m_aDocTypesCache.invalidateGroup (sServiceGroupID);
+  }
+
+  /**
+   * @return The decorated manager. Never <code>null</code>.
+   */
+  @Nonnull
+  public final ISMPServiceInformationManager getDelegate ()
+  {
+    return m_aDelegate;
+  }
+
+  /**
+   * @return The cache for single service information objects. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public final SMPDomainCache <ISMPServiceInformation> getCache ()
+  {
+    return m_aCache;
+  }
+
+  /**
+   * @return The cache for the document types of a service group. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public final SMPDomainCache <ICommonsOrderedMap <IDocumentTypeIdentifier, Integer>> getDocTypesCache ()
+  {
+    return m_aDocTypesCache;
+  }
+
+  @Nonnull
+  @ReturnsMutableObject
+  public CallbackList <ISMPServiceInformationCallback> serviceInformationCallbacks ()
+  {
+    return m_aDelegate.serviceInformationCallbacks ();
+  }
+
+  @Nonnull
+  public ESuccess mergeSMPServiceInformation (@Nonnull final ISMPServiceInformation aServiceInformation)
+  {
+    return m_aDelegate.mergeSMPServiceInformation (aServiceInformation);
+  }
+
+  @Nullable
+  public ISMPServiceInformation findServiceInformation (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                        @Nullable final IDocumentTypeIdentifier aDocTypeID,
+                                                        @Nullable final IProcessIdentifier aProcessID,
+                                                        @Nullable final ISMPTransportProfile aTransportProfile)
+  {
+    return m_aDelegate.findServiceInformation (aServiceGroup, aDocTypeID, aProcessID, aTransportProfile);
+  }
+
+  @Nonnull
+  public EChange deleteSMPServiceInformation (@Nullable final ISMPServiceInformation aSMPServiceInformation)
+  {
+    return m_aDelegate.deleteSMPServiceInformation (aSMPServiceInformation);
+  }
+
+  @Nonnull
+  public EChange deleteAllSMPServiceInformationOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    final EChange ret = m_aDelegate.deleteAllSMPServiceInformationOfServiceGroup (aServiceGroup);
+    if (aServiceGroup != null)
+      _invalidateGroup (aServiceGroup.getID ());
+    return ret;
+  }
+
+  @Nonnull
+  public EChange deleteSMPProcess (@Nullable final ISMPServiceInformation aSMPServiceInformation,
+                                   @Nullable final ISMPProcess aProcess)
+  {
+    final EChange ret = m_aDelegate.deleteSMPProcess (aSMPServiceInformation, aProcess);
+    if (aSMPServiceInformation != null)
+      _invalidateGroup (aSMPServiceInformation.getServiceGroupID ());
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getAllSMPServiceInformation ()
+  {
+    return m_aDelegate.getAllSMPServiceInformation ();
+  }
+
+  @Nonnegative
+  public long getSMPServiceInformationCount ()
+  {
+    return m_aDelegate.getSMPServiceInformationCount ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getAllSMPServiceInformationOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    return m_aDelegate.getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceInformation> getSMPServiceInformationPageOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                                                          @Nullable final IDocumentTypeIdentifier aAfterDocTypeID,
+                                                                                          @Nonnegative final int nMaxCount)
+  {
+    return m_aDelegate.getSMPServiceInformationPageOfServiceGroup (aServiceGroup, aAfterDocTypeID, nMaxCount);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IDocumentTypeIdentifier> getAllSMPDocumentTypesOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    return m_aDelegate.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesWithEndpointsOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup)
+  {
+    if (aServiceGroup == null || m_aDocTypesCache == null)
+      return m_aDelegate.getAllSMPDocumentTypesWithEndpointsOfServiceGroup (aServiceGroup);
+
+    final String sGroupKey = aServiceGroup.getID ();
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> aCached = m_aDocTypesCache.getOrLoad (sGroupKey,
+                                                                                                      sGroupKey,
+                                                                                                      () -> m_aDelegate.getAllSMPDocumentTypesWithEndpointsOfServiceGroup (aServiceGroup));
+    // Always return a copy, as the caller may modify it
+    return new CommonsLinkedHashMap <> (aCached);
+  }
+
+  @Nullable
+  public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                                                       @Nullable final IDocumentTypeIdentifier aDocumentTypeIdentifier)
+  {
+    if (aServiceGroup == null || aDocumentTypeIdentifier == null)
+      return null;
+
+    final String sGroupKey = aServiceGroup.getID ();
+    return m_aCache.getOrLoad (sGroupKey,
+                               sGroupKey + '\n' + aDocumentTypeIdentifier.getURIEncoded (),
+                               () -> m_aDelegate.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                        aDocumentTypeIdentifier));
+  }
+
+  public boolean containsAnyEndpointWithTransportProfile (@Nullable final String sTransportProfileID)
+  {
+    return m_aDelegate.containsAnyEndpointWithTransportProfile (sTransportProfileID);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Delegate", m_aDelegate)
+                                       .append ("Cache", m_aCache)
+                                       .append ("DocTypesCache", m_aDocTypesCache)
+                                       .getToString ();
+  }
+}
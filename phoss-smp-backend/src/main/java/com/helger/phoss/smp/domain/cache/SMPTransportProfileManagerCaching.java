@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppol.smp.ISMPTransportProfile;
+import com.helger.phoss.smp.domain.transportprofile.ISMPTransportProfileManager;
+
+/**
+ * A read-through caching decorator for {@link ISMPTransportProfileManager}.
+ * Only the lookup of a single transport profile is cached - all other methods
+ * are passed to the delegate. As there are no transport profile callbacks, the
+ * cache is invalidated by the modifying methods of this class.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPTransportProfileManagerCaching implements ISMPTransportProfileManager
+{
+  public static final String CACHE_NAME = "transportprofile";
+
+  private final ISMPTransportProfileManager m_aDelegate;
+  private final SMPDomainCache <ISMPTransportProfile> m_aCache;
+
+  public SMPTransportProfileManagerCaching (@Nonnull final ISMPTransportProfileManager aDelegate,
+                                           @Nonnull final SMPDomainCache <ISMPTransportProfile> aCache)
+  {
+    ValueEnforcer.notNull (aDelegate, "Delegate");
+    ValueEnforcer.notNull (aCache, "Cache");
+    m_aDelegate = aDelegate;
+    m_aCache = aCache;
+  }
+
+  /**
+   * @return The decorated manager. Never <code>null</code>.
+   */
+  @Nonnull
+  public final ISMPTransportProfileManager getDelegate ()
+  {
+    return m_aDelegate;
+  }
+
+  /**
+   * @return The cache in use. Never <code>null</code>.
+   */
+  @Nonnull
+  public final SMPDomainCache <ISMPTransportProfile> getCache ()
+  {
+    return m_aCache;
+  }
+
+  @Nullable
+  public ISMPTransportProfile createSMPTransportProfile (@Nonnull @Nonempty final String sID,
+                                                         @Nonnull @Nonempty final String sName,
+                                                         final boolean bIsDeprecated)
+  {
+    final ISMPTransportProfile ret = m_aDelegate.createSMPTransportProfile (sID, sName, bIsDeprecated);
+    m_aCache.invalidateGroup (sID);
+    return ret;
+  }
+
+  @Nonnull
+  public EChange updateSMPTransportProfile (@Nullable final String sSMPTransportProfileID,
+                                            @Nonnull @Nonempty final String sName,
+                                            final boolean bIsDeprecated)
+  {
+    final EChange ret = m_aDelegate.updateSMPTransportProfile (sSMPTransportProfileID, sName, bIsDeprecated);
+    m_aCache.invalidateGroup (sSMPTransportProfileID);
+    return ret;
+  }
+
+  @Nonnull
+  public EChange deleteSMPTransportProfile (@Nullable final String sSMPTransportProfileID)
+  {
+    final EChange ret = m_aDelegate.deleteSMPTransportProfile (sSMPTransportProfileID);
+    m_aCache.invalidateGroup (sSMPTransportProfileID);
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPTransportProfile> getAllSMPTransportProfiles ()
+  {
+    return m_aDelegate.getAllSMPTransportProfiles ();
+  }
+
+  @Nullable
+  public ISMPTransportProfile getSMPTransportProfileOfID (@Nullable final String sID)
+  {
+    if (sID == null)
+      return null;
+    return m_aCache.getOrLoad (sID, sID, () -> m_aDelegate.getSMPTransportProfileOfID (sID));
+  }
+
+  public boolean containsSMPTransportProfileWithID (@Nullable final String sID)
+  {
+    return getSMPTransportProfileOfID (sID) != null;
+  }
+
+  @Nonnegative
+  public long getSMPTransportProfileCount ()
+  {
+    return m_aDelegate.getSMPTransportProfileCount ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Delegate", m_aDelegate).append ("Cache", m_aCache).getToString ();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * Defines the actions that can be sent to the Peppol Directory.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public enum EDirectoryNotificationAction implements IHasID <String>
+{
+  /** Add or update the participant in the Directory index. */
+  ADD ("add"),
+  /** Remove the participant from the Directory index. */
+  DELETE ("delete");
+
+  private final String m_sID;
+
+  EDirectoryNotificationAction (@Nonnull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  public boolean isAdd ()
+  {
+    return this == ADD;
+  }
+
+  public boolean isDelete ()
+  {
+    return this == DELETE;
+  }
+
+  @Nullable
+  public static EDirectoryNotificationAction getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (EDirectoryNotificationAction.class, sID);
+  }
+}
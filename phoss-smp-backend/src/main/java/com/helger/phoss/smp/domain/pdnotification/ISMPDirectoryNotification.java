@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.id.IHasID;
+import com.helger.peppolid.IParticipantIdentifier;
+
+/**
+ * Defines a single pending notification to the Peppol Directory. There is at
+ * most one pending notification per participant - the ID is the URI encoded
+ * participant identifier.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public interface ISMPDirectoryNotification extends IHasID <String>
+{
+  /**
+   * @return The participant identifier to be notified. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  IParticipantIdentifier getParticipantIdentifier ();
+
+  /**
+   * @return The action to be performed in the Directory. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  EDirectoryNotificationAction getAction ();
+
+  /**
+   * @return The date and time, when the notification was queued. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  LocalDateTime getQueueDateTime ();
+}
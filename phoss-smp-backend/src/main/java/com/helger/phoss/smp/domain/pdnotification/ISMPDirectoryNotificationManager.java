@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.peppolid.IParticipantIdentifier;
+
+/**
+ * This is the interface for persisting pending Peppol Directory
+ * notifications, so that they survive a restart of the SMP. Only the latest
+ * action per participant is kept.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public interface ISMPDirectoryNotificationManager
+{
+  /**
+   * Store a pending notification. An existing pending notification of the same
+   * participant is replaced.
+   *
+   * @param aNotification
+   *        The notification to store. May not be <code>null</code>.
+   * @return {@link EChange#CHANGED} if the notification was persisted.
+   */
+  @Nonnull
+  EChange storeDirectoryNotification (@Nonnull ISMPDirectoryNotification aNotification);
+
+  /**
+   * Delete the pending notification of the provided participant.
+   *
+   * @param aParticipantID
+   *        The participant ID to delete. May be <code>null</code>.
+   * @return {@link EChange} and never <code>null</code>.
+   */
+  @Nonnull
+  EChange deleteDirectoryNotification (@Nullable IParticipantIdentifier aParticipantID);
+
+  /**
+   * @return All pending notifications. Never <code>null</code> but maybe
+   *         empty.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  ICommonsList <ISMPDirectoryNotification> getAllDirectoryNotifications ();
+}
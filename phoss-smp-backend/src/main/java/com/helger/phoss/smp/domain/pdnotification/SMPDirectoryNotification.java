@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.type.ObjectType;
+import com.helger.peppolid.IParticipantIdentifier;
+
+/**
+ * Default implementation of {@link ISMPDirectoryNotification}
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@Immutable
+public class SMPDirectoryNotification implements ISMPDirectoryNotification
+{
+  public static final ObjectType OT = new ObjectType ("SmpDirectoryNotification");
+
+  private final String m_sID;
+  private final IParticipantIdentifier m_aParticipantID;
+  private final EDirectoryNotificationAction m_eAction;
+  private final LocalDateTime m_aQueueDateTime;
+
+  public SMPDirectoryNotification (@Nonnull final IParticipantIdentifier aParticipantID,
+                                   @Nonnull final EDirectoryNotificationAction eAction,
+                                   @Nonnull final LocalDateTime aQueueDateTime)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+    ValueEnforcer.notNull (eAction, "Action");
+    ValueEnforcer.notNull (aQueueDateTime, "QueueDateTime");
+
+    m_sID = createID (aParticipantID);
+    m_aParticipantID = aParticipantID;
+    m_eAction = eAction;
+    m_aQueueDateTime = aQueueDateTime;
+  }
+
+  @Nonnull
+  @Nonempty
+  public final String getID ()
+  {
+    return m_sID;
+  }
+
+  @Nonnull
+  public final IParticipantIdentifier getParticipantIdentifier ()
+  {
+    return m_aParticipantID;
+  }
+
+  @Nonnull
+  public final EDirectoryNotificationAction getAction ()
+  {
+    return m_eAction;
+  }
+
+  @Nonnull
+  public final LocalDateTime getQueueDateTime ()
+  {
+    return m_aQueueDateTime;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final SMPDirectoryNotification rhs = (SMPDirectoryNotification) o;
+    return m_sID.equals (rhs.m_sID);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_sID).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("ID", m_sID)
+                                       .append ("ParticipantID", m_aParticipantID)
+                                       .append ("Action", m_eAction)
+                                       .append ("QueueDateTime", m_aQueueDateTime)
+                                       .getToString ();
+  }
+
+  /**
+   * Create the ID of a notification for the provided participant.
+   *
+   * @param aParticipantID
+   *        The participant ID to use. May not be <code>null</code>.
+   * @return The URI encoded participant identifier.
+   */
+  @Nonnull
+  @Nonempty
+  public static String createID (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    return aParticipantID.getURIEncoded ();
+  }
+
+  @Nonnull
+  public static SMPDirectoryNotification createNow (@Nonnull final IParticipantIdentifier aParticipantID,
+                                                    @Nonnull final EDirectoryNotificationAction eAction)
+  {
+    return new SMPDirectoryNotification (aParticipantID, eAction, PDTFactory.getCurrentLocalDateTime ());
+  }
+}
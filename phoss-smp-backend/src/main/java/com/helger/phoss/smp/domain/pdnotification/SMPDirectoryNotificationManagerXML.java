@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.dao.DAOException;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
+
+/**
+ * The XML implementation of {@link ISMPDirectoryNotificationManager}
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public class SMPDirectoryNotificationManagerXML extends
+                                                AbstractPhotonMapBasedWALDAO <ISMPDirectoryNotification, SMPDirectoryNotification>
+                                                implements
+                                                ISMPDirectoryNotificationManager
+{
+  public SMPDirectoryNotificationManagerXML (@Nonnull @Nonempty final String sFilename) throws DAOException
+  {
+    super (SMPDirectoryNotification.class, sFilename);
+  }
+
+  @Nonnull
+  public EChange storeDirectoryNotification (@Nonnull final ISMPDirectoryNotification aNotification)
+  {
+    ValueEnforcer.notNull (aNotification, "Notification");
+
+    final SMPDirectoryNotification aRealNotification = (SMPDirectoryNotification) aNotification;
+    m_aRWLock.writeLocked ( () -> {
+      if (containsWithID (aRealNotification.getID ()))
+        internalUpdateItem (aRealNotification);
+      else
+        internalCreateItem (aRealNotification);
+    });
+    return EChange.CHANGED;
+  }
+
+  @Nonnull
+  public EChange deleteDirectoryNotification (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    if (aParticipantID == null)
+      return EChange.UNCHANGED;
+
+    final String sID = SMPDirectoryNotification.createID (aParticipantID);
+    return m_aRWLock.writeLockedGet ( () -> EChange.valueOf (internalDeleteItem (sID) != null));
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPDirectoryNotification> getAllDirectoryNotifications ()
+  {
+    return getAll ();
+  }
+}
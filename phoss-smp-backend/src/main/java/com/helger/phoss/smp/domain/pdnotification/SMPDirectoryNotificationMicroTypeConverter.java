@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import java.time.LocalDateTime;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroElement;
+import com.helger.xml.microdom.convert.IMicroTypeConverter;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
+
+/**
+ * This class is internally used to convert {@link SMPDirectoryNotification}
+ * from and to XML.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public final class SMPDirectoryNotificationMicroTypeConverter implements IMicroTypeConverter <SMPDirectoryNotification>
+{
+  private static final String ELEMENT_PARTICIPANT_IDENTIFIER = "participant";
+  private static final String ATTR_ACTION = "action";
+  private static final String ATTR_QUEUE_DATETIME = "queuedt";
+
+  @Nonnull
+  public IMicroElement convertToMicroElement (@Nonnull final SMPDirectoryNotification aValue,
+                                              @Nullable final String sNamespaceURI,
+                                              @Nonnull @Nonempty final String sTagName)
+  {
+    final IMicroElement aElement = new MicroElement (sNamespaceURI, sTagName);
+    aElement.appendChild (MicroTypeConverter.convertToMicroElement (aValue.getParticipantIdentifier (),
+                                                                    sNamespaceURI,
+                                                                    ELEMENT_PARTICIPANT_IDENTIFIER));
+    aElement.setAttribute (ATTR_ACTION, aValue.getAction ().getID ());
+    aElement.setAttributeWithConversion (ATTR_QUEUE_DATETIME, aValue.getQueueDateTime ());
+    return aElement;
+  }
+
+  @Nonnull
+  public SMPDirectoryNotification convertToNative (@Nonnull final IMicroElement aElement)
+  {
+    final SimpleParticipantIdentifier aParticipantID = MicroTypeConverter.convertToNative (aElement.getFirstChildElement (ELEMENT_PARTICIPANT_IDENTIFIER),
+                                                                                           SimpleParticipantIdentifier.class);
+
+    final String sAction = aElement.getAttributeValue (ATTR_ACTION);
+    final EDirectoryNotificationAction eAction = EDirectoryNotificationAction.getFromIDOrNull (sAction);
+    if (eAction == null)
+      throw new IllegalStateException ("Failed to resolve Directory Notification Action with ID '" + sAction + "'");
+
+    final LocalDateTime aQueueDT = aElement.getAttributeValueWithConversion (ATTR_QUEUE_DATETIME, LocalDateTime.class);
+
+    return new SMPDirectoryNotification (aParticipantID, eAction, aQueueDT);
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.problem;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.datetime.PDTWebDateHelper;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.error.level.IErrorLevel;
+import com.helger.commons.error.level.IHasErrorLevel;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+
+/**
+ * A single task or problem identified by the {@link SMPProblemAnalyzer} for a
+ * single service group. Optionally it refers to a document type, process and
+ * endpoint transport profile within the service group and contains a date and
+ * time with an explanatory text.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@Immutable
+public final class SMPProblem implements IHasErrorLevel
+{
+  private final EErrorLevel m_eLevel;
+  private final String m_sServiceGroupID;
+  private final String m_sDocTypeID;
+  private final String m_sProcessID;
+  private final String m_sTransportProfile;
+  private final String m_sMessage;
+  private final String m_sDetailText;
+  private final XMLOffsetDateTime m_aDetailDT;
+
+  /**
+   * Constructor
+   *
+   * @param eLevel
+   *        The level. Should be one of {@link EErrorLevel#INFO},
+   *        {@link EErrorLevel#WARN} or {@link EErrorLevel#ERROR}. May not be
+   *        <code>null</code>.
+   * @param sServiceGroupID
+   *        The affected service group ID. May neither be <code>null</code> nor
+   *        empty.
+   * @param sDocTypeID
+   *        The URI encoded affected document type ID. May be
+   *        <code>null</code>.
+   * @param sProcessID
+   *        The URI encoded affected process ID. May be <code>null</code>.
+   * @param sTransportProfile
+   *        The transport profile of the affected endpoint. May be
+   *        <code>null</code>.
+   * @param sMessage
+   *        The problem description. May neither be <code>null</code> nor
+   *        empty.
+   * @param sDetailText
+   *        The text to be shown together with the detail date time, e.g. "It
+   *        was valid until". May be <code>null</code>.
+   * @param aDetailDT
+   *        The date time the problem relates to. May be <code>null</code>.
+   */
+  public SMPProblem (@Nonnull final EErrorLevel eLevel,
+                     @Nonnull @Nonempty final String sServiceGroupID,
+                     @Nullable final String sDocTypeID,
+                     @Nullable final String sProcessID,
+                     @Nullable final String sTransportProfile,
+                     @Nonnull @Nonempty final String sMessage,
+                     @Nullable final String sDetailText,
+                     @Nullable final XMLOffsetDateTime aDetailDT)
+  {
+    ValueEnforcer.notNull (eLevel, "Level");
+    ValueEnforcer.notEmpty (sServiceGroupID, "ServiceGroupID");
+    ValueEnforcer.notEmpty (sMessage, "Message");
+    m_eLevel = eLevel;
+    m_sServiceGroupID = sServiceGroupID;
+    m_sDocTypeID = sDocTypeID;
+    m_sProcessID = sProcessID;
+    m_sTransportProfile = sTransportProfile;
+    m_sMessage = sMessage;
+    m_sDetailText = sDetailText;
+    m_aDetailDT = aDetailDT;
+  }
+
+  @Nonnull
+  public EErrorLevel getErrorLevel ()
+  {
+    return m_eLevel;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getServiceGroupID ()
+  {
+    return m_sServiceGroupID;
+  }
+
+  @Nullable
+  public String getDocumentTypeID ()
+  {
+    return m_sDocTypeID;
+  }
+
+  @Nullable
+  public String getProcessID ()
+  {
+    return m_sProcessID;
+  }
+
+  @Nullable
+  public String getTransportProfile ()
+  {
+    return m_sTransportProfile;
+  }
+
+  @Nonnull
+  @Nonempty
+  public String getMessage ()
+  {
+    return m_sMessage;
+  }
+
+  @Nullable
+  public String getDetailText ()
+  {
+    return m_sDetailText;
+  }
+
+  @Nullable
+  public XMLOffsetDateTime getDetailDateTime ()
+  {
+    return m_aDetailDT;
+  }
+
+  @Nonnull
+  @Nonempty
+  public static String getErrorLevelName (@Nonnull final IErrorLevel aErrorLevel)
+  {
+    if (aErrorLevel.isGE (EErrorLevel.ERROR))
+      return "error";
+    if (aErrorLevel.isGE (EErrorLevel.WARN))
+      return "warning";
+    return "info";
+  }
+
+  @Nonnull
+  public IJsonObject getAsJsonObject ()
+  {
+    return new JsonObject ().add ("level", getErrorLevelName (m_eLevel))
+                            .add ("serviceGroupID", m_sServiceGroupID)
+                            .addIfNotNull ("documentTypeID", m_sDocTypeID)
+                            .addIfNotNull ("processID", m_sProcessID)
+                            .addIfNotNull ("transportProfile", m_sTransportProfile)
+                            .add ("message", m_sMessage)
+                            .addIfNotNull ("detail", m_sDetailText)
+                            .addIfNotNull ("datetime",
+                                           m_aDetailDT != null ? PDTWebDateHelper.getAsStringXSD (m_aDetailDT) : null);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Level", m_eLevel)
+                                       .append ("ServiceGroupID", m_sServiceGroupID)
+                                       .appendIfNotNull ("DocTypeID", m_sDocTypeID)
+                                       .appendIfNotNull ("ProcessID", m_sProcessID)
+                                       .appendIfNotNull ("TransportProfile", m_sTransportProfile)
+                                       .append ("Message", m_sMessage)
+                                       .appendIfNotNull ("DetailText", m_sDetailText)
+                                       .appendIfNotNull ("DetailDT", m_aDetailDT)
+                                       .getToString ();
+  }
+}
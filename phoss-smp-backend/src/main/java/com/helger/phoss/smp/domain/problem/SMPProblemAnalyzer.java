@@ -0,0 +1,754 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.problem;
+
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.datetime.PDTWebDateHelper;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.peppol.smp.ESMPTransportProfile;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.security.certificate.CertificateHelper;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Keeps a precomputed index of the tasks and problems of all service groups,
+ * so that they can be shown without analyzing all the data on every request.
+ * The index is updated incrementally in a background thread for every service
+ * group that is changed via the service group, service information, redirect
+ * and business card callbacks. Additionally all service groups are analyzed
+ * regularly to catch time based problems like expiring certificates.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPProblemAnalyzer
+{
+  /** The number of months before an expiration a warning is issued */
+  public static final int EXPIRATION_WARNING_MONTHS = 3;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPProblemAnalyzer.class);
+
+  private final ISMPServiceGroupManager m_aServiceGroupMgr;
+  private final ISMPServiceInformationManager m_aServiceInfoMgr;
+  private final ISMPRedirectManager m_aRedirectMgr;
+  private final ISMPBusinessCardManager m_aBusinessCardMgr;
+  private final BooleanSupplier m_aBusinessCardExpected;
+  private final long m_nSweepIntervalMinutes;
+
+  // Service group ID to problems - only service groups with problems are
+  // contained and the lists are never modified
+  private final NavigableMap <String, ICommonsList <SMPProblem>> m_aProblems = new ConcurrentSkipListMap <> ();
+  private final AtomicInteger m_aErrorCount = new AtomicInteger (0);
+  private final AtomicInteger m_aWarningCount = new AtomicInteger (0);
+  private final AtomicInteger m_aInfoCount = new AtomicInteger (0);
+  // Held while modifying the index and the counters
+  private final Lock m_aUpdateLock = new ReentrantLock ();
+  // Service group ID to participant ID of all changed service groups
+  private final Map <String, IParticipantIdentifier> m_aPending = new ConcurrentHashMap <> ();
+  private volatile OffsetDateTime m_aLastSweepDT;
+
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  @GuardedBy ("m_aRWLock")
+  private ScheduledExecutorService m_aExecSvc;
+
+  /**
+   * Constructor
+   *
+   * @param aServiceGroupMgr
+   *        The service group manager to use. May not be <code>null</code>.
+   * @param aServiceInfoMgr
+   *        The service information manager to use. May not be
+   *        <code>null</code>.
+   * @param aRedirectMgr
+   *        The redirect manager to use. May not be <code>null</code>.
+   * @param aBusinessCardMgr
+   *        The business card manager to use. May be <code>null</code>.
+   * @param aBusinessCardExpected
+   *        Determines whether every service group is expected to have a
+   *        business card. May not be <code>null</code>.
+   * @param nSweepIntervalMinutes
+   *        The number of minutes between two analyses of all service groups.
+   *        Must be &gt; 0.
+   */
+  public SMPProblemAnalyzer (@Nonnull final ISMPServiceGroupManager aServiceGroupMgr,
+                             @Nonnull final ISMPServiceInformationManager aServiceInfoMgr,
+                             @Nonnull final ISMPRedirectManager aRedirectMgr,
+                             @Nullable final ISMPBusinessCardManager aBusinessCardMgr,
+                             @Nonnull final BooleanSupplier aBusinessCardExpected,
+                             @Nonnegative final long nSweepIntervalMinutes)
+  {
+    ValueEnforcer.notNull (aServiceGroupMgr, "ServiceGroupMgr");
+    ValueEnforcer.notNull (aServiceInfoMgr, "ServiceInfoMgr");
+    ValueEnforcer.notNull (aRedirectMgr, "RedirectMgr");
+    ValueEnforcer.notNull (aBusinessCardExpected, "BusinessCardExpected");
+    ValueEnforcer.isGT0 (nSweepIntervalMinutes, "SweepIntervalMinutes");
+    m_aServiceGroupMgr = aServiceGroupMgr;
+    m_aServiceInfoMgr = aServiceInfoMgr;
+    m_aRedirectMgr = aRedirectMgr;
+    m_aBusinessCardMgr = aBusinessCardMgr;
+    m_aBusinessCardExpected = aBusinessCardExpected;
+    m_nSweepIntervalMinutes = nSweepIntervalMinutes;
+  }
+
+  /**
+   * Register the callbacks at all managers, so that the changed service groups
+   * are analyzed again. Must be called exactly once.
+   */
+  public void registerCallbacks ()
+  {
+    m_aServiceGroupMgr.serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+    {
+      public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                            final boolean bCreateInSML)
+      {
+        markChanged (aServiceGroup.getParticipantIdentifier ());
+      }
+
+      public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+      {
+        markChanged (aParticipantID);
+      }
+
+      public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                            final boolean bDeleteInSML)
+      {
+        markChanged (aParticipantID);
+      }
+    });
+    m_aServiceInfoMgr.serviceInformationCallbacks ().add (new ISMPServiceInformationCallback ()
+    {
+      @Override
+      public void onSMPServiceInformationCreated (@Nonnull final ISMPServiceInformation aServiceInformation)
+      {
+        markChanged (aServiceInformation.getServiceGroup ().getParticipantIdentifier ());
+      }
+
+      @Override
+      public void onSMPServiceInformationUpdated (@Nonnull final ISMPServiceInformation aServiceInformation)
+      {
+        markChanged (aServiceInformation.getServiceGroup ().getParticipantIdentifier ());
+      }
+
+      @Override
+      public void onSMPServiceInformationDeleted (@Nonnull final ISMPServiceInformation aServiceInformation)
+      {
+        markChanged (aServiceInformation.getServiceGroup ().getParticipantIdentifier ());
+      }
+    });
+    m_aRedirectMgr.redirectCallbacks ().add (new ISMPRedirectCallback ()
+    {
+      @Override
+      public void onSMPRedirectCreated (@Nonnull final ISMPRedirect aRedirect)
+      {
+        markChanged (aRedirect.getServiceGroup ().getParticipantIdentifier ());
+      }
+
+      @Override
+      public void onSMPRedirectUpdated (@Nonnull final ISMPRedirect aRedirect)
+      {
+        markChanged (aRedirect.getServiceGroup ().getParticipantIdentifier ());
+      }
+
+      @Override
+      public void onSMPRedirectDeleted (@Nonnull final ISMPRedirect aRedirect)
+      {
+        markChanged (aRedirect.getServiceGroup ().getParticipantIdentifier ());
+      }
+    });
+    if (m_aBusinessCardMgr != null)
+      m_aBusinessCardMgr.bcCallbacks ().add (new ISMPBusinessCardCallback ()
+      {
+        public void onSMPBusinessCardCreatedOrUpdated (@Nonnull final ISMPBusinessCard aBusinessCard)
+        {
+          markChanged (aBusinessCard.getParticipantIdentifier ());
+        }
+
+        public void onSMPBusinessCardDeleted (@Nonnull final ISMPBusinessCard aBusinessCard)
+        {
+          markChanged (aBusinessCard.getParticipantIdentifier ());
+        }
+      });
+  }
+
+  /**
+   * Remember that the data of the provided service group was changed. If the
+   * analyzer is started, the service group is analyzed again in the
+   * background. Otherwise it is analyzed with the next call to
+   * {@link #processPendingChanges()}.
+   *
+   * @param aParticipantID
+   *        The participant ID of the changed service group. May not be
+   *        <code>null</code>.
+   */
+  public void markChanged (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    final String sServiceGroupID = SMPServiceGroup.createSMPServiceGroupID (aParticipantID);
+    if (m_aPending.put (sServiceGroupID, aParticipantID) == null)
+    {
+      // Not yet pending
+      final ScheduledExecutorService aExecSvc = m_aRWLock.readLockedGet ( () -> m_aExecSvc);
+      if (aExecSvc != null)
+        try
+        {
+          aExecSvc.execute ( () -> _runScoped (this::processPendingChanges));
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          // Shutting down
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Not analyzing Service Group '" + sServiceGroupID + "' because the analyzer is stopping");
+        }
+    }
+  }
+
+  private void _setProblems (@Nonnull final String sServiceGroupID, @Nonnull final ICommonsList <SMPProblem> aProblems)
+  {
+    m_aUpdateLock.lock ();
+    try
+    {
+      final ICommonsList <SMPProblem> aOld = aProblems.isEmpty () ? m_aProblems.remove (sServiceGroupID)
+                                                                  : m_aProblems.put (sServiceGroupID, aProblems);
+      if (aOld != null)
+        for (final SMPProblem aProblem : aOld)
+          _getCounter (aProblem.getErrorLevel ()).decrementAndGet ();
+      for (final SMPProblem aProblem : aProblems)
+        _getCounter (aProblem.getErrorLevel ()).incrementAndGet ();
+    }
+    finally
+    {
+      m_aUpdateLock.unlock ();
+    }
+  }
+
+  @Nonnull
+  private AtomicInteger _getCounter (@Nonnull final EErrorLevel eLevel)
+  {
+    if (eLevel.isGE (EErrorLevel.ERROR))
+      return m_aErrorCount;
+    if (eLevel.isGE (EErrorLevel.WARN))
+      return m_aWarningCount;
+    return m_aInfoCount;
+  }
+
+  private void _analyze (@Nonnull final String sServiceGroupID,
+                         @Nonnull final IParticipantIdentifier aParticipantID,
+                         @Nonnull final OffsetDateTime aNowDT)
+  {
+    final ISMPServiceGroup aServiceGroup = m_aServiceGroupMgr.getSMPServiceGroupOfID (aParticipantID);
+    // Deleted service groups have no problems
+    _setProblems (sServiceGroupID,
+                  aServiceGroup == null ? new CommonsArrayList <> () : analyzeServiceGroup (aServiceGroup, aNowDT));
+  }
+
+  /**
+   * Analyze all service groups that were changed since the last call. This is
+   * called automatically in the background if the analyzer is started.
+   * Direct callers must provide a (web) scope.
+   */
+  public void processPendingChanges ()
+  {
+    final OffsetDateTime aNowDT = PDTFactory.getCurrentOffsetDateTime ();
+    for (final String sServiceGroupID : new CommonsArrayList <> (m_aPending.keySet ()))
+    {
+      // Remove before analyzing, so that changes made in the meantime are
+      // analyzed again
+      final IParticipantIdentifier aParticipantID = m_aPending.remove (sServiceGroupID);
+      if (aParticipantID != null)
+        try
+        {
+          _analyze (sServiceGroupID, aParticipantID, aNowDT);
+        }
+        catch (final RuntimeException ex)
+        {
+          // Never let the background thread die
+          LOGGER.error ("Error analyzing Service Group '" + sServiceGroupID + "'", ex);
+        }
+    }
+  }
+
+  /**
+   * Analyze all service groups and replace the whole index. This is called
+   * regularly in the background if the analyzer is started.
+   * Direct callers must provide a (web) scope.
+   */
+  public void performSweep ()
+  {
+    final OffsetDateTime aNowDT = PDTFactory.getCurrentOffsetDateTime ();
+    try
+    {
+      final ICommonsSet <String> aExistingIDs = new CommonsHashSet <> ();
+      m_aServiceGroupMgr.forEachSMPServiceGroup (aServiceGroup -> {
+        aExistingIDs.add (aServiceGroup.getID ());
+        _setProblems (aServiceGroup.getID (), analyzeServiceGroup (aServiceGroup, aNowDT));
+      });
+
+      // Remove all service groups that no longer exist
+      for (final String sServiceGroupID : new CommonsArrayList <> (m_aProblems.keySet ()))
+        if (!aExistingIDs.contains (sServiceGroupID))
+          _setProblems (sServiceGroupID, new CommonsArrayList <> ());
+
+      m_aLastSweepDT = aNowDT;
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Analyzed " + aExistingIDs.size () + " Service Groups for tasks and problems");
+    }
+    catch (final RuntimeException ex)
+    {
+      // Never let the background thread die
+      LOGGER.error ("Error analyzing all Service Groups for tasks and problems", ex);
+    }
+  }
+
+  @Nullable
+  private static X509Certificate _getCertificate (@Nullable final String sCertificate)
+  {
+    try
+    {
+      return CertificateHelper.convertStringToCertficate (sCertificate);
+    }
+    catch (final CertificateException ex)
+    {
+      return null;
+    }
+  }
+
+  private static void _checkCertificate (@Nonnull final X509Certificate aX509Cert,
+                                         @Nonnull final String sName,
+                                         @Nonnull final OffsetDateTime aNowDT,
+                                         @Nonnull final ProblemAdder aAdder)
+  {
+    final OffsetDateTime aNowPlusDT = aNowDT.plusMonths (EXPIRATION_WARNING_MONTHS);
+
+    final OffsetDateTime aNotBefore = PDTFactory.createOffsetDateTime (aX509Cert.getNotBefore ());
+    if (aNowDT.isBefore (aNotBefore))
+      aAdder.add (EErrorLevel.ERROR,
+                  "The " + sName + " certificate is not yet active.",
+                  "It will be valid from",
+                  XMLOffsetDateTime.of (aNotBefore));
+
+    final OffsetDateTime aNotAfter = PDTFactory.createOffsetDateTime (aX509Cert.getNotAfter ());
+    if (aNowDT.isAfter (aNotAfter))
+      aAdder.add (EErrorLevel.ERROR,
+                  "The " + sName + " certificate is already expired.",
+                  "It was valid until",
+                  XMLOffsetDateTime.of (aNotAfter));
+    else
+      if (aNowPlusDT.isAfter (aNotAfter))
+        aAdder.add (EErrorLevel.WARN,
+                    "The " + sName + " certificate will expire soon.",
+                    "It is only valid until",
+                    XMLOffsetDateTime.of (aNotAfter));
+  }
+
+  @FunctionalInterface
+  private interface ProblemAdder
+  {
+    void add (@Nonnull EErrorLevel eLevel,
+              @Nonnull @Nonempty String sMessage,
+              @Nullable String sDetailText,
+              @Nullable XMLOffsetDateTime aDetailDT);
+  }
+
+  /**
+   * Analyze a single service group including all service information,
+   * redirects and the business card.
+   *
+   * @param aServiceGroup
+   *        The service group to analyze. May not be <code>null</code>.
+   * @param aNowDT
+   *        The date time to compare all dates to. May not be
+   *        <code>null</code>.
+   * @return The list of all identified problems. Never <code>null</code> but
+   *         maybe empty.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPProblem> analyzeServiceGroup (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                        @Nonnull final OffsetDateTime aNowDT)
+  {
+    ValueEnforcer.notNull (aServiceGroup, "ServiceGroup");
+
+    final boolean bBusinessCardMissing = m_aBusinessCardMgr != null &&
+                                         m_aBusinessCardExpected.getAsBoolean () &&
+                                         !m_aBusinessCardMgr.containsSMPBusinessCardOfServiceGroup (aServiceGroup);
+    return createAllProblems (aServiceGroup,
+                              m_aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup),
+                              m_aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aServiceGroup),
+                              bBusinessCardMissing,
+                              aNowDT);
+  }
+
+  /**
+   * Determine all problems of a single service group.
+   *
+   * @param aServiceGroup
+   *        The service group to analyze. May not be <code>null</code>.
+   * @param aServiceInfos
+   *        All service information of the service group. May not be
+   *        <code>null</code>.
+   * @param aRedirects
+   *        All redirects of the service group. May not be <code>null</code>.
+   * @param bBusinessCardMissing
+   *        <code>true</code> if a business card is expected but not present.
+   * @param aNowDT
+   *        The date time to compare all dates to. May not be
+   *        <code>null</code>.
+   * @return The list of all identified problems. Never <code>null</code> but
+   *         maybe empty.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <SMPProblem> createAllProblems (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                             @Nonnull final Iterable <? extends ISMPServiceInformation> aServiceInfos,
+                                                             @Nonnull final Iterable <? extends ISMPRedirect> aRedirects,
+                                                             final boolean bBusinessCardMissing,
+                                                             @Nonnull final OffsetDateTime aNowDT)
+  {
+    ValueEnforcer.notNull (aServiceGroup, "ServiceGroup");
+    ValueEnforcer.notNull (aServiceInfos, "ServiceInfos");
+    ValueEnforcer.notNull (aRedirects, "Redirects");
+    ValueEnforcer.notNull (aNowDT, "NowDT");
+
+    final String sServiceGroupID = aServiceGroup.getID ();
+    final XMLOffsetDateTime aXmlNowDT = XMLOffsetDateTime.of (aNowDT);
+    final XMLOffsetDateTime aXmlNowPlusDT = XMLOffsetDateTime.of (aNowDT.plusMonths (EXPIRATION_WARNING_MONTHS));
+    final ICommonsList <SMPProblem> ret = new CommonsArrayList <> ();
+
+    if (!aServiceInfos.iterator ().hasNext () && !aRedirects.iterator ().hasNext ())
+    {
+      // This is merely a warning or an error
+      ret.add (new SMPProblem (EErrorLevel.INFO,
+                               sServiceGroupID,
+                               null,
+                               null,
+                               null,
+                               "No endpoint is configured for this service group.",
+                               null,
+                               null));
+    }
+
+    for (final ISMPServiceInformation aServiceInfo : aServiceInfos)
+    {
+      final String sDocTypeID = aServiceInfo.getDocumentTypeIdentifier ().getURIEncoded ();
+      for (final ISMPProcess aProcess : aServiceInfo.getAllProcesses ())
+      {
+        final String sProcessID = aProcess.getProcessIdentifier ().getURIEncoded ();
+        for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
+        {
+          final String sTransportProfile = aEndpoint.getTransportProfile ();
+          final ProblemAdder aAdder = (eLevel, sMessage, sDetailText, aDetailDT) -> ret.add (new SMPProblem (eLevel,
+                                                                                                             sServiceGroupID,
+                                                                                                             sDocTypeID,
+                                                                                                             sProcessID,
+                                                                                                             sTransportProfile,
+                                                                                                             sMessage,
+                                                                                                             sDetailText,
+                                                                                                             aDetailDT));
+
+          if (ESMPTransportProfile.getFromIDOrNull (sTransportProfile) == null)
+            aAdder.add (EErrorLevel.WARN,
+                        "The endpoint uses the non-standard transport profile '" + sTransportProfile + "'.",
+                        null,
+                        null);
+
+          final XMLOffsetDateTime aActivationDT = aEndpoint.getServiceActivationDateTime ();
+          if (aActivationDT != null && aActivationDT.isAfter (aXmlNowDT))
+            aAdder.add (EErrorLevel.WARN, "The endpoint is not yet active.", "It will be active from", aActivationDT);
+
+          final XMLOffsetDateTime aExpirationDT = aEndpoint.getServiceExpirationDateTime ();
+          if (aExpirationDT != null)
+          {
+            if (aExpirationDT.isBefore (aXmlNowDT))
+              aAdder.add (EErrorLevel.ERROR, "The endpoint is no longer active.", "It was valid until", aExpirationDT);
+            else
+              if (aExpirationDT.isBefore (aXmlNowPlusDT))
+                aAdder.add (EErrorLevel.WARN,
+                            "The endpoint will be inactive soon.",
+                            "It is only valid until",
+                            aExpirationDT);
+          }
+
+          final X509Certificate aX509Cert = _getCertificate (aEndpoint.getCertificate ());
+          if (aX509Cert == null)
+            aAdder.add (EErrorLevel.ERROR,
+                        "The X.509 certificate configured at the endpoint is invalid and could not be interpreted as a certificate.",
+                        null,
+                        null);
+          else
+            _checkCertificate (aX509Cert, "endpoint", aNowDT, aAdder);
+        }
+      }
+    }
+
+    for (final ISMPRedirect aRedirect : aRedirects)
+      if (aRedirect.hasCertificate ())
+      {
+        final String sDocTypeID = aRedirect.getDocumentTypeIdentifier ().getURIEncoded ();
+        _checkCertificate (aRedirect.getCertificate (),
+                           "redirect",
+                           aNowDT,
+                           (eLevel, sMessage, sDetailText, aDetailDT) -> ret.add (new SMPProblem (eLevel,
+                                                                                                  sServiceGroupID,
+                                                                                                  sDocTypeID,
+                                                                                                  null,
+                                                                                                  null,
+                                                                                                  sMessage,
+                                                                                                  sDetailText,
+                                                                                                  aDetailDT)));
+      }
+
+    if (bBusinessCardMissing)
+    {
+      ret.add (new SMPProblem (EErrorLevel.INFO,
+                               sServiceGroupID,
+                               null,
+                               null,
+                               null,
+                               "No business card is configured for this service group.",
+                               null,
+                               null));
+    }
+    return ret;
+  }
+
+  private static void _runScoped (@Nonnull final Runnable aRunnable)
+  {
+    // The managers may need a scope (e.g. for the SQL version)
+    try (final WebScoped aWS = new WebScoped ())
+    {
+      aRunnable.run ();
+    }
+  }
+
+  /**
+   * Start the background thread, that performs an initial analysis of all
+   * service groups, analyzes all changed service groups and regularly
+   * analyzes all service groups again.
+   */
+  public void start ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      if (m_aExecSvc != null)
+        throw new IllegalStateException ("The analyzer was already started");
+
+      m_aExecSvc = Executors.newSingleThreadScheduledExecutor (r -> {
+        final Thread aThread = new Thread (r, "smp-problem-analyzer");
+        aThread.setDaemon (true);
+        return aThread;
+      });
+      m_aExecSvc.scheduleWithFixedDelay ( () -> _runScoped (this::performSweep),
+                                          0,
+                                          m_nSweepIntervalMinutes,
+                                          TimeUnit.MINUTES);
+      // Changes made before starting
+      m_aExecSvc.execute ( () -> _runScoped (this::processPendingChanges));
+    });
+    LOGGER.info ("Started the tasks and problems analyzer with a full analysis every " +
+                 m_nSweepIntervalMinutes +
+                 " minutes");
+  }
+
+  /**
+   * Stop the background thread. Pending changes are no longer analyzed.
+   */
+  public void stop ()
+  {
+    final ScheduledExecutorService aExecSvc = m_aRWLock.writeLockedGet ( () -> {
+      final ScheduledExecutorService ret = m_aExecSvc;
+      m_aExecSvc = null;
+      return ret;
+    });
+    if (aExecSvc != null)
+    {
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecSvc);
+      LOGGER.info ("Stopped the tasks and problems analyzer");
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the initial analysis of all service groups
+   *         was performed, <code>false</code> if not.
+   */
+  public boolean isInitialSweepPerformed ()
+  {
+    return m_aLastSweepDT != null;
+  }
+
+  /**
+   * @return The date time of the last analysis of all service groups.
+   *         <code>null</code> if no analysis was performed yet.
+   */
+  @Nullable
+  public OffsetDateTime getLastSweepDateTime ()
+  {
+    return m_aLastSweepDT;
+  }
+
+  /**
+   * @return The number of changed service groups, that were not yet analyzed
+   *         again.
+   */
+  @Nonnegative
+  public int getPendingChangeCount ()
+  {
+    return m_aPending.size ();
+  }
+
+  /**
+   * @return The number of identified errors.
+   */
+  @Nonnegative
+  public int getErrorCount ()
+  {
+    return m_aErrorCount.get ();
+  }
+
+  /**
+   * @return The number of identified warnings.
+   */
+  @Nonnegative
+  public int getWarningCount ()
+  {
+    return m_aWarningCount.get ();
+  }
+
+  /**
+   * @return The number of identified information items.
+   */
+  @Nonnegative
+  public int getInfoCount ()
+  {
+    return m_aInfoCount.get ();
+  }
+
+  /**
+   * @return The number of service groups with at least one problem.
+   */
+  @Nonnegative
+  public int getServiceGroupWithProblemsCount ()
+  {
+    return m_aProblems.size ();
+  }
+
+  /**
+   * @param sServiceGroupID
+   *        The service group ID to query. May be <code>null</code>.
+   * @return The problems of the provided service group. Never
+   *         <code>null</code> but maybe empty.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPProblem> getAllProblemsOfServiceGroup (@Nullable final String sServiceGroupID)
+  {
+    final ICommonsList <SMPProblem> ret = sServiceGroupID == null ? null : m_aProblems.get (sServiceGroupID);
+    return ret == null ? new CommonsArrayList <> () : ret.getClone ();
+  }
+
+  /**
+   * @return All identified problems ordered by service group ID. Never
+   *         <code>null</code> but maybe empty.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPProblem> getAllProblems ()
+  {
+    final ICommonsList <SMPProblem> ret = new CommonsArrayList <> ();
+    for (final ICommonsList <SMPProblem> aProblems : m_aProblems.values ())
+      ret.addAll (aProblems);
+    return ret;
+  }
+
+  /**
+   * @return The counters and all identified problems as JSON. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public IJsonObject getAsJsonObject ()
+  {
+    final OffsetDateTime aLastSweepDT = m_aLastSweepDT;
+    return new JsonObject ().add ("initialSweepPerformed", aLastSweepDT != null)
+                            .addIfNotNull ("lastSweep",
+                                           aLastSweepDT != null ? PDTWebDateHelper.getAsStringXSD (aLastSweepDT) : null)
+                            .add ("pendingChanges", getPendingChangeCount ())
+                            .add ("errorCount", getErrorCount ())
+                            .add ("warningCount", getWarningCount ())
+                            .add ("infoCount", getInfoCount ())
+                            .add ("serviceGroupsWithProblems", getServiceGroupWithProblemsCount ())
+                            .add ("problems", new JsonArray ().addAllMapped (getAllProblems (), SMPProblem::getAsJsonObject));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("SweepIntervalMinutes", m_nSweepIntervalMinutes)
+                                       .append ("LastSweepDT", m_aLastSweepDT)
+                                       .append ("ErrorCount", m_aErrorCount.get ())
+                                       .append ("WarningCount", m_aWarningCount.get ())
+                                       .append ("InfoCount", m_aInfoCount.get ())
+                                       .getToString ();
+  }
+}
@@ -23,6 +23,7 @@ import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.state.EChange;
 import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 
 /**
@@ -98,6 +99,40 @@ public interface ISMPRedirectManager
   @ReturnsMutableCopy
   ICommonsList <ISMPRedirect> getAllSMPRedirects ();
 
+  /**
+   * Get a single page of all redirects, sorted by service group ID and
+   * document type ID and optionally filtered. This is e.g. used for server
+   * side paging in the UI. The default implementation is based on
+   * {@link #getAllSMPRedirects()}.
+   *
+   * @param sFilter
+   *        An optional filter. If provided, only redirects whose service group
+   *        ID contains the filter (case insensitive) are returned. May be
+   *        <code>null</code>.
+   * @param bAscending
+   *        <code>true</code> to sort ascending, <code>false</code> to sort
+   *        descending.
+   * @param nOffset
+   *        The index of the first redirect to return. Must be &ge; 0.
+   * @param nCount
+   *        The maximum number of redirects to return. Must be &gt; 0.
+   * @return The requested page. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  default SMPResultPage <ISMPRedirect> getSMPRedirectPage (@Nullable final String sFilter,
+                                                           final boolean bAscending,
+                                                           @Nonnegative final int nOffset,
+                                                           @Nonnegative final int nCount)
+  {
+    final ICommonsList <ISMPRedirect> aAll = getAllSMPRedirects ();
+    final int nTotalCount = aAll.size ();
+    final ICommonsList <ISMPRedirect> aFiltered = aAll.getAll (x -> SMPResultPage.matchesFilter (x.getServiceGroupID (),
+                                                                                                 sFilter));
+    aFiltered.sort (bAscending ? ISMPRedirect.comparator () : ISMPRedirect.comparator ().reversed ());
+    return SMPResultPage.createFromList (aFiltered, nTotalCount, nOffset, nCount);
+  }
+
   /**
    * Get all redirects of the passed service group.
    *
@@ -10,6 +10,8 @@
  */
 package com.helger.phoss.smp.domain.servicegroup;
 
+import java.util.function.Consumer;
+
 import javax.annotation.CheckForSigned;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -23,6 +25,7 @@ import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsSet;
 import com.helger.commons.state.EChange;
 import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.exception.SMPServerException;
@@ -164,6 +167,58 @@ public interface ISMPServiceGroupManager extends ISMPServiceGroupProvider
   @ReturnsMutableCopy
   ICommonsList <ISMPServiceGroup> getAllSMPServiceGroups ();
 
+  /**
+   * Iterate all contained service groups ordered by their ID without the need
+   * to hold all of them in memory at the same time. This is e.g. used for the
+   * export of all service groups. The default implementation is based on
+   * {@link #getAllSMPServiceGroups()} - implementations that don't hold all
+   * service groups in memory anyway should override it.
+   *
+   * @param aConsumer
+   *        The consumer to be invoked for each service group. May not be
+   *        <code>null</code>.
+   * @since 7.1.4
+   */
+  default void forEachSMPServiceGroup (@Nonnull final Consumer <? super ISMPServiceGroup> aConsumer)
+  {
+    getAllSMPServiceGroups ().getSortedInline (ISMPServiceGroup.comparator ()).forEach (aConsumer);
+  }
+
+  /**
+   * Get a single page of all service groups, sorted by their ID and optionally
+   * filtered. This is e.g. used for server side paging in the UI. The default
+   * implementation is based on {@link #getAllSMPServiceGroups()} -
+   * implementations that don't hold all service groups in memory anyway should
+   * override it.
+   *
+   * @param sFilter
+   *        An optional filter. If provided, only service groups whose ID
+   *        contains the filter (case insensitive) are returned. May be
+   *        <code>null</code>.
+   * @param bAscending
+   *        <code>true</code> to sort ascending, <code>false</code> to sort
+   *        descending by the service group ID.
+   * @param nOffset
+   *        The index of the first service group to return. Must be &ge; 0.
+   * @param nCount
+   *        The maximum number of service groups to return. Must be &gt; 0.
+   * @return The requested page. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  default SMPResultPage <ISMPServiceGroup> getSMPServiceGroupPage (@Nullable final String sFilter,
+                                                                   final boolean bAscending,
+                                                                   @Nonnegative final int nOffset,
+                                                                   @Nonnegative final int nCount)
+  {
+    final ICommonsList <ISMPServiceGroup> aAll = getAllSMPServiceGroups ();
+    final int nTotalCount = aAll.size ();
+    final ICommonsList <ISMPServiceGroup> aFiltered = aAll.getAll (x -> SMPResultPage.matchesFilter (x.getID (),
+                                                                                                     sFilter));
+    aFiltered.sort (bAscending ? ISMPServiceGroup.comparator () : ISMPServiceGroup.comparator ().reversed ());
+    return SMPResultPage.createFromList (aFiltered, nTotalCount, nOffset, nCount);
+  }
+
   /**
    * @return A non-<code>null</code> but maybe empty set of all contained
    *         service group IDs.
@@ -10,14 +10,19 @@
  */
 package com.helger.phoss.smp.domain.serviceinfo;
 
+import java.util.Comparator;
+
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.state.EChange;
 import com.helger.commons.state.ESuccess;
 import com.helger.peppol.smp.ISMPTransportProfile;
@@ -153,6 +158,61 @@ public interface ISMPServiceInformationManager
   @ReturnsMutableCopy
   ICommonsList <ISMPServiceInformation> getAllSMPServiceInformationOfServiceGroup (@Nullable ISMPServiceGroup aServiceGroup);
 
+  /**
+   * Get a page of the service information objects that belong to the provided
+   * service group, ordered by document type identifier scheme and value. This
+   * allows to handle service groups with a lot of document types (e.g. in the
+   * REST complete service group request) in chunks, where each page continues
+   * after the last document type of the previous page. The default
+   * implementation is based on
+   * {@link #getAllSMPDocumentTypesOfServiceGroup(ISMPServiceGroup)} and
+   * {@link #getSMPServiceInformationOfServiceGroupAndDocumentType(ISMPServiceGroup, IDocumentTypeIdentifier)}
+   * - implementations that can read a page directly from the backend should
+   * override it.
+   *
+   * @param aServiceGroup
+   *        The service group of interest. May be <code>null</code>.
+   * @param aAfterDocTypeID
+   *        The document type identifier of the last element of the previous
+   *        page. May be <code>null</code> to retrieve the first page.
+   * @param nMaxCount
+   *        The maximum number of elements to return. Must be &gt; 0.
+   * @return Never <code>null</code> but maybe empty list of at most
+   *         <code>nMaxCount</code> service information objects in the order
+   *         described above. Less than <code>nMaxCount</code> elements are
+   *         only returned for the last page.
+   * @see #getAllSMPServiceInformationOfServiceGroup(ISMPServiceGroup)
+   * @since 7.1.4
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  default ICommonsList <ISMPServiceInformation> getSMPServiceInformationPageOfServiceGroup (@Nullable final ISMPServiceGroup aServiceGroup,
+                                                                                           @Nullable final IDocumentTypeIdentifier aAfterDocTypeID,
+                                                                                           @Nonnegative final int nMaxCount)
+  {
+    ValueEnforcer.isGT0 (nMaxCount, "MaxCount");
+
+    final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> ();
+    if (aServiceGroup != null)
+    {
+      final Comparator <IDocumentTypeIdentifier> aComparator = Comparator.comparing (IDocumentTypeIdentifier::getScheme)
+                                                                         .thenComparing (IDocumentTypeIdentifier::getValue);
+      for (final IDocumentTypeIdentifier aDocTypeID : getAllSMPDocumentTypesOfServiceGroup (aServiceGroup).getSorted (aComparator))
+        if (aAfterDocTypeID == null || aComparator.compare (aDocTypeID, aAfterDocTypeID) > 0)
+        {
+          final ISMPServiceInformation aServiceInfo = getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
+                                                                                                             aDocTypeID);
+          if (aServiceInfo != null)
+          {
+            ret.add (aServiceInfo);
+            if (ret.size () >= nMaxCount)
+              break;
+          }
+        }
+    }
+    return ret;
+  }
+
   /**
    * Get all SMP document types that are registered for the provided service
    * group. This is a sanity method to handle the REST service group request
@@ -171,6 +231,24 @@ public interface ISMPServiceInformationManager
   @ReturnsMutableCopy
   ICommonsList <IDocumentTypeIdentifier> getAllSMPDocumentTypesOfServiceGroup (@Nullable ISMPServiceGroup aServiceGroup);
 
+  /**
+   * Get all SMP document types of the provided service group that have at
+   * least one endpoint, together with the total number of endpoints. This is
+   * a sanity method to handle the REST service group request in a single
+   * backend query, instead of querying each document type separately.
+   *
+   * @param aServiceGroup
+   *        The service group of interest. May be <code>null</code>.
+   * @return Never <code>null</code> but maybe empty map from document type
+   *         identifier to the total endpoint count in arbitrary order. Only
+   *         document types with an endpoint count &gt; 0 are contained.
+   * @see #getAllSMPDocumentTypesOfServiceGroup(ISMPServiceGroup)
+   * @since 7.1.4
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesWithEndpointsOfServiceGroup (@Nullable ISMPServiceGroup aServiceGroup);
+
   /**
    * Get the service information for the passed tuple of service group and
    * document type identifier.
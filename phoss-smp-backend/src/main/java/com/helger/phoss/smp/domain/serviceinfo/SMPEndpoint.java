@@ -26,6 +26,7 @@ import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.extension.AbstractSMPHasExtension;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.security.certificate.CertificateHelper;
 import com.helger.smpclient.peppol.utils.SMPExtensionConverter;
 import com.helger.smpclient.peppol.utils.W3CEndpointReferenceHelper;
@@ -48,6 +49,8 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
   private XMLOffsetDateTime m_aServiceActivationDT;
   private XMLOffsetDateTime m_aServiceExpirationDT;
   private String m_sCertificate;
+  // Shared parsed representation of m_sCertificate
+  private SMPCertificateCache.CachedCertificate m_aCachedCertificate;
   private String m_sServiceDescription;
   private String m_sTechnicalContactUrl;
   private String m_sTechnicalInformationUrl;
@@ -152,7 +155,9 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
 
   public final void setCertificate (@Nullable final String sCertificate)
   {
-    m_sCertificate = sCertificate;
+    // Share equal certificate strings and their parsed forms
+    m_aCachedCertificate = SMPCertificateCache.getInstance ().get (sCertificate);
+    m_sCertificate = m_aCachedCertificate != null ? m_aCachedCertificate.getCertificateString () : sCertificate;
   }
 
   @Nullable
@@ -201,7 +206,10 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
     ret.setServiceExpirationDate (m_aServiceExpirationDT);
     // For compatibility, don't add BEGIN_CERTIFCATE and END_CERTIFICATE
     // For .NET compatibility only use "\n" as line separator
-    ret.setCertificate (CertificateHelper.getRFC1421CompliantString (m_sCertificate, false, "\n"));
+    ret.setCertificate (m_aCachedCertificate != null ? m_aCachedCertificate.getRFC1421CompliantString ()
+                                                     : CertificateHelper.getRFC1421CompliantString (m_sCertificate,
+                                                                                                    false,
+                                                                                                    "\n"));
     ret.setServiceDescription (m_sServiceDescription);
     ret.setTechnicalContactUrl (m_sTechnicalContactUrl);
     if (StringHelper.hasText (m_sTechnicalInformationUrl))
@@ -221,7 +229,8 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
     ret.setMinimumAuthenticationLevel (m_sMinimumAuthenticationLevel);
     ret.setServiceActivationDate (m_aServiceActivationDT);
     ret.setServiceExpirationDate (m_aServiceExpirationDT);
-    ret.setCertificate (CertificateHelper.convertCertificateStringToByteArray (m_sCertificate));
+    ret.setCertificate (m_aCachedCertificate != null ? m_aCachedCertificate.getAsByteArray ()
+                                                     : CertificateHelper.convertCertificateStringToByteArray (m_sCertificate));
     ret.setServiceDescription (m_sServiceDescription);
     ret.setTechnicalContactUrl (m_sTechnicalContactUrl);
     ret.setTechnicalInformationUrl (m_sTechnicalInformationUrl);
@@ -246,13 +255,14 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
       ret.setActivationDate (m_aServiceActivationDT.toLocalDate ());
     if (m_aServiceExpirationDT != null)
       ret.setExpirationDate (m_aServiceExpirationDT.toLocalDate ());
-    final X509Certificate aX509Cert = CertificateHelper.convertStringToCertficateOrNull (m_sCertificate);
+    final X509Certificate aX509Cert = m_aCachedCertificate != null ? m_aCachedCertificate.getX509Certificate ()
+                                                                   : null;
     if (aX509Cert != null)
     {
       final com.helger.xsds.bdxr.smp2.ac.CertificateType aCert = new com.helger.xsds.bdxr.smp2.ac.CertificateType ();
       aCert.setActivationDate (PDTFactory.createXMLOffsetDate (aX509Cert.getNotBefore ()));
       aCert.setExpirationDate (PDTFactory.createXMLOffsetDate (aX509Cert.getNotAfter ()));
-      final ContentBinaryObjectType aCBO = aCert.setContentBinaryObject (CertificateHelper.getEncodedCertificate (aX509Cert));
+      final ContentBinaryObjectType aCBO = aCert.setContentBinaryObject (m_aCachedCertificate.getEncoded ());
       aCBO.setMimeCode (SMPServerConfiguration.getBDXR2CertificateMimeCode ());
       aCert.setTypeCode (SMPServerConfiguration.getBDXR2CertificateTypeCode ());
       ret.addCertificate (aCert);
@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.user;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.equals.EqualsHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.photon.security.token.accesstoken.IAccessToken;
+import com.helger.photon.security.token.user.IUserToken;
+import com.helger.photon.security.token.user.IUserTokenManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.photon.security.user.IUserManager;
+
+/**
+ * A size bound cache for successfully validated REST API credentials, so that
+ * the expensive password hash check and the iteration over all user tokens are
+ * not performed for every request.<br>
+ * Credentials are never stored in plain text - the cache keys are HMACs using
+ * a random key that only exists in memory. Each cache hit is re-validated
+ * against the user and token managers by ID, so that changed passwords, revoked
+ * tokens as well as deleted and disabled users are detected:
+ * <ul>
+ * <li>Basic Auth entries expire after the configured TTL and are dropped as
+ * soon as the last modification date of the user changes (e.g. because of a
+ * password change).</li>
+ * <li>Bearer token entries are an index from the hashed token to the user
+ * token ID. The index is filled with all user tokens on first use, so that a
+ * miss only needs to look for user tokens created afterwards. Unknown tokens
+ * are remembered for a few seconds, so that repeated invalid tokens don't
+ * iterate all user tokens again. An index entry is only used, if the active
+ * access token of the user token still matches.</li>
+ * </ul>
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPCredentialsCache
+{
+  @Immutable
+  private static final class Entry
+  {
+    private final String m_sObjectID;
+    private final LocalDateTime m_aLastModDT;
+    private final long m_nExpirationNanos;
+
+    Entry (@Nullable final String sObjectID, @Nullable final LocalDateTime aLastModDT, final long nExpirationNanos)
+    {
+      m_sObjectID = sObjectID;
+      m_aLastModDT = aLastModDT;
+      m_nExpirationNanos = nExpirationNanos;
+    }
+  }
+
+  private static final class SingletonHolder
+  {
+    static final SMPCredentialsCache INSTANCE = new SMPCredentialsCache (SMPServerConfiguration.getRESTAuthCacheMaxEntries (),
+                                                                         SMPServerConfiguration.getRESTAuthCacheTTLSeconds ());
+  }
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final String PREFIX_BASIC = "basic\u0000";
+  private static final String PREFIX_BEARER = "bearer\u0000";
+  // How long an unknown Bearer token is remembered
+  private static final long NEGATIVE_TTL_SECONDS = 5;
+
+  private final int m_nMaxEntries;
+  private final long m_nTTLSeconds;
+  private final SecretKeySpec m_aKey;
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  // Access ordered to have LRU semantics
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, Entry> m_aMap;
+  private final AtomicBoolean m_aUserTokensIndexed = new AtomicBoolean (false);
+
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+
+  /**
+   * Constructor
+   *
+   * @param nMaxEntries
+   *        The maximum number of entries to keep. Must be &gt; 0.
+   * @param nTTLSeconds
+   *        The number of seconds a Basic Auth entry is valid. Must be &gt; 0.
+   */
+  public SMPCredentialsCache (@Nonnegative final int nMaxEntries, @Nonnegative final long nTTLSeconds)
+  {
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    ValueEnforcer.isGT0 (nTTLSeconds, "TTLSeconds");
+    m_nMaxEntries = nMaxEntries;
+    m_nTTLSeconds = nTTLSeconds;
+
+    final byte [] aKeyBytes = new byte [32];
+    new SecureRandom ().nextBytes (aKeyBytes);
+    m_aKey = new SecretKeySpec (aKeyBytes, HMAC_ALGORITHM);
+
+    m_aMap = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (@Nonnull final Map.Entry <String, Entry> aEldest)
+      {
+        return size () > m_nMaxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return The global instance. Never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPCredentialsCache getInstance ()
+  {
+    return SingletonHolder.INSTANCE;
+  }
+
+  @Nonnull
+  private String _createKey (@Nonnull final String sPrefix, @Nonnull final String sSecret)
+  {
+    try
+    {
+      final Mac aMac = Mac.getInstance (HMAC_ALGORITHM);
+      aMac.init (m_aKey);
+      return Base64.getEncoder ().encodeToString (aMac.doFinal ((sPrefix + sSecret).getBytes (StandardCharsets.UTF_8)));
+    }
+    catch (final GeneralSecurityException ex)
+    {
+      throw new IllegalStateException ("Failed to create credentials cache key", ex);
+    }
+  }
+
+  @Nullable
+  private Entry _get (@Nonnull final String sKey)
+  {
+    final Entry ret = m_aRWLock.writeLockedGet ( () -> m_aMap.get (sKey));
+    if (ret == null)
+      m_aMisses.incrementAndGet ();
+    return ret;
+  }
+
+  private void _remove (@Nonnull final String sKey)
+  {
+    m_aMisses.incrementAndGet ();
+    m_aRWLock.writeLocked ( () -> m_aMap.remove (sKey));
+  }
+
+  private void _put (@Nonnull final String sKey, @Nonnull final Entry aEntry)
+  {
+    m_aRWLock.writeLocked ( () -> m_aMap.put (sKey, aEntry));
+  }
+
+  @Nullable
+  private static String _getActiveTokenString (@Nonnull final IUserToken aUserToken)
+  {
+    final IAccessToken aAccessToken = aUserToken.getAccessTokenList ().getActiveAccessToken ();
+    return aAccessToken == null ? null : aAccessToken.getTokenString ();
+  }
+
+  /**
+   * Get the user of previously validated Basic Auth credentials.
+   *
+   * @param sLoginName
+   *        The login name. May not be <code>null</code>.
+   * @param sPassword
+   *        The plain text password. May not be <code>null</code>.
+   * @param aUserMgr
+   *        The user manager to re-validate the user. May not be
+   *        <code>null</code>.
+   * @return <code>null</code> if the credentials are not cached, if the entry
+   *         expired or if the user was modified, deleted or disabled in the
+   *         meantime.
+   */
+  @Nullable
+  public IUser getBasicAuthUser (@Nonnull final String sLoginName,
+                                 @Nonnull final String sPassword,
+                                 @Nonnull final IUserManager aUserMgr)
+  {
+    final String sKey = _createKey (PREFIX_BASIC, sLoginName + '\u0000' + sPassword);
+    final Entry aEntry = _get (sKey);
+    if (aEntry == null)
+      return null;
+
+    if (System.nanoTime () - aEntry.m_nExpirationNanos >= 0)
+    {
+      _remove (sKey);
+      return null;
+    }
+
+    final IUser aUser = aUserMgr.getUserOfID (aEntry.m_sObjectID);
+    if (aUser == null ||
+        aUser.isDeleted () ||
+        aUser.isDisabled () ||
+        !sLoginName.equals (aUser.getLoginName ()) ||
+        !EqualsHelper.equals (aEntry.m_aLastModDT, aUser.getLastModificationDateTime ()))
+    {
+      _remove (sKey);
+      return null;
+    }
+    m_aHits.incrementAndGet ();
+    return aUser;
+  }
+
+  /**
+   * Remember successfully validated Basic Auth credentials.
+   *
+   * @param sLoginName
+   *        The login name. May not be <code>null</code>.
+   * @param sPassword
+   *        The plain text password. May not be <code>null</code>.
+   * @param aUser
+   *        The resolved user. May not be <code>null</code>.
+   */
+  public void putBasicAuthUser (@Nonnull final String sLoginName,
+                                @Nonnull final String sPassword,
+                                @Nonnull final IUser aUser)
+  {
+    _put (_createKey (PREFIX_BASIC, sLoginName + '\u0000' + sPassword),
+          new Entry (aUser.getID (),
+                     aUser.getLastModificationDateTime (),
+                     System.nanoTime () + TimeUnit.SECONDS.toNanos (m_nTTLSeconds)));
+  }
+
+  private void _putUserToken (@Nonnull final String sTokenString, @Nonnull final IUserToken aUserToken)
+  {
+    // No expiration, as each hit is checked against the active access token
+    _put (_createKey (PREFIX_BEARER, sTokenString), new Entry (aUserToken.getID (), null, Long.MAX_VALUE));
+  }
+
+  private void _indexAllUserTokens (@Nonnull final IUserTokenManager aUserTokenMgr)
+  {
+    for (final IUserToken aUserToken : aUserTokenMgr.getAll ())
+      if (!aUserToken.isDeleted ())
+      {
+        final String sActiveTokenString = _getActiveTokenString (aUserToken);
+        if (sActiveTokenString != null)
+          _putUserToken (sActiveTokenString, aUserToken);
+      }
+  }
+
+  /**
+   * Resolve the user token of a Bearer token. On first use, all user tokens
+   * are indexed. If a token is not in the index, the user token manager is
+   * asked and the result is remembered - unknown tokens only for a few
+   * seconds.
+   *
+   * @param sTokenString
+   *        The Bearer token string. May not be <code>null</code>.
+   * @param aUserTokenMgr
+   *        The user token manager to resolve and re-validate the token. May
+   *        not be <code>null</code>.
+   * @return <code>null</code> if the token is unknown or if the token was
+   *         revoked in the meantime.
+   */
+  @Nullable
+  public IUserToken getUserToken (@Nonnull final String sTokenString, @Nonnull final IUserTokenManager aUserTokenMgr)
+  {
+    if (m_aUserTokensIndexed.compareAndSet (false, true))
+      _indexAllUserTokens (aUserTokenMgr);
+
+    final String sKey = _createKey (PREFIX_BEARER, sTokenString);
+    final Entry aEntry = _get (sKey);
+    if (aEntry != null)
+    {
+      if (aEntry.m_sObjectID == null)
+      {
+        // Recently looked up unknown token
+        if (System.nanoTime () - aEntry.m_nExpirationNanos < 0)
+        {
+          m_aHits.incrementAndGet ();
+          return null;
+        }
+      }
+      else
+      {
+        final IUserToken aUserToken = aUserTokenMgr.getUserTokenOfID (aEntry.m_sObjectID);
+        final String sActiveTokenString = aUserToken == null ? null : _getActiveTokenString (aUserToken);
+        if (sActiveTokenString != null &&
+            MessageDigest.isEqual (sActiveTokenString.getBytes (StandardCharsets.UTF_8),
+                                   sTokenString.getBytes (StandardCharsets.UTF_8)))
+        {
+          m_aHits.incrementAndGet ();
+          return aUserToken;
+        }
+      }
+      _remove (sKey);
+    }
+
+    // Only user tokens created or changed after indexing end up here
+    final IUserToken aUserToken = aUserTokenMgr.getUserTokenOfTokenString (sTokenString);
+    if (aUserToken != null)
+      _putUserToken (sTokenString, aUserToken);
+    else
+      _put (sKey, new Entry (null, null, System.nanoTime () + TimeUnit.SECONDS.toNanos (NEGATIVE_TTL_SECONDS)));
+    return aUserToken;
+  }
+
+  /**
+   * @return The maximum number of entries in this cache. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxEntries ()
+  {
+    return m_nMaxEntries;
+  }
+
+  /**
+   * @return The number of seconds a Basic Auth entry is valid. Always &gt; 0.
+   */
+  @Nonnegative
+  public long getTTLSeconds ()
+  {
+    return m_nTTLSeconds;
+  }
+
+  /**
+   * @return The current number of entries in this cache.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  /**
+   * Remove all entries from the cache.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked (m_aMap::clear);
+    m_aUserTokensIndexed.set (false);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("MaxEntries", m_nMaxEntries)
+                                       .append ("TTLSeconds", m_nTTLSeconds)
+                                       .getToString ();
+  }
+}
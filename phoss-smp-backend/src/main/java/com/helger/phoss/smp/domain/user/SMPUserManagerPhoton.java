@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.ValueEnforcer;
 import com.helger.http.basicauth.BasicAuthClientCredentials;
 import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.exception.SMPNotFoundException;
@@ -45,7 +46,9 @@ public final class SMPUserManagerPhoton
   /**
    * Check if the provided credentials are valid. This checks if the user
    * exists, if it is not deleted, if the password matches and if the user is
-   * not disabled. If valid, the resolved user is returned.
+   * not disabled. If valid, the resolved user is returned.<br>
+   * If enabled in the configuration, successfully validated credentials are
+   * cached in the {@link SMPCredentialsCache}.
    *
    * @param aCredentials
    *        The credentials to check. May not be <code>null</code>.
@@ -63,10 +66,22 @@ public final class SMPUserManagerPhoton
     ValueEnforcer.notNull (aCredentials, "Credentials");
 
     final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
+    final SMPCredentialsCache aCache = SMPServerConfiguration.isRESTAuthCacheEnabled () ? SMPCredentialsCache.getInstance ()
+                                                                                       : null;
 
     if (aCredentials.hasBasicAuth ())
     {
       final BasicAuthClientCredentials aBasicAuth = aCredentials.getBasicAuth ();
+      if (aCache != null)
+      {
+        // Avoid the password hash check for recently validated credentials
+        final IUser aCachedUser = aCache.getBasicAuthUser (aBasicAuth.getUserName (),
+                                                           aBasicAuth.getPassword (),
+                                                           aUserMgr);
+        if (aCachedUser != null)
+          return aCachedUser;
+      }
+
       final IUser aUser = aUserMgr.getUserOfLoginName (aBasicAuth.getUserName ());
       if (aUser == null || aUser.isDeleted ())
       {
@@ -88,6 +103,9 @@ public final class SMPUserManagerPhoton
       if (LOGGER.isDebugEnabled ())
         LOGGER.debug ("The provided BasicAuth credentials resolved to the user '" + aUser.getLoginName () + "'");
 
+      if (aCache != null)
+        aCache.putBasicAuthUser (aBasicAuth.getUserName (), aBasicAuth.getPassword (), aUser);
+
       return aUser;
     }
 
@@ -96,7 +114,9 @@ public final class SMPUserManagerPhoton
       final IUserTokenManager aUserTokenMgr = PhotonSecurityManager.getUserTokenMgr ();
 
       final String sTokenString = aCredentials.getBearerToken ();
-      final IUserToken aUserToken = aUserTokenMgr.getUserTokenOfTokenString (sTokenString);
+      // Without the cache, all user tokens are iterated
+      final IUserToken aUserToken = aCache != null ? aCache.getUserToken (sTokenString, aUserTokenMgr)
+                                                   : aUserTokenMgr.getUserTokenOfTokenString (sTokenString);
       if (aUserToken == null)
       {
         // Deleted users are handled like non-existing users
@@ -10,7 +10,15 @@
  */
 package com.helger.phoss.smp.exchange;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
 import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.Immutable;
 
 import org.slf4j.Logger;
@@ -18,6 +26,8 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.mutable.MutableInt;
+import com.helger.commons.timing.StopWatch;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
@@ -25,12 +35,16 @@ import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardMicroTypeConverte
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroElement;
 import com.helger.xml.microdom.MicroDocument;
 import com.helger.xml.microdom.convert.MicroTypeConverter;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.serialize.write.EXMLSerializeXMLDeclaration;
+import com.helger.xml.serialize.write.XMLWriterSettings;
 
 /**
  * Export Service Groups to XML.
@@ -46,6 +60,41 @@ public final class ServiceGroupExport
   private ServiceGroupExport ()
   {}
 
+  @Nonnull
+  private static IMicroElement _createServiceGroupElement (@Nonnull final ISMPServiceGroup aServiceGroup,
+                                                           @Nonnull final ISMPServiceInformationManager aServiceInfoMgr,
+                                                           @Nonnull final ISMPRedirectManager aRedirectMgr)
+  {
+    final IMicroElement eServiceGroup = MicroTypeConverter.convertToMicroElement (aServiceGroup,
+                                                                                  CSMPExchange.ELEMENT_SERVICEGROUP);
+
+    // Add all service information
+    final ICommonsList <ISMPServiceInformation> aAllServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
+    for (final ISMPServiceInformation aServiceInfo : aAllServiceInfos.getSortedInline (ISMPServiceInformation.comparator ()))
+    {
+      eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
+                                                                           CSMPExchange.ELEMENT_SERVICEINFO));
+    }
+
+    // Add all redirects
+    final ICommonsList <ISMPRedirect> aAllRedirects = aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aServiceGroup);
+    for (final ISMPRedirect aServiceInfo : aAllRedirects.getSortedInline (ISMPRedirect.comparator ()))
+    {
+      eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
+                                                                           CSMPExchange.ELEMENT_REDIRECT));
+    }
+    return eServiceGroup;
+  }
+
+  @Nonnull
+  private static IMicroElement _createBusinessCardElement (@Nonnull final ISMPBusinessCard aBusinessCard)
+  {
+    return SMPBusinessCardMicroTypeConverter.convertToMicroElement (aBusinessCard,
+                                                                    null,
+                                                                    CSMPExchange.ELEMENT_BUSINESSCARD,
+                                                                    true);
+  }
+
   /**
    * Create XML export data for the provided service groups.
    *
@@ -80,24 +129,7 @@ public final class ServiceGroupExport
     // Add all service groups
     for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
     {
-      final IMicroElement eServiceGroup = eRoot.appendChild (MicroTypeConverter.convertToMicroElement (aServiceGroup,
-                                                                                                       CSMPExchange.ELEMENT_SERVICEGROUP));
-
-      // Add all service information
-      final ICommonsList <ISMPServiceInformation> aAllServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
-      for (final ISMPServiceInformation aServiceInfo : aAllServiceInfos.getSortedInline (ISMPServiceInformation.comparator ()))
-      {
-        eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
-                                                                             CSMPExchange.ELEMENT_SERVICEINFO));
-      }
-
-      // Add all redirects
-      final ICommonsList <ISMPRedirect> aAllRedirects = aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aServiceGroup);
-      for (final ISMPRedirect aServiceInfo : aAllRedirects.getSortedInline (ISMPRedirect.comparator ()))
-      {
-        eServiceGroup.appendChild (MicroTypeConverter.convertToMicroElement (aServiceInfo,
-                                                                             CSMPExchange.ELEMENT_REDIRECT));
-      }
+      eRoot.appendChild (_createServiceGroupElement (aServiceGroup, aServiceInfoMgr, aRedirectMgr));
     }
 
     // Add Business cards only if PD integration is enabled
@@ -109,12 +141,7 @@ public final class ServiceGroupExport
       {
         final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (aServiceGroup.getParticipantIdentifier ());
         if (aBusinessCard != null)
-        {
-          eRoot.appendChild (SMPBusinessCardMicroTypeConverter.convertToMicroElement (aBusinessCard,
-                                                                                      null,
-                                                                                      CSMPExchange.ELEMENT_BUSINESSCARD,
-                                                                                      true));
-        }
+          eRoot.appendChild (_createBusinessCardElement (aBusinessCard));
       }
     }
 
@@ -123,4 +150,111 @@ public final class ServiceGroupExport
 
     return aDoc;
   }
+
+  private static void _writeElement (@Nonnull final Writer aWriter,
+                                     @Nonnull final IMicroElement aElement,
+                                     @Nonnull final XMLWriterSettings aXWS)
+  {
+    try
+    {
+      aWriter.write (MicroWriter.getNodeAsString (aElement, aXWS));
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  /**
+   * Write the XML export data of all service groups to the provided output
+   * stream. In contrast to
+   * {@link #createExportDataXMLVer10(ICommonsList, boolean)} the overall
+   * document is never created in memory. Service groups are iterated via
+   * {@link ISMPServiceGroupManager#forEachSMPServiceGroup(java.util.function.Consumer)}
+   * and each service group is written as soon as its service information and
+   * redirects were resolved, so the memory consumption only depends on the
+   * size of the biggest service group. The Business Cards are written in a
+   * second iteration, so that the created XML has the same layout as the one
+   * created by {@link #createExportDataXMLVer10(ICommonsList, boolean)}. The
+   * output is always encoded with
+   * {@link XMLWriterSettings#DEFAULT_XML_CHARSET_OBJ}.
+   *
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. The
+   *        stream is flushed but not closed.
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to
+   *        skip them
+   * @throws IOException
+   *         In case writing to the output stream failed
+   * @since 7.1.4
+   */
+  public static void writeAllExportDataXMLVer10 (@Nonnull @WillNotClose final OutputStream aOS,
+                                                 final boolean bIncludeBusinessCards) throws IOException
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    LOGGER.info ("Start streaming Service Group export data XML v1.0 - " +
+                 (bIncludeBusinessCards ? "incl. Business Cards" : "excl. Business Cards"));
+
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+
+    // The XML declaration and the root element are written manually
+    final XMLWriterSettings aXWS = new XMLWriterSettings ().setSerializeXMLDeclaration (EXMLSerializeXMLDeclaration.IGNORE);
+    final String sNewLine = aXWS.getNewLineString ();
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final MutableInt aSGCount = new MutableInt (0);
+    final MutableInt aBCCount = new MutableInt (0);
+    final Writer aWriter = new BufferedWriter (new OutputStreamWriter (aOS, XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ));
+    try
+    {
+      aWriter.write ("<?xml version=\"1.0\" encoding=\"" + XMLWriterSettings.DEFAULT_XML_CHARSET + "\"?>" + sNewLine);
+      aWriter.write ("<" +
+                     CSMPExchange.ELEMENT_SMP_DATA +
+                     " " +
+                     CSMPExchange.ATTR_VERSION +
+                     "=\"" +
+                     CSMPExchange.VERSION_10 +
+                     "\">" +
+                     sNewLine);
+
+      // Add all service groups
+      aServiceGroupMgr.forEachSMPServiceGroup (aServiceGroup -> {
+        _writeElement (aWriter, _createServiceGroupElement (aServiceGroup, aServiceInfoMgr, aRedirectMgr), aXWS);
+        aSGCount.inc ();
+      });
+
+      // Add Business cards only if PD integration is enabled
+      if (bIncludeBusinessCards)
+      {
+        final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+        aServiceGroupMgr.forEachSMPServiceGroup (aServiceGroup -> {
+          final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (aServiceGroup.getParticipantIdentifier ());
+          if (aBusinessCard != null)
+          {
+            _writeElement (aWriter, _createBusinessCardElement (aBusinessCard), aXWS);
+            aBCCount.inc ();
+          }
+        });
+      }
+
+      aWriter.write ("</" + CSMPExchange.ELEMENT_SMP_DATA + ">" + sNewLine);
+      aWriter.flush ();
+    }
+    catch (final UncheckedIOException ex)
+    {
+      throw ex.getCause ();
+    }
+
+    LOGGER.info ("Finished streaming Service Group export data XML v1.0 with " +
+                 aSGCount.intValue () +
+                 " Service Groups and " +
+                 aBCCount.intValue () +
+                 " Business Cards after " +
+                 aSW.stopAndGetMillis () +
+                 " milliseconds");
+  }
 }
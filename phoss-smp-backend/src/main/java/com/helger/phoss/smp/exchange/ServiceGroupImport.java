@@ -49,8 +49,13 @@ import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupMicroTypeConverte
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeConverter;
+import com.helger.phoss.smp.exception.SMPSMLException;
 import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.settings.ISMPSettings;
+import com.helger.phoss.smp.smlhook.IRegistrationHook;
+import com.helger.phoss.smp.smlhook.RegistrationHookBulkResult;
+import com.helger.phoss.smp.smlhook.RegistrationHookException;
+import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.photon.security.mgr.PhotonSecurityManager;
 import com.helger.photon.security.user.IUser;
 import com.helger.photon.security.user.IUserManager;
@@ -66,7 +71,7 @@ import com.helger.xml.microdom.IMicroElement;
 public final class ServiceGroupImport
 {
   @NotThreadSafe
-  private static final class InternalImportData
+  static final class InternalImportData
   {
     private final ICommonsList <ISMPServiceInformation> m_aServiceInfos = new CommonsArrayList <> ();
     private final ICommonsList <ISMPRedirect> m_aRedirects = new CommonsArrayList <> ();
@@ -356,91 +361,134 @@ public final class ServiceGroupImport
           }
         }
 
-        // 2. create all service groups
-        for (final Map.Entry <ISMPServiceGroup, InternalImportData> aEntry : aImportServiceGroups.entrySet ())
-        {
-          final ISMPServiceGroup aImportServiceGroup = aEntry.getKey ();
-          final String sServiceGroupID = aImportServiceGroup.getID ();
+        // 2a. create all new service groups in the SML at once
+        // Create in SML only for newly created entries
+        final IRegistrationHook aHook = RegistrationHookFactory.getInstance ();
+        final ICommonsList <IParticipantIdentifier> aSMLCreatePIs = new CommonsArrayList <> ();
+        for (final ISMPServiceGroup aImportServiceGroup : aImportServiceGroups.keySet ())
+          if (!aDeleteServiceGroups.containsKey (aImportServiceGroup.getID ()))
+            aSMLCreatePIs.add (aImportServiceGroup.getParticipantIdentifier ());
+        final RegistrationHookBulkResult aSMLCreateResult = aHook.createServiceGroups (aSMLCreatePIs);
+        // The participants registered in the SML but not created locally. They
+        // are deleted from the SML again at the end - even if the loop below
+        // fails unexpectedly.
+        final ICommonsOrderedSet <IParticipantIdentifier> aSMLUndoPIs = new CommonsLinkedHashSet <> (aSMLCreateResult.getAllSucceeded ());
 
-          ISMPServiceGroup aNewServiceGroup = null;
-          try
+        try
+        {
+          // 2b. create all service groups
+          for (final Map.Entry <ISMPServiceGroup, InternalImportData> aEntry : aImportServiceGroups.entrySet ())
           {
+            final ISMPServiceGroup aImportServiceGroup = aEntry.getKey ();
+            final String sServiceGroupID = aImportServiceGroup.getID ();
+            final IParticipantIdentifier aPI = aImportServiceGroup.getParticipantIdentifier ();
             final boolean bIsOverwrite = aDeleteServiceGroups.containsKey (sServiceGroupID);
 
-            // Create in SML only for newly created entries
-            aNewServiceGroup = aServiceGroupMgr.createSMPServiceGroup (aImportServiceGroup.getOwnerID (),
-                                                                       aImportServiceGroup.getParticipantIdentifier (),
-                                                                       aImportServiceGroup.getExtensions ()
-                                                                                          .getExtensionsAsJsonString (),
-                                                                       !bIsOverwrite);
-            aLoggerSuccess.accept (sServiceGroupID, "Successfully created Service Group");
-            aSummary.onSuccess (EImportSummaryAction.CREATE_SG);
-          }
-          catch (final Exception ex)
-          {
-            // E.g. if SML connection failed
-            aLoggerErrorPIEx.accept (sServiceGroupID, "Error creating the new Service Group", ex);
+            ISMPServiceGroup aNewServiceGroup = null;
+            final RegistrationHookException aSMLException = bIsOverwrite ? null : aSMLCreateResult.getFailure (aPI);
+            if (aSMLException != null)
+            {
+              aLoggerErrorPIEx.accept (sServiceGroupID,
+                                       "Error creating the new Service Group",
+                                       new SMPSMLException ("Failed to create '" + aPI.getURIEncoded () + "' in SML",
+                                                            aSMLException));
+
+              // Delete Business Card again, if already present
+              aImportBusinessCards.removeIf (x -> x.getID ().equals (sServiceGroupID));
+              aSummary.onError (EImportSummaryAction.CREATE_SG);
+            }
+            else
+              try
+              {
+                // Already created in SML above
+                aNewServiceGroup = aServiceGroupMgr.createSMPServiceGroup (aImportServiceGroup.getOwnerID (),
+                                                                           aPI,
+                                                                           aImportServiceGroup.getExtensions ()
+                                                                                              .getExtensionsAsJsonString (),
+                                                                           false);
+                aLoggerSuccess.accept (sServiceGroupID, "Successfully created Service Group");
+                aSummary.onSuccess (EImportSummaryAction.CREATE_SG);
+                aSMLUndoPIs.remove (aPI);
+              }
+              catch (final Exception ex)
+              {
+                // Deleted from SML again below
+                aLoggerErrorPIEx.accept (sServiceGroupID, "Error creating the new Service Group", ex);
 
-            // Delete Business Card again, if already present
-            aImportBusinessCards.removeIf (x -> x.getID ().equals (sServiceGroupID));
-            aSummary.onError (EImportSummaryAction.CREATE_SG);
-          }
+                // Delete Business Card again, if already present
+                aImportBusinessCards.removeIf (x -> x.getID ().equals (sServiceGroupID));
+                aSummary.onError (EImportSummaryAction.CREATE_SG);
+              }
 
-          if (aNewServiceGroup != null)
-          {
-            // 3a. create all endpoints
-            for (final ISMPServiceInformation aImportServiceInfo : aEntry.getValue ().getServiceInfo ())
+            if (aNewServiceGroup != null)
             {
-              try
+              // 3a. create all endpoints
+              for (final ISMPServiceInformation aImportServiceInfo : aEntry.getValue ().getServiceInfo ())
               {
-                if (aServiceInfoMgr.mergeSMPServiceInformation (aImportServiceInfo).isSuccess ())
+                try
                 {
-                  aLoggerSuccess.accept (sServiceGroupID, "Successfully created Service Information");
-                  aSummary.onSuccess (EImportSummaryAction.CREATE_SI);
+                  if (aServiceInfoMgr.mergeSMPServiceInformation (aImportServiceInfo).isSuccess ())
+                  {
+                    aLoggerSuccess.accept (sServiceGroupID, "Successfully created Service Information");
+                    aSummary.onSuccess (EImportSummaryAction.CREATE_SI);
+                  }
+                  else
+                  {
+                    aLoggerErrorPI.accept (sServiceGroupID, "Error creating the new Service Information");
+                    aSummary.onError (EImportSummaryAction.CREATE_SI);
+                  }
                 }
-                else
+                catch (final Exception ex)
                 {
-                  aLoggerErrorPI.accept (sServiceGroupID, "Error creating the new Service Information");
+                  aLoggerErrorPIEx.accept (sServiceGroupID, "Error creating the new Service Information", ex);
                   aSummary.onError (EImportSummaryAction.CREATE_SI);
                 }
               }
-              catch (final Exception ex)
-              {
-                aLoggerErrorPIEx.accept (sServiceGroupID, "Error creating the new Service Information", ex);
-                aSummary.onError (EImportSummaryAction.CREATE_SI);
-              }
-            }
 
-            // 3b. create all redirects
-            for (final ISMPRedirect aImportRedirect : aEntry.getValue ().getRedirects ())
-            {
-              try
+              // 3b. create all redirects
+              for (final ISMPRedirect aImportRedirect : aEntry.getValue ().getRedirects ())
               {
-                if (aRedirectMgr.createOrUpdateSMPRedirect (aNewServiceGroup,
-                                                            aImportRedirect.getDocumentTypeIdentifier (),
-                                                            aImportRedirect.getTargetHref (),
-                                                            aImportRedirect.getSubjectUniqueIdentifier (),
-                                                            aImportRedirect.getCertificate (),
-                                                            aImportRedirect.getExtensions ()
-                                                                           .getExtensionsAsJsonString ()) != null)
+                try
                 {
-                  aLoggerSuccess.accept (sServiceGroupID, "Successfully created Redirect");
-                  aSummary.onSuccess (EImportSummaryAction.CREATE_REDIRECT);
+                  if (aRedirectMgr.createOrUpdateSMPRedirect (aNewServiceGroup,
+                                                              aImportRedirect.getDocumentTypeIdentifier (),
+                                                              aImportRedirect.getTargetHref (),
+                                                              aImportRedirect.getSubjectUniqueIdentifier (),
+                                                              aImportRedirect.getCertificate (),
+                                                              aImportRedirect.getExtensions ()
+                                                                             .getExtensionsAsJsonString ()) != null)
+                  {
+                    aLoggerSuccess.accept (sServiceGroupID, "Successfully created Redirect");
+                    aSummary.onSuccess (EImportSummaryAction.CREATE_REDIRECT);
+                  }
+                  else
+                  {
+                    aLoggerErrorPI.accept (sServiceGroupID, "Error creating the new Redirect");
+                    aSummary.onError (EImportSummaryAction.CREATE_REDIRECT);
+                  }
                 }
-                else
+                catch (final Exception ex)
                 {
-                  aLoggerErrorPI.accept (sServiceGroupID, "Error creating the new Redirect");
+                  aLoggerErrorPIEx.accept (sServiceGroupID, "Error creating the new Redirect", ex);
                   aSummary.onError (EImportSummaryAction.CREATE_REDIRECT);
                 }
               }
-              catch (final Exception ex)
-              {
-                aLoggerErrorPIEx.accept (sServiceGroupID, "Error creating the new Redirect", ex);
-                aSummary.onError (EImportSummaryAction.CREATE_REDIRECT);
-              }
             }
           }
         }
+        finally
+        {
+          // 2c. compensate the SML registrations of the failed service groups
+          if (aSMLUndoPIs.isNotEmpty ())
+          {
+            final RegistrationHookBulkResult aSMLUndoResult = aHook.undoCreateServiceGroups (aSMLUndoPIs);
+            for (final Map.Entry <IParticipantIdentifier, RegistrationHookException> aEntry : aSMLUndoResult.getAllFailed ()
+                                                                                                          .entrySet ())
+              aLoggerErrorPIEx.accept (aEntry.getKey ().getURIEncoded (),
+                                       "Failed to delete the Service Group from the SML again",
+                                       aEntry.getValue ());
+          }
+        }
 
         // 4. delete all existing business cards to be imported (if overwrite)
         // Note: if PD integration is disabled, the list is empty
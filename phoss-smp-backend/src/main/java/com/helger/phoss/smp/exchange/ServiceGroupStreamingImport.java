@@ -0,0 +1,709 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.timing.StopWatch;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardMicroTypeConverter;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.redirect.SMPRedirectMicroTypeConverter;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupMicroTypeConverter;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeConverter;
+import com.helger.phoss.smp.exception.SMPSMLException;
+import com.helger.phoss.smp.exchange.ServiceGroupImport.InternalImportData;
+import com.helger.phoss.smp.smlhook.IRegistrationHook;
+import com.helger.phoss.smp.smlhook.RegistrationHookBulkResult;
+import com.helger.phoss.smp.smlhook.RegistrationHookException;
+import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.photon.security.user.IUserManager;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroElement;
+
+/**
+ * Import Service Groups from XML in a streaming way. In contrast to
+ * {@link ServiceGroupImport} the XML is parsed incrementally and the data is
+ * written in chunks, so that the memory consumption only depends on the chunk
+ * size and not on the size of the import file. Because of this, the import is
+ * not "all or nothing": erroneous entries are reported and skipped, and all
+ * chunks that were written before a fatal parsing error remain.<br>
+ * To keep the memory consumption bounded, successful actions are only logged
+ * and not added to the action list - the summary contains the total counts.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@Immutable
+public final class ServiceGroupStreamingImport
+{
+  /**
+   * Callback interface that is invoked after each written chunk.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  public interface IProgressCallback
+  {
+    /**
+     * Invoked after a chunk was written.
+     *
+     * @param nServiceGroupsRead
+     *        The total number of Service Groups read so far.
+     * @param nBusinessCardsRead
+     *        The total number of Business Cards read so far.
+     * @param aSummary
+     *        The current import summary. Never <code>null</code>.
+     */
+    void onChunkFinished (@Nonnegative int nServiceGroupsRead,
+                          @Nonnegative int nBusinessCardsRead,
+                          @Nonnull ImportSummary aSummary);
+  }
+
+  /**
+   * The mutable state of a single import run.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  private static final class ImportState
+  {
+    private final String m_sLogPrefix;
+    private final boolean m_bOverwriteExisting;
+    private final IUser m_aDefaultOwner;
+    private final int m_nChunkSize;
+    private final ICommonsList <ImportActionItem> m_aActionList;
+    private final ImportSummary m_aSummary;
+    private final IProgressCallback m_aProgressCallback;
+
+    private final IUserManager m_aUserMgr = PhotonSecurityManager.getUserMgr ();
+    private final ISMPServiceGroupManager m_aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    private final ISMPServiceInformationManager m_aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    private final ISMPRedirectManager m_aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    private final ISMPBusinessCardManager m_aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+    private final IRegistrationHook m_aHook = RegistrationHookFactory.getInstance ();
+
+    private final ICommonsOrderedMap <ISMPServiceGroup, InternalImportData> m_aSGChunk = new CommonsLinkedHashMap <> ();
+    // Does the service group of the current chunk overwrite an existing one?
+    private final ICommonsOrderedMap <ISMPServiceGroup, Boolean> m_aSGChunkOverwrite = new CommonsLinkedHashMap <> ();
+    private final ICommonsOrderedMap <String, ISMPBusinessCard> m_aBCChunk = new CommonsLinkedHashMap <> ();
+    private int m_nSGIndex = 0;
+    private int m_nBCIndex = 0;
+
+    ImportState (@Nonnull final String sLogPrefix,
+                 final boolean bOverwriteExisting,
+                 @Nonnull final IUser aDefaultOwner,
+                 @Nonnegative final int nChunkSize,
+                 @Nonnull final ICommonsList <ImportActionItem> aActionList,
+                 @Nonnull final ImportSummary aSummary,
+                 @Nullable final IProgressCallback aProgressCallback)
+    {
+      m_sLogPrefix = sLogPrefix;
+      m_bOverwriteExisting = bOverwriteExisting;
+      m_aDefaultOwner = aDefaultOwner;
+      m_nChunkSize = nChunkSize;
+      m_aActionList = aActionList;
+      m_aSummary = aSummary;
+      m_aProgressCallback = aProgressCallback;
+    }
+
+    private void _success (@Nonnull final String sPI, @Nonnull final String sMsg)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug (m_sLogPrefix + "[" + sPI + "] " + sMsg);
+    }
+
+    private void _info (@Nonnull final String sMsg)
+    {
+      LOGGER.info (m_sLogPrefix + sMsg);
+      m_aActionList.add (ImportActionItem.createInfo (null, sMsg));
+    }
+
+    private void _warn (@Nullable final String sPI, @Nonnull final String sMsg)
+    {
+      LOGGER.warn (m_sLogPrefix + (sPI == null ? "" : "[" + sPI + "] ") + sMsg);
+      m_aActionList.add (ImportActionItem.createWarning (sPI, sMsg));
+    }
+
+    private void _error (@Nullable final String sPI, @Nonnull final String sMsg, @Nullable final Exception ex)
+    {
+      LOGGER.error (m_sLogPrefix + (sPI == null ? "" : "[" + sPI + "] ") + sMsg, ex);
+      m_aActionList.add (ImportActionItem.createError (sPI, sMsg, ex));
+    }
+
+    @Nonnull
+    private IUser _resolveOwner (@Nonnull final String sOwnerID)
+    {
+      final IUser aOwner = m_aUserMgr.getUserOfID (sOwnerID);
+      if (aOwner != null)
+      {
+        // If the user is deleted, but existing - keep the deleted user
+        return aOwner;
+      }
+
+      // Select the default owner if an unknown user is contained
+      LOGGER.warn ("Failed to resolve stored owner '" +
+                   sOwnerID +
+                   "' - using default owner '" +
+                   m_aDefaultOwner.getID () +
+                   "'");
+      return m_aDefaultOwner;
+    }
+
+    void onServiceGroup (@Nonnull final IMicroElement eServiceGroup)
+    {
+      final int nSGIndex = m_nSGIndex++;
+
+      // Read service group, service information and redirects
+      final ISMPServiceGroup aServiceGroup;
+      final InternalImportData aImportData = new InternalImportData ();
+      try
+      {
+        aServiceGroup = SMPServiceGroupMicroTypeConverter.convertToNative (eServiceGroup, this::_resolveOwner);
+        for (final IMicroElement eServiceInfo : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_SERVICEINFO))
+          aImportData.addServiceInfo (SMPServiceInformationMicroTypeConverter.convertToNative (eServiceInfo,
+                                                                                               x -> aServiceGroup));
+        for (final IMicroElement eRedirect : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_REDIRECT))
+          aImportData.addRedirect (SMPRedirectMicroTypeConverter.convertToNative (eRedirect, x -> aServiceGroup));
+      }
+      catch (final RuntimeException ex)
+      {
+        _error (null, "Error parsing the Service Group at index " + nSGIndex + ". Ignoring this Service Group.", ex);
+        m_aSummary.onError (EImportSummaryAction.CREATE_SG);
+        return;
+      }
+
+      final String sServiceGroupID = aServiceGroup.getID ();
+      final boolean bIsServiceGroupContained = m_aServiceGroupMgr.containsSMPServiceGroupWithID (aServiceGroup.getParticipantIdentifier ());
+      if (bIsServiceGroupContained && !m_bOverwriteExisting)
+      {
+        _warn (sServiceGroupID, "Ignoring already existing Service Group");
+        return;
+      }
+
+      if (m_aSGChunk.containsKey (aServiceGroup))
+      {
+        _warn (sServiceGroupID,
+               "The Service Group at index " +
+                                nSGIndex +
+                                " is already contained in the file. Will overwrite the previous definition.");
+        // Keep the overwrite flag of the first occurrence
+        m_aSGChunk.put (aServiceGroup, aImportData);
+      }
+      else
+      {
+        m_aSGChunk.put (aServiceGroup, aImportData);
+        m_aSGChunkOverwrite.put (aServiceGroup, Boolean.valueOf (bIsServiceGroupContained));
+      }
+
+      if (m_aSGChunk.size () >= m_nChunkSize)
+        flushServiceGroups ();
+    }
+
+    void flushServiceGroups ()
+    {
+      if (m_aSGChunk.isEmpty ())
+        return;
+
+      // 1. delete all existing service groups to be overwritten
+      for (final Map.Entry <ISMPServiceGroup, Boolean> aEntry : m_aSGChunkOverwrite.entrySet ())
+        if (aEntry.getValue ().booleanValue ())
+        {
+          final ISMPServiceGroup aServiceGroup = aEntry.getKey ();
+          final String sServiceGroupID = aServiceGroup.getID ();
+          try
+          {
+            // Delete locally only; this implicitly deletes the business card
+            if (m_aServiceGroupMgr.deleteSMPServiceGroup (aServiceGroup.getParticipantIdentifier (), false)
+                                  .isChanged ())
+            {
+              _success (sServiceGroupID, "Successfully deleted Service Group");
+              m_aSummary.onSuccess (EImportSummaryAction.DELETE_SG);
+            }
+            else
+            {
+              _error (sServiceGroupID, "Failed to delete Service Group", null);
+              m_aSummary.onError (EImportSummaryAction.DELETE_SG);
+            }
+          }
+          catch (final Exception ex)
+          {
+            _error (sServiceGroupID, "Failed to delete Service Group", ex);
+            m_aSummary.onError (EImportSummaryAction.DELETE_SG);
+          }
+        }
+
+      // 2a. create all new service groups of this chunk in the SML at once
+      final ICommonsList <IParticipantIdentifier> aSMLCreatePIs = new CommonsArrayList <> ();
+      for (final Map.Entry <ISMPServiceGroup, Boolean> aEntry : m_aSGChunkOverwrite.entrySet ())
+        if (!aEntry.getValue ().booleanValue ())
+          aSMLCreatePIs.add (aEntry.getKey ().getParticipantIdentifier ());
+      final RegistrationHookBulkResult aSMLCreateResult = m_aHook.createServiceGroups (aSMLCreatePIs);
+      final ICommonsList <IParticipantIdentifier> aSMLUndoPIs = new CommonsArrayList <> ();
+
+      // 2b. create all service groups of this chunk
+      for (final Map.Entry <ISMPServiceGroup, InternalImportData> aEntry : m_aSGChunk.entrySet ())
+      {
+        final ISMPServiceGroup aImportServiceGroup = aEntry.getKey ();
+        final String sServiceGroupID = aImportServiceGroup.getID ();
+        final IParticipantIdentifier aPI = aImportServiceGroup.getParticipantIdentifier ();
+        final boolean bIsOverwrite = m_aSGChunkOverwrite.get (aImportServiceGroup).booleanValue ();
+
+        ISMPServiceGroup aNewServiceGroup = null;
+        final RegistrationHookException aSMLException = bIsOverwrite ? null : aSMLCreateResult.getFailure (aPI);
+        if (aSMLException != null)
+        {
+          _error (sServiceGroupID,
+                  "Error creating the new Service Group",
+                  new SMPSMLException ("Failed to create '" + aPI.getURIEncoded () + "' in SML", aSMLException));
+          m_aSummary.onError (EImportSummaryAction.CREATE_SG);
+        }
+        else
+          try
+          {
+            // Already created in SML above
+            aNewServiceGroup = m_aServiceGroupMgr.createSMPServiceGroup (aImportServiceGroup.getOwnerID (),
+                                                                         aPI,
+                                                                         aImportServiceGroup.getExtensions ()
+                                                                                            .getExtensionsAsJsonString (),
+                                                                         false);
+            _success (sServiceGroupID, "Successfully created Service Group");
+            m_aSummary.onSuccess (EImportSummaryAction.CREATE_SG);
+          }
+          catch (final Exception ex)
+          {
+            _error (sServiceGroupID, "Error creating the new Service Group", ex);
+            if (!bIsOverwrite)
+              aSMLUndoPIs.add (aPI);
+            m_aSummary.onError (EImportSummaryAction.CREATE_SG);
+          }
+
+        if (aNewServiceGroup != null)
+        {
+          // 3a. create all endpoints
+          for (final ISMPServiceInformation aImportServiceInfo : aEntry.getValue ().getServiceInfo ())
+          {
+            try
+            {
+              if (m_aServiceInfoMgr.mergeSMPServiceInformation (aImportServiceInfo).isSuccess ())
+              {
+                _success (sServiceGroupID, "Successfully created Service Information");
+                m_aSummary.onSuccess (EImportSummaryAction.CREATE_SI);
+              }
+              else
+              {
+                _error (sServiceGroupID, "Error creating the new Service Information", null);
+                m_aSummary.onError (EImportSummaryAction.CREATE_SI);
+              }
+            }
+            catch (final Exception ex)
+            {
+              _error (sServiceGroupID, "Error creating the new Service Information", ex);
+              m_aSummary.onError (EImportSummaryAction.CREATE_SI);
+            }
+          }
+
+          // 3b. create all redirects
+          for (final ISMPRedirect aImportRedirect : aEntry.getValue ().getRedirects ())
+          {
+            try
+            {
+              if (m_aRedirectMgr.createOrUpdateSMPRedirect (aNewServiceGroup,
+                                                            aImportRedirect.getDocumentTypeIdentifier (),
+                                                            aImportRedirect.getTargetHref (),
+                                                            aImportRedirect.getSubjectUniqueIdentifier (),
+                                                            aImportRedirect.getCertificate (),
+                                                            aImportRedirect.getExtensions ()
+                                                                           .getExtensionsAsJsonString ()) != null)
+              {
+                _success (sServiceGroupID, "Successfully created Redirect");
+                m_aSummary.onSuccess (EImportSummaryAction.CREATE_REDIRECT);
+              }
+              else
+              {
+                _error (sServiceGroupID, "Error creating the new Redirect", null);
+                m_aSummary.onError (EImportSummaryAction.CREATE_REDIRECT);
+              }
+            }
+            catch (final Exception ex)
+            {
+              _error (sServiceGroupID, "Error creating the new Redirect", ex);
+              m_aSummary.onError (EImportSummaryAction.CREATE_REDIRECT);
+            }
+          }
+        }
+      }
+
+      // 2c. compensate the SML registrations of the failed service groups
+      if (aSMLUndoPIs.isNotEmpty ())
+      {
+        final RegistrationHookBulkResult aSMLUndoResult = m_aHook.undoCreateServiceGroups (aSMLUndoPIs);
+        for (final Map.Entry <IParticipantIdentifier, RegistrationHookException> aEntry : aSMLUndoResult.getAllFailed ()
+                                                                                                      .entrySet ())
+          _error (aEntry.getKey ().getURIEncoded (),
+                  "Failed to delete the Service Group from the SML again",
+                  aEntry.getValue ());
+      }
+
+      m_aSGChunk.clear ();
+      m_aSGChunkOverwrite.clear ();
+      _onChunkFinished ();
+    }
+
+    void onBusinessCard (@Nonnull final IMicroElement eBusinessCard)
+    {
+      final int nBCIndex = m_nBCIndex++;
+
+      final ISMPBusinessCard aBusinessCard;
+      try
+      {
+        aBusinessCard = new SMPBusinessCardMicroTypeConverter ().convertToNative (eBusinessCard);
+      }
+      catch (final RuntimeException ex)
+      {
+        _error (null, "Failed to read Business Card at index " + nBCIndex, ex);
+        m_aSummary.onError (EImportSummaryAction.CREATE_BC);
+        return;
+      }
+
+      final String sBusinessCardID = aBusinessCard.getID ();
+      final boolean bIsBusinessCardContained = m_aBusinessCardMgr.getSMPBusinessCardOfID (aBusinessCard.getParticipantIdentifier ()) != null;
+      if (bIsBusinessCardContained && !m_bOverwriteExisting)
+      {
+        _warn (sBusinessCardID, "Ignoring already existing Business Card");
+        return;
+      }
+
+      if (m_aBCChunk.put (sBusinessCardID, aBusinessCard) != null)
+        _warn (sBusinessCardID, "The Business Card already contained in the file. Will overwrite the previous definition.");
+
+      if (m_aBCChunk.size () >= m_nChunkSize)
+        flushBusinessCards ();
+    }
+
+    void flushBusinessCards ()
+    {
+      if (m_aBCChunk.isEmpty ())
+        return;
+
+      for (final ISMPBusinessCard aImportBusinessCard : m_aBCChunk.values ())
+      {
+        final String sBusinessCardID = aImportBusinessCard.getID ();
+        final IParticipantIdentifier aPI = aImportBusinessCard.getParticipantIdentifier ();
+
+        // The service group may have failed to import
+        if (!m_aServiceGroupMgr.containsSMPServiceGroupWithID (aPI))
+        {
+          _error (sBusinessCardID, "The Service Group of the Business Card does not exist", null);
+          m_aSummary.onError (EImportSummaryAction.CREATE_BC);
+          continue;
+        }
+
+        // 4. delete the existing business card (if overwrite)
+        final ISMPBusinessCard aExistingBusinessCard = m_aBusinessCardMgr.getSMPBusinessCardOfID (aPI);
+        if (aExistingBusinessCard != null)
+          try
+          {
+            if (m_aBusinessCardMgr.deleteSMPBusinessCard (aExistingBusinessCard).isChanged ())
+            {
+              _success (sBusinessCardID, "Successfully deleted Business Card");
+              m_aSummary.onSuccess (EImportSummaryAction.DELETE_BC);
+            }
+            else
+            {
+              _error (sBusinessCardID, "Failed to delete Business Card", null);
+              m_aSummary.onError (EImportSummaryAction.DELETE_BC);
+            }
+          }
+          catch (final Exception ex)
+          {
+            _error (sBusinessCardID, "Failed to delete Business Card", ex);
+            m_aSummary.onError (EImportSummaryAction.DELETE_BC);
+          }
+
+        // 5. create the new business card
+        try
+        {
+          if (m_aBusinessCardMgr.createOrUpdateSMPBusinessCard (aPI, aImportBusinessCard.getAllEntities ()) != null)
+          {
+            _success (sBusinessCardID, "Successfully created Business Card");
+            m_aSummary.onSuccess (EImportSummaryAction.CREATE_BC);
+          }
+          else
+          {
+            _error (sBusinessCardID, "Failed to create Business Card", null);
+            m_aSummary.onError (EImportSummaryAction.CREATE_BC);
+          }
+        }
+        catch (final Exception ex)
+        {
+          _error (sBusinessCardID, "Failed to create Business Card", ex);
+          m_aSummary.onError (EImportSummaryAction.CREATE_BC);
+        }
+      }
+
+      m_aBCChunk.clear ();
+      _onChunkFinished ();
+    }
+
+    private void _onChunkFinished ()
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug (m_sLogPrefix +
+                      "Finished chunk after reading " +
+                      m_nSGIndex +
+                      " Service Groups and " +
+                      m_nBCIndex +
+                      " Business Cards");
+      if (m_aProgressCallback != null)
+        m_aProgressCallback.onChunkFinished (m_nSGIndex, m_nBCIndex, m_aSummary);
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (ServiceGroupStreamingImport.class);
+  private static final AtomicInteger COUNTER = new AtomicInteger (0);
+
+  private ServiceGroupStreamingImport ()
+  {}
+
+  @Nonnull
+  private static XMLInputFactory _createXMLInputFactory ()
+  {
+    final XMLInputFactory ret = XMLInputFactory.newFactory ();
+    // No DTDs and no external entities
+    ret.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    ret.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    ret.setProperty (XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    return ret;
+  }
+
+  @Nonnull
+  private static IMicroElement _createElement (@Nonnull final XMLStreamReader aReader)
+  {
+    final String sNamespaceURI = aReader.getNamespaceURI ();
+    final IMicroElement ret = new MicroElement (StringHelper.hasText (sNamespaceURI) ? sNamespaceURI : null,
+                                                aReader.getLocalName ());
+    for (int i = 0; i < aReader.getAttributeCount (); ++i)
+    {
+      final String sAttrNamespaceURI = aReader.getAttributeNamespace (i);
+      ret.setAttribute (StringHelper.hasText (sAttrNamespaceURI) ? sAttrNamespaceURI : null,
+                        aReader.getAttributeLocalName (i),
+                        aReader.getAttributeValue (i));
+    }
+    return ret;
+  }
+
+  /**
+   * Read the element the reader is currently positioned on, including all
+   * children, into a micro element. Afterwards the reader is positioned on the
+   * matching end element.
+   */
+  @Nonnull
+  private static IMicroElement _readElement (@Nonnull final XMLStreamReader aReader) throws XMLStreamException
+  {
+    final IMicroElement ret = _createElement (aReader);
+    IMicroElement eCur = ret;
+    int nDepth = 1;
+    while (nDepth > 0)
+    {
+      switch (aReader.next ())
+      {
+        case XMLStreamConstants.START_ELEMENT:
+          eCur = eCur.appendChild (_createElement (aReader));
+          nDepth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          nDepth--;
+          if (nDepth > 0)
+            eCur = (IMicroElement) eCur.getParent ();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          eCur.appendText (aReader.getText ());
+          break;
+        default:
+          // Ignore comments, processing instructions etc.
+          break;
+      }
+    }
+    return ret;
+  }
+
+  private static void _skipElement (@Nonnull final XMLStreamReader aReader) throws XMLStreamException
+  {
+    int nDepth = 1;
+    while (nDepth > 0)
+    {
+      final int nEventType = aReader.next ();
+      if (nEventType == XMLStreamConstants.START_ELEMENT)
+        nDepth++;
+      else
+        if (nEventType == XMLStreamConstants.END_ELEMENT)
+          nDepth--;
+    }
+  }
+
+  /**
+   * Import the provided XML v1.0 data in a streaming way.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. The
+   *        stream is not closed.
+   * @param bOverwriteExisting
+   *        <code>true</code> to overwrite existing Service Groups and Business
+   *        Cards, <code>false</code> to ignore them.
+   * @param aDefaultOwner
+   *        The owner to be used, if the owner contained in the import data is
+   *        unknown. May not be <code>null</code>.
+   * @param nChunkSize
+   *        The maximum number of Service Groups or Business Cards that are
+   *        kept in memory before they are written. Must be &gt; 0.
+   * @param aActionList
+   *        The action list to add warnings, errors and progress information
+   *        to. May not be <code>null</code>.
+   * @param aSummary
+   *        The summary to be filled. May not be <code>null</code>.
+   * @param aProgressCallback
+   *        An optional callback to be invoked after each chunk. May be
+   *        <code>null</code>.
+   * @throws XMLStreamException
+   *         If the XML cannot be read at all or if it is not a valid XML v1.0
+   *         export file. Parsing errors after the start of the import are
+   *         reported in the action list instead.
+   */
+  public static void importXMLVer10 (@Nonnull @WillNotClose final InputStream aIS,
+                                     final boolean bOverwriteExisting,
+                                     @Nonnull final IUser aDefaultOwner,
+                                     @Nonnegative final int nChunkSize,
+                                     @Nonnull final ICommonsList <ImportActionItem> aActionList,
+                                     @Nonnull final ImportSummary aSummary,
+                                     @Nullable final IProgressCallback aProgressCallback) throws XMLStreamException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aDefaultOwner, "DefaultOwner");
+    ValueEnforcer.isGT0 (nChunkSize, "ChunkSize");
+    ValueEnforcer.notNull (aActionList, "ActionList");
+    ValueEnforcer.notNull (aSummary, "Summary");
+
+    final String sLogPrefix = "[SG-STREAMING-IMPORT-" + COUNTER.incrementAndGet () + "] ";
+    final boolean bDirectoryIntegrationEnabled = SMPMetaManager.getSettings ().isDirectoryIntegrationEnabled ();
+
+    final XMLStreamReader aReader = _createXMLInputFactory ().createXMLStreamReader (aIS);
+    try
+    {
+      // Check the root element
+      aReader.nextTag ();
+      if (!CSMPExchange.ELEMENT_SMP_DATA.equals (aReader.getLocalName ()) ||
+          !CSMPExchange.VERSION_10.equals (aReader.getAttributeValue (null, CSMPExchange.ATTR_VERSION)))
+        throw new XMLStreamException ("The provided payload is not an XML file version 1.0");
+
+      LOGGER.info (sLogPrefix +
+                   "Starting streaming import of Service Groups from XML v1.0 with chunk size " +
+                   nChunkSize +
+                   ", overwrite is " +
+                   (bOverwriteExisting ? "enabled" : "disabled"));
+
+      final StopWatch aSW = StopWatch.createdStarted ();
+      final ImportState aState = new ImportState (sLogPrefix,
+                                                  bOverwriteExisting,
+                                                  aDefaultOwner,
+                                                  nChunkSize,
+                                                  aActionList,
+                                                  aSummary,
+                                                  aProgressCallback);
+      try
+      {
+        boolean bRootClosed = false;
+        while (!bRootClosed)
+        {
+          final int nEventType = aReader.next ();
+          if (nEventType == XMLStreamConstants.START_ELEMENT)
+          {
+            final String sTagName = aReader.getLocalName ();
+            if (CSMPExchange.ELEMENT_SERVICEGROUP.equals (sTagName))
+              aState.onServiceGroup (_readElement (aReader));
+            else
+              if (CSMPExchange.ELEMENT_BUSINESSCARD.equals (sTagName) && bDirectoryIntegrationEnabled)
+              {
+                // Business Cards follow the Service Groups
+                aState.flushServiceGroups ();
+                aState.onBusinessCard (_readElement (aReader));
+              }
+              else
+                _skipElement (aReader);
+          }
+          else
+            if (nEventType == XMLStreamConstants.END_ELEMENT || nEventType == XMLStreamConstants.END_DOCUMENT)
+              bRootClosed = true;
+        }
+      }
+      catch (final XMLStreamException ex)
+      {
+        aState._error (null,
+                       "Failed to parse the XML payload after " +
+                             aState.m_nSGIndex +
+                             " Service Groups and " +
+                             aState.m_nBCIndex +
+                             " Business Cards. The import is stopped.",
+                       ex);
+      }
+
+      // Write the remaining entries of the incomplete chunks
+      aState.flushServiceGroups ();
+      aState.flushBusinessCards ();
+
+      aState._info ("Finished streaming import of " +
+                    aState.m_nSGIndex +
+                    " Service Groups and " +
+                    aState.m_nBCIndex +
+                    " Business Cards after " +
+                    aSW.stopAndGetMillis () +
+                    " milliseconds");
+    }
+    finally
+    {
+      aReader.close ();
+    }
+  }
+}
@@ -122,22 +122,18 @@ public final class BDXR2ServerAPI
       }
       // Then add the service metadata references
       final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectBDXR2 ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      // Only document types with endpoints are returned
+      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesWithEndpointsOfServiceGroup (aServiceGroup)
+                                                                     .keySet ())
       {
-        // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
-        if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
+        final ServiceReferenceType aMetadataReference = new ServiceReferenceType ();
         {
-          final ServiceReferenceType aMetadataReference = new ServiceReferenceType ();
-          {
-            final IDType aID = new IDType ();
-            aID.setSchemeID (aDocTypeID.getScheme ());
-            aID.setValue (aDocTypeID.getValue ());
-            aMetadataReference.setID (aID);
-          }
-          aSG.addServiceReference (aMetadataReference);
+          final IDType aID = new IDType ();
+          aID.setSchemeID (aDocTypeID.getScheme ());
+          aID.setValue (aDocTypeID.getValue ());
+          aMetadataReference.setID (aID);
         }
+        aSG.addServiceReference (aMetadataReference);
       }
       LOGGER.info (sLog + " SUCCESS");
       STATS_COUNTER_SUCCESS.increment (sAction);
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.restapi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+
+/**
+ * A single page of a complete service group together with the cursor to
+ * retrieve the next page. The cursor is an opaque token that contains the last
+ * document type identifier of the page.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The complete service group type depending on the REST API
+ * @since 7.1.4
+ */
+@Immutable
+public final class SMPCompleteServiceGroupPage <T>
+{
+  private final T m_aCompleteServiceGroup;
+  private final String m_sNextCursor;
+
+  public SMPCompleteServiceGroupPage (@Nonnull final T aCompleteServiceGroup, @Nullable final String sNextCursor)
+  {
+    ValueEnforcer.notNull (aCompleteServiceGroup, "CompleteServiceGroup");
+    m_aCompleteServiceGroup = aCompleteServiceGroup;
+    m_sNextCursor = sNextCursor;
+  }
+
+  /**
+   * @return The complete service group containing only the elements of this
+   *         page. Never <code>null</code>.
+   */
+  @Nonnull
+  public T getCompleteServiceGroup ()
+  {
+    return m_aCompleteServiceGroup;
+  }
+
+  /**
+   * @return The cursor to retrieve the next page. <code>null</code> if this is
+   *         the last page.
+   */
+  @Nullable
+  public String getNextCursor ()
+  {
+    return m_sNextCursor;
+  }
+
+  /**
+   * @return <code>true</code> if another page is available, <code>false</code>
+   *         if this is the last page.
+   */
+  public boolean hasNextCursor ()
+  {
+    return m_sNextCursor != null;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("CompleteServiceGroup", m_aCompleteServiceGroup)
+                                       .appendIfNotNull ("NextCursor", m_sNextCursor)
+                                       .getToString ();
+  }
+
+  /**
+   * Create the cursor pointing behind the provided document type identifier.
+   *
+   * @param aDocTypeID
+   *        The last document type identifier of a page. May not be
+   *        <code>null</code>.
+   * @return The URL safe cursor. Never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public static String createCursor (@Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    ValueEnforcer.notNull (aDocTypeID, "DocTypeID");
+    return Base64.getUrlEncoder ()
+                 .withoutPadding ()
+                 .encodeToString (aDocTypeID.getURIEncoded ().getBytes (StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parse a cursor created by {@link #createCursor(IDocumentTypeIdentifier)}.
+   *
+   * @param sCursor
+   *        The cursor to parse. May be <code>null</code>.
+   * @param aIdentifierFactory
+   *        The identifier factory to use. May not be <code>null</code>.
+   * @return <code>null</code> if the cursor is empty or invalid.
+   */
+  @Nullable
+  public static IDocumentTypeIdentifier parseCursor (@Nullable final String sCursor,
+                                                     @Nonnull final IIdentifierFactory aIdentifierFactory)
+  {
+    if (StringHelper.hasNoText (sCursor))
+      return null;
+
+    final byte [] aDecoded;
+    try
+    {
+      aDecoded = Base64.getUrlDecoder ().decode (sCursor);
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      return null;
+    }
+    return aIdentifierFactory.parseDocumentTypeIdentifier (new String (aDecoded, StandardCharsets.UTF_8));
+  }
+}
@@ -12,7 +12,9 @@ package com.helger.phoss.smp.restapi;
 
 import java.security.cert.X509Certificate;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +27,7 @@ import com.helger.commons.state.ESuccess;
 import com.helger.commons.statistics.IMutableStatisticsHandlerKeyedCounter;
 import com.helger.commons.statistics.IStatisticsHandlerKeyedCounter;
 import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.string.StringHelper;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
@@ -114,18 +117,14 @@ public final class SMPServerAPI
       }
       // Then add the service metadata references
       final ServiceMetadataReferenceCollectionType aRefCollection = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      // Only document types with endpoints are returned
+      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesWithEndpointsOfServiceGroup (aServiceGroup)
+                                                                     .keySet ())
       {
-        // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
-        if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
-        {
-          final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
-          aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
-                                                                                          aDocTypeID));
-          aRefCollection.addServiceMetadataReference (aMetadataReference);
-        }
+        final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
+        aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
+                                                                                        aDocTypeID));
+        aRefCollection.addServiceMetadataReference (aMetadataReference);
       }
       final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectPeppol ();
       aSG.setServiceMetadataReferenceCollection (aRefCollection);
@@ -151,6 +150,113 @@ public final class SMPServerAPI
     }
   }
 
+  /**
+   * Get a single page of the complete service group. The service group
+   * element only references the document types contained in the page.
+   *
+   * @param sPathServiceGroupID
+   *        The service group ID from the path.
+   * @param sCursor
+   *        The cursor as returned by the previous page. May be
+   *        <code>null</code> to retrieve the first page.
+   * @param nPageSize
+   *        The maximum number of service metadata elements per page. Must be
+   *        &gt; 0.
+   * @return The page and the cursor of the next page. Never
+   *         <code>null</code>.
+   * @throws SMPServerException
+   *         In case of error
+   * @since 7.1.4
+   */
+  @Nonnull
+  public SMPCompleteServiceGroupPage <CompleteServiceGroupType> getCompleteServiceGroupPage (final String sPathServiceGroupID,
+                                                                                            @Nullable final String sCursor,
+                                                                                            @Nonnegative final int nPageSize) throws SMPServerException
+  {
+    ValueEnforcer.isGT0 (nPageSize, "PageSize");
+
+    final String sLog = LOG_PREFIX + "GET /complete/" + sPathServiceGroupID + " (page)";
+    final String sAction = "getCompleteServiceGroupPage";
+
+    LOGGER.info (sLog);
+    STATS_COUNTER_INVOCATION.increment (sAction);
+    try
+    {
+      final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+      final IParticipantIdentifier aPathServiceGroupID = aIdentifierFactory.parseParticipantIdentifier (sPathServiceGroupID);
+      if (aPathServiceGroupID == null)
+      {
+        // Invalid identifier
+        throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, m_aAPIDataProvider.getCurrentURI ());
+      }
+
+      IDocumentTypeIdentifier aAfterDocTypeID = null;
+      if (StringHelper.hasText (sCursor))
+      {
+        aAfterDocTypeID = SMPCompleteServiceGroupPage.parseCursor (sCursor, aIdentifierFactory);
+        if (aAfterDocTypeID == null)
+        {
+          // Invalid cursor
+          throw new SMPBadRequestException ("Invalid cursor '" + sCursor + "' provided",
+                                            m_aAPIDataProvider.getCurrentURI ());
+        }
+      }
+
+      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+
+      final ISMPServiceGroup aServiceGroup = aServiceGroupMgr.getSMPServiceGroupOfID (aPathServiceGroupID);
+      if (aServiceGroup == null)
+      {
+        // No such service group
+        throw new SMPNotFoundException ("Unknown Service Group ID '" + sPathServiceGroupID + "'",
+                                        m_aAPIDataProvider.getCurrentURI ());
+      }
+
+      // Read one more element to know if there is a next page
+      final ICommonsList <ISMPServiceInformation> aServiceInfos = aServiceInfoMgr.getSMPServiceInformationPageOfServiceGroup (aServiceGroup,
+                                                                                                                             aAfterDocTypeID,
+                                                                                                                             nPageSize + 1);
+      String sNextCursor = null;
+      if (aServiceInfos.size () > nPageSize)
+      {
+        aServiceInfos.remove (nPageSize);
+        sNextCursor = SMPCompleteServiceGroupPage.createCursor (aServiceInfos.getLastOrNull ().getDocumentTypeIdentifier ());
+      }
+
+      // a CompleteSG may be empty
+      final ServiceMetadataReferenceCollectionType aRefCollection = new ServiceMetadataReferenceCollectionType ();
+      final CompleteServiceGroupType aCompleteServiceGroup = new CompleteServiceGroupType ();
+      for (final ISMPServiceInformation aServiceInfo : aServiceInfos)
+      {
+        final ServiceMetadataType aSM = aServiceInfo.getAsJAXBObjectPeppol ();
+        if (aSM != null)
+        {
+          // Only document types of this page are referenced
+          final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
+          aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
+                                                                                          aServiceInfo.getDocumentTypeIdentifier ()));
+          aRefCollection.addServiceMetadataReference (aMetadataReference);
+          aCompleteServiceGroup.addServiceMetadata (aSM);
+        }
+      }
+
+      final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectPeppol ();
+      aSG.setServiceMetadataReferenceCollection (aRefCollection);
+      aCompleteServiceGroup.setServiceGroup (aSG);
+
+      LOGGER.info (sLog + " SUCCESS");
+      STATS_COUNTER_SUCCESS.increment (sAction);
+      return new SMPCompleteServiceGroupPage <> (aCompleteServiceGroup, sNextCursor);
+    }
+    catch (final SMPServerException ex)
+    {
+      LOGGER.warn (sLog + " ERROR - " + ex.getMessage ());
+      STATS_COUNTER_ERROR.increment (sAction);
+      throw ex;
+    }
+  }
+
   @Nonnull
   public ServiceGroupReferenceListType getServiceGroupReferenceList (@Nonnull final String sPathUserID,
                                                                      @Nonnull final SMPAPICredentials aCredentials) throws SMPServerException
@@ -227,18 +333,14 @@ public final class SMPServerAPI
       // Then add the service metadata references
       final ServiceGroupType aSG = aServiceGroup.getAsJAXBObjectPeppol ();
       final ServiceMetadataReferenceCollectionType aCollectionType = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aServiceGroup))
+      // Only document types with endpoints are returned
+      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesWithEndpointsOfServiceGroup (aServiceGroup)
+                                                                     .keySet ())
       {
-        // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aServiceGroup,
-                                                                                                                           aDocTypeID);
-        if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
-        {
-          final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
-          aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
-                                                                                          aDocTypeID));
-          aCollectionType.addServiceMetadataReference (aMetadataReference);
-        }
+        final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
+        aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
+                                                                                        aDocTypeID));
+        aCollectionType.addServiceMetadataReference (aMetadataReference);
       }
       aSG.setServiceMetadataReferenceCollection (aCollectionType);
 
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import com.helger.commons.callback.ICallback;
+
+/**
+ * Callback interface that is invoked after the key store or trust store
+ * configuration was reloaded. Use this to drop all objects derived from the
+ * previous key material.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public interface ISMPCryptoReloadCallback extends ICallback
+{
+  /**
+   * Invoked after the key store or trust store was (re-)loaded from the
+   * configuration.
+   */
+  void onCryptoConfigurationReloaded ();
+}
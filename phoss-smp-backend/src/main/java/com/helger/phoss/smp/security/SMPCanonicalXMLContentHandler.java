@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.XMLConstants;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsTreeMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsSortedMap;
+import com.helger.commons.string.StringHelper;
+
+/**
+ * A SAX {@link org.xml.sax.ContentHandler} that writes the received document
+ * directly in the form of Canonical XML 1.0 (inclusive, without comments), so
+ * that no DOM needs to be built. For complete documents this is identical to
+ * Canonical XML 1.1. The end tag of the document element is not written by
+ * this class, but passed to an {@link IRootEndCallback} instead, so that e.g.
+ * an enveloped signature can be inserted.<br>
+ * Attributes in the <code>xml</code> namespace are not supported on the
+ * document element, because they would be inherited by a signature inside it.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@NotThreadSafe
+final class SMPCanonicalXMLContentHandler extends DefaultHandler
+{
+  /**
+   * Callback interface invoked instead of writing the end tag of the document
+   * element.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  interface IRootEndCallback
+  {
+    /**
+     * @param sEndTag
+     *        The canonical end tag of the document element. Never
+     *        <code>null</code>.
+     * @param aRootNamespaces
+     *        All namespace declarations rendered on the document element
+     *        (prefix to URI, the default namespace uses the empty prefix).
+     *        Never <code>null</code>.
+     * @throws SAXException
+     *         In case of error
+     */
+    void onRootEnd (@Nonnull String sEndTag, @Nonnull Map <String, String> aRootNamespaces) throws SAXException;
+  }
+
+  private static final class CanonicalAttr
+  {
+    private final String m_sNamespaceURI;
+    private final String m_sLocalName;
+    private final String m_sQName;
+    private final String m_sValue;
+
+    CanonicalAttr (@Nonnull final String sNamespaceURI,
+                   @Nonnull final String sLocalName,
+                   @Nonnull final String sQName,
+                   @Nonnull final String sValue)
+    {
+      m_sNamespaceURI = sNamespaceURI;
+      m_sLocalName = sLocalName;
+      m_sQName = sQName;
+      m_sValue = sValue;
+    }
+  }
+
+  // Attributes are sorted by namespace URI first (no namespace first) and
+  // local name second
+  private static final Comparator <CanonicalAttr> ATTR_ORDER = Comparator.<CanonicalAttr, String> comparing (x -> x.m_sNamespaceURI)
+                                                                         .thenComparing (x -> x.m_sLocalName);
+
+  private final Writer m_aWriter;
+  private final IRootEndCallback m_aRootEndCallback;
+  // Namespace declarations reported for the next element, sorted by prefix
+  // with the default namespace first
+  private final ICommonsSortedMap <String, String> m_aPendingNS = new CommonsTreeMap <> ();
+  // The rendered namespace declarations in scope, per element level
+  private final ICommonsList <ICommonsMap <String, String>> m_aNSStack = new CommonsArrayList <> ();
+  private final ICommonsList <String> m_aEndTags = new CommonsArrayList <> ();
+  private boolean m_bRootClosed = false;
+
+  SMPCanonicalXMLContentHandler (@Nonnull final Writer aWriter, @Nonnull final IRootEndCallback aRootEndCallback)
+  {
+    ValueEnforcer.notNull (aWriter, "Writer");
+    ValueEnforcer.notNull (aRootEndCallback, "RootEndCallback");
+    m_aWriter = aWriter;
+    m_aRootEndCallback = aRootEndCallback;
+  }
+
+  /**
+   * @return <code>true</code> if the end of the document element was reached.
+   */
+  boolean isRootClosed ()
+  {
+    return m_bRootClosed;
+  }
+
+  private void _write (@Nonnull final String s) throws SAXException
+  {
+    try
+    {
+      m_aWriter.write (s);
+    }
+    catch (final IOException ex)
+    {
+      throw new SAXException ("Failed to write canonical XML", ex);
+    }
+  }
+
+  @Nonnull
+  static String getEscapedText (@Nonnull final String s)
+  {
+    final StringBuilder aSB = new StringBuilder (s.length () + 16);
+    for (final char c : s.toCharArray ())
+      switch (c)
+      {
+        case '&':
+          aSB.append ("&amp;");
+          break;
+        case '<':
+          aSB.append ("&lt;");
+          break;
+        case '>':
+          aSB.append ("&gt;");
+          break;
+        case '\r':
+          aSB.append ("&#xD;");
+          break;
+        default:
+          aSB.append (c);
+      }
+    return aSB.toString ();
+  }
+
+  @Nonnull
+  static String getEscapedAttrValue (@Nonnull final String s)
+  {
+    final StringBuilder aSB = new StringBuilder (s.length () + 16);
+    for (final char c : s.toCharArray ())
+      switch (c)
+      {
+        case '&':
+          aSB.append ("&amp;");
+          break;
+        case '<':
+          aSB.append ("&lt;");
+          break;
+        case '"':
+          aSB.append ("&quot;");
+          break;
+        case '\t':
+          aSB.append ("&#x9;");
+          break;
+        case '\n':
+          aSB.append ("&#xA;");
+          break;
+        case '\r':
+          aSB.append ("&#xD;");
+          break;
+        default:
+          aSB.append (c);
+      }
+    return aSB.toString ();
+  }
+
+  @Nonnull
+  private static String _getQName (@Nonnull final String sNamespaceURI,
+                                    @Nonnull final String sLocalName,
+                                    @Nullable final String sQName,
+                                    @Nonnull final Map <String, String> aInScope,
+                                    final boolean bIsAttribute) throws SAXException
+  {
+    if (StringHelper.hasText (sQName))
+      return sQName;
+    if (sNamespaceURI.isEmpty ())
+      return sLocalName;
+    if (XMLConstants.XML_NS_URI.equals (sNamespaceURI))
+      return XMLConstants.XML_NS_PREFIX + ":" + sLocalName;
+    for (final Map.Entry <String, String> aEntry : aInScope.entrySet ())
+      if (aEntry.getValue ().equals (sNamespaceURI) && (!bIsAttribute || !aEntry.getKey ().isEmpty ()))
+        return aEntry.getKey ().isEmpty () ? sLocalName : aEntry.getKey () + ":" + sLocalName;
+    throw new SAXException ("No prefix is bound to namespace URI '" + sNamespaceURI + "'");
+  }
+
+  @Override
+  public void startPrefixMapping (@Nullable final String sPrefix, @Nullable final String sURI)
+  {
+    m_aPendingNS.put (StringHelper.getNotNull (sPrefix), StringHelper.getNotNull (sURI));
+  }
+
+  @Override
+  public void startElement (@Nullable final String sURI,
+                            @Nonnull final String sLocalName,
+                            @Nullable final String sQName,
+                            @Nonnull final Attributes aAttrs) throws SAXException
+  {
+    if (m_bRootClosed)
+      throw new SAXException ("Only a single document element is supported");
+
+    final boolean bIsRoot = m_aNSStack.isEmpty ();
+    final ICommonsMap <String, String> aParentNS = bIsRoot ? new CommonsHashMap <> () : m_aNSStack.getLastOrNull ();
+    final ICommonsMap <String, String> aInScope = aParentNS.getClone ();
+
+    // Only namespace declarations that differ from the output parent are
+    // rendered
+    final StringBuilder aSB = new StringBuilder ();
+    for (final Map.Entry <String, String> aEntry : m_aPendingNS.entrySet ())
+    {
+      final String sPrefix = aEntry.getKey ();
+      final String sNSURI = aEntry.getValue ();
+      if (XMLConstants.XML_NS_PREFIX.equals (sPrefix))
+        continue;
+      if (!sPrefix.isEmpty () && sNSURI.isEmpty ())
+      {
+        // Undeclaring a prefix is not possible in XML 1.0
+        continue;
+      }
+      if (!sNSURI.equals (aParentNS.getOrDefault (sPrefix, "")))
+      {
+        aSB.append (sPrefix.isEmpty () ? " xmlns" : " xmlns:" + sPrefix)
+           .append ("=\"")
+           .append (getEscapedAttrValue (sNSURI))
+           .append ('"');
+      }
+      if (sNSURI.isEmpty ())
+        aInScope.remove (sPrefix);
+      else
+        aInScope.put (sPrefix, sNSURI);
+    }
+    m_aPendingNS.clear ();
+
+    final String sNSURI = StringHelper.getNotNull (sURI);
+    final String sElementName = _getQName (sNSURI, sLocalName, sQName, aInScope, false);
+
+    final ICommonsList <CanonicalAttr> aSortedAttrs = new CommonsArrayList <> (aAttrs.getLength ());
+    for (int i = 0; i < aAttrs.getLength (); ++i)
+    {
+      final String sAttrQName = aAttrs.getQName (i);
+      // Namespace declarations are reported via startPrefixMapping
+      if (sAttrQName != null && (sAttrQName.equals ("xmlns") || sAttrQName.startsWith ("xmlns:")))
+        continue;
+      final String sAttrNSURI = StringHelper.getNotNull (aAttrs.getURI (i));
+      if (bIsRoot && XMLConstants.XML_NS_URI.equals (sAttrNSURI))
+        throw new SAXException ("Attributes in the xml namespace are not supported on the document element");
+      final String sAttrLocalName = StringHelper.hasText (aAttrs.getLocalName (i)) ? aAttrs.getLocalName (i)
+                                                                                   : sAttrQName;
+      aSortedAttrs.add (new CanonicalAttr (sAttrNSURI,
+                                           sAttrLocalName,
+                                           _getQName (sAttrNSURI, sAttrLocalName, sAttrQName, aInScope, true),
+                                           aAttrs.getValue (i)));
+    }
+    aSortedAttrs.sort (ATTR_ORDER);
+    for (final CanonicalAttr aAttr : aSortedAttrs)
+      aSB.append (' ').append (aAttr.m_sQName).append ("=\"").append (getEscapedAttrValue (aAttr.m_sValue)).append ('"');
+
+    _write ("<" + sElementName + aSB.toString () + ">");
+
+    m_aNSStack.add (aInScope);
+    m_aEndTags.add ("</" + sElementName + ">");
+  }
+
+  @Override
+  public void endElement (@Nullable final String sURI,
+                          @Nonnull final String sLocalName,
+                          @Nullable final String sQName) throws SAXException
+  {
+    final String sEndTag = m_aEndTags.removeLastOrNull ();
+    final ICommonsMap <String, String> aNS = m_aNSStack.removeLastOrNull ();
+    if (m_aEndTags.isEmpty ())
+    {
+      // End of the document element
+      try
+      {
+        m_aWriter.flush ();
+      }
+      catch (final IOException ex)
+      {
+        throw new SAXException ("Failed to write canonical XML", ex);
+      }
+      m_bRootClosed = true;
+      m_aRootEndCallback.onRootEnd (sEndTag, aNS);
+    }
+    else
+      _write (sEndTag);
+  }
+
+  @Override
+  public void characters (@Nonnull final char [] aChars, final int nStart, final int nLength) throws SAXException
+  {
+    // Text outside of the document element is not part of the canonical form
+    if (!m_aEndTags.isEmpty ())
+      _write (getEscapedText (new String (aChars, nStart, nLength)));
+  }
+
+  @Override
+  public void ignorableWhitespace (@Nonnull final char [] aChars,
+                                   final int nStart,
+                                   final int nLength) throws SAXException
+  {
+    characters (aChars, nStart, nLength);
+  }
+
+  @Override
+  public void processingInstruction (@Nonnull final String sTarget, @Nullable final String sData) throws SAXException
+  {
+    if (m_aEndTags.isEmpty ())
+      throw new SAXException ("Processing instructions outside of the document element are not supported");
+    _write ("<?" + sTarget + (StringHelper.hasText (sData) ? " " + sData : "") + "?>");
+  }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.annotation.ReturnsMutableObject;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.security.certificate.CertificateHelper;
+import com.helger.smpclient.json.SMPJsonResponse;
+
+/**
+ * A shared, size bound cache for certificates, keyed by the textual
+ * representation of the certificate. In Peppol a very large number of
+ * endpoints uses the same few Access Point certificates, so this cache is used
+ * to
+ * <ul>
+ * <li>share one String instance for all equal certificate strings in
+ * memory</li>
+ * <li>parse each certificate only once</li>
+ * <li>create the different encoded forms needed in the responses only
+ * once</li>
+ * </ul>
+ * The parsing is performed lazily on first access, so interning a certificate
+ * string is cheap.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPCertificateCache
+{
+  /**
+   * The parsed and encoded forms of a single certificate.
+   */
+  @Immutable
+  private static final class ParsedForms
+  {
+    private final X509Certificate m_aX509Cert;
+    private final String m_sRFC1421String;
+    private final byte [] m_aBytes;
+    private final byte [] m_aEncoded;
+
+    ParsedForms (@Nonnull final String sCertificate)
+    {
+      m_aX509Cert = CertificateHelper.convertStringToCertficateOrNull (sCertificate);
+      // For compatibility, don't add BEGIN_CERTIFCATE and END_CERTIFICATE
+      // For .NET compatibility only use "\n" as line separator
+      m_sRFC1421String = CertificateHelper.getRFC1421CompliantString (sCertificate, false, "\n");
+      m_aBytes = CertificateHelper.convertCertificateStringToByteArray (sCertificate);
+      m_aEncoded = m_aX509Cert == null ? null : CertificateHelper.getEncodedCertificate (m_aX509Cert);
+    }
+  }
+
+  /**
+   * A single cached certificate.
+   */
+  @ThreadSafe
+  public static final class CachedCertificate
+  {
+    private final String m_sCertificate;
+    // Lazily initialized - concurrent initialization is harmless
+    private volatile ParsedForms m_aParsedForms;
+    private volatile IJsonObject m_aJson;
+
+    CachedCertificate (@Nonnull final String sCertificate)
+    {
+      m_sCertificate = sCertificate;
+    }
+
+    @Nonnull
+    private ParsedForms _getParsedForms ()
+    {
+      ParsedForms ret = m_aParsedForms;
+      if (ret == null)
+      {
+        ret = new ParsedForms (m_sCertificate);
+        m_aParsedForms = ret;
+      }
+      return ret;
+    }
+
+    /**
+     * @return The certificate string, as used as the cache key. Never
+     *         <code>null</code>.
+     */
+    @Nonnull
+    public String getCertificateString ()
+    {
+      return m_sCertificate;
+    }
+
+    /**
+     * @return The parsed certificate or <code>null</code> if the string could
+     *         not be parsed.
+     */
+    @Nullable
+    public X509Certificate getX509Certificate ()
+    {
+      return _getParsedForms ().m_aX509Cert;
+    }
+
+    /**
+     * @return The RFC 1421 compliant string without the BEGIN and END lines
+     *         and with "\n" as the line separator, as used in the Peppol SMP
+     *         responses. May be <code>null</code>.
+     */
+    @Nullable
+    public String getRFC1421CompliantString ()
+    {
+      return _getParsedForms ().m_sRFC1421String;
+    }
+
+    /**
+     * @return The Base64 decoded bytes of the certificate string, as used in
+     *         the OASIS BDXR SMP v1 responses. May be <code>null</code>. The
+     *         returned array is shared and MUST NOT be modified.
+     */
+    @Nullable
+    @ReturnsMutableObject ("performance")
+    public byte [] getAsByteArray ()
+    {
+      return _getParsedForms ().m_aBytes;
+    }
+
+    /**
+     * @return The DER encoded certificate, as used in the OASIS BDXR SMP v2
+     *         responses or <code>null</code> if the string could not be parsed.
+     *         The returned array is shared and MUST NOT be modified.
+     */
+    @Nullable
+    @ReturnsMutableObject ("performance")
+    public byte [] getEncoded ()
+    {
+      return _getParsedForms ().m_aEncoded;
+    }
+
+    /**
+     * @return The certificate details as created by
+     *         {@link SMPJsonResponse#convertCertificate(IJsonObject, String)}.
+     *         Never <code>null</code>.
+     */
+    @Nonnull
+    @ReturnsMutableCopy
+    public IJsonObject getAsJson ()
+    {
+      IJsonObject ret = m_aJson;
+      if (ret == null)
+      {
+        ret = new JsonObject ();
+        SMPJsonResponse.convertCertificate (ret, m_sCertificate);
+        m_aJson = ret;
+      }
+      return ret.getClone ();
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("Certificate", m_sCertificate).getToString ();
+    }
+  }
+
+  private static final class SingletonHolder
+  {
+    static final SMPCertificateCache INSTANCE = new SMPCertificateCache (SMPServerConfiguration.getCertificateCacheMaxEntries ());
+  }
+
+  private final int m_nMaxEntries;
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  // Access ordered to have LRU semantics
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, CachedCertificate> m_aMap;
+
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+
+  /**
+   * Constructor
+   *
+   * @param nMaxEntries
+   *        The maximum number of certificates to keep. Must be &gt; 0.
+   */
+  public SMPCertificateCache (@Nonnegative final int nMaxEntries)
+  {
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    m_nMaxEntries = nMaxEntries;
+    m_aMap = new LinkedHashMap <> (16, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry (@Nonnull final Map.Entry <String, CachedCertificate> aEldest)
+      {
+        return size () > m_nMaxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return The global instance. Never <code>null</code>.
+   */
+  @Nonnull
+  public static SMPCertificateCache getInstance ()
+  {
+    return SingletonHolder.INSTANCE;
+  }
+
+  /**
+   * Get the cached certificate for the provided string. If it is not yet
+   * contained, it is added.
+   *
+   * @param sCertificate
+   *        The certificate string (with or without the PEM header and footer).
+   *        May be <code>null</code>.
+   * @return <code>null</code> if the provided string is <code>null</code> or
+   *         empty.
+   */
+  @Nullable
+  public CachedCertificate get (@Nullable final String sCertificate)
+  {
+    if (StringHelper.hasNoText (sCertificate))
+      return null;
+
+    return m_aRWLock.writeLockedGet ( () -> {
+      CachedCertificate ret = m_aMap.get (sCertificate);
+      if (ret != null)
+      {
+        m_aHits.incrementAndGet ();
+      }
+      else
+      {
+        m_aMisses.incrementAndGet ();
+        ret = new CachedCertificate (sCertificate);
+        m_aMap.put (sCertificate, ret);
+      }
+      return ret;
+    });
+  }
+
+  /**
+   * Get the shared String instance for the provided certificate string.
+   *
+   * @param sCertificate
+   *        The certificate string. May be <code>null</code>.
+   * @return A String equal to the provided one. <code>null</code> only if the
+   *         parameter is <code>null</code>.
+   */
+  @Nullable
+  public String getInterned (@Nullable final String sCertificate)
+  {
+    final CachedCertificate aCached = get (sCertificate);
+    return aCached != null ? aCached.getCertificateString () : sCertificate;
+  }
+
+  /**
+   * Get the parsed certificate for the provided certificate string.
+   *
+   * @param sCertificate
+   *        The certificate string. May be <code>null</code>.
+   * @return <code>null</code> if the parameter is <code>null</code>, empty or
+   *         cannot be parsed.
+   */
+  @Nullable
+  public X509Certificate getX509Certificate (@Nullable final String sCertificate)
+  {
+    final CachedCertificate aCached = get (sCertificate);
+    return aCached != null ? aCached.getX509Certificate () : null;
+  }
+
+  /**
+   * @return The maximum number of certificates in this cache. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxEntries ()
+  {
+    return m_nMaxEntries;
+  }
+
+  /**
+   * @return The current number of certificates in this cache.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  /**
+   * Remove all entries from the cache.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked (m_aMap::clear);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxEntries", m_nMaxEntries)
+                                       .append ("Size", getSize ())
+                                       .getToString ();
+  }
+}
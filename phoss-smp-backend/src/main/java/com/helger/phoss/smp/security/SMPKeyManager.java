@@ -16,7 +16,12 @@ import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -25,36 +30,25 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.xml.crypto.MarshalException;
-import javax.xml.crypto.dsig.CanonicalizationMethod;
-import javax.xml.crypto.dsig.DigestMethod;
-import javax.xml.crypto.dsig.Reference;
-import javax.xml.crypto.dsig.SignatureMethod;
-import javax.xml.crypto.dsig.SignedInfo;
-import javax.xml.crypto.dsig.Transform;
-import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.crypto.dsig.XMLSignatureException;
-import javax.xml.crypto.dsig.XMLSignatureFactory;
-import javax.xml.crypto.dsig.dom.DOMSignContext;
-import javax.xml.crypto.dsig.keyinfo.KeyInfo;
-import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
-import javax.xml.crypto.dsig.keyinfo.X509Data;
-import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
-import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
-import javax.xml.crypto.dsig.spec.TransformParameterSpec;
-
-import org.apache.xml.security.c14n.Canonicalizer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
 
 import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.annotation.UsedViaReflection;
-import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
 import com.helger.commons.exception.InitializationException;
+import com.helger.commons.functional.IThrowingConsumer;
 import com.helger.commons.ws.TrustManagerTrustAll;
 import com.helger.peppol.utils.PeppolKeyStoreHelper;
 import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.scope.IScope;
 import com.helger.scope.singleton.AbstractGlobalSingleton;
 import com.helger.security.keystore.EKeyStoreLoadError;
 import com.helger.security.keystore.KeyStoreHelper;
@@ -72,11 +66,16 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPKeyManager.class);
 
   private static final AtomicBoolean KEY_STORE_VALID = new AtomicBoolean (false);
+  private static final CallbackList <ISMPCryptoReloadCallback> RELOAD_CALLBACKS = new CallbackList <> ();
   private static EKeyStoreLoadError s_eInitError;
   private static String s_sInitError;
 
   private KeyStore m_aKeyStore;
   private KeyStore.PrivateKeyEntry m_aKeyEntry;
+  // Recreated on every (re)load of the key store
+  private volatile SMPXMLSigner m_aSigner;
+  // Optional, only if dedicated signing threads are configured
+  private ExecutorService m_aSigningExecutor;
 
   private static void _setKeyStoreValid (final boolean bValid)
   {
@@ -96,6 +95,7 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     _loadError (null, null);
     m_aKeyStore = null;
     m_aKeyEntry = null;
+    m_aSigner = null;
 
     // Load the key store and get the signing key
     final LoadedKeyStore aLoadedKeyStore = KeyStoreHelper.loadKeyStore (SMPServerConfiguration.getKeyStoreType (),
@@ -119,6 +119,11 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     }
 
     m_aKeyEntry = aLoadedKey.getKeyEntry ();
+    final Certificate aCert = m_aKeyEntry.getCertificate ();
+    if (aCert instanceof X509Certificate)
+      m_aSigner = new SMPXMLSigner (m_aKeyEntry.getPrivateKey (), (X509Certificate) aCert);
+    else
+      LOGGER.warn ("The configured key has no X.509 certificate - signing responses is not possible");
     LOGGER.info ("SMPKeyManager successfully initialized with keystore '" +
                  SMPServerConfiguration.getKeyStorePath () +
                  "' and alias '" +
@@ -135,6 +140,28 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
   public SMPKeyManager ()
   {
     _loadKeyStore ();
+
+    final int nSigningThreads = SMPServerConfiguration.getSigningThreads ();
+    if (nSigningThreads > 0)
+    {
+      final AtomicInteger aThreadIndex = new AtomicInteger (0);
+      m_aSigningExecutor = Executors.newFixedThreadPool (nSigningThreads, r -> {
+        final Thread aThread = new Thread (r, "smp-sign-" + aThreadIndex.incrementAndGet ());
+        aThread.setDaemon (true);
+        return aThread;
+      });
+      LOGGER.info ("Using " + nSigningThreads + " dedicated thread(s) for XML signing");
+    }
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction)
+  {
+    if (m_aSigningExecutor != null)
+    {
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (m_aSigningExecutor);
+      m_aSigningExecutor = null;
+    }
   }
 
   @Nonnull
@@ -241,71 +268,111 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     ValueEnforcer.notNull (aElementToSign, "ElementToSign");
     ValueEnforcer.notNull (eRESTType, "RESTType");
 
-    // Create a DOM XMLSignatureFactory that will be used to
-    // generate the enveloped signature.
-    final XMLSignatureFactory aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
-
-    // Create a Reference to the enveloped document (in this case,
-    // you are signing the whole document, so a URI of "" signifies
-    // that, and also specify the SHA1 digest algorithm and
-    // the ENVELOPED Transform)
-    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
-    final String sDigestAlgo = DigestMethod.SHA256;
-    final Reference aReference = aSignatureFactory.newReference ("",
-                                                                 aSignatureFactory.newDigestMethod (sDigestAlgo, null),
-                                                                 new CommonsArrayList <> (aSignatureFactory.newTransform (Transform.ENVELOPED,
-                                                                                                                          (TransformParameterSpec) null)),
-                                                                 (String) null,
-                                                                 (String) null);
-
-    // Create the SignedInfo.
-    // * Before Peppol SMP Spec 1.2.0 this was EXCLUSIVE, since 1.2.0 it is
-    // INCLUSIVE as of May 1st, 2022
-    // * OASIS BDXR always used INCLUSIVE
-    // * CIPA and this server always used INCLUSIVE, but this was changed for
-    // 5.0.1 to EXCLUSIVE
-    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
-    final String sC18N;
-    final String sSignatureMethod;
-    switch (eRESTType)
+    final SMPXMLSigner aSigner = m_aSigner;
+    if (aSigner == null)
+      throw new XMLSignatureException ("No signing key with an X.509 certificate is available");
+
+    final ExecutorService aSigningExecutor = m_aSigningExecutor;
+    if (aSigningExecutor == null)
     {
-      case PEPPOL:
-        sC18N = CanonicalizationMethod.INCLUSIVE;
-        sSignatureMethod = SignatureMethod.RSA_SHA256;
-        break;
-      case OASIS_BDXR_V1:
-        sC18N = CanonicalizationMethod.INCLUSIVE;
-        sSignatureMethod = SignatureMethod.RSA_SHA256;
-        break;
-      case OASIS_BDXR_V2:
-        sC18N = Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
-        sSignatureMethod = SignatureMethod.RSA_SHA256;
-        break;
-      default:
-        throw new IllegalStateException ("Unsupported REST type");
+      // Sign in the calling thread
+      aSigner.signXML (aElementToSign, eRESTType);
+      return;
+    }
+
+    // The calling thread is blocked until the signature is created, so the
+    // DOM is never accessed concurrently
+    final Future <?> aFuture = aSigningExecutor.submit ( () -> {
+      aSigner.signXML (aElementToSign, eRESTType);
+      return null;
+    });
+    try
+    {
+      aFuture.get ();
+    }
+    catch (final InterruptedException ex)
+    {
+      aFuture.cancel (true);
+      Thread.currentThread ().interrupt ();
+      throw new XMLSignatureException ("Interrupted while waiting for the signature", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      final Throwable aCause = ex.getCause ();
+      if (aCause instanceof NoSuchAlgorithmException)
+        throw (NoSuchAlgorithmException) aCause;
+      if (aCause instanceof InvalidAlgorithmParameterException)
+        throw (InvalidAlgorithmParameterException) aCause;
+      if (aCause instanceof MarshalException)
+        throw (MarshalException) aCause;
+      if (aCause instanceof XMLSignatureException)
+        throw (XMLSignatureException) aCause;
+      if (aCause instanceof RuntimeException)
+        throw (RuntimeException) aCause;
+      throw new XMLSignatureException ("Failed to sign XML", aCause);
     }
-    final SignedInfo aSingedInfo = aSignatureFactory.newSignedInfo (aSignatureFactory.newCanonicalizationMethod (sC18N,
-                                                                                                                 (C14NMethodParameterSpec) null),
-                                                                    aSignatureFactory.newSignatureMethod (sSignatureMethod,
-                                                                                                          (SignatureMethodParameterSpec) null),
-                                                                    new CommonsArrayList <> (aReference));
-
-    // Create the KeyInfo containing the X509Data.
-    final KeyInfoFactory aKeyInfoFactory = aSignatureFactory.getKeyInfoFactory ();
-    final X509Certificate aCert = (X509Certificate) m_aKeyEntry.getCertificate ();
-    final X509Data aX509Data = aKeyInfoFactory.newX509Data (new CommonsArrayList <> (aCert.getSubjectX500Principal ()
-                                                                                          .getName (), aCert));
-    final KeyInfo aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
-
-    // Create a DOMSignContext and specify the RSA PrivateKey and
-    // location of the resulting XMLSignature's parent element.
-    final DOMSignContext aSignContext = new DOMSignContext (m_aKeyEntry.getPrivateKey (), aElementToSign);
-
-    // Create the XMLSignature, but don't sign it yet.
-    final XMLSignature aSignature = aSignatureFactory.newXMLSignature (aSingedInfo, aKeyInfo);
-
-    // Marshal, generate, and sign the enveloped signature.
-    aSignature.sign (aSignContext);
+  }
+
+  /**
+   * Create a signed XML document with the configured certificate, without
+   * building a DOM. See
+   * {@link SMPXMLSigner#createSignedXML(ESMPRESTType, IThrowingConsumer)} for
+   * details.
+   *
+   * @param eRESTType
+   *        The REST type current configured. May not be <code>null</code>.
+   * @param aDocumentWriter
+   *        The writer of the unsigned document as SAX events. May not be
+   *        <code>null</code>.
+   * @return The serialized signed document. Never <code>null</code>.
+   * @throws XMLSignatureException
+   *         If writing the document or creating the signature failed
+   * @since 7.1.4
+   */
+  @Nonnull
+  public byte [] createSignedXML (@Nonnull final ESMPRESTType eRESTType,
+                                  @Nonnull final IThrowingConsumer <? super ContentHandler, ? extends Exception> aDocumentWriter) throws XMLSignatureException
+  {
+    final SMPXMLSigner aSigner = m_aSigner;
+    if (aSigner == null)
+      throw new XMLSignatureException ("No signing key with an X.509 certificate is available");
+
+    final ExecutorService aSigningExecutor = m_aSigningExecutor;
+    if (aSigningExecutor == null)
+      return aSigner.createSignedXML (eRESTType, aDocumentWriter);
+
+    final Future <byte []> aFuture = aSigningExecutor.submit ( () -> aSigner.createSignedXML (eRESTType,
+                                                                                              aDocumentWriter));
+    try
+    {
+      return aFuture.get ();
+    }
+    catch (final InterruptedException ex)
+    {
+      aFuture.cancel (true);
+      Thread.currentThread ().interrupt ();
+      throw new XMLSignatureException ("Interrupted while waiting for the signature", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      final Throwable aCause = ex.getCause ();
+      if (aCause instanceof XMLSignatureException)
+        throw (XMLSignatureException) aCause;
+      if (aCause instanceof RuntimeException)
+        throw (RuntimeException) aCause;
+      throw new XMLSignatureException ("Failed to create the signed XML", aCause);
+    }
+  }
+
+  /**
+   * @return The signer for the currently loaded key. May be <code>null</code>
+   *         if loading failed.
+   * @since 7.1.4
+   */
+  @Nullable
+  public SMPXMLSigner getXMLSigner ()
+  {
+    return m_aSigner;
   }
 
   /**
@@ -342,6 +409,19 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     return s_sInitError;
   }
 
+  /**
+   * @return The callbacks that are invoked after
+   *         {@link #reloadFromConfiguration()} was called. Never
+   *         <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  @ReturnsMutableObject
+  public static CallbackList <ISMPCryptoReloadCallback> reloadCallbacks ()
+  {
+    return RELOAD_CALLBACKS;
+  }
+
   public static void reloadFromConfiguration ()
   {
     try
@@ -359,5 +439,7 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     {
       LOGGER.error ("Failed to reload from configuration", ex);
     }
+    // Invoke even in case of error, because the old key is gone
+    RELOAD_CALLBACKS.forEach (ISMPCryptoReloadCallback::onCryptoConfigurationReloaded);
   }
 }
@@ -0,0 +1,493 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.crypto.MarshalException;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureException;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.w3c.dom.Element;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.functional.IThrowingConsumer;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.wrapper.Wrapper;
+import com.helger.phoss.smp.ESMPRESTType;
+
+/**
+ * A reusable XMLDSig signer for a single private key. All parts of the
+ * enveloped signature that don't depend on the document being signed are
+ * determined once per {@link ESMPRESTType} when this object is created. The
+ * {@link XMLSignatureFactory} and the XML structures created by it are not
+ * thread-safe (e.g. the signature method keeps its JCA engine), so they are
+ * kept per thread. A new instance must be created whenever the key changes.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPXMLSigner
+{
+  /**
+   * The algorithms to be used for a single REST type.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  private static final class SigningAlgorithms
+  {
+    private final String m_sDigestAlgo;
+    private final String m_sC14NAlgo;
+    private final String m_sSignatureAlgo;
+    // The JCA names are only needed for streaming signing
+    private final String m_sDigestJCAName;
+    private final String m_sSignatureJCAName;
+    // The canonical SignedInfo content, without the digest value
+    private final String m_sSignedInfoPrefix;
+    private final String m_sSignedInfoSuffix;
+
+    SigningAlgorithms (@Nonnull @Nonempty final String sDigestAlgo,
+                       @Nonnull @Nonempty final String sC14NAlgo,
+                       @Nonnull @Nonempty final String sSignatureAlgo,
+                       @Nonnull @Nonempty final String sDigestJCAName,
+                       @Nonnull @Nonempty final String sSignatureJCAName)
+    {
+      m_sDigestAlgo = sDigestAlgo;
+      m_sC14NAlgo = sC14NAlgo;
+      m_sSignatureAlgo = sSignatureAlgo;
+      m_sDigestJCAName = sDigestJCAName;
+      m_sSignatureJCAName = sSignatureJCAName;
+      m_sSignedInfoPrefix = "<CanonicalizationMethod Algorithm=\"" +
+                            sC14NAlgo +
+                            "\"></CanonicalizationMethod><SignatureMethod Algorithm=\"" +
+                            sSignatureAlgo +
+                            "\"></SignatureMethod><Reference URI=\"\"><Transforms><Transform Algorithm=\"" +
+                            Transform.ENVELOPED +
+                            "\"></Transform></Transforms><DigestMethod Algorithm=\"" +
+                            sDigestAlgo +
+                            "\"></DigestMethod><DigestValue>";
+      m_sSignedInfoSuffix = "</DigestValue></Reference>";
+    }
+  }
+
+  /**
+   * The XML structures of a single REST type, created by the
+   * {@link XMLSignatureFactory} of the current thread.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  private static final class PreparedSignature
+  {
+    private final DigestMethod m_aDigestMethod;
+    private final List <Transform> m_aTransforms;
+    private final CanonicalizationMethod m_aC14NMethod;
+    private final SignatureMethod m_aSignatureMethod;
+    private final KeyInfo m_aKeyInfo;
+
+    PreparedSignature (@Nonnull final XMLSignatureFactory aSignatureFactory,
+                       @Nonnull final SigningAlgorithms aAlgorithms,
+                       @Nonnull final List <?> aX509Content) throws NoSuchAlgorithmException,
+                                                             InvalidAlgorithmParameterException
+    {
+      m_aDigestMethod = aSignatureFactory.newDigestMethod (aAlgorithms.m_sDigestAlgo, null);
+      m_aTransforms = new CommonsArrayList <> (aSignatureFactory.newTransform (Transform.ENVELOPED,
+                                                                              (TransformParameterSpec) null));
+      m_aC14NMethod = aSignatureFactory.newCanonicalizationMethod (aAlgorithms.m_sC14NAlgo,
+                                                                  (C14NMethodParameterSpec) null);
+      m_aSignatureMethod = aSignatureFactory.newSignatureMethod (aAlgorithms.m_sSignatureAlgo,
+                                                                (SignatureMethodParameterSpec) null);
+
+      // Create the KeyInfo containing the X509Data.
+      final KeyInfoFactory aKeyInfoFactory = aSignatureFactory.getKeyInfoFactory ();
+      final X509Data aX509Data = aKeyInfoFactory.newX509Data (aX509Content);
+      m_aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
+    }
+  }
+
+  /**
+   * All the per-thread state.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  private static final class PerThreadState
+  {
+    // Create a DOM XMLSignatureFactory that will be used to
+    // generate the enveloped signature.
+    private final XMLSignatureFactory m_aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
+    private final Map <ESMPRESTType, PreparedSignature> m_aPrepared = new EnumMap <> (ESMPRESTType.class);
+    // JCA engines for streaming signing, by algorithm name
+    private final Map <String, MessageDigest> m_aDigests = new HashMap <> ();
+    private final Map <String, Signature> m_aSignatures = new HashMap <> ();
+
+    @Nonnull
+    MessageDigest getMessageDigest (@Nonnull final String sAlgorithm) throws NoSuchAlgorithmException
+    {
+      MessageDigest ret = m_aDigests.get (sAlgorithm);
+      if (ret == null)
+      {
+        ret = MessageDigest.getInstance (sAlgorithm);
+        m_aDigests.put (sAlgorithm, ret);
+      }
+      else
+        ret.reset ();
+      return ret;
+    }
+
+    @Nonnull
+    Signature getSignature (@Nonnull final String sAlgorithm) throws NoSuchAlgorithmException
+    {
+      Signature ret = m_aSignatures.get (sAlgorithm);
+      if (ret == null)
+      {
+        ret = Signature.getInstance (sAlgorithm);
+        m_aSignatures.put (sAlgorithm, ret);
+      }
+      return ret;
+    }
+  }
+
+  private static final String XMLDSIG_NS = XMLSignature.XMLNS;
+  private static final byte [] XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>".getBytes (StandardCharsets.UTF_8);
+
+  private static final Map <ESMPRESTType, SigningAlgorithms> ALGORITHMS = new EnumMap <> (ESMPRESTType.class);
+  static
+  {
+    // Reference to the enveloped document
+    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
+    // SignedInfo
+    // * Before Peppol SMP Spec 1.2.0 this was EXCLUSIVE, since 1.2.0 it is
+    // INCLUSIVE as of May 1st, 2022
+    // * OASIS BDXR always used INCLUSIVE
+    // * CIPA and this server always used INCLUSIVE, but this was changed for
+    // 5.0.1 to EXCLUSIVE
+    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
+    for (final ESMPRESTType eRESTType : ESMPRESTType.values ())
+    {
+      final SigningAlgorithms aAlgorithms;
+      switch (eRESTType)
+      {
+        case PEPPOL:
+          aAlgorithms = new SigningAlgorithms (DigestMethod.SHA256,
+                                               CanonicalizationMethod.INCLUSIVE,
+                                               SignatureMethod.RSA_SHA256,
+                                               "SHA-256",
+                                               "SHA256withRSA");
+          break;
+        case OASIS_BDXR_V1:
+          aAlgorithms = new SigningAlgorithms (DigestMethod.SHA256,
+                                               CanonicalizationMethod.INCLUSIVE,
+                                               SignatureMethod.RSA_SHA256,
+                                               "SHA-256",
+                                               "SHA256withRSA");
+          break;
+        case OASIS_BDXR_V2:
+          aAlgorithms = new SigningAlgorithms (DigestMethod.SHA256,
+                                               Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS,
+                                               SignatureMethod.RSA_SHA256,
+                                               "SHA-256",
+                                               "SHA256withRSA");
+          break;
+        default:
+          throw new IllegalStateException ("Unsupported REST type " + eRESTType);
+      }
+      ALGORITHMS.put (eRESTType, aAlgorithms);
+    }
+  }
+
+  private final PrivateKey m_aPrivateKey;
+  private final X509Certificate m_aCertificate;
+  private final ICommonsList <Object> m_aX509Content;
+  // The serialized KeyInfo element for streaming signing
+  private final String m_sKeyInfoXML;
+  // Not static on purpose: a new signer (e.g. after a key reload) starts with
+  // fresh thread state, and the old one is garbage collected together with
+  // this object
+  private final ThreadLocal <PerThreadState> m_aPerThreadState = new ThreadLocal <> ();
+
+  /**
+   * Constructor
+   *
+   * @param aPrivateKey
+   *        The private key to sign with. May not be <code>null</code>.
+   * @param aCertificate
+   *        The certificate matching the private key. It is included in the
+   *        KeyInfo of each signature. May not be <code>null</code>.
+   */
+  public SMPXMLSigner (@Nonnull final PrivateKey aPrivateKey, @Nonnull final X509Certificate aCertificate)
+  {
+    ValueEnforcer.notNull (aPrivateKey, "PrivateKey");
+    ValueEnforcer.notNull (aCertificate, "Certificate");
+    m_aPrivateKey = aPrivateKey;
+    m_aCertificate = aCertificate;
+    // The subject name is identical for all signatures
+    final String sSubjectName = aCertificate.getSubjectX500Principal ().getName ();
+    m_aX509Content = new CommonsArrayList <> (sSubjectName, aCertificate);
+    try
+    {
+      m_sKeyInfoXML = "<KeyInfo><X509Data><X509SubjectName>" +
+                      SMPCanonicalXMLContentHandler.getEscapedText (sSubjectName) +
+                      "</X509SubjectName><X509Certificate>" +
+                      Base64.getEncoder ().encodeToString (aCertificate.getEncoded ()) +
+                      "</X509Certificate></X509Data></KeyInfo>";
+    }
+    catch (final CertificateEncodingException ex)
+    {
+      throw new IllegalArgumentException ("Failed to encode the signing certificate", ex);
+    }
+  }
+
+  /**
+   * @return The certificate included in each signature. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public X509Certificate getCertificate ()
+  {
+    return m_aCertificate;
+  }
+
+  @Nonnull
+  private PerThreadState _getPerThreadState ()
+  {
+    PerThreadState ret = m_aPerThreadState.get ();
+    if (ret == null)
+    {
+      ret = new PerThreadState ();
+      m_aPerThreadState.set (ret);
+    }
+    return ret;
+  }
+
+  @Nonnull
+  private PreparedSignature _getPreparedSignature (@Nonnull final ESMPRESTType eRESTType) throws NoSuchAlgorithmException,
+                                                                                          InvalidAlgorithmParameterException
+  {
+    final PerThreadState aState = _getPerThreadState ();
+    PreparedSignature ret = aState.m_aPrepared.get (eRESTType);
+    if (ret == null)
+    {
+      ret = new PreparedSignature (aState.m_aSignatureFactory, ALGORITHMS.get (eRESTType), m_aX509Content);
+      aState.m_aPrepared.put (eRESTType, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Sign the provided element using XMLDSig. The signature is appended as the
+   * last child of the provided element.
+   *
+   * @param aElementToSign
+   *        The XML element to sign. May not be <code>null</code>.
+   * @param eRESTType
+   *        The REST type current configured. This differences are the hash
+   *        algorithm as well as the canonicalization algorithms.
+   * @throws NoSuchAlgorithmException
+   *         An algorithm is not supported by the underlying platform.
+   * @throws InvalidAlgorithmParameterException
+   *         Parameters for certain algorithms are invalid.
+   * @throws MarshalException
+   *         Marshalling the signature failed
+   * @throws XMLSignatureException
+   *         Some XMLDSig specific stuff failed
+   */
+  public void signXML (@Nonnull final Element aElementToSign, @Nonnull final ESMPRESTType eRESTType)
+                                                                                                     throws NoSuchAlgorithmException,
+                                                                                                     InvalidAlgorithmParameterException,
+                                                                                                     MarshalException,
+                                                                                                     XMLSignatureException
+  {
+    ValueEnforcer.notNull (aElementToSign, "ElementToSign");
+    ValueEnforcer.notNull (eRESTType, "RESTType");
+
+    final PreparedSignature aPrepared = _getPreparedSignature (eRESTType);
+    final XMLSignatureFactory aSignatureFactory = m_aPerThreadState.get ().m_aSignatureFactory;
+
+    // Reference and SignedInfo keep the digest and signature values, so they
+    // need to be created for every document. Signing the whole document, so a
+    // URI of "" signifies that.
+    final Reference aReference = aSignatureFactory.newReference ("",
+                                                                 aPrepared.m_aDigestMethod,
+                                                                 aPrepared.m_aTransforms,
+                                                                 (String) null,
+                                                                 (String) null);
+    final SignedInfo aSignedInfo = aSignatureFactory.newSignedInfo (aPrepared.m_aC14NMethod,
+                                                                    aPrepared.m_aSignatureMethod,
+                                                                    new CommonsArrayList <> (aReference));
+
+    // Create a DOMSignContext and specify the RSA PrivateKey and
+    // location of the resulting XMLSignature's parent element.
+    final DOMSignContext aSignContext = new DOMSignContext (m_aPrivateKey, aElementToSign);
+
+    // Marshal, generate, and sign the enveloped signature.
+    aSignatureFactory.newXMLSignature (aSignedInfo, aPrepared.m_aKeyInfo).sign (aSignContext);
+  }
+
+  /**
+   * Create a signed XML document without building a DOM. The provided writer
+   * must emit the complete unsigned document as SAX events into the provided
+   * {@link ContentHandler} (e.g. by marshalling with a
+   * {@link javax.xml.transform.sax.SAXResult}). The events are directly
+   * written as Canonical XML while the digest is computed, and the enveloped
+   * signature is appended as the last child of the document element.<br>
+   * The result is a UTF-8 encoded document whose canonical form is identical
+   * to the canonical form of a document signed with
+   * {@link #signXML(Element, ESMPRESTType)}, so the signature verifies the
+   * same way. The serialization may differ (e.g. empty elements are never
+   * abbreviated).
+   *
+   * @param eRESTType
+   *        The REST type current configured. May not be <code>null</code>.
+   * @param aDocumentWriter
+   *        The writer of the unsigned document. May not be <code>null</code>.
+   * @return The serialized signed document. Never <code>null</code>.
+   * @throws XMLSignatureException
+   *         If writing the document or creating the signature failed
+   */
+  @Nonnull
+  public byte [] createSignedXML (@Nonnull final ESMPRESTType eRESTType,
+                                  @Nonnull final IThrowingConsumer <? super ContentHandler, ? extends Exception> aDocumentWriter) throws XMLSignatureException
+  {
+    ValueEnforcer.notNull (eRESTType, "RESTType");
+    ValueEnforcer.notNull (aDocumentWriter, "DocumentWriter");
+
+    final SigningAlgorithms aAlgorithms = ALGORITHMS.get (eRESTType);
+    final PerThreadState aState = _getPerThreadState ();
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      aBAOS.write (XML_DECLARATION, 0, XML_DECLARATION.length);
+
+      // Everything written to this writer is digested
+      final MessageDigest aDigest = aState.getMessageDigest (aAlgorithms.m_sDigestJCAName);
+      final Writer aCanonicalWriter = new OutputStreamWriter (new DigestOutputStream (aBAOS, aDigest),
+                                                              StandardCharsets.UTF_8);
+
+      // Writers like JAXB may swallow the exceptions of the handler
+      final Wrapper <GeneralSecurityException> aSigningError = new Wrapper <> ();
+      final SMPCanonicalXMLContentHandler aHandler = new SMPCanonicalXMLContentHandler (aCanonicalWriter,
+                                                                                        (sEndTag, aRootNS) -> {
+        try
+        {
+          // The end tag is part of the digest but written after the
+          // signature
+          final byte [] aEndTag = sEndTag.getBytes (StandardCharsets.UTF_8);
+          aDigest.update (aEndTag);
+
+          final String sSignedInfoContent = aAlgorithms.m_sSignedInfoPrefix +
+                                            Base64.getEncoder ().encodeToString (aDigest.digest ()) +
+                                            aAlgorithms.m_sSignedInfoSuffix;
+
+          // In the canonical form, SignedInfo contains all namespace
+          // declarations in scope, including the ones of the document element
+          final StringBuilder aSB = new StringBuilder ("<SignedInfo xmlns=\"").append (XMLDSIG_NS).append ('"');
+          new TreeMap <> (aRootNS).forEach ( (sPrefix, sNSURI) -> {
+            if (!sPrefix.isEmpty ())
+              aSB.append (" xmlns:")
+                 .append (sPrefix)
+                 .append ("=\"")
+                 .append (SMPCanonicalXMLContentHandler.getEscapedAttrValue (sNSURI))
+                 .append ('"');
+          });
+          aSB.append ('>').append (sSignedInfoContent).append ("</SignedInfo>");
+
+          final Signature aSignature = aState.getSignature (aAlgorithms.m_sSignatureJCAName);
+          aSignature.initSign (m_aPrivateKey);
+          aSignature.update (aSB.toString ().getBytes (StandardCharsets.UTF_8));
+          final String sSignatureValue = Base64.getEncoder ().encodeToString (aSignature.sign ());
+
+          final byte [] aSignatureXML = ("<Signature xmlns=\"" +
+                                         XMLDSIG_NS +
+                                         "\"><SignedInfo>" +
+                                         sSignedInfoContent +
+                                         "</SignedInfo><SignatureValue>" +
+                                         sSignatureValue +
+                                         "</SignatureValue>" +
+                                         m_sKeyInfoXML +
+                                         "</Signature>").getBytes (StandardCharsets.UTF_8);
+          aBAOS.write (aSignatureXML, 0, aSignatureXML.length);
+          aBAOS.write (aEndTag, 0, aEndTag.length);
+        }
+        catch (final GeneralSecurityException ex)
+        {
+          aSigningError.set (ex);
+          throw new SAXException ("Failed to create the signature", ex);
+        }
+      });
+
+      aDocumentWriter.accept (aHandler);
+      if (aSigningError.isSet ())
+        throw new XMLSignatureException ("Failed to create the signature", aSigningError.get ());
+      if (!aHandler.isRootClosed ())
+        throw new XMLSignatureException ("The document writer did not emit a complete document");
+      return aBAOS.toByteArray ();
+    }
+    catch (final XMLSignatureException ex)
+    {
+      throw ex;
+    }
+    catch (final Exception ex)
+    {
+      throw new XMLSignatureException ("Failed to create the signed XML", ex);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Certificate", m_aCertificate.getSubjectX500Principal ().getName ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.settings;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.equals.EqualsHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An application wide snapshot of the {@link ISMPSettings} stored in a
+ * database. Each write of the settings stores a new version identifier
+ * together with the settings. The snapshot is served without any database
+ * access and only the version identifier is compared at most once per check
+ * interval, so that changes made by other nodes of a cluster are picked up.
+ * While one thread checks the version, all other threads continue to use the
+ * current snapshot.<br>
+ * The settings objects handed to this class must not be modified afterwards.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPSettingsSnapshotCache
+{
+  @Immutable
+  private static final class Snapshot
+  {
+    private final ISMPSettings m_aSettings;
+    private final String m_sVersion;
+    private final long m_nCheckedNanos;
+
+    Snapshot (@Nonnull final ISMPSettings aSettings, @Nullable final String sVersion, final long nCheckedNanos)
+    {
+      m_aSettings = aSettings;
+      m_sVersion = sVersion;
+      m_nCheckedNanos = nCheckedNanos;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPSettingsSnapshotCache.class);
+
+  private final Supplier <String> m_aVersionReader;
+  private final Supplier <? extends ISMPSettings> m_aLoader;
+  private final Consumer <? super ISMPSettings> m_aRemoteChangeHandler;
+  private final long m_nCheckIntervalNanos;
+  // Held while reading from the database and while publishing a snapshot
+  private final Lock m_aLock = new ReentrantLock ();
+  private volatile Snapshot m_aSnapshot;
+
+  /**
+   * Constructor
+   *
+   * @param aVersionReader
+   *        Reads the version identifier currently stored in the database. The
+   *        returned value may be <code>null</code> if no version was stored
+   *        yet. May not be <code>null</code>.
+   * @param aLoader
+   *        Reads the complete settings from the database. May not be
+   *        <code>null</code>.
+   * @param aRemoteChangeHandler
+   *        Invoked with the new settings, if a change made by another node was
+   *        detected. May not be <code>null</code>.
+   * @param nCheckIntervalSeconds
+   *        The number of seconds between two version checks. Must be &ge; 0.
+   */
+  public SMPSettingsSnapshotCache (@Nonnull final Supplier <String> aVersionReader,
+                                   @Nonnull final Supplier <? extends ISMPSettings> aLoader,
+                                   @Nonnull final Consumer <? super ISMPSettings> aRemoteChangeHandler,
+                                   @Nonnegative final long nCheckIntervalSeconds)
+  {
+    ValueEnforcer.notNull (aVersionReader, "VersionReader");
+    ValueEnforcer.notNull (aLoader, "Loader");
+    ValueEnforcer.notNull (aRemoteChangeHandler, "RemoteChangeHandler");
+    ValueEnforcer.isGE0 (nCheckIntervalSeconds, "CheckIntervalSeconds");
+    m_aVersionReader = aVersionReader;
+    m_aLoader = aLoader;
+    m_aRemoteChangeHandler = aRemoteChangeHandler;
+    m_nCheckIntervalNanos = TimeUnit.SECONDS.toNanos (nCheckIntervalSeconds);
+  }
+
+  private boolean _isCurrent (@Nullable final Snapshot aSnapshot, final long nNowNanos)
+  {
+    return aSnapshot != null &&
+           m_nCheckIntervalNanos > 0 &&
+           nNowNanos - aSnapshot.m_nCheckedNanos < m_nCheckIntervalNanos;
+  }
+
+  /**
+   * @return The current settings. Never <code>null</code>. Only reads from the
+   *         database on the first call, and if the check interval elapsed.
+   */
+  @Nonnull
+  public ISMPSettings getSettings ()
+  {
+    Snapshot aSnapshot = m_aSnapshot;
+    if (_isCurrent (aSnapshot, System.nanoTime ()))
+      return aSnapshot.m_aSettings;
+
+    if (aSnapshot != null)
+    {
+      // Somebody else is already checking
+      if (!m_aLock.tryLock ())
+        return aSnapshot.m_aSettings;
+    }
+    else
+      m_aLock.lock ();
+
+    ISMPSettings aChangedSettings = null;
+    try
+    {
+      // Maybe refreshed in the meantime
+      aSnapshot = m_aSnapshot;
+      if (_isCurrent (aSnapshot, System.nanoTime ()))
+        return aSnapshot.m_aSettings;
+
+      final String sVersion = m_aVersionReader.get ();
+      if (aSnapshot != null && EqualsHelper.equals (sVersion, aSnapshot.m_sVersion))
+      {
+        // Unchanged - just remember the check
+        m_aSnapshot = new Snapshot (aSnapshot.m_aSettings, sVersion, System.nanoTime ());
+        return aSnapshot.m_aSettings;
+      }
+
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Loading SMP settings with version '" + sVersion + "'");
+      final ISMPSettings aSettings = m_aLoader.get ();
+      m_aSnapshot = new Snapshot (aSettings, sVersion, System.nanoTime ());
+      if (aSnapshot != null)
+      {
+        LOGGER.info ("The SMP settings were changed by another node (version '" + sVersion + "')");
+        aChangedSettings = aSettings;
+      }
+      return aSettings;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+
+      // Outside of the lock
+      if (aChangedSettings != null)
+        m_aRemoteChangeHandler.accept (aChangedSettings);
+    }
+  }
+
+  /**
+   * Publish settings that were just written to the database by this node.
+   *
+   * @param aSettings
+   *        The written settings. May not be <code>null</code>.
+   * @param sVersion
+   *        The version identifier written together with the settings. May
+   *        not be <code>null</code>.
+   */
+  public void setSettings (@Nonnull final ISMPSettings aSettings, @Nonnull final String sVersion)
+  {
+    ValueEnforcer.notNull (aSettings, "Settings");
+    ValueEnforcer.notNull (sVersion, "Version");
+
+    m_aLock.lock ();
+    try
+    {
+      m_aSnapshot = new Snapshot (aSettings, sVersion, System.nanoTime ());
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    final Snapshot aSnapshot = m_aSnapshot;
+    return new ToStringGenerator (null).append ("CheckIntervalNanos", m_nCheckIntervalNanos)
+                                       .append ("Version", aSnapshot == null ? null : aSnapshot.m_sVersion)
+                                       .getToString ();
+  }
+
+  /**
+   * @return A new unique version identifier to be stored together with
+   *         changed settings. Never <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public static String createNewVersion ()
+  {
+    return UUID.randomUUID ().toString ();
+  }
+}
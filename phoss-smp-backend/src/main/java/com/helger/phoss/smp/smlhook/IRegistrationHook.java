@@ -61,4 +61,86 @@ public interface IRegistrationHook
    *         If something goes wrong.
    */
   void undoDeleteServiceGroup (@Nonnull IParticipantIdentifier aPI) throws RegistrationHookException;
+
+  /**
+   * Create multiple participants in the SML. The default implementation calls
+   * {@link #createServiceGroup(IParticipantIdentifier)} for each participant.
+   * Failures of single participants don't stop the processing of the other
+   * participants.
+   *
+   * @param aPIs
+   *        The participants to be created. May not be <code>null</code>.
+   * @return The per-participant result. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  default RegistrationHookBulkResult createServiceGroups (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    final RegistrationHookBulkResult ret = new RegistrationHookBulkResult ();
+    for (final IParticipantIdentifier aPI : aPIs)
+      try
+      {
+        createServiceGroup (aPI);
+        ret.addSuccess (aPI);
+      }
+      catch (final RegistrationHookException ex)
+      {
+        ret.addFailure (aPI, ex);
+      }
+    return ret;
+  }
+
+  /**
+   * Delete multiple participants in the SML because the internal adding in the
+   * SMP failed. The default implementation calls
+   * {@link #undoCreateServiceGroup(IParticipantIdentifier)} for each
+   * participant.
+   *
+   * @param aPIs
+   *        The participants to be deleted. May not be <code>null</code>.
+   * @return The per-participant result. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  default RegistrationHookBulkResult undoCreateServiceGroups (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    final RegistrationHookBulkResult ret = new RegistrationHookBulkResult ();
+    for (final IParticipantIdentifier aPI : aPIs)
+      try
+      {
+        undoCreateServiceGroup (aPI);
+        ret.addSuccess (aPI);
+      }
+      catch (final RegistrationHookException ex)
+      {
+        ret.addFailure (aPI, ex);
+      }
+    return ret;
+  }
+
+  /**
+   * Delete multiple participants in the SML. The default implementation calls
+   * {@link #deleteServiceGroup(IParticipantIdentifier)} for each participant.
+   *
+   * @param aPIs
+   *        The participants to be deleted. May not be <code>null</code>.
+   * @return The per-participant result. Never <code>null</code>.
+   * @since 7.1.4
+   */
+  @Nonnull
+  default RegistrationHookBulkResult deleteServiceGroups (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    final RegistrationHookBulkResult ret = new RegistrationHookBulkResult ();
+    for (final IParticipantIdentifier aPI : aPIs)
+      try
+      {
+        deleteServiceGroup (aPI);
+        ret.addSuccess (aPI);
+      }
+      catch (final RegistrationHookException ex)
+      {
+        ret.addFailure (aPI, ex);
+      }
+    return ret;
+  }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.smlhook;
+
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.peppolid.IParticipantIdentifier;
+
+/**
+ * The per-participant result of a bulk operation of an
+ * {@link IRegistrationHook}.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@NotThreadSafe
+public class RegistrationHookBulkResult
+{
+  // Value is null for success
+  private final ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> m_aResults = new CommonsLinkedHashMap <> ();
+
+  public RegistrationHookBulkResult ()
+  {}
+
+  /**
+   * Remember that the operation succeeded for the provided participant.
+   *
+   * @param aPI
+   *        The participant ID. May not be <code>null</code>.
+   */
+  public void addSuccess (@Nonnull final IParticipantIdentifier aPI)
+  {
+    ValueEnforcer.notNull (aPI, "PI");
+    m_aResults.put (aPI, null);
+  }
+
+  /**
+   * Remember that the operation failed for the provided participant.
+   *
+   * @param aPI
+   *        The participant ID. May not be <code>null</code>.
+   * @param ex
+   *        The exception that occurred. May not be <code>null</code>.
+   */
+  public void addFailure (@Nonnull final IParticipantIdentifier aPI, @Nonnull final RegistrationHookException ex)
+  {
+    ValueEnforcer.notNull (aPI, "PI");
+    ValueEnforcer.notNull (ex, "Exception");
+    m_aResults.put (aPI, ex);
+  }
+
+  /**
+   * Add all results of another bulk result to this one.
+   *
+   * @param aOther
+   *        The other result to add. May not be <code>null</code>.
+   */
+  public void addAll (@Nonnull final RegistrationHookBulkResult aOther)
+  {
+    ValueEnforcer.notNull (aOther, "Other");
+    m_aResults.putAll (aOther.m_aResults);
+  }
+
+  /**
+   * @return <code>true</code> if the operation succeeded for all contained
+   *         participants.
+   */
+  public boolean isAllSuccess ()
+  {
+    return getFailureCount () == 0;
+  }
+
+  /**
+   * @param aPI
+   *        The participant ID to check. May be <code>null</code>.
+   * @return <code>true</code> if the operation succeeded for the provided
+   *         participant, <code>false</code> if it failed or if the participant
+   *         is unknown.
+   */
+  public boolean isSuccess (@Nullable final IParticipantIdentifier aPI)
+  {
+    return m_aResults.containsKey (aPI) && m_aResults.get (aPI) == null;
+  }
+
+  /**
+   * @param aPI
+   *        The participant ID to check. May be <code>null</code>.
+   * @return The exception of a failed participant or <code>null</code> if the
+   *         operation succeeded or if the participant is unknown.
+   */
+  @Nullable
+  public RegistrationHookException getFailure (@Nullable final IParticipantIdentifier aPI)
+  {
+    return m_aResults.get (aPI);
+  }
+
+  /**
+   * @return All participants for which the operation succeeded, in the order
+   *         they were added. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IParticipantIdentifier> getAllSucceeded ()
+  {
+    final ICommonsList <IParticipantIdentifier> ret = new CommonsArrayList <> ();
+    for (final Map.Entry <IParticipantIdentifier, RegistrationHookException> aEntry : m_aResults.entrySet ())
+      if (aEntry.getValue () == null)
+        ret.add (aEntry.getKey ());
+    return ret;
+  }
+
+  /**
+   * @return All participants for which the operation failed together with the
+   *         reason. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> getAllFailed ()
+  {
+    final ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> ret = new CommonsLinkedHashMap <> ();
+    for (final Map.Entry <IParticipantIdentifier, RegistrationHookException> aEntry : m_aResults.entrySet ())
+      if (aEntry.getValue () != null)
+        ret.put (aEntry.getKey (), aEntry.getValue ());
+    return ret;
+  }
+
+  @Nonnegative
+  public int getSuccessCount ()
+  {
+    return m_aResults.size () - getFailureCount ();
+  }
+
+  @Nonnegative
+  public int getFailureCount ()
+  {
+    int ret = 0;
+    for (final RegistrationHookException ex : m_aResults.values ())
+      if (ex != null)
+        ret++;
+    return ret;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("SuccessCount", getSuccessCount ())
+                                       .append ("FailureCount", getFailureCount ())
+                                       .getToString ();
+  }
+}
@@ -11,10 +11,21 @@
 package com.helger.phoss.smp.smlhook;
 
 import java.net.URL;
+import java.security.KeyStore;
 import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLSocketFactory;
 
@@ -22,6 +33,10 @@ import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.concurrent.SimpleReadWriteLock;
 import com.helger.commons.exception.InitializationException;
 import com.helger.commons.ws.HostnameVerifierVerifyAll;
 import com.helger.peppol.sml.ISMLInfo;
@@ -33,6 +48,7 @@ import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.phoss.smp.security.SMPTrustManager;
 
 /**
  * An implementation of the RegistrationHook that informs the SML of updates to
@@ -50,22 +66,47 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
   // SMP ID is static and cannot change
   private static final String SMP_ID = SMPServerConfiguration.getSMLSMPID ();
 
+  /**
+   * The SML client together with the settings it was created from.
+   */
+  private static final class CachedSMLCaller
+  {
+    private final String m_sEndpointURL;
+    private final KeyStore m_aKeyStore;
+    private final KeyStore m_aTrustStore;
+    private final ManageParticipantIdentifierServiceCaller m_aCaller;
+
+    CachedSMLCaller (@Nonnull final String sEndpointURL,
+                     @Nullable final KeyStore aKeyStore,
+                     @Nullable final KeyStore aTrustStore,
+                     @Nonnull final ManageParticipantIdentifierServiceCaller aCaller)
+    {
+      m_sEndpointURL = sEndpointURL;
+      m_aKeyStore = aKeyStore;
+      m_aTrustStore = aTrustStore;
+      m_aCaller = aCaller;
+    }
+
+    boolean isUpToDate (@Nonnull final String sEndpointURL,
+                        @Nullable final KeyStore aKeyStore,
+                        @Nullable final KeyStore aTrustStore)
+    {
+      // A reload of the key store or trust store creates new objects
+      return m_sEndpointURL.equals (sEndpointURL) && m_aKeyStore == aKeyStore && m_aTrustStore == aTrustStore;
+    }
+  }
+
+  private static final SimpleReadWriteLock RW_LOCK = new SimpleReadWriteLock ();
+  @GuardedBy ("RW_LOCK")
+  private static CachedSMLCaller s_aCachedCaller;
+
   public RegistrationHookWriteToSML ()
   {}
 
   @Nonnull
-  private static ManageParticipantIdentifierServiceCaller _createSMLCaller ()
+  private static ManageParticipantIdentifierServiceCaller _createSMLCaller (@Nonnull final URL aSMLEndpointURL,
+                                                                           @Nonnull final String sLowerURL)
   {
-    // SML endpoint (incl. the service name)
-    final ISMLInfo aSMLInfo = SMPMetaManager.getSettings ().getSMLInfo ();
-    if (aSMLInfo == null)
-      throw new IllegalStateException ("Failed to get SML manage participant endpoint URL");
-    final URL aSMLEndpointURL = aSMLInfo.getManageParticipantIdentifierEndpointAddress ();
-    final String sEndpointURL = aSMLEndpointURL.toExternalForm ();
-    final String sLowerURL = sEndpointURL.toLowerCase (Locale.US);
-
-    LOGGER.info ("Performing SML query to '" + sEndpointURL + "'");
-
     // SSL socket factory
     final SSLSocketFactory aSocketFactory;
     if (sLowerURL.startsWith ("https://"))
@@ -109,7 +150,49 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     return ret;
   }
 
-  public void createServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  /**
+   * Get the SML client to use. The client and its SSL context are reused as
+   * long as the SML endpoint, the key store and the trust store are unchanged.
+   * Reusing the same socket factory allows to reuse kept-alive connections and
+   * TLS sessions.
+   *
+   * @return The SML client to use. Never <code>null</code>.
+   */
+  @Nonnull
+  private static ManageParticipantIdentifierServiceCaller _getSMLCaller ()
+  {
+    // SML endpoint (incl. the service name)
+    final ISMLInfo aSMLInfo = SMPMetaManager.getSettings ().getSMLInfo ();
+    if (aSMLInfo == null)
+      throw new IllegalStateException ("Failed to get SML manage participant endpoint URL");
+    final URL aSMLEndpointURL = aSMLInfo.getManageParticipantIdentifierEndpointAddress ();
+    final String sEndpointURL = aSMLEndpointURL.toExternalForm ();
+    final String sLowerURL = sEndpointURL.toLowerCase (Locale.US);
+
+    LOGGER.info ("Performing SML query to '" + sEndpointURL + "'");
+
+    final KeyStore aKeyStore = SMPKeyManager.isKeyStoreValid () ? SMPKeyManager.getInstance ().getKeyStore () : null;
+    final KeyStore aTrustStore = SMPTrustManager.isTrustStoreValid () ? SMPTrustManager.getInstance ().getTrustStore ()
+                                                                      : null;
+
+    final CachedSMLCaller aCached = RW_LOCK.readLockedGet ( () -> s_aCachedCaller);
+    if (aCached != null && aCached.isUpToDate (sEndpointURL, aKeyStore, aTrustStore))
+      return aCached.m_aCaller;
+
+    return RW_LOCK.writeLockedGet ( () -> {
+      // Try again in write lock
+      if (s_aCachedCaller != null && s_aCachedCaller.isUpToDate (sEndpointURL, aKeyStore, aTrustStore))
+        return s_aCachedCaller.m_aCaller;
+
+      LOGGER.info ("Creating new SML client for '" + sEndpointURL + "'");
+      final ManageParticipantIdentifierServiceCaller ret = _createSMLCaller (aSMLEndpointURL, sLowerURL);
+      s_aCachedCaller = new CachedSMLCaller (sEndpointURL, aKeyStore, aTrustStore, ret);
+      return ret;
+    });
+  }
+
+  private static void _createServiceGroup (@Nonnull final ManageParticipantIdentifierServiceCaller aCaller,
+                                           @Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
   {
     final String sParticipantID = aBusinessIdentifier.getURIEncoded ();
 
@@ -117,7 +200,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     try
     {
       // Explicit constructor call is needed here!
-      _createSMLCaller ().create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      aCaller.create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
 
       LOGGER.info ("Succeeded in CREATE business " + sParticipantID + " in SML");
     }
@@ -133,7 +216,8 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     }
   }
 
-  public void undoCreateServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  private static void _undoCreateServiceGroup (@Nonnull final ManageParticipantIdentifierServiceCaller aCaller,
+                                               @Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
   {
     final String sParticipantID = aBusinessIdentifier.getURIEncoded ();
     LOGGER.warn ("CREATE failed in SMP backend, so deleting again business " +
@@ -145,7 +229,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     {
       // Undo create
       // Explicit constructor call is needed here!
-      _createSMLCaller ().delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      aCaller.delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
       LOGGER.warn ("Succeeded in deleting again business " + sParticipantID + " from SML.");
     }
     catch (final Exception ex)
@@ -155,7 +239,8 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     }
   }
 
-  public void deleteServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  private static void _deleteServiceGroup (@Nonnull final ManageParticipantIdentifierServiceCaller aCaller,
+                                           @Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
   {
     final String sParticipantID = aBusinessIdentifier.getURIEncoded ();
 
@@ -164,7 +249,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     {
       // Use the version with the SMP ID to be on the safe side
       // Explicit constructor call is needed here!
-      _createSMLCaller ().delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      aCaller.delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
 
       LOGGER.info ("Succeeded in deleting business " + sParticipantID + " from SML");
     }
@@ -182,7 +267,8 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     }
   }
 
-  public void undoDeleteServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  private static void _undoDeleteServiceGroup (@Nonnull final ManageParticipantIdentifierServiceCaller aCaller,
+                                               @Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
   {
     final String sParticipantID = aBusinessIdentifier.getURIEncoded ();
     LOGGER.warn ("DELETE failed in SMP backend, so creating again business " +
@@ -194,7 +280,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     {
       // Undo delete
       // Explicit constructor call is needed here!
-      _createSMLCaller ().create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      aCaller.create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
       LOGGER.warn ("Succeeded in creating again business " + sParticipantID + " in SML.");
     }
     catch (final Exception ex)
@@ -203,4 +289,263 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
       throw new RegistrationHookException (sMsg, ex);
     }
   }
+
+  public void createServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  {
+    _createServiceGroup (_getSMLCaller (), aBusinessIdentifier);
+  }
+
+  public void undoCreateServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  {
+    _undoCreateServiceGroup (_getSMLCaller (), aBusinessIdentifier);
+  }
+
+  public void deleteServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  {
+    _deleteServiceGroup (_getSMLCaller (), aBusinessIdentifier);
+  }
+
+  public void undoDeleteServiceGroup (@Nonnull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
+  {
+    _undoDeleteServiceGroup (_getSMLCaller (), aBusinessIdentifier);
+  }
+
+  /**
+   * A simple rate limiter that hands out evenly spaced time slots.
+   */
+  @ThreadSafe
+  private static final class RateLimiter
+  {
+    private final long m_nIntervalNanos;
+    @GuardedBy ("this")
+    private long m_nNextSlot;
+
+    RateLimiter (@Nonnegative final int nRequestsPerSecond)
+    {
+      m_nIntervalNanos = nRequestsPerSecond > 0 ? TimeUnit.SECONDS.toNanos (1) / nRequestsPerSecond : 0;
+      m_nNextSlot = System.nanoTime ();
+    }
+
+    void acquire () throws InterruptedException
+    {
+      if (m_nIntervalNanos == 0)
+        return;
+
+      final long nWaitNanos;
+      synchronized (this)
+      {
+        final long nNow = System.nanoTime ();
+        final long nSlot = Math.max (nNow, m_nNextSlot);
+        m_nNextSlot = nSlot + m_nIntervalNanos;
+        nWaitNanos = nSlot - nNow;
+      }
+      if (nWaitNanos > 0)
+        TimeUnit.NANOSECONDS.sleep (nWaitNanos);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ISMLListCall
+  {
+    void call (@Nonnull ManageParticipantIdentifierServiceCaller aCaller,
+               @Nonnull ICommonsList <SimpleParticipantIdentifier> aPIs) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface ISMLSingleCall
+  {
+    void call (@Nonnull ManageParticipantIdentifierServiceCaller aCaller,
+               @Nonnull IParticipantIdentifier aPI) throws RegistrationHookException;
+  }
+
+  @Nonnull
+  private static RegistrationHookBulkResult _performChunk (@Nonnull final ManageParticipantIdentifierServiceCaller aCaller,
+                                                           @Nonnull final ICommonsList <IParticipantIdentifier> aChunk,
+                                                           @Nonnull final String sActionName,
+                                                           @Nonnull final ISMLListCall aListCall,
+                                                           @Nonnull final ISMLSingleCall aSingleCall,
+                                                           @Nonnull final RateLimiter aRateLimiter)
+  {
+    final RegistrationHookBulkResult ret = new RegistrationHookBulkResult ();
+    if (aChunk.size () > 1)
+    {
+      // Try the list operation of the SML first
+      try
+      {
+        aRateLimiter.acquire ();
+        // Explicit constructor call is needed here!
+        aListCall.call (aCaller, aChunk.getAllMapped (SimpleParticipantIdentifier::new));
+        aChunk.forEach (ret::addSuccess);
+        LOGGER.info ("Succeeded in " + sActionName + " of " + aChunk.size () + " businesses in SML");
+        return ret;
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      catch (final Exception ex)
+      {
+        // E.g. one participant is already registered - the whole list is
+        // rejected by the SML
+        LOGGER.warn ("Failed to " +
+                     sActionName +
+                     " " +
+                     aChunk.size () +
+                     " businesses in SML at once - falling back to single calls: " +
+                     new RegistrationHookException (null, ex).getMessage ());
+      }
+    }
+
+    // Single calls to get per-participant results
+    for (final IParticipantIdentifier aPI : aChunk)
+      try
+      {
+        aRateLimiter.acquire ();
+        aSingleCall.call (aCaller, aPI);
+        ret.addSuccess (aPI);
+      }
+      catch (final RegistrationHookException ex)
+      {
+        ret.addFailure (aPI, ex);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        ret.addFailure (aPI, new RegistrationHookException ("Interrupted before " + sActionName + " in SML", ex));
+      }
+    return ret;
+  }
+
+  /**
+   * Perform a bulk operation. The participants are split into chunks of
+   * {@link SMPServerConfiguration#getSMLBulkChunkSize()} which are processed in
+   * parallel. Each chunk is first tried with a single SML list call. If that
+   * fails, each participant of the chunk is handled separately so that the
+   * result reflects the state of each participant. All SML calls are
+   * throttled to {@link SMPServerConfiguration#getSMLBulkRequestsPerSecond()}.
+   */
+  @Nonnull
+  private static RegistrationHookBulkResult _performBulk (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs,
+                                                          @Nonnull final String sActionName,
+                                                          @Nonnull final ISMLListCall aListCall,
+                                                          @Nonnull final ISMLSingleCall aSingleCall)
+  {
+    final ICommonsList <IParticipantIdentifier> aAllPIs = new CommonsArrayList <> (aPIs);
+    final RegistrationHookBulkResult ret = new RegistrationHookBulkResult ();
+    if (aAllPIs.isEmpty ())
+      return ret;
+
+    // Resolve the client in the calling thread, as the settings may require a
+    // scope
+    final ManageParticipantIdentifierServiceCaller aCaller = _getSMLCaller ();
+
+    final int nChunkSize = SMPServerConfiguration.getSMLBulkChunkSize ();
+    final ICommonsList <ICommonsList <IParticipantIdentifier>> aChunks = new CommonsArrayList <> ();
+    for (int nStart = 0; nStart < aAllPIs.size (); nStart += nChunkSize)
+      aChunks.add (new CommonsArrayList <> (aAllPIs.subList (nStart, Math.min (nStart + nChunkSize, aAllPIs.size ()))));
+
+    final int nThreads = Math.min (SMPServerConfiguration.getSMLBulkThreadCount (), aChunks.size ());
+    final RateLimiter aRateLimiter = new RateLimiter (SMPServerConfiguration.getSMLBulkRequestsPerSecond ());
+
+    LOGGER.info ("Trying to " +
+                 sActionName +
+                 " " +
+                 aAllPIs.size () +
+                 " businesses for " +
+                 SMP_ID +
+                 " in SML in " +
+                 aChunks.size () +
+                 " chunk(s) using " +
+                 nThreads +
+                 " thread(s)");
+
+    final AtomicInteger aThreadIndex = new AtomicInteger (0);
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (nThreads, r -> {
+      final Thread aThread = new Thread (r, "smp-sml-bulk-" + aThreadIndex.incrementAndGet ());
+      aThread.setDaemon (true);
+      return aThread;
+    });
+    boolean bInterrupted = false;
+    try
+    {
+      final ICommonsList <Future <RegistrationHookBulkResult>> aFutures = new CommonsArrayList <> ();
+      for (final ICommonsList <IParticipantIdentifier> aChunk : aChunks)
+        aFutures.add (aExecutor.submit ( () -> _performChunk (aCaller,
+                                                              aChunk,
+                                                              sActionName,
+                                                              aListCall,
+                                                              aSingleCall,
+                                                              aRateLimiter)));
+
+      for (int i = 0; i < aFutures.size (); ++i)
+      {
+        // Wait for every chunk, so that the result is complete
+        while (true)
+          try
+          {
+            ret.addAll (aFutures.get (i).get ());
+            break;
+          }
+          catch (final InterruptedException ex)
+          {
+            bInterrupted = true;
+          }
+          catch (final ExecutionException ex)
+          {
+            for (final IParticipantIdentifier aPI : aChunks.get (i))
+              ret.addFailure (aPI,
+                              new RegistrationHookException ("Failed to " + sActionName + " business in SML",
+                                                             ex.getCause ()));
+            break;
+          }
+      }
+    }
+    finally
+    {
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutor);
+      if (bInterrupted)
+        Thread.currentThread ().interrupt ();
+    }
+
+    LOGGER.info ("Finished " +
+                 sActionName +
+                 " of " +
+                 aAllPIs.size () +
+                 " businesses in SML: " +
+                 ret.getSuccessCount () +
+                 " succeeded, " +
+                 ret.getFailureCount () +
+                 " failed");
+    return ret;
+  }
+
+  @Override
+  @Nonnull
+  public RegistrationHookBulkResult createServiceGroups (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    return _performBulk (aPIs,
+                         "CREATE",
+                         (aCaller, aList) -> aCaller.createList (aList, SMP_ID),
+                         RegistrationHookWriteToSML::_createServiceGroup);
+  }
+
+  @Override
+  @Nonnull
+  public RegistrationHookBulkResult undoCreateServiceGroups (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    return _performBulk (aPIs,
+                         "UNDO CREATE",
+                         (aCaller, aList) -> aCaller.deleteList (aList),
+                         RegistrationHookWriteToSML::_undoCreateServiceGroup);
+  }
+
+  @Override
+  @Nonnull
+  public RegistrationHookBulkResult deleteServiceGroups (@Nonnull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    return _performBulk (aPIs,
+                         "DELETE",
+                         (aCaller, aList) -> aCaller.deleteList (aList),
+                         RegistrationHookWriteToSML::_deleteServiceGroup);
+  }
 }
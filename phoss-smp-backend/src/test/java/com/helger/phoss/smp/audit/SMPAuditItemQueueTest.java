@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsVector;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.ESuccess;
+import com.helger.photon.audit.AuditItem;
+import com.helger.photon.audit.EAuditActionType;
+import com.helger.photon.audit.IAuditItem;
+
+/**
+ * Test class for class {@link SMPAuditItemQueue}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPAuditItemQueueTest
+{
+  @Test
+  public void testSync ()
+  {
+    final ICommonsList <IAuditItem> aWritten = new CommonsArrayList <> ();
+    final SMPAuditItemQueue aQueue = new SMPAuditItemQueue ("test",
+                                                            ESMPAuditDurability.SYNC,
+                                                            10,
+                                                            5,
+                                                            100,
+                                                            aWritten::addAll);
+    for (int i = 0; i < 3; ++i)
+      aQueue.add (new AuditItem ("user", EAuditActionType.EXECUTE, ESuccess.SUCCESS, "action" + i));
+
+    // Written immediately
+    assertEquals (3, aWritten.size ());
+    assertEquals (3, aQueue.getWrittenCount ());
+    assertEquals (3, aQueue.getBatchCount ());
+    assertEquals (0, aQueue.getQueueSize ());
+
+    // Errors are propagated
+    final SMPAuditItemQueue aFailing = new SMPAuditItemQueue ("test", ESMPAuditDurability.SYNC, 10, 5, 100, x -> {
+      throw new IllegalStateException ("Expected");
+    });
+    try
+    {
+      aFailing.add (new AuditItem ("user", EAuditActionType.EXECUTE, ESuccess.SUCCESS, "action"));
+      fail ();
+    }
+    catch (final IllegalStateException ex)
+    {
+      // expected
+    }
+    assertEquals (1, aFailing.getFailedCount ());
+  }
+
+  @Test
+  public void testAsyncFlushOnStop ()
+  {
+    final ICommonsList <IAuditItem> aWritten = new CommonsVector <> ();
+    final SMPAuditItemQueue aQueue = new SMPAuditItemQueue ("test",
+                                                            ESMPAuditDurability.ASYNC,
+                                                            1000,
+                                                            10,
+                                                            60_000,
+                                                            aWritten::addAll);
+    for (int i = 0; i < 95; ++i)
+      aQueue.add (new AuditItem ("user", EAuditActionType.EXECUTE, ESuccess.SUCCESS, "action" + i));
+    assertEquals (95, aQueue.getQueuedCount ());
+
+    aQueue.stop ();
+    assertEquals (0, aQueue.getQueueSize ());
+    assertEquals (95, aWritten.size ());
+    assertEquals (95, aQueue.getWrittenCount ());
+    // Batches were used
+    assertTrue (aQueue.getBatchCount () >= 10);
+    // Order is maintained
+    for (int i = 0; i < 95; ++i)
+      assertEquals ("action" + i, aWritten.get (i).getAction ());
+
+    // Written synchronously after stop
+    aQueue.add (new AuditItem ("user", EAuditActionType.EXECUTE, ESuccess.SUCCESS, "late"));
+    assertEquals (96, aWritten.size ());
+  }
+
+  @Test
+  public void testBackPressure () throws Exception
+  {
+    final CountDownLatch aRelease = new CountDownLatch (1);
+    final ICommonsList <IAuditItem> aWritten = new CommonsVector <> ();
+    final SMPAuditItemQueue aQueue = new SMPAuditItemQueue ("test", ESMPAuditDurability.ASYNC, 2, 1, 1, x -> {
+      aRelease.await ();
+      aWritten.addAll (x);
+    });
+
+    // The writer is blocked, so that the queue fills up
+    final Thread aProducer = new Thread ( () -> {
+      for (int i = 0; i < 10; ++i)
+        aQueue.add (new AuditItem ("user", EAuditActionType.EXECUTE, ESuccess.SUCCESS, "action" + i));
+    });
+    aProducer.start ();
+    aProducer.join (500);
+    assertTrue (aProducer.isAlive ());
+    assertTrue (aQueue.getBlockedCount () > 0);
+    assertEquals (2, aQueue.getMaxQueueSize ());
+
+    aRelease.countDown ();
+    aProducer.join (TimeUnit.SECONDS.toMillis (10));
+    aQueue.stop ();
+    assertEquals (10, aWritten.size ());
+    assertEquals (0, aQueue.getFailedCount ());
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+
+/**
+ * Test class for class {@link SMPResultPage}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPResultPageTest
+{
+  @Test
+  public void testCreateFromList ()
+  {
+    final ICommonsList <String> aList = new CommonsArrayList <> ("a", "b", "c", "d", "e");
+
+    SMPResultPage <String> aPage = SMPResultPage.createFromList (aList, 10, 0, 2);
+    assertEquals (new CommonsArrayList <> ("a", "b"), aPage.getAllItems ());
+    assertEquals (10, aPage.getTotalCount ());
+    assertEquals (5, aPage.getFilteredCount ());
+
+    aPage = SMPResultPage.createFromList (aList, 10, 4, 2);
+    assertEquals (new CommonsArrayList <> ("e"), aPage.getAllItems ());
+
+    // Behind the end
+    aPage = SMPResultPage.createFromList (aList, 10, 7, 2);
+    assertTrue (aPage.getAllItems ().isEmpty ());
+    assertEquals (5, aPage.getFilteredCount ());
+
+    // No overflow
+    aPage = SMPResultPage.createFromList (aList, 10, 1, Integer.MAX_VALUE);
+    assertEquals (4, aPage.getAllItems ().size ());
+  }
+
+  @Test
+  public void testMatchesFilter ()
+  {
+    assertTrue (SMPResultPage.matchesFilter ("iso6523-actorid-upis::9915:test", null));
+    assertTrue (SMPResultPage.matchesFilter ("iso6523-actorid-upis::9915:test", ""));
+    assertTrue (SMPResultPage.matchesFilter ("iso6523-actorid-upis::9915:test", "9915:T"));
+    assertTrue (SMPResultPage.matchesFilter ("iso6523-actorid-upis::9915:TEST", "test"));
+    assertFalse (SMPResultPage.matchesFilter ("iso6523-actorid-upis::9915:test", "9916"));
+  }
+}
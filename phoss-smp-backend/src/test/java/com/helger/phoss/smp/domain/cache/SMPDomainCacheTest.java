@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.helger.commons.mutable.MutableInt;
+
+/**
+ * Test class for class {@link SMPDomainCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPDomainCacheTest
+{
+  @Test
+  public void testReadThrough ()
+  {
+    final SMPDomainCache <String> aCache = new SMPDomainCache <> ("test", 10, 60, true);
+    final MutableInt aLoads = new MutableInt (0);
+
+    assertEquals ("v1", aCache.getOrLoad ("g", "g\n1", () -> {
+      aLoads.inc ();
+      return "v1";
+    }));
+    assertEquals ("v1", aCache.getOrLoad ("g", "g\n1", () -> {
+      aLoads.inc ();
+      return "other";
+    }));
+    assertEquals (1, aLoads.intValue ());
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+
+    // Negative caching
+    assertNull (aCache.getOrLoad ("g", "g\n2", () -> {
+      aLoads.inc ();
+      return null;
+    }));
+    assertNull (aCache.getOrLoad ("g", "g\n2", () -> {
+      aLoads.inc ();
+      return "v2";
+    }));
+    assertEquals (2, aLoads.intValue ());
+    assertEquals (1, aCache.getNegativeHitCount ());
+    assertEquals (2, aCache.getSize ());
+
+    // Invalidate the whole group
+    aCache.invalidateGroup ("g");
+    assertEquals (0, aCache.getSize ());
+    assertEquals ("v2", aCache.getOrLoad ("g", "g\n2", () -> "v2"));
+  }
+
+  @Test
+  public void testNoNegativeCaching ()
+  {
+    final SMPDomainCache <String> aCache = new SMPDomainCache <> ("test", 10, 60, false);
+    assertNull (aCache.getOrLoad ("g", "g", () -> null));
+    assertEquals (0, aCache.getSize ());
+    assertEquals ("v", aCache.getOrLoad ("g", "g", () -> "v"));
+  }
+
+  @Test
+  public void testConcurrentInvalidation ()
+  {
+    final SMPDomainCache <String> aCache = new SMPDomainCache <> ("test", 10, 60, true);
+    // The group is invalidated while loading - the value must not be cached
+    assertEquals ("old", aCache.getOrLoad ("g", "g", () -> {
+      aCache.invalidateGroup ("g");
+      return "old";
+    }));
+    assertEquals (0, aCache.getSize ());
+  }
+
+  @Test
+  public void testEviction ()
+  {
+    final SMPDomainCache <String> aCache = new SMPDomainCache <> ("test", 2, 60, true);
+    aCache.getOrLoad ("a", "a", () -> "a");
+    aCache.getOrLoad ("b", "b", () -> "b");
+    // Access "a" so that "b" is the eldest
+    aCache.getOrLoad ("a", "a", () -> "x");
+    aCache.getOrLoad ("c", "c", () -> "c");
+    assertEquals (2, aCache.getSize ());
+    assertEquals (1, aCache.getEvictionCount ());
+    assertEquals ("a", aCache.getOrLoad ("a", "a", () -> "x"));
+    assertEquals ("y", aCache.getOrLoad ("b", "b", () -> "y"));
+  }
+}
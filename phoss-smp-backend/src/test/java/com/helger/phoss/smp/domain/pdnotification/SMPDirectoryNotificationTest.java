@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.pdnotification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.SimpleIdentifierFactory;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.xml.mock.XMLTestHelper;
+
+/**
+ * Test class for class {@link SMPDirectoryNotification}
+ *
+ * @author Philip Helger
+ */
+public final class SMPDirectoryNotificationTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testBasic ()
+  {
+    final IParticipantIdentifier aPI = SimpleIdentifierFactory.INSTANCE.createParticipantIdentifier ("foo", "bar");
+    final SMPDirectoryNotification aNotification = SMPDirectoryNotification.createNow (aPI,
+                                                                                       EDirectoryNotificationAction.DELETE);
+    assertNotNull (aNotification);
+    assertEquals (aPI.getURIEncoded (), aNotification.getID ());
+    assertSame (aPI, aNotification.getParticipantIdentifier ());
+    assertEquals (EDirectoryNotificationAction.DELETE, aNotification.getAction ());
+    assertTrue (PDTFactory.getCurrentLocalDateTime ().compareTo (aNotification.getQueueDateTime ()) >= 0);
+    XMLTestHelper.testMicroTypeConversion (aNotification);
+  }
+}
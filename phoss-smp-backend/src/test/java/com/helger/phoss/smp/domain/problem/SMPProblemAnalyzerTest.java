@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.problem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.OffsetDateTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.commons.collection.CollectionHelper;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.datetime.XMLOffsetDateTime;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link SMPProblemAnalyzer}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPProblemAnalyzerTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testEmptyServiceGroup ()
+  {
+    final IParticipantIdentifier aPI = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                        "0088:dummy");
+    final ISMPServiceGroup aSG = new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null);
+
+    final ICommonsList <SMPProblem> aProblems = SMPProblemAnalyzer.createAllProblems (aSG,
+                                                                                      new CommonsArrayList <ISMPServiceInformation> (),
+                                                                                      new CommonsArrayList <ISMPRedirect> (),
+                                                                                      false,
+                                                                                      PDTFactory.getCurrentOffsetDateTime ());
+    assertEquals (1, aProblems.size ());
+    final SMPProblem aProblem = aProblems.getFirstOrNull ();
+    assertEquals (EErrorLevel.INFO, aProblem.getErrorLevel ());
+    assertEquals (aSG.getID (), aProblem.getServiceGroupID ());
+    assertNull (aProblem.getDocumentTypeID ());
+    assertNull (aProblem.getDetailDateTime ());
+    assertEquals ("info", aProblem.getAsJsonObject ().getAsString ("level"));
+  }
+
+  @Test
+  public void testEndpointProblems ()
+  {
+    final IParticipantIdentifier aPI = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                        "0088:dummy");
+    final ISMPServiceGroup aSG = new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null);
+
+    final OffsetDateTime aNowDT = PDTFactory.getCurrentOffsetDateTime ();
+    // Not yet active, but already expired and with an invalid certificate
+    final SMPEndpoint aEP = new SMPEndpoint ("tp",
+                                             "http://localhost/as2",
+                                             false,
+                                             (String) null,
+                                             XMLOffsetDateTime.of (aNowDT.plusDays (1)),
+                                             XMLOffsetDateTime.of (aNowDT.minusDays (1)),
+                                             "cert",
+                                             "sd",
+                                             "tc",
+                                             "ti",
+                                             (String) null);
+    final SMPProcess aProcess = new SMPProcess (new SimpleProcessIdentifier (PeppolIdentifierHelper.DEFAULT_PROCESS_SCHEME,
+                                                                             "testproc"),
+                                                CollectionHelper.newList (aEP),
+                                                (String) null);
+    final SMPServiceInformation aSI = new SMPServiceInformation (aSG,
+                                                                 new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                   "testdoctype"),
+                                                                 CollectionHelper.newList (aProcess),
+                                                                 (String) null);
+
+    final ICommonsList <SMPProblem> aProblems = SMPProblemAnalyzer.createAllProblems (aSG,
+                                                                                      CollectionHelper.newList (aSI),
+                                                                                      new CommonsArrayList <ISMPRedirect> (),
+                                                                                      true,
+                                                                                      aNowDT);
+    // Transport profile, activation date, expiration date, certificate and
+    // business card
+    assertEquals (aProblems.toString (), 5, aProblems.size ());
+    assertEquals (2, aProblems.getCount (x -> x.getErrorLevel () == EErrorLevel.ERROR));
+    assertEquals (2, aProblems.getCount (x -> x.getErrorLevel () == EErrorLevel.WARN));
+    assertEquals (1, aProblems.getCount (x -> x.getErrorLevel () == EErrorLevel.INFO));
+
+    for (final SMPProblem aProblem : aProblems)
+      if (aProblem.getErrorLevel () != EErrorLevel.INFO)
+      {
+        assertEquals (aSI.getDocumentTypeIdentifier ().getURIEncoded (), aProblem.getDocumentTypeID ());
+        assertEquals (aProcess.getProcessIdentifier ().getURIEncoded (), aProblem.getProcessID ());
+        assertEquals ("tp", aProblem.getTransportProfile ());
+      }
+  }
+
+  @Test
+  public void testSweep ()
+  {
+    final SMPProblemAnalyzer aAnalyzer = new SMPProblemAnalyzer (SMPMetaManager.getServiceGroupMgr (),
+                                                                 SMPMetaManager.getServiceInformationMgr (),
+                                                                 SMPMetaManager.getRedirectMgr (),
+                                                                 SMPMetaManager.getBusinessCardMgr (),
+                                                                 () -> false,
+                                                                 60);
+    assertFalse (aAnalyzer.isInitialSweepPerformed ());
+    assertNull (aAnalyzer.getLastSweepDateTime ());
+
+    aAnalyzer.performSweep ();
+    assertTrue (aAnalyzer.isInitialSweepPerformed ());
+    assertNotNull (aAnalyzer.getLastSweepDateTime ());
+    assertEquals (0, aAnalyzer.getErrorCount ());
+    assertEquals (0, aAnalyzer.getWarningCount ());
+    assertEquals (0, aAnalyzer.getInfoCount ());
+    assertTrue (aAnalyzer.getAllProblems ().isEmpty ());
+    assertNotNull (aAnalyzer.getAsJsonObject ());
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.token.user.IUserTokenManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.photon.security.user.IUserManager;
+
+/**
+ * Test class for class {@link SMPCredentialsCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCredentialsCacheTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testBasicAuth ()
+  {
+    final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
+    final IUser aUser = aUserMgr.getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aUser);
+    final String sLoginName = aUser.getLoginName ();
+
+    final SMPCredentialsCache aCache = new SMPCredentialsCache (10, 3600);
+    assertNull (aCache.getBasicAuthUser (sLoginName, "secret", aUserMgr));
+    assertEquals (1, aCache.getMissCount ());
+
+    aCache.putBasicAuthUser (sLoginName, "secret", aUser);
+    assertEquals (1, aCache.getSize ());
+    final IUser aCachedUser = aCache.getBasicAuthUser (sLoginName, "secret", aUserMgr);
+    assertNotNull (aCachedUser);
+    assertEquals (aUser.getID (), aCachedUser.getID ());
+    assertEquals (1, aCache.getHitCount ());
+
+    // Different password or login name
+    assertNull (aCache.getBasicAuthUser (sLoginName, "secret2", aUserMgr));
+    assertNull (aCache.getBasicAuthUser (sLoginName + "x", "secret", aUserMgr));
+
+    // A disabled user is not served from the cache
+    aUserMgr.disableUser (aUser.getID ());
+    try
+    {
+      assertNull (aCache.getBasicAuthUser (sLoginName, "secret", aUserMgr));
+      // The entry was removed
+      assertEquals (0, aCache.getSize ());
+    }
+    finally
+    {
+      aUserMgr.enableUser (aUser.getID ());
+    }
+  }
+
+  @Test
+  public void testUnknownBearerToken ()
+  {
+    final IUserTokenManager aUserTokenMgr = PhotonSecurityManager.getUserTokenMgr ();
+
+    final SMPCredentialsCache aCache = new SMPCredentialsCache (10, 3600);
+    assertNull (aCache.getUserToken ("unknown-token", aUserTokenMgr));
+    final long nHits = aCache.getHitCount ();
+
+    // The unknown token is remembered
+    assertNull (aCache.getUserToken ("unknown-token", aUserTokenMgr));
+    assertEquals (nHits + 1, aCache.getHitCount ());
+  }
+
+  @Test
+  public void testMaxEntries ()
+  {
+    final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
+    final IUser aUser = aUserMgr.getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+
+    final SMPCredentialsCache aCache = new SMPCredentialsCache (2, 3600);
+    for (int i = 0; i < 5; ++i)
+      aCache.putBasicAuthUser (aUser.getLoginName (), "secret" + i, aUser);
+    assertEquals (2, aCache.getSize ());
+    assertNull (aCache.getBasicAuthUser (aUser.getLoginName (), "secret0", aUserMgr));
+    assertNotNull (aCache.getBasicAuthUser (aUser.getLoginName (), "secret4", aUserMgr));
+
+    aCache.clear ();
+    assertEquals (0, aCache.getSize ());
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.mock;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EChange;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotification;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
+
+/**
+ * Mock implementation of {@link ISMPDirectoryNotificationManager}.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+final class MockSMPDirectoryNotificationManager implements ISMPDirectoryNotificationManager
+{
+  @Nonnull
+  public EChange storeDirectoryNotification (@Nonnull final ISMPDirectoryNotification aNotification)
+  {
+    throw new UnsupportedOperationException ();
+  }
+
+  @Nonnull
+  public EChange deleteDirectoryNotification (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    throw new UnsupportedOperationException ();
+  }
+
+  public ICommonsList <ISMPDirectoryNotification> getAllDirectoryNotifications ()
+  {
+    throw new UnsupportedOperationException ();
+  }
+}
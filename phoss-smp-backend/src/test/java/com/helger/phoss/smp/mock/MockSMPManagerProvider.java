@@ -16,6 +16,7 @@ import com.helger.commons.state.ETriState;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -84,6 +85,12 @@ public final class MockSMPManagerProvider implements ISMPManagerProvider
     return new MockSMPParticipantMigrationManager ();
   }
 
+  @Nonnull
+  public ISMPDirectoryNotificationManager createDirectoryNotificationMgr ()
+  {
+    return new MockSMPDirectoryNotificationManager ();
+  }
+
   @Nonnull
   public ISMPBusinessCardManager createBusinessCardMgr (@Nonnull final IIdentifierFactory aIdentifierFactory,
                                                         @Nonnull final ISMPServiceGroupManager aServiceGroupMgr)
@@ -14,6 +14,7 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsSet;
 import com.helger.commons.state.EChange;
@@ -75,7 +76,7 @@ final class MockSMPServiceGroupManager implements ISMPServiceGroupManager
 
   public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroups ()
   {
-    throw new UnsupportedOperationException ();
+    return new CommonsArrayList <> ();
   }
 
   public ICommonsSet <String> getAllSMPServiceGroupIDs ()
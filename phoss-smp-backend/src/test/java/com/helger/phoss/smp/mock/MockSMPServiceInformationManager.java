@@ -17,6 +17,7 @@ import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.callback.CallbackList;
 import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.state.EChange;
 import com.helger.commons.state.ESuccess;
 import com.helger.peppol.smp.ISMPTransportProfile;
@@ -79,6 +80,11 @@ final class MockSMPServiceInformationManager implements ISMPServiceInformationMa
     throw new UnsupportedOperationException ();
   }
 
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesWithEndpointsOfServiceGroup (final ISMPServiceGroup aServiceGroup)
+  {
+    throw new UnsupportedOperationException ();
+  }
+
   public ISMPServiceInformation findServiceInformation (final ISMPServiceGroup aServiceGroup,
                                                         final IDocumentTypeIdentifier aDocTypeID,
                                                         final IProcessIdentifier aProcessID,
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.restapi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+
+/**
+ * Test class for class {@link SMPCompleteServiceGroupPage}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCompleteServiceGroupPageTest
+{
+  @Test
+  public void testCursor ()
+  {
+    final IDocumentTypeIdentifier aDocTypeID = EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ();
+    final String sCursor = SMPCompleteServiceGroupPage.createCursor (aDocTypeID);
+
+    // URL safe
+    for (final char c : sCursor.toCharArray ())
+      assertTrue (Character.isLetterOrDigit (c) || c == '-' || c == '_');
+
+    final IDocumentTypeIdentifier aParsed = SMPCompleteServiceGroupPage.parseCursor (sCursor,
+                                                                                     PeppolIdentifierFactory.INSTANCE);
+    assertTrue (aDocTypeID.hasSameContent (aParsed));
+
+    assertNull (SMPCompleteServiceGroupPage.parseCursor (null, PeppolIdentifierFactory.INSTANCE));
+    assertNull (SMPCompleteServiceGroupPage.parseCursor ("", PeppolIdentifierFactory.INSTANCE));
+    assertNull (SMPCompleteServiceGroupPage.parseCursor ("!invalid!", PeppolIdentifierFactory.INSTANCE));
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final SMPCompleteServiceGroupPage <String> aLast = new SMPCompleteServiceGroupPage <> ("page", null);
+    assertEquals ("page", aLast.getCompleteServiceGroup ());
+    assertFalse (aLast.hasNextCursor ());
+
+    final SMPCompleteServiceGroupPage <String> aPage = new SMPCompleteServiceGroupPage <> ("page", "abc");
+    assertTrue (aPage.hasNextCursor ());
+    assertEquals ("abc", aPage.getNextCursor ());
+  }
+}
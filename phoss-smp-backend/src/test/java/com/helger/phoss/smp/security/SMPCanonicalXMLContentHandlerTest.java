@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.xml.security.Init;
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+
+/**
+ * Test class for class {@link SMPCanonicalXMLContentHandler}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCanonicalXMLContentHandlerTest
+{
+  @BeforeClass
+  public static void beforeClass ()
+  {
+    Init.init ();
+  }
+
+  @Nonnull
+  private static String _getStreamed (@Nonnull final String sXML) throws Exception
+  {
+    final SAXParserFactory aFactory = SAXParserFactory.newInstance ();
+    aFactory.setNamespaceAware (true);
+
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      final Writer aWriter = new OutputStreamWriter (aBAOS, StandardCharsets.UTF_8);
+      final SMPCanonicalXMLContentHandler aHandler = new SMPCanonicalXMLContentHandler (aWriter,
+                                                                                        (sEndTag, aRootNS) -> {
+        final byte [] aEndTag = sEndTag.getBytes (StandardCharsets.UTF_8);
+        aBAOS.write (aEndTag, 0, aEndTag.length);
+      });
+      aFactory.newSAXParser ()
+              .parse (new NonBlockingByteArrayInputStream (sXML.getBytes (StandardCharsets.UTF_8)), aHandler);
+      assertTrue (aHandler.isRootClosed ());
+      return aBAOS.getAsString (StandardCharsets.UTF_8);
+    }
+  }
+
+  @Nonnull
+  private static String _getCanonicalized (@Nonnull final String sXML, @Nonnull final String sAlgorithm) throws Exception
+  {
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      Canonicalizer.getInstance (sAlgorithm).canonicalize (sXML.getBytes (StandardCharsets.UTF_8), aBAOS, true);
+      return aBAOS.getAsString (StandardCharsets.UTF_8);
+    }
+  }
+
+  private static void _check (@Nonnull final String sXML) throws Exception
+  {
+    final String sStreamed = _getStreamed (sXML);
+    assertEquals (_getCanonicalized (sXML, Canonicalizer.ALGO_ID_C14N_OMIT_COMMENTS), sStreamed);
+    assertEquals (_getCanonicalized (sXML, Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS), sStreamed);
+  }
+
+  @Test
+  public void testBasic () throws Exception
+  {
+    _check ("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?><root/>");
+    _check ("<root><a/><b>text</b></root>");
+    _check ("<root b='2' a=\"1\"><empty></empty></root>");
+  }
+
+  @Test
+  public void testNamespaces () throws Exception
+  {
+    _check ("<smp:root xmlns:smp='urn:smp' xmlns='urn:default' xmlns:a='urn:a'><child a:x='1' y='2'/></smp:root>");
+    // Redundant declarations are not rendered
+    _check ("<a:root xmlns:a='urn:a'><a:child xmlns:a='urn:a'><b:x xmlns:b='urn:b'/></a:child></a:root>");
+    // Undeclaring the default namespace
+    _check ("<root xmlns='urn:default'><child xmlns=''><x/></child></root>");
+    // Attribute order by namespace URI first
+    _check ("<root xmlns:z='urn:a' xmlns:a='urn:z' a:attr='1' z:attr='2' attr='3'/>");
+  }
+
+  @Test
+  public void testEscaping () throws Exception
+  {
+    _check ("<root attr='a&amp;b&lt;c&gt;d&quot;e&#9;f&#10;g&#13;h'>a &amp; b &lt; c &gt; d \"e\" &#13; f\r\ng</root>");
+    _check ("<root>Umlauts äöü and 😀</root>");
+    _check ("<root><![CDATA[cdata <content> & more]]></root>");
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPCertificateCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCertificateCacheTest
+{
+  @Test
+  public void testInterning ()
+  {
+    final SMPCertificateCache aCache = new SMPCertificateCache (10);
+    assertNull (aCache.get (null));
+    assertNull (aCache.get (""));
+    assertNull (aCache.getInterned (null));
+    assertEquals ("", aCache.getInterned (""));
+
+    final String s1 = new String ("abc");
+    final String s2 = new String ("abc");
+    assertNotSame (s1, s2);
+    assertSame (s1, aCache.getInterned (s1));
+    assertSame (s1, aCache.getInterned (s2));
+    assertSame (aCache.get (s1), aCache.get (s2));
+    assertEquals (1, aCache.getSize ());
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals (3, aCache.getHitCount ());
+
+    // Not a certificate
+    final SMPCertificateCache.CachedCertificate aCached = aCache.get (s1);
+    assertNotNull (aCached);
+    assertNull (aCached.getX509Certificate ());
+    assertNull (aCached.getEncoded ());
+    assertNull (aCache.getX509Certificate (s2));
+  }
+
+  @Test
+  public void testEviction ()
+  {
+    final SMPCertificateCache aCache = new SMPCertificateCache (2);
+    final SMPCertificateCache.CachedCertificate a = aCache.get ("a");
+    aCache.get ("b");
+    // Access "a" so that "b" is the least recently used one
+    assertSame (a, aCache.get ("a"));
+    aCache.get ("c");
+    assertEquals (2, aCache.getSize ());
+    assertSame (a, aCache.get ("a"));
+    assertEquals (3, aCache.getMissCount ());
+
+    aCache.get ("b");
+    assertEquals (4, aCache.getMissCount ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.getSize ());
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.string.StringHelper;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.xml.XMLFactory;
+
+/**
+ * JMH benchmark for the signing throughput of {@link SMPXMLSigner} per REST
+ * type and RSA key size. The keys are created with the <code>keytool</code> of
+ * the running JDK. Run the main method or use the JMH command line options
+ * (e.g. <code>-t 4</code>) to measure concurrent signing.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class SMPXMLSignerBenchmark
+{
+  private static final String ALIAS = "smp";
+  private static final char [] PASSWORD = "password".toCharArray ();
+
+  @Param ({ "2048", "3072", "4096" })
+  public int m_nKeySize;
+
+  @Param ({ "PEPPOL", "OASIS_BDXR_V1", "OASIS_BDXR_V2" })
+  public ESMPRESTType m_eRESTType;
+
+  private SMPXMLSigner m_aSigner;
+  private Document m_aTemplateDoc;
+
+  @Setup (Level.Trial)
+  public void setup () throws Exception
+  {
+    // Create a self-signed key of the requested size
+    final File aKeyStoreFile = File.createTempFile ("smp-sign-benchmark", ".p12");
+    FileOperations.deleteFile (aKeyStoreFile);
+    try
+    {
+      final String sKeytool = System.getProperty ("java.home") + File.separator + "bin" + File.separator + "keytool";
+      final int nExitCode = new ProcessBuilder (sKeytool,
+                                                "-genkeypair",
+                                                "-alias",
+                                                ALIAS,
+                                                "-keyalg",
+                                                "RSA",
+                                                "-keysize",
+                                                Integer.toString (m_nKeySize),
+                                                "-validity",
+                                                "2",
+                                                "-dname",
+                                                "CN=SMP signing benchmark",
+                                                "-storetype",
+                                                "PKCS12",
+                                                "-keystore",
+                                                aKeyStoreFile.getAbsolutePath (),
+                                                "-storepass",
+                                                new String (PASSWORD)).inheritIO ().start ().waitFor ();
+      if (nExitCode != 0)
+        throw new IllegalStateException ("keytool failed with exit code " + nExitCode);
+
+      final KeyStore aKeyStore = KeyStore.getInstance ("PKCS12");
+      try (final InputStream aIS = new FileInputStream (aKeyStoreFile))
+      {
+        aKeyStore.load (aIS, PASSWORD);
+      }
+      final KeyStore.PrivateKeyEntry aEntry = (KeyStore.PrivateKeyEntry) aKeyStore.getEntry (ALIAS,
+                                                                                           new KeyStore.PasswordProtection (PASSWORD));
+      m_aSigner = new SMPXMLSigner (aEntry.getPrivateKey (), (X509Certificate) aEntry.getCertificate ());
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aKeyStoreFile);
+    }
+
+    // A response of roughly the size of a service metadata response
+    final String sNS = "http://busdox.org/serviceMetadata/publishing/1.0/";
+    m_aTemplateDoc = XMLFactory.newDocument ();
+    final Element eRoot = (Element) m_aTemplateDoc.appendChild (m_aTemplateDoc.createElementNS (sNS,
+                                                                                                  "SignedServiceMetadata"));
+    final Element eProcessList = (Element) eRoot.appendChild (m_aTemplateDoc.createElementNS (sNS, "ProcessList"));
+    for (int i = 0; i < 5; ++i)
+    {
+      final Element eEndpoint = (Element) eProcessList.appendChild (m_aTemplateDoc.createElementNS (sNS, "Endpoint"));
+      eEndpoint.setAttribute ("transportProfile", "peppol-transport-as4-v2_0");
+      eEndpoint.appendChild (m_aTemplateDoc.createElementNS (sNS, "EndpointURI"))
+               .setTextContent ("https://ap.example.org/as4/" + i);
+      eEndpoint.appendChild (m_aTemplateDoc.createElementNS (sNS, "Certificate"))
+               .setTextContent ("MIIF" + StringHelper.getRepeated ('A', 2000));
+      eEndpoint.appendChild (m_aTemplateDoc.createElementNS (sNS, "ServiceDescription"))
+               .setTextContent ("Endpoint " + i);
+    }
+  }
+
+  @Benchmark
+  public Document signXML () throws Exception
+  {
+    // Signing modifies the document, so always start from a fresh copy
+    final Document aDoc = (Document) m_aTemplateDoc.cloneNode (true);
+    m_aSigner.signXML (aDoc.getDocumentElement (), m_eRESTType);
+    return aDoc;
+  }
+
+  public static void main (final String [] args) throws Exception
+  {
+    new Runner (new OptionsBuilder ().include (SMPXMLSignerBenchmark.class.getSimpleName ()).build ()).run ();
+  }
+}
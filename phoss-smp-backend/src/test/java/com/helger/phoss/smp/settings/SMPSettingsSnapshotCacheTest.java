@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.settings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.helger.commons.mutable.MutableInt;
+import com.helger.commons.wrapper.Wrapper;
+
+/**
+ * Test class for class {@link SMPSettingsSnapshotCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPSettingsSnapshotCacheTest
+{
+  @Test
+  public void testCheckInterval ()
+  {
+    final MutableInt aVersionReads = new MutableInt (0);
+    final MutableInt aLoads = new MutableInt (0);
+    final SMPSettingsSnapshotCache aCache = new SMPSettingsSnapshotCache ( () -> {
+      aVersionReads.inc ();
+      return "v1";
+    }, () -> {
+      aLoads.inc ();
+      return new SMPSettings (false);
+    }, x -> {}, 3600);
+
+    final ISMPSettings aSettings = aCache.getSettings ();
+    assertEquals (1, aVersionReads.intValue ());
+    assertEquals (1, aLoads.intValue ());
+
+    // No further database access within the interval
+    for (int i = 0; i < 10; ++i)
+      assertSame (aSettings, aCache.getSettings ());
+    assertEquals (1, aVersionReads.intValue ());
+    assertEquals (1, aLoads.intValue ());
+
+    // Local update
+    final SMPSettings aNewSettings = new SMPSettings (false);
+    aCache.setSettings (aNewSettings, "v2");
+    assertSame (aNewSettings, aCache.getSettings ());
+    assertEquals (1, aVersionReads.intValue ());
+    assertEquals (1, aLoads.intValue ());
+  }
+
+  @Test
+  public void testRemoteChange ()
+  {
+    final Wrapper <String> aVersion = new Wrapper <> ("v1");
+    final MutableInt aLoads = new MutableInt (0);
+    final MutableInt aRemoteChanges = new MutableInt (0);
+    final SMPSettingsSnapshotCache aCache = new SMPSettingsSnapshotCache (aVersion::get, () -> {
+      aLoads.inc ();
+      return new SMPSettings (false);
+    }, x -> aRemoteChanges.inc (), 0);
+
+    final ISMPSettings aSettings = aCache.getSettings ();
+    assertEquals (1, aLoads.intValue ());
+
+    // Version is checked on every access, but nothing is loaded
+    assertSame (aSettings, aCache.getSettings ());
+    assertEquals (1, aLoads.intValue ());
+    assertEquals (0, aRemoteChanges.intValue ());
+
+    // Changed by another node
+    aVersion.set ("v2");
+    assertNotSame (aSettings, aCache.getSettings ());
+    assertEquals (2, aLoads.intValue ());
+    assertEquals (1, aRemoteChanges.intValue ());
+
+    // Settings stored without a version
+    aVersion.set (null);
+    aCache.getSettings ();
+    aCache.getSettings ();
+    assertEquals (3, aLoads.intValue ());
+    assertEquals (2, aRemoteChanges.intValue ());
+  }
+}
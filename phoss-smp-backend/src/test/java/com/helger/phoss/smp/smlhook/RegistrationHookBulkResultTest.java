@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2015-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.smlhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.SimpleIdentifierFactory;
+
+/**
+ * Test class for class {@link RegistrationHookBulkResult}.
+ *
+ * @author Philip Helger
+ */
+public final class RegistrationHookBulkResultTest
+{
+  @Test
+  public void testDefaultBulkCreate ()
+  {
+    final IParticipantIdentifier aPI1 = SimpleIdentifierFactory.INSTANCE.createParticipantIdentifier ("foo", "bar1");
+    final IParticipantIdentifier aPI2 = SimpleIdentifierFactory.INSTANCE.createParticipantIdentifier ("foo", "bar2");
+    final IParticipantIdentifier aPI3 = SimpleIdentifierFactory.INSTANCE.createParticipantIdentifier ("foo", "bar3");
+
+    // Fails for the second participant only
+    final ICommonsList <IParticipantIdentifier> aUndone = new CommonsArrayList <> ();
+    final IRegistrationHook aHook = new IRegistrationHook ()
+    {
+      public void createServiceGroup (@Nonnull final IParticipantIdentifier aPI) throws RegistrationHookException
+      {
+        if (aPI.equals (aPI2))
+          throw new RegistrationHookException ("Test failure", null);
+      }
+
+      public void undoCreateServiceGroup (@Nonnull final IParticipantIdentifier aPI)
+      {
+        aUndone.add (aPI);
+      }
+
+      public void deleteServiceGroup (@Nonnull final IParticipantIdentifier aPI)
+      {}
+
+      public void undoDeleteServiceGroup (@Nonnull final IParticipantIdentifier aPI)
+      {}
+    };
+
+    final RegistrationHookBulkResult aResult = aHook.createServiceGroups (new CommonsArrayList <> (aPI1, aPI2, aPI3));
+    assertNotNull (aResult);
+    assertFalse (aResult.isAllSuccess ());
+    assertEquals (2, aResult.getSuccessCount ());
+    assertEquals (1, aResult.getFailureCount ());
+    assertTrue (aResult.isSuccess (aPI1));
+    assertFalse (aResult.isSuccess (aPI2));
+    assertTrue (aResult.isSuccess (aPI3));
+    assertNull (aResult.getFailure (aPI1));
+    assertNotNull (aResult.getFailure (aPI2));
+    assertEquals (new CommonsArrayList <> (aPI1, aPI3), aResult.getAllSucceeded ());
+    assertEquals (1, aResult.getAllFailed ().size ());
+    assertTrue (aResult.getAllFailed ().containsKey (aPI2));
+
+    // Compensate the successful ones
+    final RegistrationHookBulkResult aUndoResult = aHook.undoCreateServiceGroups (aResult.getAllSucceeded ());
+    assertTrue (aUndoResult.isAllSuccess ());
+    assertEquals (2, aUndoResult.getSuccessCount ());
+    assertEquals (new CommonsArrayList <> (aPI1, aPI3), aUndone);
+  }
+
+  @Test
+  public void testEmpty ()
+  {
+    final RegistrationHookBulkResult aResult = new RegistrationHookDoNothing ().deleteServiceGroups (new CommonsArrayList <> ());
+    assertTrue (aResult.isAllSuccess ());
+    assertEquals (0, aResult.getSuccessCount ());
+    assertEquals (0, aResult.getFailureCount ());
+  }
+}
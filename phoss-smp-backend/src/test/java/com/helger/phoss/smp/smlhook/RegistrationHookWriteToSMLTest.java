@@ -10,9 +10,13 @@
  */
 package com.helger.phoss.smp.smlhook;
 
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.PeppolIdentifierFactory;
 
@@ -34,4 +38,18 @@ public final class RegistrationHookWriteToSMLTest
     // Throws ExceptionInInitializerError:
     // Happens when no keystore is present!
   }
+
+  @Test
+  @Ignore ("Potentially modifies the DNS!")
+  public void testBulkCreateAndDelete ()
+  {
+    final RegistrationHookWriteToSML aHook = new RegistrationHookWriteToSML ();
+    final ICommonsList <IParticipantIdentifier> aPIs = new CommonsArrayList <> ();
+    for (int i = 0; i < 10; ++i)
+      aPIs.add (PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("0088:12345test" + i));
+    final RegistrationHookBulkResult aCreateResult = aHook.createServiceGroups (aPIs);
+    assertTrue (aCreateResult.isAllSuccess ());
+    final RegistrationHookBulkResult aDeleteResult = aHook.deleteServiceGroups (aCreateResult.getAllSucceeded ());
+    assertTrue (aDeleteResult.isAllSuccess ());
+  }
 }
@@ -20,8 +20,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 
 import javax.annotation.Nonnull;
+import javax.sql.DataSource;
 
-import org.apache.commons.dbcp2.BasicDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,8 +32,17 @@ import com.helger.db.api.jdbc.JDBCHelper;
 import com.helger.db.jdbc.ConnectionFromDataSource;
 import com.helger.db.jdbc.IHasConnection;
 import com.helger.db.jdbc.executor.DBNoConnectionException;
+import com.helger.phoss.smp.backend.sql.SMPConnectionAcquisitionStatistics;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceProvider;
 import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
 import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
+import com.helger.phoss.smp.backend.sql.cache.ISMPCacheInvalidationTransport;
+import com.helger.phoss.smp.backend.sql.cache.SMPCacheInvalidationTransportJDBC;
+import com.helger.phoss.smp.backend.sql.cache.SMPServiceGroupCache;
+import com.helger.phoss.smp.backend.sql.mgr.SMPServiceGroupManagerJDBC;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.cache.SMPServiceGroupManagerCaching;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.status.ISMPStatusProviderExtensionSPI;
 
 /**
@@ -49,14 +58,14 @@ public class SMPSQLStatusProviderExtensionSPI implements ISMPStatusProviderExten
 
   private static boolean _isDBConnectionPossible ()
   {
-    final BasicDataSource aDS = SMPDataSourceSingleton.getInstance ().getDataSourceProvider ().getDataSource ();
+    final DataSource aDS = SMPDataSourceSingleton.getInstance ().getDataSourceProvider ().getDataSource ();
     try
     {
       aDS.setLoginTimeout (1);
     }
     catch (final SQLException | UnsupportedOperationException ex)
     {
-      // Not possible on BasicDataSource
+      // Not possible on the pooled DataSources
     }
 
     // Note: maxReconnects setting for MySQL makes no difference
@@ -100,6 +109,68 @@ public class SMPSQLStatusProviderExtensionSPI implements ISMPStatusProviderExten
         // connection" by default
         ret.put ("smp.sql.db.connection-possible", Boolean.valueOf (_isDBConnectionPossible ()));
       }
+
+      // Since 7.1.4
+      final SMPDataSourceProvider aDSP = SMPDataSourceSingleton.getInstance ().getDataSourceProvider ();
+      ret.put ("smp.sql.pool.type", aDSP.getPoolType ().getID ());
+      ret.put ("smp.sql.pool.max-total", Integer.valueOf (aDSP.getMaxTotalConnectionCount ()));
+      ret.put ("smp.sql.pool.active", Integer.valueOf (aDSP.getActiveConnectionCount ()));
+      ret.put ("smp.sql.pool.idle", Integer.valueOf (aDSP.getIdleConnectionCount ()));
+      final SMPConnectionAcquisitionStatistics aAcqStats = aDSP.getAcquisitionStatistics ();
+      ret.put ("smp.sql.pool.waiting", Long.valueOf (aAcqStats.getWaitingCount ()));
+      ret.put ("smp.sql.pool.acquisitions", Long.valueOf (aAcqStats.getCount ()));
+      ret.put ("smp.sql.pool.acquisition-failures", Long.valueOf (aAcqStats.getFailureCount ()));
+      ret.put ("smp.sql.pool.acquisition-total-ms", Long.valueOf (aAcqStats.getTotalMillis ()));
+      ret.put ("smp.sql.pool.acquisition-max-ms", Long.valueOf (aAcqStats.getMaxMillis ()));
+      aAcqStats.getHistogram ()
+               .forEach ( (k, v) -> ret.put ("smp.sql.pool.acquisition-histogram." + k, v));
+
+      final SMPDataSourceProvider aReadOnlyDSP = SMPDataSourceSingleton.getInstance ()
+                                                                       .getReadOnlyDataSourceProvider ();
+      ret.put ("smp.sql.readonly.enabled", Boolean.valueOf (aReadOnlyDSP != null));
+      if (aReadOnlyDSP != null)
+      {
+        ret.put ("smp.sql.readonly.pool.active", Integer.valueOf (aReadOnlyDSP.getActiveConnectionCount ()));
+        ret.put ("smp.sql.readonly.pool.idle", Integer.valueOf (aReadOnlyDSP.getIdleConnectionCount ()));
+        final SMPConnectionAcquisitionStatistics aReadOnlyAcqStats = aReadOnlyDSP.getAcquisitionStatistics ();
+        ret.put ("smp.sql.readonly.pool.waiting", Long.valueOf (aReadOnlyAcqStats.getWaitingCount ()));
+        ret.put ("smp.sql.readonly.pool.acquisitions", Long.valueOf (aReadOnlyAcqStats.getCount ()));
+        ret.put ("smp.sql.readonly.pool.acquisition-failures", Long.valueOf (aReadOnlyAcqStats.getFailureCount ()));
+      }
+
+      ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+      if (aSGMgr instanceof SMPServiceGroupManagerCaching)
+        aSGMgr = ((SMPServiceGroupManagerCaching) aSGMgr).getDelegate ();
+      if (aSGMgr instanceof SMPServiceGroupManagerJDBC)
+      {
+        final SMPServiceGroupCache aCache = ((SMPServiceGroupManagerJDBC) aSGMgr).getCache ();
+        ret.put ("smp.sql.cache.sg.enabled", Boolean.valueOf (aCache != null));
+        if (aCache != null)
+        {
+          ret.put ("smp.sql.cache.sg.entries", Integer.valueOf (aCache.size ()));
+          ret.put ("smp.sql.cache.sg.max-entries", Integer.valueOf (aCache.getMaxEntries ()));
+          ret.put ("smp.sql.cache.sg.size-bytes", Long.valueOf (aCache.getWeightBytes ()));
+          ret.put ("smp.sql.cache.sg.max-size-bytes", Long.valueOf (aCache.getMaxWeightBytes ()));
+          ret.put ("smp.sql.cache.sg.hits", Long.valueOf (aCache.getHitCount ()));
+          ret.put ("smp.sql.cache.sg.misses", Long.valueOf (aCache.getMissCount ()));
+          ret.put ("smp.sql.cache.sg.evictions", Long.valueOf (aCache.getEvictionCount ()));
+          ret.put ("smp.sql.cache.sg.expirations", Long.valueOf (aCache.getExpirationCount ()));
+          ret.put ("smp.sql.cache.sg.invalidations", Long.valueOf (aCache.getInvalidationCount ()));
+
+          final ISMPCacheInvalidationTransport aTransport = ((SMPServiceGroupManagerJDBC) aSGMgr).getCacheInvalidationTransport ();
+          if (aTransport instanceof SMPCacheInvalidationTransportJDBC)
+          {
+            final SMPCacheInvalidationTransportJDBC aJdbcTransport = (SMPCacheInvalidationTransportJDBC) aTransport;
+            ret.put ("smp.sql.cache.sg.invalidation.node-id", aJdbcTransport.getNodeID ());
+            ret.put ("smp.sql.cache.sg.invalidation.published", Long.valueOf (aJdbcTransport.getPublishedCount ()));
+            ret.put ("smp.sql.cache.sg.invalidation.received", Long.valueOf (aJdbcTransport.getReceivedCount ()));
+            ret.put ("smp.sql.cache.sg.invalidation.errors", Long.valueOf (aJdbcTransport.getErrorCount ()));
+          }
+          else
+            ret.put ("smp.sql.cache.sg.invalidation.transport",
+                     aTransport == null ? "none" : aTransport.getClass ().getName ());
+        }
+      }
     }
     else
     {
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.timing.StopWatch;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+import com.helger.peppolid.peppol.process.EPredefinedProcessIdentifier;
+import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
+import com.helger.phoss.smp.backend.sql.SMPJDBCConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Measure the throughput of
+ * {@link ISMPServiceInformationManager#mergeSMPServiceInformation(com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation)}
+ * with different numbers of endpoints. Run it against MySQL and PostgreSQL by
+ * changing the JDBC settings in the used configuration file. Afterwards it is
+ * checked, that only the endpoints of the last merge are present and that
+ * deleting all service information removes processes and endpoints as well.
+ *
+ * @author Philip Helger
+ */
+@Ignore ("because it requires prerequisites")
+public final class ServiceMetadataMergeBenchmarkTest extends AbstractSMPWebAppSQLTest
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (ServiceMetadataMergeBenchmarkTest.class);
+  private static final int RUNS = 20;
+
+  private static long _getRowCount (@Nonnull final String sTable, @Nonnull final IParticipantIdentifier aPI)
+  {
+    return new SMPDBExecutor ().queryCount ("SELECT COUNT(*) FROM " +
+                                            sTable +
+                                            " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
+                                            new ConstantPreparedStatementDataProvider (aPI.getScheme (),
+                                                                                       aPI.getValue ()));
+  }
+
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (PROPERTIES_FILE);
+
+  @Test
+  public void testMerge () throws SMPServerException
+  {
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+
+      final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme (PID_PREFIX_9999_PHOSS +
+                                                                                                                       "benchmark");
+      aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      final ISMPServiceGroup aSG = aServiceGroupMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID,
+                                                                          aPI,
+                                                                          null,
+                                                                          false);
+      assertNotNull (aSG);
+      final IDocumentTypeIdentifier aDocTypeID = EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ();
+      try
+      {
+        for (final int nEndpoints : new int [] { 10, 100, 1000 })
+        {
+          final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> ();
+          for (int i = 0; i < nEndpoints; ++i)
+            aEndpoints.add (new SMPEndpoint ("benchmark-tp-" + i,
+                                             "http://test.smpserver/as4/" + i,
+                                             false,
+                                             null,
+                                             null,
+                                             null,
+                                             "blacert",
+                                             "Benchmark service",
+                                             "https://github.com/phax/phoss-smp",
+                                             null,
+                                             null));
+          final SMPProcess aProcess = new SMPProcess (EPredefinedProcessIdentifier.BIS3_BILLING.getAsProcessIdentifier (),
+                                                      aEndpoints,
+                                                      null);
+          final SMPServiceInformation aSI = new SMPServiceInformation (aSG,
+                                                                       aDocTypeID,
+                                                                       new CommonsArrayList <> (aProcess),
+                                                                       null);
+
+          // Warm up
+          assertTrue (aServiceInfoMgr.mergeSMPServiceInformation (aSI).isSuccess ());
+
+          final StopWatch aSW = StopWatch.createdStarted ();
+          for (int i = 0; i < RUNS; ++i)
+            assertTrue (aServiceInfoMgr.mergeSMPServiceInformation (aSI).isSuccess ());
+          aSW.stop ();
+
+          LOGGER.info ("[" +
+                       SMPJDBCConfiguration.getTargetDatabaseType () +
+                       "] Merged " +
+                       RUNS +
+                       " Service Informations with " +
+                       nEndpoints +
+                       " endpoints each in " +
+                       aSW.getDuration () +
+                       " (= " +
+                       (aSW.getMillis () / RUNS) +
+                       " ms/merge; " +
+                       (RUNS * nEndpoints * 1000L / Math.max (1, aSW.getMillis ())) +
+                       " endpoints/s)");
+
+          // Only the endpoints of the last merge may be present
+          final ISMPServiceInformation aReadSI = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG,
+                                                                                                                         aDocTypeID);
+          assertNotNull (aReadSI);
+          assertEquals (1, aReadSI.getProcessCount ());
+          assertEquals (nEndpoints, aReadSI.getTotalEndpointCount ());
+          assertEquals (1, _getRowCount ("smp_process", aPI));
+          assertEquals (nEndpoints, _getRowCount ("smp_endpoint", aPI));
+        }
+
+        // Processes and endpoints must be deleted via "ON DELETE CASCADE"
+        assertTrue (aServiceInfoMgr.deleteAllSMPServiceInformationOfServiceGroup (aSG).isChanged ());
+        assertEquals (0, _getRowCount ("smp_service_metadata", aPI));
+        assertEquals (0, _getRowCount ("smp_process", aPI));
+        assertEquals (0, _getRowCount ("smp_endpoint", aPI));
+      }
+      finally
+      {
+        aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      }
+    }
+  }
+}
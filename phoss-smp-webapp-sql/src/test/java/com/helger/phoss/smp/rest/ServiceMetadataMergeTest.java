@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Test the insertion of multiple processes and endpoints by
+ * {@link ISMPServiceInformationManager#mergeSMPServiceInformation(ISMPServiceInformation)}.
+ *
+ * @author Philip Helger
+ */
+public final class ServiceMetadataMergeTest extends AbstractSMPWebAppSQLTest
+{
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (PROPERTIES_FILE);
+
+  @Nonnull
+  private static SMPProcess _createProcess (@Nonnull final String sProcessID, final int nEndpoints)
+  {
+    final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> ();
+    for (int i = 0; i < nEndpoints; ++i)
+      aEndpoints.add (new SMPEndpoint ("merge-tp-" + i,
+                                       "http://test.smpserver/as4/" + sProcessID + "/" + i,
+                                       false,
+                                       null,
+                                       null,
+                                       null,
+                                       "blacert",
+                                       "Merge service " + i,
+                                       "https://github.com/phax/phoss-smp",
+                                       null,
+                                       null));
+    return new SMPProcess (PeppolIdentifierFactory.INSTANCE.createProcessIdentifierWithDefaultScheme (sProcessID),
+                           aEndpoints,
+                           null);
+  }
+
+  @Test
+  public void testMergeMultipleProcessesAndEndpoints () throws SMPServerException
+  {
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+      final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+
+      final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme (PID_PREFIX_9999_PHOSS +
+                                                                                                                       "merge");
+      aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      final ISMPServiceGroup aSG = aServiceGroupMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID,
+                                                                          aPI,
+                                                                          null,
+                                                                          false);
+      assertNotNull (aSG);
+      final IDocumentTypeIdentifier aDocTypeID = EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ();
+      try
+      {
+        // Two processes with three endpoints each
+        final SMPServiceInformation aSI = new SMPServiceInformation (aSG,
+                                                                     aDocTypeID,
+                                                                     new CommonsArrayList <> (_createProcess ("merge-process-1",
+                                                                                                              3),
+                                                                                              _createProcess ("merge-process-2",
+                                                                                                              3)),
+                                                                     null);
+        assertTrue (aServiceInfoMgr.mergeSMPServiceInformation (aSI).isSuccess ());
+        ISMPServiceInformation aReadSI = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG,
+                                                                                                               aDocTypeID);
+        assertNotNull (aReadSI);
+        assertEquals (2, aReadSI.getProcessCount ());
+        assertEquals (6, aReadSI.getTotalEndpointCount ());
+        for (final ISMPProcess aProcess : aReadSI.getAllProcesses ())
+          for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
+          {
+            // All columns are written in the right order
+            assertEquals ("blacert", aEndpoint.getCertificate ());
+            assertEquals ("https://github.com/phax/phoss-smp", aEndpoint.getTechnicalContactUrl ());
+            assertTrue (aEndpoint.getTransportProfile ().startsWith ("merge-tp-"));
+            assertEquals ("Merge service " + aEndpoint.getTransportProfile ().substring ("merge-tp-".length ()),
+                          aEndpoint.getServiceDescription ());
+          }
+
+        // Replace with a single process and endpoint
+        final SMPServiceInformation aSI2 = new SMPServiceInformation (aSG,
+                                                                      aDocTypeID,
+                                                                      new CommonsArrayList <> (_createProcess ("merge-process-1",
+                                                                                                               1)),
+                                                                      null);
+        assertTrue (aServiceInfoMgr.mergeSMPServiceInformation (aSI2).isSuccess ());
+        aReadSI = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aSG, aDocTypeID);
+        assertNotNull (aReadSI);
+        assertEquals (1, aReadSI.getProcessCount ());
+        assertEquals (1, aReadSI.getTotalEndpointCount ());
+
+        assertTrue (aServiceInfoMgr.deleteAllSMPServiceInformationOfServiceGroup (aSG).isChanged ());
+      }
+      finally
+      {
+        aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.exchange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.web.scope.mgr.WebScoped;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
+import com.helger.xml.microdom.serialize.MicroReader;
+
+/**
+ * Test class for class {@link ServiceGroupExport}.
+ *
+ * @author Philip Helger
+ */
+public final class ServiceGroupExportTest
+{
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (new FileSystemResource ("src/test/resources/test-smp-server-xml-peppol.properties"));
+
+  private static void _assertSameContent (@Nonnull final IMicroElement eExpected, @Nonnull final IMicroElement eActual)
+  {
+    assertEquals (eExpected.getTagName (), eActual.getTagName ());
+    assertEquals (eExpected.getAttributeValue (CSMPExchange.ATTR_VERSION),
+                  eActual.getAttributeValue (CSMPExchange.ATTR_VERSION));
+
+    final ICommonsList <IMicroElement> aExpectedChildren = eExpected.getAllChildElements ();
+    final ICommonsList <IMicroElement> aActualChildren = eActual.getAllChildElements ();
+    assertEquals (aExpectedChildren.size (), aActualChildren.size ());
+    for (int i = 0; i < aExpectedChildren.size (); ++i)
+    {
+      final IMicroElement eExpectedChild = aExpectedChildren.get (i);
+      final IMicroElement eActualChild = aActualChildren.get (i);
+      assertEquals (eExpectedChild.getTagName (), eActualChild.getTagName ());
+      assertEquals (eExpectedChild.getAllChildElements ().size (), eActualChild.getAllChildElements ().size ());
+      if (eExpectedChild.getTagName ().equals (CSMPExchange.ELEMENT_SERVICEGROUP))
+        assertEquals (MicroTypeConverter.convertToNative (eExpectedChild, SMPServiceGroup.class).getID (),
+                      MicroTypeConverter.convertToNative (eActualChild, SMPServiceGroup.class).getID ());
+    }
+  }
+
+  @Test
+  public void testStreamingEqualsInMemory () throws Exception
+  {
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+      final IParticipantIdentifier aPI1 = SMPMetaManager.getIdentifierFactory ()
+                                                        .createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                      "0088:export2");
+      final IParticipantIdentifier aPI2 = SMPMetaManager.getIdentifierFactory ()
+                                                        .createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                      "0088:export1");
+      aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI1, null, false);
+      try
+      {
+        aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI2, null, false);
+        try
+        {
+          final IMicroDocument aInMemoryDoc = ServiceGroupExport.createExportDataXMLVer10 (aSGMgr.getAllSMPServiceGroups (),
+                                                                                            false);
+
+          final IMicroDocument aStreamedDoc;
+          try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+          {
+            ServiceGroupExport.writeAllExportDataXMLVer10 (aBAOS, false);
+            aStreamedDoc = MicroReader.readMicroXML (aBAOS.getAsString (StandardCharsets.UTF_8));
+          }
+          assertNotNull (aStreamedDoc);
+
+          _assertSameContent (aInMemoryDoc.getDocumentElement (), aStreamedDoc.getDocumentElement ());
+        }
+        finally
+        {
+          aSGMgr.deleteSMPServiceGroupNoEx (aPI2, false);
+        }
+      }
+      finally
+      {
+        aSGMgr.deleteSMPServiceGroupNoEx (aPI1, false);
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.exchange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.error.level.EErrorLevel;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.mutable.MutableInt;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Test class for class {@link ServiceGroupStreamingImport}.
+ *
+ * @author Philip Helger
+ */
+public final class ServiceGroupStreamingImportTest
+{
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (new FileSystemResource ("src/test/resources/test-smp-server-xml-peppol.properties"));
+
+  @Test
+  public void testExportAndImport () throws Exception
+  {
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+      final IUser aOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+      assertNotNull (aOwner);
+
+      final ICommonsList <IParticipantIdentifier> aPIs = new CommonsArrayList <> ();
+      for (int i = 0; i < 5; ++i)
+        aPIs.add (SMPMetaManager.getIdentifierFactory ()
+                                .createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                              "0088:streamingimport" + i));
+      try
+      {
+        for (final IParticipantIdentifier aPI : aPIs)
+          aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, false);
+
+        final byte [] aExport;
+        try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+        {
+          ServiceGroupExport.writeAllExportDataXMLVer10 (aBAOS, false);
+          aExport = aBAOS.toByteArray ();
+        }
+
+        for (final IParticipantIdentifier aPI : aPIs)
+          aSGMgr.deleteSMPServiceGroupNoEx (aPI, false);
+
+        // Import in chunks of 2
+        final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
+        final ImportSummary aSummary = new ImportSummary ();
+        final MutableInt aChunkCount = new MutableInt (0);
+        try (final NonBlockingByteArrayInputStream aBAIS = new NonBlockingByteArrayInputStream (aExport))
+        {
+          ServiceGroupStreamingImport.importXMLVer10 (aBAIS,
+                                                      false,
+                                                      aOwner,
+                                                      2,
+                                                      aActionList,
+                                                      aSummary,
+                                                      (nSGCount, nBCCount, aSum) -> aChunkCount.inc ());
+        }
+        assertFalse (aActionList.toString (), aActionList.containsAny (ImportActionItem::isError));
+        assertTrue (aChunkCount.intValue () >= 3);
+        for (final IParticipantIdentifier aPI : aPIs)
+          assertTrue (aSGMgr.containsSMPServiceGroupWithID (aPI));
+
+        // Import again without overwrite - everything is ignored
+        aActionList.clear ();
+        try (final NonBlockingByteArrayInputStream aBAIS = new NonBlockingByteArrayInputStream (aExport))
+        {
+          ServiceGroupStreamingImport.importXMLVer10 (aBAIS, false, aOwner, 2, aActionList, new ImportSummary (), null);
+        }
+        // The backend may contain other service groups as well
+        final ICommonsSet <String> aSGIDs = new CommonsHashSet <> (aPIs, SMPServiceGroup::createSMPServiceGroupID);
+        assertEquals (aPIs.size (),
+                      aActionList.getAll (x -> x.getErrorLevel () == EErrorLevel.WARN &&
+                                               aSGIDs.contains (x.getParticipantID ()))
+                                 .size ());
+      }
+      finally
+      {
+        for (final IParticipantIdentifier aPI : aPIs)
+          aSGMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      }
+    }
+  }
+
+  @Test (expected = XMLStreamException.class)
+  public void testInvalidRoot () throws Exception
+  {
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final IUser aOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+      try (final NonBlockingByteArrayInputStream aBAIS = new NonBlockingByteArrayInputStream ("<other version='1.0'/>".getBytes (StandardCharsets.UTF_8)))
+      {
+        ServiceGroupStreamingImport.importXMLVer10 (aBAIS,
+                                                    false,
+                                                    aOwner,
+                                                    10,
+                                                    new CommonsArrayList <> (),
+                                                    new ImportSummary (),
+                                                    null);
+      }
+    }
+  }
+}
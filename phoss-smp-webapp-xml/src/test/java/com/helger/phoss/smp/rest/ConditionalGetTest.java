@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.http.CHttpHeader;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+import com.helger.peppolid.peppol.process.EPredefinedProcessIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.web.scope.mgr.WebScoped;
+
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Test the conditional GET support (enabled via
+ * <code>smp.rest.conditional.get.enabled</code>).
+ *
+ * @author Philip Helger
+ */
+public final class ConditionalGetTest
+{
+  @Rule
+  public final SMPServerRESTTestRule m_aRule = new SMPServerRESTTestRule (new FileSystemResource ("src/test/resources/test-smp-server-xml-peppol-conditional.properties"));
+
+  private static void _addServiceInformation (@Nonnull final ISMPServiceGroup aSG,
+                                              @Nonnull final IDocumentTypeIdentifier aDT) throws SMPServerException
+  {
+    final SMPEndpoint aEndpoint = new SMPEndpoint ("peppol-transport-as4-v2_0",
+                                                   "http://test.smpserver/as4",
+                                                   false,
+                                                   null,
+                                                   null,
+                                                   null,
+                                                   "blacert",
+                                                   "Unit test service",
+                                                   "https://github.com/phax/phoss-smp",
+                                                   null,
+                                                   null);
+    final SMPProcess aProcess = new SMPProcess (EPredefinedProcessIdentifier.BIS3_BILLING.getAsProcessIdentifier (),
+                                                new CommonsArrayList <> (aEndpoint),
+                                                null);
+    assertTrue (SMPMetaManager.getServiceInformationMgr ()
+                              .mergeSMPServiceInformation (new SMPServiceInformation (aSG,
+                                                                                      aDT,
+                                                                                      new CommonsArrayList <> (aProcess),
+                                                                                      null))
+                              .isSuccess ());
+  }
+
+  @Test
+  public void testServiceGroupAndMetadata () throws Exception
+  {
+    assertTrue (SMPServerConfiguration.isRESTConditionalGetEnabled ());
+
+    final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9915:conditional");
+    final IDocumentTypeIdentifier aDT = EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ();
+    final IDocumentTypeIdentifier aDT2 = EPredefinedDocumentTypeIdentifier.CREDITNOTE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ();
+
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      final ISMPServiceGroup aSG = aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, false);
+      assertNotNull (aSG);
+      try
+      {
+        _addServiceInformation (aSG, aDT);
+
+        final WebTarget aSGTarget = ClientBuilder.newClient ().target (m_aRule.getFullURL ()).path (aPI.getURIEncoded ());
+        final WebTarget aSMTarget = aSGTarget.path ("services").path (aDT.getURIEncoded ());
+
+        // Initial requests contain the validators
+        Response aResponse = aSGTarget.request ().get ();
+        assertEquals (200, aResponse.getStatus ());
+        final String sSGETag = aResponse.getHeaderString (CHttpHeader.ETAG);
+        assertNotNull (sSGETag);
+        assertTrue (sSGETag.startsWith ("\""));
+        final String sSGLastModified = aResponse.getHeaderString (CHttpHeader.LAST_MODIFIED);
+        assertNotNull (sSGLastModified);
+
+        aResponse = aSMTarget.request ().get ();
+        assertEquals (200, aResponse.getStatus ());
+        final String sSMETag = aResponse.getHeaderString (CHttpHeader.ETAG);
+        assertNotNull (sSMETag);
+        assertNotEquals (sSGETag, sSMETag);
+
+        // Unchanged
+        aResponse = aSGTarget.request ().header (CHttpHeader.IF_NON_MATCH, sSGETag).get ();
+        assertEquals (304, aResponse.getStatus ());
+        assertEquals (sSGETag, aResponse.getHeaderString (CHttpHeader.ETAG));
+        aResponse = aSGTarget.request ().header (CHttpHeader.IF_MODIFIED_SINCE, sSGLastModified).get ();
+        assertEquals (304, aResponse.getStatus ());
+        aResponse = aSMTarget.request ().header (CHttpHeader.IF_NON_MATCH, "\"other\", W/" + sSMETag).get ();
+        assertEquals (304, aResponse.getStatus ());
+
+        // A different ETag takes precedence over If-Modified-Since
+        aResponse = aSGTarget.request ()
+                             .header (CHttpHeader.IF_NON_MATCH, "\"other\"")
+                             .header (CHttpHeader.IF_MODIFIED_SINCE, sSGLastModified)
+                             .get ();
+        assertEquals (200, aResponse.getStatus ());
+
+        // Modify the participant
+        _addServiceInformation (aSG, aDT2);
+
+        aResponse = aSGTarget.request ().header (CHttpHeader.IF_NON_MATCH, sSGETag).get ();
+        assertEquals (200, aResponse.getStatus ());
+        assertNotEquals (sSGETag, aResponse.getHeaderString (CHttpHeader.ETAG));
+        aResponse = aSGTarget.request ().header (CHttpHeader.IF_MODIFIED_SINCE, sSGLastModified).get ();
+        assertEquals (200, aResponse.getStatus ());
+        aResponse = aSMTarget.request ().header (CHttpHeader.IF_NON_MATCH, sSMETag).get ();
+        assertEquals (200, aResponse.getStatus ());
+      }
+      finally
+      {
+        aSGMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      }
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+import com.helger.peppolid.peppol.doctype.EPredefinedDocumentTypeIdentifier;
+import com.helger.peppolid.peppol.process.EPredefinedProcessIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerRESTTestRule;
+import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.photon.security.CSecurity;
+import com.helger.servlet.mock.MockHttpServletRequest;
+import com.helger.web.scope.mgr.WebScoped;
+import com.helger.xml.serialize.read.DOMReader;
+
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Test the streaming signing of service metadata responses (enabled via
+ * <code>smp.rest.signing.streaming</code>) for all REST types. BDXR2 uses C14N
+ * 1.1 instead of the inclusive canonicalization.
+ *
+ * @author Philip Helger
+ */
+@RunWith (Parameterized.class)
+public final class ServiceMetadataStreamingSigningTest
+{
+  @Parameters (name = "{0}")
+  public static Collection <Object []> data ()
+  {
+    return new CommonsArrayList <> (new Object [] { "src/test/resources/test-smp-server-xml-peppol-streaming.properties" },
+                                    new Object [] { "src/test/resources/test-smp-server-xml-bdxr1-streaming.properties" },
+                                    new Object [] { "src/test/resources/test-smp-server-xml-bdxr2-streaming.properties" });
+  }
+
+  @Rule
+  public final SMPServerRESTTestRule m_aRule;
+
+  public ServiceMetadataStreamingSigningTest (@Nonnull final String sPropertiesFile)
+  {
+    m_aRule = new SMPServerRESTTestRule (new FileSystemResource (sPropertiesFile));
+  }
+
+  @Test
+  public void testSignatureIsValid () throws Exception
+  {
+    assertTrue (SMPServerConfiguration.isRESTSigningStreaming ());
+
+    final IParticipantIdentifier aPI = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9915:streaming");
+    final IDocumentTypeIdentifier aDT = EPredefinedDocumentTypeIdentifier.INVOICE_EN16931_PEPPOL_V30.getAsDocumentTypeIdentifier ();
+
+    try (final WebScoped aWS = new WebScoped (new MockHttpServletRequest ()))
+    {
+      final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      final ISMPServiceGroup aSG = aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, false);
+      assertNotNull (aSG);
+      try
+      {
+        _createServiceInformation (aSG, aDT);
+
+        // BDXR2 uses a different query path
+        WebTarget aTarget = ClientBuilder.newClient ().target (m_aRule.getFullURL ());
+        final String sQueryPathPrefix = SMPServerConfiguration.getRESTType ().getQueryPathPrefix ();
+        if (!sQueryPathPrefix.isEmpty ())
+          aTarget = aTarget.path (sQueryPathPrefix);
+        final Response aResponse = aTarget.path (aPI.getURIEncoded ())
+                                          .path ("services")
+                                          .path (aDT.getURIEncoded ())
+                                          .request ()
+                                          .get ();
+        assertEquals (200, aResponse.getStatus ());
+        final byte [] aBytes = aResponse.readEntity (byte [].class);
+
+        // Verify with the standard XMLDSig implementation
+        final Document aDoc = DOMReader.readXMLDOM (aBytes);
+        assertNotNull (aDoc);
+        final NodeList aSignatures = aDoc.getElementsByTagNameNS (XMLSignature.XMLNS, "Signature");
+        assertEquals (1, aSignatures.getLength ());
+        // The signature must be the last child of the document element
+        assertTrue (aSignatures.item (0) == aDoc.getDocumentElement ().getLastChild ());
+
+        final DOMValidateContext aValidateContext = new DOMValidateContext (SMPKeyManager.getInstance ()
+                                                                                         .getPrivateKeyCertificate ()
+                                                                                         .getPublicKey (),
+                                                                            aSignatures.item (0));
+        final XMLSignature aSignature = XMLSignatureFactory.getInstance ("DOM")
+                                                           .unmarshalXMLSignature (aValidateContext);
+        assertTrue (aSignature.getSignatureValue ().validate (aValidateContext));
+        assertTrue (aSignature.getSignedInfo ().getReferences ().get (0).validate (aValidateContext));
+        assertTrue (aSignature.validate (aValidateContext));
+        // BDXR2 requires C14N 1.1
+        assertEquals (SMPServerConfiguration.getRESTType () == ESMPRESTType.OASIS_BDXR_V2 ? "http://www.w3.org/2006/12/xml-c14n11"
+                                                                                         : CanonicalizationMethod.INCLUSIVE,
+                      aSignature.getSignedInfo ().getCanonicalizationMethod ().getAlgorithm ());
+      }
+      finally
+      {
+        aSGMgr.deleteSMPServiceGroupNoEx (aPI, false);
+      }
+    }
+  }
+
+  private static void _createServiceInformation (@Nonnull final ISMPServiceGroup aSG,
+                                                 @Nonnull final IDocumentTypeIdentifier aDT) throws SMPServerException
+  {
+    // Include characters that need escaping in the canonical form
+    final SMPEndpoint aEndpoint = new SMPEndpoint ("peppol-transport-as4-v2_0",
+                                                   "http://test.smpserver/as4?a=b&c=d",
+                                                   false,
+                                                   null,
+                                                   null,
+                                                   null,
+                                                   "blacert",
+                                                   "Unit test <service> \"with\" special\r\ncharacters",
+                                                   "https://github.com/phax/phoss-smp",
+                                                   null,
+                                                   null);
+    final SMPProcess aProcess = new SMPProcess (EPredefinedProcessIdentifier.BIS3_BILLING.getAsProcessIdentifier (),
+                                                new CommonsArrayList <> (aEndpoint),
+                                                null);
+    assertTrue (SMPMetaManager.getServiceInformationMgr ()
+                              .mergeSMPServiceInformation (new SMPServiceInformation (aSG,
+                                                                                      aDT,
+                                                                                      new CommonsArrayList <> (aProcess),
+                                                                                      null))
+                              .isSuccess ());
+  }
+}
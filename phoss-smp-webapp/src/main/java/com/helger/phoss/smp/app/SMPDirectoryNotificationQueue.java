@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ELockType;
+import com.helger.commons.annotation.MustBeLocked;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.datetime.PDTFactory;
+import com.helger.commons.state.ESuccess;
+import com.helger.pd.client.PDClient;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.pdnotification.EDirectoryNotificationAction;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotification;
+import com.helger.phoss.smp.domain.pdnotification.ISMPDirectoryNotificationManager;
+import com.helger.phoss.smp.domain.pdnotification.SMPDirectoryNotification;
+import com.helger.scope.IScope;
+import com.helger.web.scope.mgr.WebScoped;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * An asynchronous queue for the notifications to the Peppol Directory. Only the
+ * latest action per participant is kept, so that multiple modifications of the
+ * same participant result in a single Directory call. The notifications are
+ * sent from a fixed size worker pool and failed notifications are retried with
+ * an exponential backoff. All pending notifications are persisted in the
+ * {@link ISMPDirectoryNotificationManager} of the configured backend and
+ * resumed after a restart.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPDirectoryNotificationQueue extends AbstractGlobalWebSingleton
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPDirectoryNotificationQueue.class);
+
+  private static final class PendingEntry
+  {
+    private final ISMPDirectoryNotification m_aNotification;
+    private final LocalDateTime m_aFirstQueueDT;
+    private final int m_nFailedAttempts;
+
+    PendingEntry (@Nonnull final ISMPDirectoryNotification aNotification,
+                  @Nonnull final LocalDateTime aFirstQueueDT,
+                  @Nonnegative final int nFailedAttempts)
+    {
+      m_aNotification = aNotification;
+      m_aFirstQueueDT = aFirstQueueDT;
+      m_nFailedAttempts = nFailedAttempts;
+    }
+  }
+
+  private ISMPDirectoryNotificationManager m_aNotificationMgr;
+  private ScheduledThreadPoolExecutor m_aExecutor;
+  private long m_nRetryInitialSeconds;
+  private long m_nRetryMaxSeconds;
+
+  // Orders the backend calls of the same participant without blocking the
+  // in-memory bookkeeping
+  private final SimpleLock m_aPersistLock = new SimpleLock ();
+
+  // Notifications that wait for being sent
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, PendingEntry> m_aPending = new CommonsHashMap <> ();
+  // Notifications that are currently sent
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, PendingEntry> m_aInProgress = new CommonsHashMap <> ();
+
+  private final AtomicLong m_aSuccessCount = new AtomicLong (0);
+  private final AtomicLong m_aFailureCount = new AtomicLong (0);
+  private final AtomicLong m_aCoalescedCount = new AtomicLong (0);
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPDirectoryNotificationQueue ()
+  {}
+
+  @Nonnull
+  public static SMPDirectoryNotificationQueue getInstance ()
+  {
+    return getGlobalSingleton (SMPDirectoryNotificationQueue.class);
+  }
+
+  @Nullable
+  public static SMPDirectoryNotificationQueue getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (SMPDirectoryNotificationQueue.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    m_aNotificationMgr = SMPMetaManager.getDirectoryNotificationMgr ();
+    m_nRetryInitialSeconds = SMPServerConfiguration.getDirectoryNotificationRetryInitialSeconds ();
+    m_nRetryMaxSeconds = Math.max (SMPServerConfiguration.getDirectoryNotificationRetryMaxSeconds (),
+                                   m_nRetryInitialSeconds);
+
+    final int nWorkers = SMPServerConfiguration.getDirectoryNotificationWorkerCount ();
+    final AtomicInteger aThreadIndex = new AtomicInteger (0);
+    m_aExecutor = new ScheduledThreadPoolExecutor (nWorkers, r -> {
+      final Thread aThread = new Thread (r, "smp-directory-notification-" + aThreadIndex.incrementAndGet ());
+      aThread.setDaemon (true);
+      return aThread;
+    });
+    // Delayed retries stay persisted and are picked up after the restart
+    m_aExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy (false);
+
+    // Resume all notifications that were not sent before the last shutdown
+    final ICommonsList <ISMPDirectoryNotification> aResumed = m_aNotificationMgr.getAllDirectoryNotifications ();
+    m_aRWLock.writeLocked ( () -> {
+      for (final ISMPDirectoryNotification aNotification : aResumed)
+      {
+        m_aPending.put (aNotification.getID (),
+                        new PendingEntry (aNotification, aNotification.getQueueDateTime (), 0));
+        _schedule (aNotification.getID (), 0);
+      }
+    });
+    final int nResumed = aResumed.size ();
+
+    LOGGER.info ("Started the Directory notification queue with " +
+                 nWorkers +
+                 " worker(s)" +
+                 (nResumed > 0 ? " and resumed " + nResumed + " pending notification(s)" : ""));
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction)
+  {
+    // Waits for the notifications currently being sent
+    ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (m_aExecutor);
+
+    final int nPending = getQueueSize ();
+    if (nPending > 0)
+      LOGGER.info (nPending + " Directory notification(s) remain persisted for the next startup");
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _schedule (@Nonnull final String sKey, @Nonnegative final long nDelaySeconds)
+  {
+    try
+    {
+      m_aExecutor.schedule ( () -> _send (sKey), nDelaySeconds, TimeUnit.SECONDS);
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      // Shutdown in progress - the entry stays persisted
+      LOGGER.warn ("Failed to schedule Directory notification for '" + sKey + "'");
+    }
+  }
+
+  private long _getRetryDelaySeconds (@Nonnegative final int nFailedAttempts)
+  {
+    // Avoid an overflow of the shift
+    final int nShift = Math.min (nFailedAttempts - 1, 30);
+    final long nDelay = m_nRetryInitialSeconds << Math.max (nShift, 0);
+    return nDelay <= 0 ? m_nRetryMaxSeconds : Math.min (nDelay, m_nRetryMaxSeconds);
+  }
+
+  /**
+   * Queue a notification to the Peppol Directory. A pending notification of the
+   * same participant is replaced. The notification is persisted before this
+   * method returns, so it is not lost on a restart.
+   *
+   * @param aParticipantID
+   *        The participant ID to be notified. May not be <code>null</code>.
+   * @param eAction
+   *        The action to be performed in the Directory. May not be
+   *        <code>null</code>.
+   */
+  public void queueNotification (@Nonnull final IParticipantIdentifier aParticipantID,
+                                 @Nonnull final EDirectoryNotificationAction eAction)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+    ValueEnforcer.notNull (eAction, "Action");
+
+    final SMPDirectoryNotification aNotification = SMPDirectoryNotification.createNow (aParticipantID, eAction);
+    final String sKey = aNotification.getID ();
+
+    m_aPersistLock.locked ( () -> {
+      // Persist without blocking the workers
+      if (m_aNotificationMgr.storeDirectoryNotification (aNotification).isUnchanged ())
+        LOGGER.warn ("Failed to persist Directory notification " + aNotification);
+
+      m_aRWLock.writeLocked ( () -> {
+        final PendingEntry aOld = m_aPending.get (sKey);
+        if (aOld != null)
+        {
+          // Replace the pending one - it is already scheduled
+          m_aPending.put (sKey, new PendingEntry (aNotification, aOld.m_aFirstQueueDT, aOld.m_nFailedAttempts));
+          m_aCoalescedCount.incrementAndGet ();
+        }
+        else
+        {
+          m_aPending.put (sKey, new PendingEntry (aNotification, aNotification.getQueueDateTime (), 0));
+          // If it is currently sent, it is scheduled after the sending finished
+          if (!m_aInProgress.containsKey (sKey))
+            _schedule (sKey, 0);
+        }
+      });
+    });
+  }
+
+  private void _deletePersisted (@Nonnull final String sKey, @Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    m_aPersistLock.locked ( () -> {
+      // Don't delete a newer notification that was queued in the meantime
+      if (m_aRWLock.readLockedBoolean ( () -> m_aPending.containsKey (sKey) || m_aInProgress.containsKey (sKey)))
+        return;
+      m_aNotificationMgr.deleteDirectoryNotification (aParticipantID);
+    });
+  }
+
+  @Nonnull
+  private static ESuccess _sendToDirectory (@Nonnull final ISMPDirectoryNotification aNotification)
+  {
+    // The SQL backend needs a scope to read the settings
+    try (final WebScoped aWS = new WebScoped ())
+    {
+      if (!SMPMetaManager.getSettings ().isDirectoryIntegrationEnabled ())
+      {
+        LOGGER.info ("Discarding Directory notification " + aNotification + " because the integration is disabled");
+        return ESuccess.SUCCESS;
+      }
+
+      final PDClient aPDClient = PDClientProvider.getInstance ().getPDClient ();
+      final IParticipantIdentifier aParticipantID = aNotification.getParticipantIdentifier ();
+      return aNotification.getAction ().isAdd () ? aPDClient.addServiceGroupToIndex (aParticipantID)
+                                                 : aPDClient.deleteServiceGroupFromIndex (aParticipantID);
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Error sending Directory notification " + aNotification, ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
+  private void _send (@Nonnull final String sKey)
+  {
+    final PendingEntry aEntry = m_aRWLock.writeLockedGet ( () -> {
+      final PendingEntry ret = m_aPending.remove (sKey);
+      if (ret != null)
+        m_aInProgress.put (sKey, ret);
+      return ret;
+    });
+    if (aEntry == null)
+      return;
+
+    final ESuccess eSuccess = _sendToDirectory (aEntry.m_aNotification);
+
+    final boolean bDelete = m_aRWLock.writeLockedBoolean ( () -> {
+      m_aInProgress.remove (sKey);
+
+      // Was the participant modified while sending?
+      final boolean bHasNewer = m_aPending.containsKey (sKey);
+      if (eSuccess.isSuccess ())
+      {
+        m_aSuccessCount.incrementAndGet ();
+      }
+      else
+      {
+        m_aFailureCount.incrementAndGet ();
+        if (!bHasNewer)
+        {
+          // Retry the same notification later
+          final int nFailedAttempts = aEntry.m_nFailedAttempts + 1;
+          final long nDelaySeconds = _getRetryDelaySeconds (nFailedAttempts);
+          LOGGER.warn ("Directory notification " +
+                       aEntry.m_aNotification +
+                       " failed " +
+                       nFailedAttempts +
+                       " time(s) - retrying in " +
+                       nDelaySeconds +
+                       " seconds");
+          m_aPending.put (sKey, new PendingEntry (aEntry.m_aNotification, aEntry.m_aFirstQueueDT, nFailedAttempts));
+          _schedule (sKey, nDelaySeconds);
+        }
+      }
+
+      // The newer notification supersedes the sent one
+      if (bHasNewer)
+        _schedule (sKey, 0);
+      return eSuccess.isSuccess () && !bHasNewer;
+    });
+
+    if (bDelete)
+      _deletePersisted (sKey, aEntry.m_aNotification.getParticipantIdentifier ());
+  }
+
+  /**
+   * @return The number of participants with a pending or currently sent
+   *         notification.
+   */
+  @Nonnegative
+  public int getQueueSize ()
+  {
+    return m_aRWLock.readLockedInt ( () -> {
+      int ret = m_aPending.size ();
+      for (final String sKey : m_aInProgress.keySet ())
+        if (!m_aPending.containsKey (sKey))
+          ret++;
+      return ret;
+    });
+  }
+
+  /**
+   * @return The duration since the oldest notification that was not yet sent
+   *         successfully was queued. Never <code>null</code>.
+   */
+  @Nonnull
+  public Duration getLag ()
+  {
+    final LocalDateTime aOldest = m_aRWLock.readLockedGet ( () -> {
+      LocalDateTime ret = null;
+      for (final PendingEntry aEntry : m_aPending.values ())
+        if (ret == null || aEntry.m_aFirstQueueDT.isBefore (ret))
+          ret = aEntry.m_aFirstQueueDT;
+      for (final PendingEntry aEntry : m_aInProgress.values ())
+        if (ret == null || aEntry.m_aFirstQueueDT.isBefore (ret))
+          ret = aEntry.m_aFirstQueueDT;
+      return ret;
+    });
+    if (aOldest == null)
+      return Duration.ZERO;
+    return Duration.between (aOldest, PDTFactory.getCurrentLocalDateTime ());
+  }
+
+  @Nonnegative
+  public long getSuccessCount ()
+  {
+    return m_aSuccessCount.get ();
+  }
+
+  @Nonnegative
+  public long getFailureCount ()
+  {
+    return m_aFailureCount.get ();
+  }
+
+  @Nonnegative
+  public long getCoalescedCount ()
+  {
+    return m_aCoalescedCount.get ();
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.state.ESuccess;
+import com.helger.scope.IScope;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * The worker pool for the streaming exports. The number of concurrently
+ * running exports is limited, because each export holds a database connection
+ * and a thread for the whole duration of the download. The pool is shut down
+ * together with the global scope.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPExportExecutor extends AbstractGlobalWebSingleton
+{
+  /** The maximum number of exports running at the same time */
+  public static final int MAX_CONCURRENT_EXPORTS = 2;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPExportExecutor.class);
+
+  private ThreadPoolExecutor m_aExecutor;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPExportExecutor ()
+  {}
+
+  @Nonnull
+  public static SMPExportExecutor getInstance ()
+  {
+    return getGlobalSingleton (SMPExportExecutor.class);
+  }
+
+  @Nullable
+  public static SMPExportExecutor getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (SMPExportExecutor.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    final AtomicInteger aThreadIndex = new AtomicInteger (0);
+    // No queue - an export is either started immediately or rejected
+    m_aExecutor = new ThreadPoolExecutor (MAX_CONCURRENT_EXPORTS,
+                                          MAX_CONCURRENT_EXPORTS,
+                                          60,
+                                          TimeUnit.SECONDS,
+                                          new SynchronousQueue <> (),
+                                          r -> {
+                                            final Thread aThread = new Thread (r,
+                                                                               "smp-export-" +
+                                                                                  aThreadIndex.incrementAndGet ());
+                                            aThread.setDaemon (true);
+                                            return aThread;
+                                          });
+    m_aExecutor.allowCoreThreadTimeOut (true);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction)
+  {
+    // Running exports end when the client or the pipe is closed
+    ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (m_aExecutor);
+  }
+
+  /**
+   * @return <code>true</code> if all workers are currently busy and a new
+   *         export would be rejected.
+   */
+  public boolean isBusy ()
+  {
+    return m_aExecutor.getActiveCount () >= MAX_CONCURRENT_EXPORTS;
+  }
+
+  /**
+   * Start the provided export in a separate thread.
+   *
+   * @param aExport
+   *        The export to run. May not be <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the maximum number of concurrent
+   *         exports is reached or the pool is shut down.
+   */
+  @Nonnull
+  public ESuccess execute (@Nonnull final Runnable aExport)
+  {
+    ValueEnforcer.notNull (aExport, "Export");
+
+    try
+    {
+      m_aExecutor.execute (aExport);
+      return ESuccess.SUCCESS;
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      LOGGER.warn ("Rejected export, because " + MAX_CONCURRENT_EXPORTS + " exports are already running");
+      return ESuccess.FAILURE;
+    }
+  }
+}
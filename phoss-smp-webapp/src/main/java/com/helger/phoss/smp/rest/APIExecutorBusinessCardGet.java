@@ -27,6 +27,7 @@ import com.helger.peppol.businesscard.v3.PD3BusinessCardType;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.rest.SMPParticipantVersionTracker.ResponseValidators;
 import com.helger.phoss.smp.restapi.BusinessCardServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.photon.api.IAPIDescriptor;
@@ -54,10 +55,30 @@ public final class APIExecutorBusinessCardGet extends AbstractSMPAPIExecutor
                                                 aDataProvider.getCurrentURI ());
     }
 
+    final ESMPContentCoding eAcceptedCoding = SMPResponseCompression.getAcceptedContentCoding (aRequestScope.headers ());
+    final ResponseValidators aValidators = SMPParticipantVersionTracker.getValidatorsIfEnabled (sServiceGroupID,
+                                                                                               "businesscard");
+    final String sNotModifiedETag = aValidators == null ? null
+                                                        : aValidators.getNotModifiedETag (aRequestScope.headers (),
+                                                                                          eAcceptedCoding);
+    if (sNotModifiedETag != null)
+    {
+      // The client already has the current version
+      aValidators.applyNotModified (aUnifiedResponse, sNotModifiedETag);
+      return;
+    }
+
     // getBusinessCard throws an exception if non is found
     final PD3BusinessCardType ret = new BusinessCardServerAPI (aDataProvider).getBusinessCard (sServiceGroupID);
     final byte [] aBytes = new PD3BusinessCardMarshaller ().getAsBytes (ret);
 
-    aUnifiedResponse.setContent (aBytes).setMimeType (CMimeType.TEXT_XML).setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+    final ESMPContentCoding eAppliedCoding = SMPResponseCompression.setContent (aUnifiedResponse,
+                                                                               aBytes,
+                                                                               CMimeType.TEXT_XML,
+                                                                               XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                                                                               eAcceptedCoding,
+                                                                               null);
+    if (aValidators != null)
+      aValidators.applyTo (aUnifiedResponse, eAppliedCoding);
   }
 }
@@ -16,6 +16,11 @@
  */
 package com.helger.phoss.smp.rest;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
@@ -24,12 +29,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.commons.annotation.Nonempty;
-import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.http.CHttp;
+import com.helger.commons.io.IHasInputStream;
+import com.helger.commons.io.stream.StreamHelper;
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.mime.MimeType;
+import com.helger.commons.state.ESuccess;
+import com.helger.phoss.smp.app.SMPExportExecutor;
 import com.helger.phoss.smp.domain.SMPMetaManager;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
 import com.helger.phoss.smp.exchange.ServiceGroupExport;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
@@ -37,9 +44,7 @@ import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.photon.api.IAPIDescriptor;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
-import com.helger.xml.microdom.IMicroDocument;
-import com.helger.xml.microdom.serialize.MicroWriter;
-import com.helger.xml.serialize.write.IXMLWriterSettings;
+import com.helger.web.scope.mgr.WebScoped;
 import com.helger.xml.serialize.write.XMLWriterSettings;
 
 /**
@@ -53,6 +58,117 @@ public final class APIExecutorExportAllXMLVer1 extends AbstractSMPAPIExecutor
   public static final String PARAM_INCLUDE_BUSINESS_CARDS = "include-business-cards";
 
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorExportAllXMLVer1.class);
+  private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The input stream handed to the response. If the export failed, the end of
+   * the data is reported as an {@link IOException} instead of a regular end of
+   * stream, so that the response is aborted and the client doesn't take a
+   * truncated document for a complete one.
+   *
+   * @author Philip Helger
+   */
+  private static final class ExportInputStream extends FilterInputStream
+  {
+    private volatile Exception m_aError;
+
+    ExportInputStream (@Nonnull final InputStream aIS)
+    {
+      super (aIS);
+    }
+
+    void setError (@Nonnull final Exception aError)
+    {
+      m_aError = aError;
+    }
+
+    private int _checkEOF (final int nRead) throws IOException
+    {
+      if (nRead < 0 && m_aError != null)
+        throw new IOException ("Export data is incomplete", m_aError);
+      return nRead;
+    }
+
+    @Override
+    public int read () throws IOException
+    {
+      return _checkEOF (super.read ());
+    }
+
+    @Override
+    public int read (@Nonnull final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      return _checkEOF (super.read (aBuf, nOfs, nLen));
+    }
+  }
+
+  /**
+   * The response content that creates the export data while the response is
+   * written. The export is created in a thread of the {@link SMPExportExecutor}
+   * that writes into a pipe that is read by the response, so that the export
+   * data is never held in memory completely.
+   *
+   * @author Philip Helger
+   */
+  private static final class StreamingExportContent implements IHasInputStream
+  {
+    private final String m_sLogPrefix;
+    private final boolean m_bIncludeBusinessCards;
+
+    StreamingExportContent (@Nonnull final String sLogPrefix, final boolean bIncludeBusinessCards)
+    {
+      m_sLogPrefix = sLogPrefix;
+      m_bIncludeBusinessCards = bIncludeBusinessCards;
+    }
+
+    @Nonnull
+    public InputStream getInputStream ()
+    {
+      final PipedInputStream aPIS = new PipedInputStream (PIPE_BUFFER_SIZE);
+      final PipedOutputStream aPOS;
+      try
+      {
+        aPOS = new PipedOutputStream (aPIS);
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException ("Failed to connect export pipe", ex);
+      }
+
+      final ExportInputStream aEIS = new ExportInputStream (aPIS);
+      final ESuccess eStarted = SMPExportExecutor.getInstance ().execute ( () -> {
+        // The managers may need a scope
+        try (final WebScoped aWS = new WebScoped ())
+        {
+          ServiceGroupExport.writeAllExportDataXMLVer10 (aPOS, m_bIncludeBusinessCards);
+          LOGGER.info (m_sLogPrefix + "Finished streaming Export data");
+        }
+        catch (final Exception ex)
+        {
+          // The HTTP status was already sent - abort the response
+          LOGGER.error (m_sLogPrefix + "Error streaming Export data", ex);
+          aEIS.setError (ex);
+        }
+        finally
+        {
+          // Signal the end to the reader
+          StreamHelper.close (aPOS);
+        }
+      });
+      if (eStarted.isFailure ())
+      {
+        StreamHelper.close (aPOS);
+        StreamHelper.close (aPIS);
+        throw new IllegalStateException ("Too many concurrent exports");
+      }
+      return aEIS;
+    }
+
+    public boolean isReadMultiple ()
+    {
+      return false;
+    }
+  }
 
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
@@ -67,25 +183,25 @@ public final class APIExecutorExportAllXMLVer1 extends AbstractSMPAPIExecutor
     final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
     SMPUserManagerPhoton.validateUserCredentials (aCredentials);
 
+    // Reject early, as long as the status can still be set
+    if (SMPExportExecutor.getInstance ().isBusy ())
+    {
+      LOGGER.warn (sLogPrefix + "Rejecting Export, because too many exports are running");
+      aUnifiedResponse.setStatus (CHttp.HTTP_SERVICE_UNAVAILABLE).disableCaching ();
+      return;
+    }
+
     // Start action after authentication
     final ISMPSettings aSettings = SMPMetaManager.getSettings ();
-    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-
-    // Now get all relevant service groups
-    final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
 
     final boolean bIncludeBusinessCards = aRequestScope.params ()
                                                        .getAsBoolean (PARAM_INCLUDE_BUSINESS_CARDS,
                                                                       aSettings.isDirectoryIntegrationEnabled ());
-    final IMicroDocument aDoc = ServiceGroupExport.createExportDataXMLVer10 (aAllServiceGroups, bIncludeBusinessCards);
-
-    LOGGER.info (sLogPrefix + "Finished creating Export data");
 
-    // Build the XML response
-    final IXMLWriterSettings aXWS = new XMLWriterSettings ();
-    aUnifiedResponse.setContentAndCharset (MicroWriter.getNodeAsString (aDoc, aXWS), aXWS.getCharset ())
+    // The export data is created while the response is written
+    aUnifiedResponse.setContent (new StreamingExportContent (sLogPrefix, bIncludeBusinessCards))
                     .setMimeType (new MimeType (CMimeType.APPLICATION_XML).addParameter (CMimeType.PARAMETER_NAME_CHARSET,
-                                                                                         aXWS.getCharset ().name ()))
+                                                                                         XMLWriterSettings.DEFAULT_XML_CHARSET))
                     .disableCaching ();
   }
 }
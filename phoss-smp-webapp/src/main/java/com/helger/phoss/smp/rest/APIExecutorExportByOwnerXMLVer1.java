@@ -26,7 +26,6 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.mime.CMimeType;
-import com.helger.commons.mime.MimeType;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -97,9 +96,12 @@ public final class APIExecutorExportByOwnerXMLVer1 extends AbstractSMPAPIExecuto
 
     // Build the XML response
     final IXMLWriterSettings aXWS = new XMLWriterSettings ();
-    aUnifiedResponse.setContentAndCharset (MicroWriter.getNodeAsString (aDoc, aXWS), aXWS.getCharset ())
-                    .setMimeType (new MimeType (CMimeType.APPLICATION_XML).addParameter (CMimeType.PARAMETER_NAME_CHARSET,
-                                                                                         aXWS.getCharset ().name ()))
-                    .disableCaching ();
+    SMPResponseCompression.setContent (aUnifiedResponse,
+                                       MicroWriter.getNodeAsString (aDoc, aXWS).getBytes (aXWS.getCharset ()),
+                                       CMimeType.APPLICATION_XML,
+                                       aXWS.getCharset (),
+                                       SMPResponseCompression.getAcceptedContentCoding (aRequestScope.headers ()),
+                                       null);
+    aUnifiedResponse.disableCaching ();
   }
 }
@@ -22,6 +22,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,7 @@ import com.helger.json.JsonArray;
 import com.helger.json.JsonObject;
 import com.helger.json.serialize.JsonWriter;
 import com.helger.json.serialize.JsonWriterSettings;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -55,6 +57,7 @@ import com.helger.phoss.smp.exchange.CSMPExchange;
 import com.helger.phoss.smp.exchange.ImportActionItem;
 import com.helger.phoss.smp.exchange.ImportSummary;
 import com.helger.phoss.smp.exchange.ServiceGroupImport;
+import com.helger.phoss.smp.exchange.ServiceGroupStreamingImport;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
 import com.helger.photon.api.IAPIDescriptor;
@@ -80,8 +83,16 @@ import com.helger.xml.serialize.write.XMLWriterSettings;
 public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
 {
   private static final boolean DEFAULT_OVERWRITE_EXISTING = false;
+  private static final boolean DEFAULT_STREAMING = false;
 
   public static final String PARAM_OVERVWRITE_EXISTING = "overwrite-existing";
+  /**
+   * Parameter to enable the streaming import, that writes the data in chunks
+   * while the payload is read.
+   *
+   * @since 7.1.4
+   */
+  public static final String PARAM_STREAMING = "streaming";
 
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorImportXMLVer1.class);
 
@@ -114,9 +125,6 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
     final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
     final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
 
-    final ICommonsSet <String> aAllServiceGroupIDs = aServiceGroupMgr.getAllSMPServiceGroupIDs ();
-    final ICommonsSet <String> aAllBusinessCardIDs = aBusinessCardMgr.getAllSMPBusinessCardIDs ();
-
     // Try to use ID or login name
     IUser aDefaultOwner = aUserMgr.getUserOfID (sPathUserLoginName);
     if (aDefaultOwner == null)
@@ -144,37 +152,73 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
                                                     .getAsBoolean (PARAM_OVERVWRITE_EXISTING,
                                                                    DEFAULT_OVERWRITE_EXISTING);
 
-    final byte [] aPayload = StreamHelper.getAllBytes (aRequestScope.getRequest ().getInputStream ());
-    final IMicroDocument aDoc = MicroReader.readMicroXML (aPayload);
-    if (aDoc == null || aDoc.getDocumentElement () == null)
-    {
-      // Cannot parse
-      throw new SMPBadRequestException ("Failed to parse XML payload", aDataProvider.getCurrentURI ());
-    }
-
-    final String sVersion = aDoc.getDocumentElement ().getAttributeValue (CSMPExchange.ATTR_VERSION);
-    if (!CSMPExchange.VERSION_10.equals (sVersion))
-    {
-      throw new SMPBadRequestException ("The provided payload is not an XML file version 1.0",
-                                        aDataProvider.getCurrentURI ());
-    }
-
-    // Version 1.0
-    LOGGER.info (sLogPrefix + "The provided payload is an XML file version 1.0");
+    final boolean bStreaming = aRequestScope.params ().getAsBoolean (PARAM_STREAMING, DEFAULT_STREAMING);
 
     final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
     final StopWatch aSW = StopWatch.createdStarted ();
 
-    // Start the import
     final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
     final ImportSummary aImportSummary = new ImportSummary ();
-    ServiceGroupImport.importXMLVer10 (aDoc.getDocumentElement (),
-                                       bOverwriteExisting,
-                                       aDefaultOwner,
-                                       aAllServiceGroupIDs,
-                                       aAllBusinessCardIDs,
-                                       aActionList,
-                                       aImportSummary);
+    if (bStreaming)
+    {
+      // Parse and write while reading
+      final int nChunkSize = SMPServerConfiguration.getExchangeImportChunkSize ();
+      LOGGER.info (sLogPrefix + "Using streaming import with chunk size " + nChunkSize);
+      try
+      {
+        ServiceGroupStreamingImport.importXMLVer10 (aRequestScope.getRequest ().getInputStream (),
+                                                    bOverwriteExisting,
+                                                    aDefaultOwner,
+                                                    nChunkSize,
+                                                    aActionList,
+                                                    aImportSummary,
+                                                    (nSGCount, nBCCount, aSummary) -> LOGGER.info (sLogPrefix +
+                                                                                                   "Progress: read " +
+                                                                                                   nSGCount +
+                                                                                                   " Service Groups and " +
+                                                                                                   nBCCount +
+                                                                                                   " Business Cards after " +
+                                                                                                   aSW.getMillis () +
+                                                                                                   " milliseconds"));
+      }
+      catch (final XMLStreamException ex)
+      {
+        throw new SMPBadRequestException ("Failed to parse XML payload: " + ex.getMessage (),
+                                          aDataProvider.getCurrentURI ());
+      }
+    }
+    else
+    {
+      final byte [] aPayload = StreamHelper.getAllBytes (aRequestScope.getRequest ().getInputStream ());
+      final IMicroDocument aDoc = MicroReader.readMicroXML (aPayload);
+      if (aDoc == null || aDoc.getDocumentElement () == null)
+      {
+        // Cannot parse
+        throw new SMPBadRequestException ("Failed to parse XML payload", aDataProvider.getCurrentURI ());
+      }
+
+      final String sVersion = aDoc.getDocumentElement ().getAttributeValue (CSMPExchange.ATTR_VERSION);
+      if (!CSMPExchange.VERSION_10.equals (sVersion))
+      {
+        throw new SMPBadRequestException ("The provided payload is not an XML file version 1.0",
+                                          aDataProvider.getCurrentURI ());
+      }
+
+      // Version 1.0
+      LOGGER.info (sLogPrefix + "The provided payload is an XML file version 1.0");
+
+      final ICommonsSet <String> aAllServiceGroupIDs = aServiceGroupMgr.getAllSMPServiceGroupIDs ();
+      final ICommonsSet <String> aAllBusinessCardIDs = aBusinessCardMgr.getAllSMPBusinessCardIDs ();
+
+      // Start the import
+      ServiceGroupImport.importXMLVer10 (aDoc.getDocumentElement (),
+                                         bOverwriteExisting,
+                                         aDefaultOwner,
+                                         aAllServiceGroupIDs,
+                                         aAllBusinessCardIDs,
+                                         aActionList,
+                                         aImportSummary);
+    }
 
     aSW.stop ();
     LOGGER.info (sLogPrefix + "Finished import after " + aSW.getMillis () + " milliseconds");
@@ -191,6 +235,7 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
 
       final IMicroElement eSettings = eRoot.appendElement ("settings");
       eSettings.setAttribute ("overwriteExisting", bOverwriteExisting);
+      eSettings.setAttribute ("streaming", bStreaming);
       eSettings.setAttribute ("defaultOwnerID", aDefaultOwner.getID ());
       eSettings.setAttribute ("defaultOwnerLoginName", aDefaultOwner.getLoginName ());
 
@@ -225,6 +270,7 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
       aJson.add ("importStartDateTime", DateTimeFormatter.ISO_ZONED_DATE_TIME.format (aQueryDT));
       aJson.addJson ("settings",
                      new JsonObject ().add ("overwriteExisting", bOverwriteExisting)
+                                      .add ("streaming", bStreaming)
                                       .add ("defaultOwnerID", aDefaultOwner.getID ())
                                       .add ("defaultOwnerLoginName", aDefaultOwner.getLoginName ()));
       final IJsonArray aActions = new JsonArray ();
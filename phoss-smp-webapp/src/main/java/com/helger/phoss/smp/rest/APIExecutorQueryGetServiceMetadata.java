@@ -54,6 +54,7 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.photon.api.IAPIDescriptor;
 import com.helger.servlet.response.UnifiedResponse;
 import com.helger.smpclient.bdxr1.BDXRClientReadOnly;
@@ -82,6 +83,20 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
     return aLD == null ? null : DateTimeFormatter.ISO_LOCAL_DATE.format (aLD);
   }
 
+  @Nonnull
+  static IJsonObject convertCertificate (@Nonnull final CertificateType aCert)
+  {
+    final String sCert = Base64.encodeBytes (aCert.getContentBinaryObjectValue ());
+    // Use the shared cache, so that each certificate is only parsed once
+    final SMPCertificateCache.CachedCertificate aCachedCert = SMPCertificateCache.getInstance ().get (sCert);
+    if (aCachedCert != null)
+      return aCachedCert.getAsJson ();
+
+    final IJsonObject ret = new JsonObject ();
+    SMPJsonResponse.convertCertificate (ret, sCert);
+    return ret;
+  }
+
   @Nonnull
   static IJsonObject convertEndpoint (@Nonnull final com.helger.xsds.bdxr.smp2.ac.EndpointType aEndpoint)
   {
@@ -97,9 +112,7 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
     final IJsonArray aJsonCerts = new JsonArray ();
     for (final CertificateType aCert : aEndpoint.getCertificate ())
     {
-      final IJsonObject aJsonCert = new JsonObject ();
-      SMPJsonResponse.convertCertificate (aJsonCert, Base64.encodeBytes (aCert.getContentBinaryObjectValue ()));
-      aJsonCerts.add (aJsonCert);
+      aJsonCerts.add (convertCertificate (aCert));
     }
     ret.addJson ("certificates", aJsonCerts);
 
@@ -174,9 +187,7 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
         final IJsonArray aJsonCerts = new JsonArray ();
         for (final CertificateType aCert : aRedirect.getCertificate ())
         {
-          final IJsonObject aJsonCert = new JsonObject ();
-          SMPJsonResponse.convertCertificate (aJsonCert, Base64.encodeBytes (aCert.getContentBinaryObjectValue ()));
-          aJsonCerts.add (aJsonCert);
+          aJsonCerts.add (convertCertificate (aCert));
         }
         aJsonRedirect.addJson ("certificates", aJsonCerts);
 
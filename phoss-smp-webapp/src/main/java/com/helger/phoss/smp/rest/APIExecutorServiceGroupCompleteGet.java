@@ -23,9 +23,11 @@ import javax.annotation.Nonnull;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.mime.CMimeType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPCompleteServiceGroupPage;
 import com.helger.phoss.smp.restapi.SMPServerAPI;
 import com.helger.photon.api.IAPIDescriptor;
 import com.helger.servlet.response.UnifiedResponse;
@@ -34,8 +36,22 @@ import com.helger.smpclient.peppol.marshal.SMPMarshallerCompleteServiceGroupType
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
 import com.helger.xml.serialize.write.XMLWriterSettings;
 
+/**
+ * Get the complete service group. If the <code>pageSize</code> request
+ * parameter is present, only a single page of the service metadata is
+ * returned, and the next page is referenced via the <code>Link</code> response
+ * header using an opaque <code>cursor</code> request parameter. A
+ * <code>cursor</code> without a <code>pageSize</code> is rejected.
+ *
+ * @author Philip Helger
+ */
 public final class APIExecutorServiceGroupCompleteGet extends AbstractSMPAPIExecutor
 {
+  public static final String PARAM_PAGE_SIZE = "pageSize";
+  public static final String PARAM_CURSOR = "cursor";
+  /** The HTTP "Link" response header from RFC 8288 */
+  public static final String HTTP_HEADER_LINK = "Link";
+
   public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
                          @Nonnull @Nonempty final String sPath,
                          @Nonnull final Map <String, String> aPathVariables,
@@ -44,21 +60,64 @@ public final class APIExecutorServiceGroupCompleteGet extends AbstractSMPAPIExec
   {
     final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
     final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
+    final boolean bPaged = aRequestScope.params ().containsKey (PARAM_PAGE_SIZE);
+    int nPageSize = 0;
+    if (bPaged)
+    {
+      nPageSize = aRequestScope.params ().getAsInt (PARAM_PAGE_SIZE, -1);
+      if (nPageSize <= 0)
+        throw new SMPBadRequestException ("The request parameter '" + PARAM_PAGE_SIZE + "' must be a number > 0",
+                                          aDataProvider.getCurrentURI ());
+      // Limit the maximum page size
+      nPageSize = Math.min (nPageSize, SMPServerConfiguration.getRESTCompletePageSizeMax ());
+    }
+    final String sCursor = aRequestScope.params ().getAsString (PARAM_CURSOR);
+    if (!bPaged && sCursor != null)
+    {
+      // The cursor is only valid together with the page size
+      throw new SMPBadRequestException ("The request parameter '" +
+                                        PARAM_CURSOR +
+                                        "' requires the request parameter '" +
+                                        PARAM_PAGE_SIZE +
+                                        "'",
+                                        aDataProvider.getCurrentURI ());
+    }
 
     final byte [] aBytes;
+    String sNextCursor = null;
     switch (SMPServerConfiguration.getRESTType ())
     {
       case PEPPOL:
       {
         // Unspecified extension
-        final com.helger.xsds.peppol.smp1.CompleteServiceGroupType ret = new SMPServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
+        final com.helger.xsds.peppol.smp1.CompleteServiceGroupType ret;
+        if (bPaged)
+        {
+          final SMPCompleteServiceGroupPage <com.helger.xsds.peppol.smp1.CompleteServiceGroupType> aPage = new SMPServerAPI (aDataProvider).getCompleteServiceGroupPage (sPathServiceGroupID,
+                                                                                                                                                                           sCursor,
+                                                                                                                                                                           nPageSize);
+          ret = aPage.getCompleteServiceGroup ();
+          sNextCursor = aPage.getNextCursor ();
+        }
+        else
+          ret = new SMPServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
         aBytes = new SMPMarshallerCompleteServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
         break;
       }
       case OASIS_BDXR_V1:
       {
         // Unspecified extension
-        final com.helger.xsds.bdxr.smp1.CompleteServiceGroupType ret = new BDXR1ServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
+        final com.helger.xsds.bdxr.smp1.CompleteServiceGroupType ret;
+        if (bPaged)
+        {
+          final SMPCompleteServiceGroupPage <com.helger.xsds.bdxr.smp1.CompleteServiceGroupType> aPage = new BDXR1ServerAPI (aDataProvider).getCompleteServiceGroupPage (sPathServiceGroupID,
+                                                                                                                                                                          sCursor,
+                                                                                                                                                                          nPageSize);
+          ret = aPage.getCompleteServiceGroup ();
+          sNextCursor = aPage.getNextCursor ();
+        }
+        else
+          ret = new BDXR1ServerAPI (aDataProvider).getCompleteServiceGroup (sPathServiceGroupID);
         aBytes = new BDXR1MarshallerCompleteServiceGroupType ().setUseSchema (XML_SCHEMA_VALIDATION).getAsBytes (ret);
         break;
       }
@@ -73,8 +132,18 @@ public final class APIExecutorServiceGroupCompleteGet extends AbstractSMPAPIExec
       throw new SMPInternalErrorException ("Failed to convert the returned CompleteServiceGroup to XML");
     }
 
-    aUnifiedResponse.setContent (aBytes)
-                    .setMimeType (CMimeType.TEXT_XML)
-                    .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+    if (sNextCursor != null)
+    {
+      // Relative reference to the same path (RFC 8288); the cursor is URL safe
+      final String sNextLink = "<?" + PARAM_PAGE_SIZE + "=" + nPageSize + "&" + PARAM_CURSOR + "=" + sNextCursor + ">";
+      aUnifiedResponse.addCustomResponseHeader (HTTP_HEADER_LINK, sNextLink + "; rel=\"next\"");
+    }
+
+    SMPResponseCompression.setContent (aUnifiedResponse,
+                                       aBytes,
+                                       CMimeType.TEXT_XML,
+                                       XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                                       SMPResponseCompression.getAcceptedContentCoding (aRequestScope.headers ()),
+                                       null);
   }
 }
@@ -22,8 +22,10 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.mime.CMimeType;
+import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.rest.SMPParticipantVersionTracker.ResponseValidators;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
@@ -45,10 +47,27 @@ public final class APIExecutorServiceGroupGet extends AbstractSMPAPIExecutor
                          @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
   {
     final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
+    final ESMPRESTType eRESTType = SMPServerConfiguration.getRESTType ();
+    final ESMPContentCoding eAcceptedCoding = SMPResponseCompression.getAcceptedContentCoding (aRequestScope.headers ());
+
+    // The contained references depend on the requested host
+    final String sVariant = "servicegroup " + eRESTType.getID () + " " + aRequestScope.getFullServerPath ();
+    final ResponseValidators aValidators = SMPParticipantVersionTracker.getValidatorsIfEnabled (sPathServiceGroupID,
+                                                                                               sVariant);
+    final String sNotModifiedETag = aValidators == null ? null
+                                                        : aValidators.getNotModifiedETag (aRequestScope.headers (),
+                                                                                          eAcceptedCoding);
+    if (sNotModifiedETag != null)
+    {
+      // The client already has the current version
+      aValidators.applyNotModified (aUnifiedResponse, sNotModifiedETag);
+      return;
+    }
+
     final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
 
     final byte [] aBytes;
-    switch (SMPServerConfiguration.getRESTType ())
+    switch (eRESTType)
     {
       case PEPPOL:
       {
@@ -78,8 +97,13 @@ public final class APIExecutorServiceGroupGet extends AbstractSMPAPIExecutor
       throw new SMPInternalErrorException ("Failed to convert the returned ServiceGroup to XML");
     }
 
-    aUnifiedResponse.setContent (aBytes)
-                    .setMimeType (CMimeType.TEXT_XML)
-                    .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+    final ESMPContentCoding eAppliedCoding = SMPResponseCompression.setContent (aUnifiedResponse,
+                                                                               aBytes,
+                                                                               CMimeType.TEXT_XML,
+                                                                               XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                                                                               eAcceptedCoding,
+                                                                               null);
+    if (aValidators != null)
+      aValidators.applyTo (aUnifiedResponse, eAppliedCoding);
   }
 }
@@ -17,11 +17,14 @@
 package com.helger.phoss.smp.rest;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamResult;
 
 import org.slf4j.Logger;
@@ -31,8 +34,17 @@ import org.w3c.dom.Document;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
 import com.helger.commons.mime.CMimeType;
+import com.helger.jaxb.GenericJAXBMarshaller;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.rest.SMPParticipantVersionTracker.ResponseValidators;
+import com.helger.phoss.smp.rest.SMPSignedResponseCache.CachedResponse;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
@@ -53,66 +65,41 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorServiceMetadataGet.class);
 
-  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
-                         @Nonnull @Nonempty final String sPath,
-                         @Nonnull final Map <String, String> aPathVariables,
-                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
-                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  @Nonnull
+  private static <T> byte [] _createSignedResponse (@Nonnull final GenericJAXBMarshaller <T> aMarshaller,
+                                                    @Nonnull final T aResponse,
+                                                    @Nonnull final ESMPRESTType eRESTType) throws SMPServerException
   {
-    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
-    final String sPathDocumentTypeID = aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID);
-    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
+    // Disable XSD check, because Signature is added later
+    aMarshaller.setUseSchema (false);
 
-    // Create the unsigned response document
-    final Document aDoc;
-    switch (SMPServerConfiguration.getRESTType ())
+    if (SMPServerConfiguration.isRESTSigningStreaming ())
     {
-      case PEPPOL:
+      // Marshal, canonicalize and sign in one pass without a DOM
+      try
       {
-        final com.helger.xsds.peppol.smp1.SignedServiceMetadataType ret = new SMPServerAPI (aDataProvider).getServiceRegistration (sPathServiceGroupID,
-                                                                                                                                   sPathDocumentTypeID);
-
-        // Convert to DOM document
-        final SMPMarshallerSignedServiceMetadataType aMarshaller = new SMPMarshallerSignedServiceMetadataType ();
-        // Disable XSD check, because Signature is added later
-        aMarshaller.setUseSchema (false);
-        aDoc = aMarshaller.getAsDocument (ret);
-        break;
+        final byte [] ret = SMPKeyManager.getInstance ().createSignedXML (eRESTType, aHandler -> {
+          if (aMarshaller.write (aResponse, new SAXResult (aHandler)).isFailure ())
+            throw new IllegalStateException ("Failed to serialize unsigned node!");
+        });
+        LOGGER.info ("Successfully signed response XML");
+        return ret;
       }
-      case OASIS_BDXR_V1:
+      catch (final Exception ex)
       {
-        final com.helger.xsds.bdxr.smp1.SignedServiceMetadataType ret = new BDXR1ServerAPI (aDataProvider).getServiceRegistration (sPathServiceGroupID,
-                                                                                                                                   sPathDocumentTypeID);
-
-        // Convert to DOM document
-        final BDXR1MarshallerSignedServiceMetadataType aMarshaller = new BDXR1MarshallerSignedServiceMetadataType ();
-        // Disable XSD check, because Signature is added later
-        aMarshaller.setUseSchema (false);
-        aDoc = aMarshaller.getAsDocument (ret);
-        break;
+        throw new SMPInternalErrorException ("Error in signing the response XML", ex);
       }
-      case OASIS_BDXR_V2:
-      {
-        final com.helger.xsds.bdxr.smp2.ServiceMetadataType ret = new BDXR2ServerAPI (aDataProvider).getServiceRegistration (sPathServiceGroupID,
-                                                                                                                             sPathDocumentTypeID);
-
-        // Convert to DOM document
-        final BDXR2MarshallerServiceMetadata aMarshaller = new BDXR2MarshallerServiceMetadata ();
-        // Disable XSD check, because Signature is added later
-        aMarshaller.setUseSchema (false);
-        aDoc = aMarshaller.getAsDocument (ret);
-        break;
-      }
-      default:
-        throw new UnsupportedOperationException ("Unsupported REST type specified!");
     }
+
+    // Convert to DOM document
+    final Document aDoc = aMarshaller.getAsDocument (aResponse);
     if (aDoc == null)
       throw new IllegalStateException ("Failed to serialize unsigned node!");
 
     // Sign the document
     try
     {
-      SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), SMPServerConfiguration.getRESTType ());
+      SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), eRESTType);
       LOGGER.info ("Successfully signed response XML");
     }
     catch (final Exception ex)
@@ -146,10 +133,132 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
           throw new IllegalStateException ("Failed to serialized signed node", ex);
         }
       }
+      return aBAOS.toByteArray ();
+    }
+  }
 
-      aUnifiedResponse.setContent (aBAOS.toByteArray ())
-                      .setMimeType (CMimeType.TEXT_XML)
-                      .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+  @Nonnull
+  private static byte [] _createSignedResponse (@Nonnull final ISMPServerAPIDataProvider aDataProvider,
+                                                @Nonnull final ESMPRESTType eRESTType,
+                                                @Nonnull final String sPathServiceGroupID,
+                                                @Nonnull final String sPathDocumentTypeID) throws SMPServerException
+  {
+    // Create the unsigned response and sign it
+    switch (eRESTType)
+    {
+      case PEPPOL:
+      {
+        final com.helger.xsds.peppol.smp1.SignedServiceMetadataType ret = new SMPServerAPI (aDataProvider).getServiceRegistration (sPathServiceGroupID,
+                                                                                                                                   sPathDocumentTypeID);
+        return _createSignedResponse (new SMPMarshallerSignedServiceMetadataType (), ret, eRESTType);
+      }
+      case OASIS_BDXR_V1:
+      {
+        final com.helger.xsds.bdxr.smp1.SignedServiceMetadataType ret = new BDXR1ServerAPI (aDataProvider).getServiceRegistration (sPathServiceGroupID,
+                                                                                                                                   sPathDocumentTypeID);
+        return _createSignedResponse (new BDXR1MarshallerSignedServiceMetadataType (), ret, eRESTType);
+      }
+      case OASIS_BDXR_V2:
+      {
+        final com.helger.xsds.bdxr.smp2.ServiceMetadataType ret = new BDXR2ServerAPI (aDataProvider).getServiceRegistration (sPathServiceGroupID,
+                                                                                                                             sPathDocumentTypeID);
+        return _createSignedResponse (new BDXR2MarshallerServiceMetadata (), ret, eRESTType);
+      }
+      default:
+        throw new UnsupportedOperationException ("Unsupported REST type specified!");
+    }
+  }
+
+  public void invokeAPI (@Nonnull final IAPIDescriptor aAPIDescriptor,
+                         @Nonnull @Nonempty final String sPath,
+                         @Nonnull final Map <String, String> aPathVariables,
+                         @Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                         @Nonnull final UnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sPathServiceGroupID = aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID);
+    final String sPathDocumentTypeID = aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID);
+    final ESMPRESTType eRESTType = SMPServerConfiguration.getRESTType ();
+    final ESMPContentCoding eAcceptedCoding = SMPResponseCompression.getAcceptedContentCoding (aRequestScope.headers ());
+
+    // Conditional requests are answered without signing
+    final String sVariant = "servicemetadata " + eRESTType.getID () + " " + sPathDocumentTypeID;
+    final ResponseValidators aValidators = SMPParticipantVersionTracker.getValidatorsIfEnabled (sPathServiceGroupID,
+                                                                                               sVariant);
+    final String sNotModifiedETag = aValidators == null ? null
+                                                        : aValidators.getNotModifiedETag (aRequestScope.headers (),
+                                                                                          eAcceptedCoding);
+    if (sNotModifiedETag != null)
+    {
+      // The client already has the current version
+      aValidators.applyNotModified (aUnifiedResponse, sNotModifiedETag);
+      return;
+    }
+
+    // Check the signed response cache first
+    SMPSignedResponseCache aCache = null;
+    IParticipantIdentifier aCacheParticipantID = null;
+    IDocumentTypeIdentifier aCacheDocTypeID = null;
+    long nCacheGeneration = 0;
+    if (SMPServerConfiguration.isRESTResponseCacheEnabled ())
+    {
+      final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+      aCacheParticipantID = aIdentifierFactory.parseParticipantIdentifier (sPathServiceGroupID);
+      aCacheDocTypeID = aIdentifierFactory.parseDocumentTypeIdentifier (sPathDocumentTypeID);
+      // Invalid identifiers are handled in the regular way
+      if (aCacheParticipantID != null && aCacheDocTypeID != null)
+      {
+        aCache = SMPSignedResponseCache.getInstance ();
+        final CachedResponse aCached = aCache.getCachedResponse (eRESTType, aCacheParticipantID, aCacheDocTypeID);
+        if (aCached != null)
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Serving signed response for '" +
+                          sPathServiceGroupID +
+                          "' and '" +
+                          sPathDocumentTypeID +
+                          "' from cache");
+          _setResponse (aUnifiedResponse,
+                        aCached.getBytes (),
+                        eAcceptedCoding,
+                        aCached::getCompressedBytes,
+                        aValidators);
+          return;
+        }
+        nCacheGeneration = aCache.getGeneration ();
+      }
     }
+
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope, sPathServiceGroupID);
+    final byte [] aBytes = _createSignedResponse (aDataProvider, eRESTType, sPathServiceGroupID, sPathDocumentTypeID);
+
+    // Compressed variants are kept in the cache as well
+    final CachedResponse aCached = aCache == null ? null
+                                                  : aCache.putResponse (eRESTType,
+                                                                        aCacheParticipantID,
+                                                                        aCacheDocTypeID,
+                                                                        aBytes,
+                                                                        nCacheGeneration);
+
+    _setResponse (aUnifiedResponse,
+                  aBytes,
+                  eAcceptedCoding,
+                  aCached == null ? null : aCached::getCompressedBytes,
+                  aValidators);
+  }
+
+  private static void _setResponse (@Nonnull final UnifiedResponse aUnifiedResponse,
+                                    @Nonnull final byte [] aBytes,
+                                    @Nullable final ESMPContentCoding eAcceptedCoding,
+                                    @Nullable final Function <ESMPContentCoding, byte []> aCompressedProvider,
+                                    @Nullable final ResponseValidators aValidators)
+  {
+    final ESMPContentCoding eAppliedCoding = SMPResponseCompression.setContent (aUnifiedResponse,
+                                                                               aBytes,
+                                                                               CMimeType.TEXT_XML,
+                                                                               XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                                                                               eAcceptedCoding,
+                                                                               aCompressedProvider);
+    if (aValidators != null)
+      aValidators.applyTo (aUnifiedResponse, eAppliedCoding);
   }
 }
@@ -33,6 +33,7 @@ import com.helger.servlet.response.UnifiedResponse;
 import com.helger.smpclient.bdxr1.marshal.BDXR1MarshallerServiceGroupReferenceListType;
 import com.helger.smpclient.peppol.marshal.SMPMarshallerServiceGroupReferenceListType;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+import com.helger.xml.serialize.write.XMLWriterSettings;
 
 public final class APIExecutorUserListGet extends AbstractSMPAPIExecutor
 {
@@ -80,6 +81,11 @@ public final class APIExecutorUserListGet extends AbstractSMPAPIExecutor
       throw new SMPInternalErrorException ("Failed to convert the returned CompleteServiceGroup to XML");
     }
 
-    aUnifiedResponse.setContent (aBytes).setMimeType (CMimeType.TEXT_XML);
+    SMPResponseCompression.setContent (aUnifiedResponse,
+                                       aBytes,
+                                       CMimeType.TEXT_XML,
+                                       XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ,
+                                       SMPResponseCompression.getAcceptedContentCoding (aRequestScope.headers ()),
+                                       null);
   }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.id.IHasID;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.lang.EnumHelper;
+
+/**
+ * The HTTP content codings supported for REST responses. The order of the
+ * constants is the order of preference.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public enum ESMPContentCoding implements IHasID <String>
+{
+  GZIP ("gzip"),
+  // zlib format as required by RFC 9110
+  DEFLATE ("deflate");
+
+  private final String m_sID;
+
+  ESMPContentCoding (@Nonnull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  /**
+   * @return The value as used in the <code>Accept-Encoding</code> and
+   *         <code>Content-Encoding</code> HTTP headers.
+   */
+  @Nonnull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  @Nonnull
+  private OutputStream _createOutputStream (@Nonnull final OutputStream aOS) throws IOException
+  {
+    switch (this)
+    {
+      case GZIP:
+        return new GZIPOutputStream (aOS);
+      case DEFLATE:
+        return new DeflaterOutputStream (aOS);
+      default:
+        throw new IllegalStateException ("Unsupported content coding " + this);
+    }
+  }
+
+  /**
+   * Compress the provided bytes with this content coding.
+   *
+   * @param aBytes
+   *        The bytes to compress. May not be <code>null</code>.
+   * @return The compressed bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  public byte [] getCompressed (@Nonnull final byte [] aBytes)
+  {
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream (aBytes.length / 4 + 64))
+    {
+      try (final OutputStream aOS = _createOutputStream (aBAOS))
+      {
+        aOS.write (aBytes);
+      }
+      return aBAOS.toByteArray ();
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen with in-memory streams
+      throw new UncheckedIOException ("Failed to compress with " + m_sID, ex);
+    }
+  }
+
+  @Nullable
+  public static ESMPContentCoding getFromIDCaseInsensitiveOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDCaseInsensitiveOrNull (ESMPContentCoding.class, sID);
+  }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.http.CHttp;
+import com.helger.commons.http.CHttpHeader;
+import com.helger.commons.http.HttpHeaderMap;
+import com.helger.commons.string.StringHelper;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.scope.IScope;
+import com.helger.servlet.response.UnifiedResponse;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * Keeps a modification version and a last modification date per participant,
+ * so that the public GET responses can contain <code>ETag</code> and
+ * <code>Last-Modified</code> headers and conditional requests can be answered
+ * with HTTP 304 without accessing the backend. The versions must be updated
+ * from the outside via {@link #onParticipantModified(IParticipantIdentifier)}
+ * and {@link #onAllModified()}.<br>
+ * Participants that were not modified since the startup share the startup
+ * version. Because the versions are only kept in memory, the startup time is
+ * part of each ETag.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPParticipantVersionTracker extends AbstractGlobalWebSingleton
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPParticipantVersionTracker.class);
+
+  // IMF-fixdate as defined in RFC 7231, section 7.1.1.1
+  private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormatter.ofPattern ("EEE, dd MMM yyyy HH:mm:ss 'GMT'",
+                                                                                             Locale.US)
+                                                                                 .withZone (ZoneOffset.UTC);
+
+  @Immutable
+  private static final class VersionEntry
+  {
+    private final long m_nVersion;
+    private final long m_nLastModifiedSecs;
+
+    VersionEntry (final long nVersion, final long nLastModifiedSecs)
+    {
+      m_nVersion = nVersion;
+      m_nLastModifiedSecs = nLastModifiedSecs;
+    }
+
+    @Nonnull
+    VersionEntry getNewer (@Nonnull final VersionEntry aOther)
+    {
+      return m_nVersion >= aOther.m_nVersion ? this : aOther;
+    }
+  }
+
+  /**
+   * The validators of a single response.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  public static final class ResponseValidators
+  {
+    private final String m_sETag;
+    private final long m_nLastModifiedSecs;
+
+    ResponseValidators (@Nonnull @Nonempty final String sETag, final long nLastModifiedSecs)
+    {
+      m_sETag = sETag;
+      m_nLastModifiedSecs = nLastModifiedSecs;
+    }
+
+    /**
+     * @param eContentCoding
+     *        The content coding of the response. May be <code>null</code>.
+     * @return The strong ETag including the surrounding quotes. Each content
+     *         coding has its own ETag. Neither <code>null</code> nor empty.
+     */
+    @Nonnull
+    @Nonempty
+    public String getETag (@Nullable final ESMPContentCoding eContentCoding)
+    {
+      if (eContentCoding == null)
+        return m_sETag;
+      // Insert before the closing quote
+      return m_sETag.substring (0, m_sETag.length () - 1) + "-" + eContentCoding.getID () + "\"";
+    }
+
+    private boolean _matchesETag (@Nonnull final String sETag)
+    {
+      if (sETag.equals (m_sETag))
+        return true;
+      // The client may have any content coding of the response
+      for (final ESMPContentCoding eContentCoding : ESMPContentCoding.values ())
+        if (sETag.equals (getETag (eContentCoding)))
+          return true;
+      return false;
+    }
+
+    /**
+     * @return The last modification date formatted as HTTP date. Never
+     *         <code>null</code>.
+     */
+    @Nonnull
+    public String getLastModifiedAsString ()
+    {
+      return HTTP_DATE_FORMATTER.format (Instant.ofEpochSecond (m_nLastModifiedSecs));
+    }
+
+    /**
+     * Check the conditional request headers. <code>If-Modified-Since</code> is
+     * only evaluated, if no <code>If-None-Match</code> header is present.<br>
+     * If an ETag matches, that ETag is returned, because it identifies the
+     * representation the client has. With <code>If-Modified-Since</code> only,
+     * the ETag of the full response is unknown if the client accepts a content
+     * coding, as the response is only compressed above a size threshold. In
+     * that case <code>null</code> is returned and the full response is created.
+     *
+     * @param aHttpHeaders
+     *        The request headers. May not be <code>null</code>.
+     * @param eAcceptedCoding
+     *        The content coding accepted by the client. May be
+     *        <code>null</code>.
+     * @return The ETag to be used in the HTTP 304 response, if the client
+     *         already has the current version of the response.
+     *         <code>null</code> if the full response must be sent.
+     */
+    @Nullable
+    public String getNotModifiedETag (@Nonnull final HttpHeaderMap aHttpHeaders,
+                                      @Nullable final ESMPContentCoding eAcceptedCoding)
+    {
+      final ICommonsList <String> aIfNoneMatch = aHttpHeaders.getAllHeaderValues (CHttpHeader.IF_NON_MATCH);
+      if (aIfNoneMatch.isNotEmpty ())
+      {
+        for (final String sHeaderValue : aIfNoneMatch)
+          for (final String sPart : StringHelper.getExploded (',', sHeaderValue))
+          {
+            // Weak comparison is used for If-None-Match
+            String sETag = sPart.trim ();
+            if (sETag.startsWith ("W/"))
+              sETag = sETag.substring (2);
+            if (_matchesETag (sETag))
+              return sETag;
+          }
+        return null;
+      }
+
+      if (eAcceptedCoding != null)
+        return null;
+
+      final String sIfModifiedSince = aHttpHeaders.getAllHeaderValues (CHttpHeader.IF_MODIFIED_SINCE).getFirstOrNull ();
+      if (StringHelper.hasText (sIfModifiedSince))
+      {
+        try
+        {
+          final long nIfModifiedSinceSecs = ZonedDateTime.parse (sIfModifiedSince.trim (),
+                                                                 DateTimeFormatter.RFC_1123_DATE_TIME)
+                                                          .toEpochSecond ();
+          if (m_nLastModifiedSecs <= nIfModifiedSinceSecs)
+            return m_sETag;
+        }
+        catch (final DateTimeParseException ex)
+        {
+          // Invalid dates are ignored
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Ignoring invalid If-Modified-Since value '" + sIfModifiedSince + "'");
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Add the <code>ETag</code> and <code>Last-Modified</code> headers to the
+     * response.
+     *
+     * @param aUnifiedResponse
+     *        The response to modify. May not be <code>null</code>.
+     * @param eContentCoding
+     *        The content coding of the response. May be <code>null</code>.
+     */
+    public void applyTo (@Nonnull final UnifiedResponse aUnifiedResponse,
+                         @Nullable final ESMPContentCoding eContentCoding)
+    {
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.ETAG, getETag (eContentCoding));
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.LAST_MODIFIED, getLastModifiedAsString ());
+    }
+
+    /**
+     * Create a HTTP 304 response including the validators.
+     *
+     * @param aUnifiedResponse
+     *        The response to modify. May not be <code>null</code>.
+     * @param sETag
+     *        The ETag as returned by
+     *        {@link #getNotModifiedETag(HttpHeaderMap, ESMPContentCoding)}. May
+     *        neither be <code>null</code> nor empty.
+     */
+    public void applyNotModified (@Nonnull final UnifiedResponse aUnifiedResponse,
+                                  @Nonnull @Nonempty final String sETag)
+    {
+      aUnifiedResponse.setStatus (CHttp.HTTP_NOT_MODIFIED);
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.ETAG, sETag);
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.LAST_MODIFIED, getLastModifiedAsString ());
+    }
+  }
+
+  private final String m_sStartupID;
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, VersionEntry> m_aMap = new CommonsHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private long m_nLastVersion = 0;
+  @GuardedBy ("m_aRWLock")
+  private long m_nMaxLastModifiedSecs;
+  // The version that applies to all participants
+  @GuardedBy ("m_aRWLock")
+  private VersionEntry m_aGlobalVersion;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPParticipantVersionTracker ()
+  {
+    final long nNowSecs = _getNowSecs ();
+    m_sStartupID = Long.toString (nNowSecs, 36);
+    m_nMaxLastModifiedSecs = nNowSecs;
+    m_aGlobalVersion = new VersionEntry (0, nNowSecs);
+  }
+
+  @Nonnull
+  public static SMPParticipantVersionTracker getInstance ()
+  {
+    return getGlobalSingleton (SMPParticipantVersionTracker.class);
+  }
+
+  @Override
+  protected void onDestroy (@Nonnull final IScope aScopeInDestruction)
+  {
+    m_aRWLock.writeLocked (m_aMap::clear);
+  }
+
+  private static long _getNowSecs ()
+  {
+    return System.currentTimeMillis () / 1000;
+  }
+
+  @Nonnull
+  private static String _getParticipantKey (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    // Case insensitive to be on the safe side - this may only lead to too many
+    // modifications, but never to too few
+    return aParticipantID.getURIEncoded ().toLowerCase (Locale.ROOT);
+  }
+
+  @Nonnull
+  @GuardedBy ("m_aRWLock")
+  private VersionEntry _getVersion (@Nonnull final String sParticipantKey)
+  {
+    final VersionEntry aEntry = m_aMap.get (sParticipantKey);
+    return aEntry == null ? m_aGlobalVersion : aEntry.getNewer (m_aGlobalVersion);
+  }
+
+  @Nonnull
+  @GuardedBy ("m_aRWLock")
+  private VersionEntry _createNewVersion (final long nPrevLastModifiedSecs)
+  {
+    // The last modification date must always increase, even if the previous
+    // modification happened in the same second. Otherwise a client could miss
+    // a modification with If-Modified-Since.
+    final long nLastModifiedSecs = Math.max (_getNowSecs (), nPrevLastModifiedSecs + 1);
+    m_nMaxLastModifiedSecs = Math.max (m_nMaxLastModifiedSecs, nLastModifiedSecs);
+    return new VersionEntry (++m_nLastVersion, nLastModifiedSecs);
+  }
+
+  /**
+   * Notify about a modification of a single participant, that may change any
+   * of its public responses.
+   *
+   * @param aParticipantID
+   *        The modified participant. May not be <code>null</code>.
+   */
+  public void onParticipantModified (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    final String sParticipantKey = _getParticipantKey (aParticipantID);
+    m_aRWLock.writeLocked ( () -> {
+      final VersionEntry aPrev = _getVersion (sParticipantKey);
+      m_aMap.put (sParticipantKey, _createNewVersion (aPrev.m_nLastModifiedSecs));
+    });
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Participant '" + sParticipantKey + "' was modified");
+  }
+
+  /**
+   * Notify about a modification that may change the public responses of all
+   * participants (e.g. a new signing key).
+   */
+  public void onAllModified ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_aGlobalVersion = _createNewVersion (m_nMaxLastModifiedSecs);
+      // All entries are older than the global version now
+      m_aMap.clear ();
+    });
+
+    LOGGER.info ("All participants were modified");
+  }
+
+  @Nonnull
+  private static String _getVariantHash (@Nonnull final String sVariant)
+  {
+    try
+    {
+      final byte [] aDigest = MessageDigest.getInstance ("SHA-256").digest (sVariant.getBytes (StandardCharsets.UTF_8));
+      return StringHelper.getHexEncoded (aDigest, 0, 8);
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      throw new IllegalStateException ("SHA-256 is not supported", ex);
+    }
+  }
+
+  /**
+   * Get the validators for a single response.
+   *
+   * @param aParticipantID
+   *        The participant the response belongs to. May not be
+   *        <code>null</code>.
+   * @param sVariant
+   *        A string that identifies the response of the participant,
+   *        including all request dependent parts that are not contained in
+   *        the participant version. May neither be <code>null</code> nor
+   *        empty.
+   * @return The validators. Never <code>null</code>.
+   */
+  @Nonnull
+  public ResponseValidators getValidators (@Nonnull final IParticipantIdentifier aParticipantID,
+                                           @Nonnull @Nonempty final String sVariant)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+    ValueEnforcer.notEmpty (sVariant, "Variant");
+
+    final String sParticipantKey = _getParticipantKey (aParticipantID);
+    final VersionEntry aVersion = m_aRWLock.readLockedGet ( () -> _getVersion (sParticipantKey));
+    final String sETag = "\"" +
+                         m_sStartupID +
+                         "-" +
+                         Long.toString (aVersion.m_nVersion, 36) +
+                         "-" +
+                         _getVariantHash (sVariant) +
+                         "\"";
+    return new ResponseValidators (sETag, aVersion.m_nLastModifiedSecs);
+  }
+
+  /**
+   * Get the validators for a single response, if conditional GET is enabled in
+   * the configuration and the participant ID is valid. The versions must be
+   * determined before the response is created, so that a response can never be
+   * older than its validators.
+   *
+   * @param sPathServiceGroupID
+   *        The participant ID from the path. May not be <code>null</code>.
+   * @param sVariant
+   *        The response variant. See
+   *        {@link #getValidators(IParticipantIdentifier, String)}.
+   * @return <code>null</code> if conditional GET is disabled or if the
+   *         participant ID cannot be parsed.
+   */
+  @Nullable
+  public static ResponseValidators getValidatorsIfEnabled (@Nonnull final String sPathServiceGroupID,
+                                                           @Nonnull @Nonempty final String sVariant)
+  {
+    if (!SMPServerConfiguration.isRESTConditionalGetEnabled ())
+      return null;
+
+    final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                .parseParticipantIdentifier (sPathServiceGroupID);
+    if (aParticipantID == null)
+    {
+      // Invalid identifiers are handled in the regular way
+      return null;
+    }
+    return getInstance ().getValidators (aParticipantID, sVariant);
+  }
+}
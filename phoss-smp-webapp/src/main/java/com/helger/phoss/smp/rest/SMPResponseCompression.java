@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.nio.charset.Charset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.http.CHttpHeader;
+import com.helger.commons.http.HttpHeaderMap;
+import com.helger.commons.mime.IMimeType;
+import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.StringParser;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.servlet.response.UnifiedResponse;
+
+/**
+ * Negotiation and application of the content coding of REST responses,
+ * configured via <code>smp.rest.compression.*</code>.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@Immutable
+final class SMPResponseCompression
+{
+  private SMPResponseCompression ()
+  {}
+
+  /**
+   * Determine the best content coding accepted by the client.
+   *
+   * @param aHttpHeaders
+   *        The request headers. May not be <code>null</code>.
+   * @return <code>null</code> if compression is disabled or if the client
+   *         accepts none of the supported content codings.
+   */
+  @Nullable
+  public static ESMPContentCoding getAcceptedContentCoding (@Nonnull final HttpHeaderMap aHttpHeaders)
+  {
+    if (!SMPServerConfiguration.isRESTCompressionEnabled ())
+      return null;
+
+    // Quality value per supported coding
+    final Map <ESMPContentCoding, Double> aQualities = new EnumMap <> (ESMPContentCoding.class);
+    Double aWildcardQuality = null;
+    for (final String sHeaderValue : aHttpHeaders.getAllHeaderValues (CHttpHeader.ACCEPT_ENCODING))
+      for (final String sPart : StringHelper.getExploded (',', sHeaderValue))
+      {
+        final String [] aElements = StringHelper.getExplodedArray (';', sPart);
+        final String sCoding = aElements[0].trim ();
+        double dQuality = 1;
+        for (int i = 1; i < aElements.length; ++i)
+        {
+          final String sParam = aElements[i].trim ();
+          if (sParam.startsWith ("q=") || sParam.startsWith ("Q="))
+            dQuality = StringParser.parseDouble (sParam.substring (2).trim (), 0);
+        }
+
+        if ("*".equals (sCoding))
+          aWildcardQuality = Double.valueOf (dQuality);
+        else
+        {
+          final ESMPContentCoding eCoding = ESMPContentCoding.getFromIDCaseInsensitiveOrNull (sCoding);
+          if (eCoding != null)
+            aQualities.put (eCoding, Double.valueOf (dQuality));
+        }
+      }
+
+    ESMPContentCoding ret = null;
+    double dBestQuality = 0;
+    for (final ESMPContentCoding eCoding : ESMPContentCoding.values ())
+    {
+      final Double aQuality = aQualities.containsKey (eCoding) ? aQualities.get (eCoding) : aWildcardQuality;
+      // Equal qualities use the order of preference
+      if (aQuality != null && aQuality.doubleValue () > dBestQuality)
+      {
+        ret = eCoding;
+        dBestQuality = aQuality.doubleValue ();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Set the response content, compressed with the provided content coding if
+   * it is large enough.
+   *
+   * @param aUnifiedResponse
+   *        The response to modify. May not be <code>null</code>.
+   * @param aBytes
+   *        The uncompressed content. May not be <code>null</code>.
+   * @param aMimeType
+   *        The MIME type of the content. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the content. May not be <code>null</code>.
+   * @param eAcceptedCoding
+   *        The accepted content coding as returned by
+   *        {@link #getAcceptedContentCoding(HttpHeaderMap)}. May be
+   *        <code>null</code>.
+   * @param aCompressedProvider
+   *        An optional provider of the already compressed content, e.g. from
+   *        a cache. If <code>null</code> the content is compressed.
+   * @return The content coding that was applied. <code>null</code> if the
+   *         content was not compressed.
+   */
+  @Nullable
+  public static ESMPContentCoding setContent (@Nonnull final UnifiedResponse aUnifiedResponse,
+                                              @Nonnull final byte [] aBytes,
+                                              @Nonnull final IMimeType aMimeType,
+                                              @Nonnull final Charset aCharset,
+                                              @Nullable final ESMPContentCoding eAcceptedCoding,
+                                              @Nullable final Function <ESMPContentCoding, byte []> aCompressedProvider)
+  {
+    ESMPContentCoding eAppliedCoding = null;
+    byte [] aContent = aBytes;
+    if (eAcceptedCoding != null && aBytes.length >= SMPServerConfiguration.getRESTCompressionThreshold ())
+    {
+      aContent = aCompressedProvider != null ? aCompressedProvider.apply (eAcceptedCoding)
+                                             : eAcceptedCoding.getCompressed (aBytes);
+      eAppliedCoding = eAcceptedCoding;
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.CONTENT_ENCODING, eAppliedCoding.getID ());
+    }
+    if (SMPServerConfiguration.isRESTCompressionEnabled ())
+    {
+      // The representation depends on the request header
+      aUnifiedResponse.addCustomResponseHeader (CHttpHeader.VARY, CHttpHeader.ACCEPT_ENCODING);
+    }
+    aUnifiedResponse.setContent (aContent).setMimeType (aMimeType).setCharset (aCharset);
+    return eAppliedCoding;
+  }
+}
@@ -25,7 +25,6 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.debug.GlobalDebug;
 import com.helger.commons.http.CHttp;
 import com.helger.commons.state.EHandled;
-import com.helger.commons.string.StringHelper;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.exception.SMPBadRequestException;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
@@ -80,14 +79,14 @@ public class SMPRestExceptionMapper extends AbstractAPIExceptionMapper
   {
     if (SMPServerConfiguration.isRESTPayloadOnError ())
     {
-      // With payload
+      // With payload - an error must never be cached, even if caching was
+      // enabled for the API
       setSimpleTextResponse (aUnifiedResponse, nStatusCode, sContent);
-      if (StringHelper.hasText (sContent))
-        aUnifiedResponse.disableCaching ();
+      aUnifiedResponse.disableCaching ();
     }
     else
     {
-      // No payload
+      // No payload - the caching settings are ignored for a status code only
       aUnifiedResponse.setStatus (nStatusCode);
     }
   }
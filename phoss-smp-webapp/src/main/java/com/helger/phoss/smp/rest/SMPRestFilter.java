@@ -39,6 +39,8 @@ import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.ICommonsMap;
 import com.helger.commons.http.EHttpMethod;
 import com.helger.commons.mime.CMimeType;
 import com.helger.commons.regex.RegExHelper;
@@ -47,6 +49,7 @@ import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.photon.api.APIDescriptor;
 import com.helger.photon.api.APIPath;
 import com.helger.photon.api.GlobalAPIInvoker;
+import com.helger.photon.api.IAPIDescriptor;
 import com.helger.photon.api.IAPIExceptionMapper;
 import com.helger.photon.api.IAPIRegistry;
 import com.helger.photon.api.InvokableAPIDescriptor;
@@ -79,6 +82,9 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
 
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPRestFilter.class);
 
+  // The Cache-Control configuration name per public GET API
+  private final ICommonsMap <IAPIDescriptor, String> m_aCacheControlNames = new CommonsHashMap <> ();
+
   public SMPRestFilter ()
   {
     final IAPIExceptionMapper aExceptionMapper = new SMPRestExceptionMapper ();
@@ -95,6 +101,7 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
                                                                 new APIExecutorBusinessCardGet ());
       aGetBusinessCard.setExceptionMapper (aExceptionMapper);
       aAPIRegistry.registerAPI (aGetBusinessCard);
+      m_aCacheControlNames.put (aGetBusinessCard, "businesscard");
     }
     {
       final APIDescriptor aPutBusinessCard = new APIDescriptor (APIPath.put (PATH_BUSINESSCARD +
@@ -125,6 +132,7 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
                                                                         new APIExecutorServiceGroupCompleteGet ());
       aGetCompleteServiceGroup.setExceptionMapper (aExceptionMapper);
       aAPIRegistry.registerAPI (aGetCompleteServiceGroup);
+      m_aCacheControlNames.put (aGetCompleteServiceGroup, "complete");
     }
     // List
     {
@@ -142,6 +150,7 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
                                                                 new APIExecutorServiceGroupGet ());
       aGetServiceGroup.setExceptionMapper (aExceptionMapper);
       aAPIRegistry.registerAPI (aGetServiceGroup);
+      m_aCacheControlNames.put (aGetServiceGroup, "servicegroup");
     }
     {
       final APIDescriptor aPutServiceGroup = new APIDescriptor (APIPath.put ("/{" + PARAM_SERVICE_GROUP_ID + "}"),
@@ -170,6 +179,7 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
                                                                    new APIExecutorServiceMetadataGet ());
       aGetServiceMetadata.setExceptionMapper (aExceptionMapper);
       aAPIRegistry.registerAPI (aGetServiceMetadata);
+      m_aCacheControlNames.put (aGetServiceMetadata, "servicemetadata");
     }
     {
       final APIDescriptor aPutServiceMetadata = new APIDescriptor (APIPath.put ("/{" +
@@ -364,9 +374,21 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug (LOG_PREFIX + "Found API match for '" + aAPIPath.getPath () + "': " + aInvokableDescriptor);
 
-    // Always disable caching for GET requests
+    // Disable caching for GET requests, unless configured otherwise
     if (aRequestScope.getHttpMethod () == EHttpMethod.GET)
-      aUnifiedResponse.disableCaching ();
+    {
+      final String sCacheControlName = m_aCacheControlNames.get (aInvokableDescriptor.getAPIDescriptor ());
+      final int nMaxAgeSeconds = sCacheControlName == null ? 0
+                                                           : SMPServerConfiguration.getRESTCacheControlMaxAgeSeconds (sCacheControlName);
+      if (nMaxAgeSeconds > 0)
+      {
+        // SMPRestExceptionMapper disables caching again for all error
+        // responses with a payload - a status code only is never cached
+        aUnifiedResponse.enableCaching (nMaxAgeSeconds);
+      }
+      else
+        aUnifiedResponse.disableCaching ();
+    }
     else
     {
       // If only a status code is provided, the caching option would be ignored
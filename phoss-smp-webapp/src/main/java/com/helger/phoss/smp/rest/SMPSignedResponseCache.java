@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.UsedViaReflection;
+import com.helger.commons.annotation.VisibleForTesting;
+import com.helger.commons.collection.impl.CommonsHashMap;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsMap;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.scope.IScope;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * A size bound, in-memory cache for the signed and serialized service metadata
+ * responses. The cache is keyed by REST type, participant ID and document type
+ * ID. Compressed variants of the responses are kept next to the raw bytes.
+ * Invalidation must happen from the outside via
+ * {@link #removeAllOfParticipant(IParticipantIdentifier)} and
+ * {@link #clearCache()}.<br>
+ * To avoid caching outdated data, a response created while an invalidation
+ * happened in parallel is not stored. Use {@link #getGeneration()} before the
+ * response is created and pass it to
+ * {@link #putResponse(ESMPRESTType, IParticipantIdentifier, IDocumentTypeIdentifier, byte[], long)}.
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+@ThreadSafe
+public final class SMPSignedResponseCache extends AbstractGlobalWebSingleton
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPSignedResponseCache.class);
+
+  /**
+   * A single cached response. Compressed variants are created on first use and
+   * kept next to the raw bytes.
+   *
+   * @author Philip Helger
+   */
+  @ThreadSafe
+  public static final class CachedResponse
+  {
+    private final String m_sParticipantKey;
+    private final byte [] m_aBytes;
+    private final Map <ESMPContentCoding, byte []> m_aCompressed = new ConcurrentHashMap <> ();
+
+    CachedResponse (@Nonnull final String sParticipantKey, @Nonnull final byte [] aBytes)
+    {
+      m_sParticipantKey = sParticipantKey;
+      m_aBytes = aBytes;
+    }
+
+    /**
+     * @return The serialized, signed response. Never <code>null</code>. The
+     *         returned array may not be modified.
+     */
+    @Nonnull
+    public byte [] getBytes ()
+    {
+      return m_aBytes;
+    }
+
+    /**
+     * @param eContentCoding
+     *        The content coding to use. May not be <code>null</code>.
+     * @return The compressed response. Never <code>null</code>. The returned
+     *         array may not be modified.
+     */
+    @Nonnull
+    public byte [] getCompressedBytes (@Nonnull final ESMPContentCoding eContentCoding)
+    {
+      return m_aCompressed.computeIfAbsent (eContentCoding, x -> x.getCompressed (m_aBytes));
+    }
+  }
+
+  @GuardedBy ("m_aRWLock")
+  private int m_nMaxEntries;
+  // Access ordered to have LRU semantics
+  @GuardedBy ("m_aRWLock")
+  private final Map <String, CachedResponse> m_aMap = new LinkedHashMap <> (16, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry (@Nonnull final Map.Entry <String, CachedResponse> aEldest)
+    {
+      if (size () <= m_nMaxEntries)
+        return false;
+
+      _removeFromParticipantIndex (aEldest.getValue ().m_sParticipantKey, aEldest.getKey ());
+      m_aEvictions.incrementAndGet ();
+      return true;
+    }
+  };
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, ICommonsSet <String>> m_aKeysPerParticipant = new CommonsHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private long m_nGeneration = 0;
+
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+  private final AtomicLong m_aEvictions = new AtomicLong (0);
+  private final AtomicLong m_aInvalidations = new AtomicLong (0);
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated
+  @UsedViaReflection
+  public SMPSignedResponseCache ()
+  {}
+
+  @Nonnull
+  public static SMPSignedResponseCache getInstance ()
+  {
+    return getGlobalSingleton (SMPSignedResponseCache.class);
+  }
+
+  @Nullable
+  public static SMPSignedResponseCache getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (SMPSignedResponseCache.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@Nonnull final IScope aScope)
+  {
+    m_nMaxEntries = SMPServerConfiguration.getRESTResponseCacheMaxEntries ();
+  }
+
+  /**
+   * Change the maximum number of entries. Existing entries are only evicted
+   * upon the next put.
+   *
+   * @param nMaxEntries
+   *        The maximum number of entries to keep. Must be &gt; 0.
+   */
+  @VisibleForTesting
+  void setMaxEntries (@Nonnegative final int nMaxEntries)
+  {
+    ValueEnforcer.isGT0 (nMaxEntries, "MaxEntries");
+    m_aRWLock.writeLocked ( () -> m_nMaxEntries = nMaxEntries);
+  }
+
+  @Nonnull
+  private static String _getParticipantKey (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    return aParticipantID.getURIEncoded ();
+  }
+
+  @Nonnull
+  private static String _getKey (@Nonnull final ESMPRESTType eRESTType,
+                                 @Nonnull final String sParticipantKey,
+                                 @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return eRESTType.getID () + '\n' + sParticipantKey + '\n' + aDocTypeID.getURIEncoded ();
+  }
+
+  private void _removeFromParticipantIndex (@Nonnull final String sParticipantKey, @Nonnull final String sKey)
+  {
+    final ICommonsSet <String> aKeys = m_aKeysPerParticipant.get (sParticipantKey);
+    if (aKeys != null)
+    {
+      aKeys.remove (sKey);
+      if (aKeys.isEmpty ())
+        m_aKeysPerParticipant.remove (sParticipantKey);
+    }
+  }
+
+  /**
+   * Get the cached response.
+   *
+   * @param eRESTType
+   *        REST type. May not be <code>null</code>.
+   * @param aParticipantID
+   *        Participant ID. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        Document type ID. May not be <code>null</code>.
+   * @return <code>null</code> if no such entry is cached.
+   */
+  @Nullable
+  public CachedResponse getCachedResponse (@Nonnull final ESMPRESTType eRESTType,
+                                            @Nonnull final IParticipantIdentifier aParticipantID,
+                                            @Nonnull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    final String sKey = _getKey (eRESTType, _getParticipantKey (aParticipantID), aDocTypeID);
+    // Write lock, because of the access ordering
+    final CachedResponse aEntry = m_aRWLock.writeLockedGet ( () -> m_aMap.get (sKey));
+    if (aEntry == null)
+    {
+      m_aMisses.incrementAndGet ();
+      return null;
+    }
+    m_aHits.incrementAndGet ();
+    return aEntry;
+  }
+
+  /**
+   * @return The current generation of the cache. It is incremented upon each
+   *         invalidation.
+   */
+  public long getGeneration ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nGeneration);
+  }
+
+  /**
+   * Put a new response into the cache
+   *
+   * @param eRESTType
+   *        REST type. May not be <code>null</code>.
+   * @param aParticipantID
+   *        Participant ID. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        Document type ID. May not be <code>null</code>.
+   * @param aBytes
+   *        The serialized, signed response. May not be <code>null</code>.
+   * @param nGeneration
+   *        The cache generation as returned by {@link #getGeneration()} before
+   *        the response was created. If the generation changed in the
+   *        meantime, the response is not cached.
+   * @return The cached response or <code>null</code> if the response was not
+   *         cached.
+   */
+  @Nullable
+  public CachedResponse putResponse (@Nonnull final ESMPRESTType eRESTType,
+                                      @Nonnull final IParticipantIdentifier aParticipantID,
+                                      @Nonnull final IDocumentTypeIdentifier aDocTypeID,
+                                      @Nonnull final byte [] aBytes,
+                                      final long nGeneration)
+  {
+    ValueEnforcer.notNull (aBytes, "Bytes");
+
+    final String sParticipantKey = _getParticipantKey (aParticipantID);
+    final String sKey = _getKey (eRESTType, sParticipantKey, aDocTypeID);
+    return m_aRWLock.writeLockedGet ( () -> {
+      if (nGeneration != m_nGeneration)
+      {
+        // Something changed while the response was created
+        return null;
+      }
+      m_aKeysPerParticipant.computeIfAbsent (sParticipantKey, k -> new CommonsHashSet <> ()).add (sKey);
+      final CachedResponse ret = new CachedResponse (sParticipantKey, aBytes);
+      m_aMap.put (sKey, ret);
+      return ret;
+    });
+  }
+
+  /**
+   * Remove all cached responses of the provided participant.
+   *
+   * @param aParticipantID
+   *        The participant ID to be invalidated. May not be <code>null</code>.
+   */
+  public void removeAllOfParticipant (@Nonnull final IParticipantIdentifier aParticipantID)
+  {
+    final String sParticipantKey = _getParticipantKey (aParticipantID);
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      final ICommonsSet <String> aKeys = m_aKeysPerParticipant.remove (sParticipantKey);
+      if (aKeys != null)
+        for (final String sKey : aKeys)
+          m_aMap.remove (sKey);
+    });
+    m_aInvalidations.incrementAndGet ();
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Invalidated cached responses of participant '" + sParticipantKey + "'");
+  }
+
+  /**
+   * Remove all cached responses.
+   */
+  public void clearCache ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      m_aMap.clear ();
+      m_aKeysPerParticipant.clear ();
+    });
+    m_aInvalidations.incrementAndGet ();
+
+    LOGGER.info ("Cleared the signed response cache");
+  }
+
+  @Nonnegative
+  public int getMaxEntries ()
+  {
+    return m_aRWLock.readLockedInt ( () -> m_nMaxEntries);
+  }
+
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  @Nonnegative
+  public long getEvictionCount ()
+  {
+    return m_aEvictions.get ();
+  }
+
+  @Nonnegative
+  public long getInvalidationCount ()
+  {
+    return m_aInvalidations.get ();
+  }
+}
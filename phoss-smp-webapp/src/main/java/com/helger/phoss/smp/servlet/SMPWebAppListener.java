@@ -44,8 +44,10 @@ import com.helger.network.proxy.settings.IProxySettingsProvider;
 import com.helger.network.proxy.settings.ProxySettingsManager;
 import com.helger.pd.client.PDClientConfiguration;
 import com.helger.pd.client.PDHttpClientSettings;
+import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.app.PDClientProvider;
+import com.helger.phoss.smp.app.SMPDirectoryNotificationQueue;
 import com.helger.phoss.smp.app.SMPSecurity;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPConfigProvider;
@@ -55,8 +57,16 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.pdnotification.EDirectoryNotificationAction;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+import com.helger.phoss.smp.rest.SMPParticipantVersionTracker;
+import com.helger.phoss.smp.rest.SMPSignedResponseCache;
+import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.ui.SMPCommonUI;
 import com.helger.phoss.smp.ui.ajax.CAjax;
@@ -309,6 +319,9 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
       // If the SMP settings change, the PD client must be re-created
       SMPMetaManager.getSettingsMgr ().callbacks ().add (x -> PDClientProvider.getInstance ().resetPDClient ());
 
+      // Notifications are sent asynchronously - resume the ones still pending
+      SMPDirectoryNotificationQueue.getInstance ();
+
       // Callback on BusinessCard manager - if something happens, notify PD
       // server
       final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
@@ -322,9 +335,9 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
             if (aSettings.isDirectoryIntegrationEnabled () && aSettings.isDirectoryIntegrationAutoUpdate ())
             {
               // Notify PD server: add
-              PDClientProvider.getInstance ()
-                              .getPDClient ()
-                              .addServiceGroupToIndex (aBusinessCard.getParticipantIdentifier ());
+              SMPDirectoryNotificationQueue.getInstance ()
+                                           .queueNotification (aBusinessCard.getParticipantIdentifier (),
+                                                               EDirectoryNotificationAction.ADD);
             }
           }
 
@@ -334,9 +347,9 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
             if (aSettings.isDirectoryIntegrationEnabled () && aSettings.isDirectoryIntegrationAutoUpdate ())
             {
               // Notify PD server: delete
-              PDClientProvider.getInstance ()
-                              .getPDClient ()
-                              .deleteServiceGroupFromIndex (aBusinessCard.getParticipantIdentifier ());
+              SMPDirectoryNotificationQueue.getInstance ()
+                                           .queueNotification (aBusinessCard.getParticipantIdentifier (),
+                                                               EDirectoryNotificationAction.DELETE);
             }
           }
         });
@@ -358,10 +371,10 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
                             if (aBusinessCardMgr.containsSMPBusinessCardOfServiceGroup (aServiceInformation.getServiceGroup ()))
                             {
                               // Notify PD server: update
-                              PDClientProvider.getInstance ()
-                                              .getPDClient ()
-                                              .addServiceGroupToIndex (aServiceInformation.getServiceGroup ()
-                                                                                          .getParticipantIdentifier ());
+                              SMPDirectoryNotificationQueue.getInstance ()
+                                                           .queueNotification (aServiceInformation.getServiceGroup ()
+                                                                                                  .getParticipantIdentifier (),
+                                                                               EDirectoryNotificationAction.ADD);
                             }
                           }
                         }
@@ -381,6 +394,163 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
       }
     }
 
+    if (SMPServerConfiguration.isRESTResponseCacheEnabled ())
+    {
+      LOGGER.info ("Init of signed response cache");
+
+      // Invalidate cached responses upon each modification
+      SMPMetaManager.getServiceGroupMgr ().serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+      {
+        public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup, final boolean bCreateInSML)
+        {
+          SMPSignedResponseCache.getInstance ().removeAllOfParticipant (aServiceGroup.getParticipantIdentifier ());
+        }
+
+        public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+        {
+          SMPSignedResponseCache.getInstance ().removeAllOfParticipant (aParticipantID);
+        }
+
+        public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                              final boolean bDeleteInSML)
+        {
+          SMPSignedResponseCache.getInstance ().removeAllOfParticipant (aParticipantID);
+        }
+      });
+      SMPMetaManager.getServiceInformationMgr ().serviceInformationCallbacks ().add (new ISMPServiceInformationCallback ()
+      {
+        @Override
+        public void onSMPServiceInformationCreated (@Nonnull final ISMPServiceInformation aServiceInformation)
+        {
+          SMPSignedResponseCache.getInstance ()
+                                .removeAllOfParticipant (aServiceInformation.getServiceGroup ()
+                                                                            .getParticipantIdentifier ());
+        }
+
+        @Override
+        public void onSMPServiceInformationUpdated (@Nonnull final ISMPServiceInformation aServiceInformation)
+        {
+          onSMPServiceInformationCreated (aServiceInformation);
+        }
+
+        @Override
+        public void onSMPServiceInformationDeleted (@Nonnull final ISMPServiceInformation aServiceInformation)
+        {
+          onSMPServiceInformationCreated (aServiceInformation);
+        }
+      });
+      SMPMetaManager.getRedirectMgr ().redirectCallbacks ().add (new ISMPRedirectCallback ()
+      {
+        @Override
+        public void onSMPRedirectCreated (@Nonnull final ISMPRedirect aRedirect)
+        {
+          SMPSignedResponseCache.getInstance ()
+                                .removeAllOfParticipant (aRedirect.getServiceGroup ().getParticipantIdentifier ());
+        }
+
+        @Override
+        public void onSMPRedirectUpdated (@Nonnull final ISMPRedirect aRedirect)
+        {
+          onSMPRedirectCreated (aRedirect);
+        }
+
+        @Override
+        public void onSMPRedirectDeleted (@Nonnull final ISMPRedirect aRedirect)
+        {
+          onSMPRedirectCreated (aRedirect);
+        }
+      });
+      // A new signing key invalidates all signatures
+      SMPKeyManager.reloadCallbacks ().add ( () -> SMPSignedResponseCache.getInstance ().clearCache ());
+    }
+
+    if (SMPServerConfiguration.isRESTConditionalGetEnabled ())
+    {
+      LOGGER.info ("Init of participant version tracking for conditional GET");
+
+      // Each modification creates a new version of the participant
+      SMPMetaManager.getServiceGroupMgr ().serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+      {
+        public void onSMPServiceGroupCreated (@Nonnull final ISMPServiceGroup aServiceGroup, final boolean bCreateInSML)
+        {
+          SMPParticipantVersionTracker.getInstance ().onParticipantModified (aServiceGroup.getParticipantIdentifier ());
+        }
+
+        public void onSMPServiceGroupUpdated (@Nonnull final IParticipantIdentifier aParticipantID)
+        {
+          SMPParticipantVersionTracker.getInstance ().onParticipantModified (aParticipantID);
+        }
+
+        public void onSMPServiceGroupDeleted (@Nonnull final IParticipantIdentifier aParticipantID,
+                                              final boolean bDeleteInSML)
+        {
+          SMPParticipantVersionTracker.getInstance ().onParticipantModified (aParticipantID);
+        }
+      });
+      SMPMetaManager.getServiceInformationMgr ().serviceInformationCallbacks ().add (new ISMPServiceInformationCallback ()
+      {
+        @Override
+        public void onSMPServiceInformationCreated (@Nonnull final ISMPServiceInformation aServiceInformation)
+        {
+          SMPParticipantVersionTracker.getInstance ()
+                                      .onParticipantModified (aServiceInformation.getServiceGroup ()
+                                                                                 .getParticipantIdentifier ());
+        }
+
+        @Override
+        public void onSMPServiceInformationUpdated (@Nonnull final ISMPServiceInformation aServiceInformation)
+        {
+          onSMPServiceInformationCreated (aServiceInformation);
+        }
+
+        @Override
+        public void onSMPServiceInformationDeleted (@Nonnull final ISMPServiceInformation aServiceInformation)
+        {
+          onSMPServiceInformationCreated (aServiceInformation);
+        }
+      });
+      SMPMetaManager.getRedirectMgr ().redirectCallbacks ().add (new ISMPRedirectCallback ()
+      {
+        @Override
+        public void onSMPRedirectCreated (@Nonnull final ISMPRedirect aRedirect)
+        {
+          SMPParticipantVersionTracker.getInstance ()
+                                      .onParticipantModified (aRedirect.getServiceGroup ().getParticipantIdentifier ());
+        }
+
+        @Override
+        public void onSMPRedirectUpdated (@Nonnull final ISMPRedirect aRedirect)
+        {
+          onSMPRedirectCreated (aRedirect);
+        }
+
+        @Override
+        public void onSMPRedirectDeleted (@Nonnull final ISMPRedirect aRedirect)
+        {
+          onSMPRedirectCreated (aRedirect);
+        }
+      });
+      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+      if (aBusinessCardMgr != null)
+        aBusinessCardMgr.bcCallbacks ().add (new ISMPBusinessCardCallback ()
+        {
+          public void onSMPBusinessCardCreatedOrUpdated (@Nonnull final ISMPBusinessCard aBusinessCard)
+          {
+            SMPParticipantVersionTracker.getInstance ().onParticipantModified (aBusinessCard.getParticipantIdentifier ());
+          }
+
+          public void onSMPBusinessCardDeleted (@Nonnull final ISMPBusinessCard aBusinessCard)
+          {
+            SMPParticipantVersionTracker.getInstance ().onParticipantModified (aBusinessCard.getParticipantIdentifier ());
+          }
+        });
+      // Settings and a new signing key may change all responses
+      SMPMetaManager.getSettingsMgr ()
+                    .callbacks ()
+                    .add (aSettings -> SMPParticipantVersionTracker.getInstance ().onAllModified ());
+      SMPKeyManager.reloadCallbacks ().add ( () -> SMPParticipantVersionTracker.getInstance ().onAllModified ());
+    }
+
     {
       LOGGER.info ("Init of HTTP and Proxy settings");
       // Register global proxy servers
@@ -429,6 +599,7 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
 
     // Reset for unit tests
     BasePageUtilsHttpClient.HttpClientConfigRegistry.setToDefault ();
+    SMPKeyManager.reloadCallbacks ().removeAll ();
     super.beforeContextDestroyed (aSC);
   }
 }
@@ -44,13 +44,22 @@ import com.helger.json.JsonObject;
 import com.helger.peppol.sml.ISMLInfo;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.app.CSMP;
+import com.helger.phoss.smp.app.SMPDirectoryNotificationQueue;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
+import com.helger.phoss.smp.audit.ISMPQueuedAuditManager;
+import com.helger.phoss.smp.audit.SMPAuditItemQueue;
 import com.helger.phoss.smp.config.SMPHttpConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.cache.SMPDomainCache;
+import com.helger.phoss.smp.domain.problem.SMPProblemAnalyzer;
+import com.helger.phoss.smp.domain.user.SMPCredentialsCache;
+import com.helger.phoss.smp.rest.SMPSignedResponseCache;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.servlet.SMPWebAppListener;
 import com.helger.phoss.smp.settings.ISMPSettings;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
 
 /**
  * The main class to provide the SMP status content.
@@ -116,6 +125,70 @@ public final class SMPStatusProvider
     aStatusData.add ("smp.rest.log-exceptions", SMPServerConfiguration.isRESTLogExceptions ());
     // New in 5.2.1
     aStatusData.add ("smp.rest.payload-on-error", SMPServerConfiguration.isRESTPayloadOnError ());
+    // New in 7.1.4
+    final boolean bResponseCacheEnabled = SMPServerConfiguration.isRESTResponseCacheEnabled ();
+    aStatusData.add ("smp.rest.response-cache.enabled", bResponseCacheEnabled);
+    if (bResponseCacheEnabled)
+    {
+      final SMPSignedResponseCache aCache = SMPSignedResponseCache.getInstanceIfInstantiated ();
+      if (aCache != null)
+      {
+        aStatusData.add ("smp.rest.response-cache.size", aCache.getSize ());
+        aStatusData.add ("smp.rest.response-cache.max-entries", aCache.getMaxEntries ());
+        aStatusData.add ("smp.rest.response-cache.hits", aCache.getHitCount ());
+        aStatusData.add ("smp.rest.response-cache.misses", aCache.getMissCount ());
+        aStatusData.add ("smp.rest.response-cache.evictions", aCache.getEvictionCount ());
+        aStatusData.add ("smp.rest.response-cache.invalidations", aCache.getInvalidationCount ());
+      }
+    }
+    // New in 7.1.4
+    for (final SMPDomainCache <?> aDomainCache : SMPMetaManager.getAllDomainCaches ())
+    {
+      final String sPrefix = "smp.domain-cache." + aDomainCache.getName () + ".";
+      aStatusData.add (sPrefix + "size", aDomainCache.getSize ());
+      aStatusData.add (sPrefix + "max-entries", aDomainCache.getMaxEntries ());
+      aStatusData.add (sPrefix + "ttl-seconds", aDomainCache.getTTLSeconds ());
+      aStatusData.add (sPrefix + "negative-caching", aDomainCache.isNegativeCaching ());
+      aStatusData.add (sPrefix + "hits", aDomainCache.getHitCount ());
+      aStatusData.add (sPrefix + "negative-hits", aDomainCache.getNegativeHitCount ());
+      aStatusData.add (sPrefix + "misses", aDomainCache.getMissCount ());
+      aStatusData.add (sPrefix + "evictions", aDomainCache.getEvictionCount ());
+      aStatusData.add (sPrefix + "invalidations", aDomainCache.getInvalidationCount ());
+    }
+    {
+      // New in 7.1.4
+      final SMPCertificateCache aCertCache = SMPCertificateCache.getInstance ();
+      aStatusData.add ("smp.certificate-cache.size", aCertCache.getSize ());
+      aStatusData.add ("smp.certificate-cache.max-entries", aCertCache.getMaxEntries ());
+      aStatusData.add ("smp.certificate-cache.hits", aCertCache.getHitCount ());
+      aStatusData.add ("smp.certificate-cache.misses", aCertCache.getMissCount ());
+    }
+    // New in 7.1.4
+    final boolean bAuthCacheEnabled = SMPServerConfiguration.isRESTAuthCacheEnabled ();
+    aStatusData.add ("smp.rest.auth-cache.enabled", bAuthCacheEnabled);
+    if (bAuthCacheEnabled)
+    {
+      final SMPCredentialsCache aAuthCache = SMPCredentialsCache.getInstance ();
+      aStatusData.add ("smp.rest.auth-cache.size", aAuthCache.getSize ());
+      aStatusData.add ("smp.rest.auth-cache.max-entries", aAuthCache.getMaxEntries ());
+      aStatusData.add ("smp.rest.auth-cache.ttl-seconds", aAuthCache.getTTLSeconds ());
+      aStatusData.add ("smp.rest.auth-cache.hits", aAuthCache.getHitCount ());
+      aStatusData.add ("smp.rest.auth-cache.misses", aAuthCache.getMissCount ());
+    }
+    if (PhotonSecurityManager.getAuditMgr () instanceof ISMPQueuedAuditManager)
+    {
+      // New in 7.1.4
+      final SMPAuditItemQueue aAuditQueue = ((ISMPQueuedAuditManager) PhotonSecurityManager.getAuditMgr ()).getAuditItemQueue ();
+      aStatusData.add ("smp.audit.durability", aAuditQueue.getDurability ().getID ());
+      aStatusData.add ("smp.audit.queue.size", aAuditQueue.getQueueSize ());
+      aStatusData.add ("smp.audit.queue.max-size", aAuditQueue.getMaxQueueSize ());
+      aStatusData.add ("smp.audit.queue.capacity", aAuditQueue.getCapacity ());
+      aStatusData.add ("smp.audit.queue.queued-count", aAuditQueue.getQueuedCount ());
+      aStatusData.add ("smp.audit.queue.blocked-count", aAuditQueue.getBlockedCount ());
+      aStatusData.add ("smp.audit.written-count", aAuditQueue.getWrittenCount ());
+      aStatusData.add ("smp.audit.failed-count", aAuditQueue.getFailedCount ());
+      aStatusData.add ("smp.audit.batch-count", aAuditQueue.getBatchCount ());
+    }
 
     // SML information
     aStatusData.add ("smp.sml.enabled", aSettings.isSMLEnabled ());
@@ -136,6 +209,26 @@ public final class SMPStatusProvider
     aStatusData.add ("smp.pd.needed", aSettings.isDirectoryIntegrationRequired ());
     aStatusData.add ("smp.pd.auto-update", aSettings.isDirectoryIntegrationAutoUpdate ());
     aStatusData.add ("smp.pd.hostname", aSettings.getDirectoryHostName ());
+    // New in 7.1.4
+    final SMPDirectoryNotificationQueue aPDQueue = SMPDirectoryNotificationQueue.getInstanceIfInstantiated ();
+    if (aPDQueue != null)
+    {
+      aStatusData.add ("smp.pd.queue.size", aPDQueue.getQueueSize ());
+      aStatusData.add ("smp.pd.queue.lag-seconds", aPDQueue.getLag ().getSeconds ());
+      aStatusData.add ("smp.pd.queue.success-count", aPDQueue.getSuccessCount ());
+      aStatusData.add ("smp.pd.queue.failure-count", aPDQueue.getFailureCount ());
+      aStatusData.add ("smp.pd.queue.coalesced-count", aPDQueue.getCoalescedCount ());
+    }
+
+    // New in 7.1.4
+    final SMPProblemAnalyzer aProblemAnalyzer = SMPMetaManager.getProblemAnalyzer ();
+    final OffsetDateTime aLastSweepDT = aProblemAnalyzer.getLastSweepDateTime ();
+    if (aLastSweepDT != null)
+      aStatusData.add ("smp.tasks.last-sweep", PDTWebDateHelper.getAsStringXSD (aLastSweepDT));
+    aStatusData.add ("smp.tasks.pending-changes", aProblemAnalyzer.getPendingChangeCount ());
+    aStatusData.add ("smp.tasks.error-count", aProblemAnalyzer.getErrorCount ());
+    aStatusData.add ("smp.tasks.warning-count", aProblemAnalyzer.getWarningCount ());
+    aStatusData.add ("smp.tasks.info-count", aProblemAnalyzer.getInfoCount ());
 
     // Certificate information
     final boolean bCertConfigOk = SMPKeyManager.isKeyStoreValid ();
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.ui.ajax;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.StringHelper;
+import com.helger.html.hc.IHCNode;
+import com.helger.html.hc.render.HCRenderer;
+import com.helger.html.jquery.JQueryAjaxBuilder;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.phoss.smp.domain.SMPResultPage;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
+import com.helger.photon.core.menu.IMenuItemPage;
+import com.helger.photon.core.menu.IMenuObject;
+import com.helger.photon.uicore.page.IWebPage;
+import com.helger.photon.uicore.page.WebPageExecutionContext;
+import com.helger.photon.uictrls.datatables.DataTables;
+import com.helger.photon.uictrls.datatables.DataTablesLengthMenu;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * Base class for AJAX executors serving a single page of a server side paged
+ * DataTables list. Paging, sorting (only on the first column) and filtering are
+ * delegated to the backend, so only the rows of the requested page are
+ * rendered.
+ *
+ * @author Philip Helger
+ * @param <PAGETYPE>
+ *        The web page type rendering the rows
+ * @param <DATATYPE>
+ *        The data type of a single row
+ * @since 7.1.4
+ */
+public abstract class AbstractSMPAjaxExecutorDataTables <PAGETYPE extends IWebPage <WebPageExecutionContext>, DATATYPE> extends
+                                                        AbstractSMPAjaxExecutor
+{
+  public static final String PARAM_DRAW = "draw";
+  public static final String PARAM_START = "start";
+  public static final String PARAM_LENGTH = "length";
+  public static final String PARAM_SEARCH_VALUE = "search[value]";
+  public static final String PARAM_ORDER_DIR = "order[0][dir]";
+
+  /** The maximum number of rows returned in a single request */
+  public static final int MAX_PAGE_SIZE = 500;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (AbstractSMPAjaxExecutorDataTables.class);
+  private static final DataTablesLengthMenu LENGTH_MENU = new DataTablesLengthMenu ().addItem (25)
+                                                                                     .addItem (50)
+                                                                                     .addItem (100)
+                                                                                     .addItem (MAX_PAGE_SIZE);
+
+  private final Class <PAGETYPE> m_aPageClass;
+  private final String m_sMenuItemID;
+
+  /**
+   * Constructor
+   *
+   * @param aPageClass
+   *        The class of the page rendering the rows. May not be
+   *        <code>null</code>.
+   * @param sMenuItemID
+   *        The ID of the menu item of the page. Used to create the links
+   *        within the rows. May neither be <code>null</code> nor empty.
+   */
+  protected AbstractSMPAjaxExecutorDataTables (@Nonnull final Class <PAGETYPE> aPageClass,
+                                               @Nonnull @Nonempty final String sMenuItemID)
+  {
+    ValueEnforcer.notNull (aPageClass, "PageClass");
+    ValueEnforcer.notEmpty (sMenuItemID, "MenuItemID");
+    m_aPageClass = aPageClass;
+    m_sMenuItemID = sMenuItemID;
+  }
+
+  /**
+   * Query a single page from the backend.
+   *
+   * @param sFilter
+   *        The optional filter. May be <code>null</code>.
+   * @param bAscending
+   *        <code>true</code> for ascending sort order.
+   * @param nOffset
+   *        The index of the first element to return. Always &ge; 0.
+   * @param nCount
+   *        The maximum number of elements to return. Always &gt; 0.
+   * @return The result page. May not be <code>null</code>.
+   */
+  @Nonnull
+  protected abstract SMPResultPage <DATATYPE> getResultPage (@Nullable String sFilter,
+                                                             boolean bAscending,
+                                                             @Nonnegative int nOffset,
+                                                             @Nonnegative int nCount);
+
+  /**
+   * Create the cells of a single row.
+   *
+   * @param aPage
+   *        The page the list belongs to. Never <code>null</code>.
+   * @param aWPEC
+   *        The web page execution context of the page. Never
+   *        <code>null</code>.
+   * @param aItem
+   *        The item to render. Never <code>null</code>.
+   * @return The cell contents. May not be <code>null</code> but may contain
+   *         <code>null</code> elements for empty cells.
+   */
+  @Nonnull
+  protected abstract ICommonsList <IHCNode> getRowCells (@Nonnull PAGETYPE aPage,
+                                                         @Nonnull WebPageExecutionContext aWPEC,
+                                                         @Nonnull DATATYPE aItem);
+
+  @Override
+  protected void mainHandleRequest (@Nonnull final LayoutExecutionContext aLEC,
+                                    @Nonnull final PhotonUnifiedResponse aAjaxResponse) throws Exception
+  {
+    final IMenuObject aMenuObj = aLEC.getMenuTree ().getItemDataWithID (m_sMenuItemID);
+    if (!(aMenuObj instanceof IMenuItemPage) || !m_aPageClass.isInstance (((IMenuItemPage) aMenuObj).getPage ()))
+    {
+      LOGGER.warn ("Failed to resolve the page of menu item '" + m_sMenuItemID + "'");
+      aAjaxResponse.createBadRequest ();
+      return;
+    }
+    final IMenuItemPage aMenuItem = (IMenuItemPage) aMenuObj;
+    final PAGETYPE aPage = m_aPageClass.cast (aMenuItem.getPage ());
+    // Links inside the rows must point to the page and not to the AJAX call
+    final WebPageExecutionContext aWPEC = new WebPageExecutionContext (new LayoutExecutionContext (aLEC, aMenuItem),
+                                                                       aPage);
+
+    final IRequestWebScopeWithoutResponse aRequestScope = aLEC.getRequestScope ();
+    final int nDraw = aRequestScope.params ().getAsInt (PARAM_DRAW, 0);
+    final int nStart = Math.max (aRequestScope.params ().getAsInt (PARAM_START, 0), 0);
+    final int nLength = aRequestScope.params ().getAsInt (PARAM_LENGTH, MAX_PAGE_SIZE);
+    final String sFilter = StringHelper.trim (aRequestScope.params ().getAsString (PARAM_SEARCH_VALUE));
+    final boolean bAscending = !"desc".equals (aRequestScope.params ().getAsString (PARAM_ORDER_DIR));
+
+    final SMPResultPage <DATATYPE> aResultPage = getResultPage (sFilter,
+                                                                bAscending,
+                                                                nStart,
+                                                                nLength <= 0 ? MAX_PAGE_SIZE
+                                                                             : Math.min (nLength, MAX_PAGE_SIZE));
+
+    final JsonArray aData = new JsonArray ();
+    for (final DATATYPE aItem : aResultPage.getAllItems ())
+    {
+      final JsonObject aRow = new JsonObject ();
+      int nCellIndex = 0;
+      for (final IHCNode aCell : getRowCells (aPage, aWPEC, aItem))
+      {
+        aRow.add (Integer.toString (nCellIndex), aCell == null ? "" : HCRenderer.getAsHTMLStringWithoutNamespaces (aCell));
+        nCellIndex++;
+      }
+      aData.add (aRow);
+    }
+
+    final IJsonObject aJson = new JsonObject ().add (PARAM_DRAW, nDraw)
+                                               .add ("recordsTotal", aResultPage.getTotalCount ())
+                                               .add ("recordsFiltered", aResultPage.getFilteredCount ())
+                                               .add ("data", aData);
+    aAjaxResponse.json (aJson);
+  }
+
+  /**
+   * Switch the passed DataTables to server side processing via the provided
+   * AJAX function. Must be called after the default DataTables configuration
+   * was applied.
+   *
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param aDataTables
+   *        The DataTables to modify. May not be <code>null</code>.
+   * @param aAjaxFunction
+   *        The AJAX function providing the data. May not be <code>null</code>.
+   */
+  public static void setServerSide (@Nonnull final IRequestWebScopeWithoutResponse aRequestScope,
+                                    @Nonnull final DataTables aDataTables,
+                                    @Nonnull final IAjaxFunctionDeclaration aAjaxFunction)
+  {
+    aDataTables.setLengthMenu (LENGTH_MENU)
+               .setAjaxBuilder (new JQueryAjaxBuilder ().url (aAjaxFunction.getInvocationURL (aRequestScope)));
+  }
+}
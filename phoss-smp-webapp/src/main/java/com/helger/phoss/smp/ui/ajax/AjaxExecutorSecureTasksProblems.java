@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.ui.ajax;
+
+import javax.annotation.Nonnull;
+
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.photon.core.execcontext.LayoutExecutionContext;
+
+/**
+ * Return the precomputed tasks and problems of all service groups as JSON
+ *
+ * @author Philip Helger
+ * @since 7.1.4
+ */
+public final class AjaxExecutorSecureTasksProblems extends AbstractSMPAjaxExecutor
+{
+  @Override
+  protected void mainHandleRequest (@Nonnull final LayoutExecutionContext aLEC,
+                                    @Nonnull final PhotonUnifiedResponse aAjaxResponse) throws Exception
+  {
+    aAjaxResponse.json (SMPMetaManager.getProblemAnalyzer ().getAsJsonObject ());
+  }
+}
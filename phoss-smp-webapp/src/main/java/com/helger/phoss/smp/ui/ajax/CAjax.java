@@ -64,6 +64,10 @@ public final class CAjax
                                                                                                           .executor (AjaxExecutorSecureBackendConnectionReset.class)
                                                                                                           .filter (FILTER_IS_USER_LOGGED_IN)
                                                                                                           .build ();
+  public static final IAjaxFunctionDeclaration FUNCTION_TASKS_PROBLEMS = AjaxFunctionDeclaration.builder ("tasksProblems")
+                                                                                                .executor (AjaxExecutorSecureTasksProblems.class)
+                                                                                                .filter (FILTER_IS_USER_LOGGED_IN)
+                                                                                                .build ();
 
   private static final Logger LOGGER = LoggerFactory.getLogger (CAjax.class);
 
@@ -76,9 +80,19 @@ public final class CAjax
     aAjaxRegistry.registerFunction (DATATABLES_I18N);
     aAjaxRegistry.registerFunction (LOGIN);
     aAjaxRegistry.registerFunction (FUNCTION_BACKEND_CONNECTION_RESET);
+    aAjaxRegistry.registerFunction (FUNCTION_TASKS_PROBLEMS);
     LOGGER.info ("Successfully registered the Ajax functions");
   }
 
+  @Nonnull
+  public static AjaxFunctionDeclaration addAjax (@Nonnull final IAjaxExecutor aExecutor)
+  {
+    // random name
+    final AjaxFunctionDeclaration aFunction = AjaxFunctionDeclaration.builder ().executor (aExecutor).build ();
+    GlobalAjaxInvoker.getInstance ().getRegistry ().registerFunction (aFunction);
+    return aFunction;
+  }
+
   @Nonnull
   public static AjaxFunctionDeclaration addAjaxWithLogin (@Nonnull final IAjaxExecutor aExecutor)
   {
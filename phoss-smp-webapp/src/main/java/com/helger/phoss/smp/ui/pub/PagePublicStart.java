@@ -16,28 +16,34 @@
  */
 package com.helger.phoss.smp.ui.pub;
 
-import java.util.Comparator;
 import java.util.Locale;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.url.SimpleURL;
+import com.helger.html.hc.IHCNode;
 import com.helger.html.hc.ext.HCExtHelper;
-import com.helger.html.hc.html.tabular.AbstractHCTable;
 import com.helger.html.hc.html.tabular.HCRow;
 import com.helger.html.hc.html.tabular.HCTable;
 import com.helger.html.hc.html.textlevel.HCA;
+import com.helger.html.hc.html.textlevel.HCCode;
 import com.helger.html.hc.impl.HCNodeList;
+import com.helger.html.hc.impl.HCTextNode;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.rest.SMPRestDataProvider;
 import com.helger.phoss.smp.ui.AbstractSMPWebPage;
+import com.helger.phoss.smp.ui.ajax.AbstractSMPAjaxExecutorDataTables;
+import com.helger.phoss.smp.ui.ajax.CAjax;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
 import com.helger.photon.bootstrap4.table.BootstrapTable;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDTColAction;
 import com.helger.photon.bootstrap4.uictrls.datatables.BootstrapDataTables;
@@ -45,7 +51,6 @@ import com.helger.photon.core.EPhotonCoreText;
 import com.helger.photon.uicore.page.WebPageExecutionContext;
 import com.helger.photon.uictrls.datatables.column.DTCol;
 import com.helger.photon.uictrls.famfam.EFamFamIcon;
-import com.helger.web.scope.IRequestWebScopeWithoutResponse;
 
 /**
  * This is the start page of the public application. It lists all available
@@ -55,6 +60,34 @@ import com.helger.web.scope.IRequestWebScopeWithoutResponse;
  */
 public final class PagePublicStart extends AbstractSMPWebPage
 {
+  private static final IAjaxFunctionDeclaration AJAX_LIST;
+
+  static
+  {
+    AJAX_LIST = CAjax.addAjax (new AbstractSMPAjaxExecutorDataTables <PagePublicStart, ISMPServiceGroup> (PagePublicStart.class,
+                                                                                                       CMenuPublic.MENU_START)
+    {
+      @Override
+      protected SMPResultPage <ISMPServiceGroup> getResultPage (@Nullable final String sFilter,
+                                                                final boolean bAscending,
+                                                                final int nOffset,
+                                                                final int nCount)
+      {
+        if (SMPWebAppConfiguration.isStartPageParticipantsNone ())
+          return new SMPResultPage <> (new CommonsArrayList <> (), 0, 0);
+        return SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupPage (sFilter, bAscending, nOffset, nCount);
+      }
+
+      @Override
+      protected ICommonsList <IHCNode> getRowCells (@Nonnull final PagePublicStart aPage,
+                                                    @Nonnull final WebPageExecutionContext aWPEC,
+                                                    @Nonnull final ISMPServiceGroup aItem)
+      {
+        return _getRowCells (aWPEC, aItem);
+      }
+    });
+  }
+
   public PagePublicStart (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Start page");
@@ -67,12 +100,43 @@ public final class PagePublicStart extends AbstractSMPWebPage
     return "Managed participants on this SMP";
   }
 
+  @Nonnull
+  private static ICommonsList <IHCNode> _getRowCells (@Nonnull final WebPageExecutionContext aWPEC,
+                                                      @Nonnull final ISMPServiceGroup aServiceGroup)
+  {
+    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
+    final boolean bShowExtensionDetails = SMPWebAppConfiguration.isStartPageExtensionsShow ();
+    final String sDisplayName = aServiceGroup.getParticipantIdentifier ().getURIEncoded ();
+
+    final ICommonsList <IHCNode> aRow = new CommonsArrayList <> ();
+    aRow.add (new HCTextNode (sDisplayName));
+    if (bShowExtensionDetails)
+    {
+      if (aServiceGroup.getExtensions ().extensions ().isNotEmpty ())
+        aRow.add (new HCCode ().addChildren (HCExtHelper.nl2divList (aServiceGroup.getExtensions ()
+                                                                                  .getFirstExtensionXMLString ())));
+      else
+        aRow.add (null);
+    }
+    else
+    {
+      aRow.add (new HCTextNode (EPhotonCoreText.getYesOrNo (aServiceGroup.getExtensions ().extensions ().isNotEmpty (),
+                                                            aDisplayLocale)));
+    }
+    final SMPRestDataProvider aDP = new SMPRestDataProvider (aWPEC.getRequestScope (),
+                                                             aServiceGroup.getParticipantIdentifier ().getURIEncoded ());
+    aRow.add (new HCA (new SimpleURL (aDP.getServiceGroupHref (aServiceGroup.getParticipantIdentifier ()))).setTitle ("Perform SMP query on " +
+                                                                                                                      sDisplayName)
+                                                                                                           .setTargetBlank ()
+                                                                                                           .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
+    return aRow;
+  }
+
   @Override
   protected void fillContent (final WebPageExecutionContext aWPEC)
   {
     final HCNodeList aNodeList = aWPEC.getNodeList ();
     final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
-    final IRequestWebScopeWithoutResponse aRequestScope = aWPEC.getRequestScope ();
 
     if (SMPWebAppConfiguration.isStartPageParticipantsNone ())
     {
@@ -82,77 +146,47 @@ public final class PagePublicStart extends AbstractSMPWebPage
     else
     {
       final ISMPServiceGroupManager aSMPServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-      final ICommonsList <ISMPServiceGroup> aServiceGroups = aSMPServiceGroupMgr.getAllSMPServiceGroups ();
 
       // Use dynamic or static table?
       final boolean bUseDataTables = SMPWebAppConfiguration.isStartPageDynamicTable ();
       final boolean bShowExtensionDetails = SMPWebAppConfiguration.isStartPageExtensionsShow ();
 
-      AbstractHCTable <?> aFinalTable;
-      if (bUseDataTables)
-      {
-        // Dynamic
-        final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
-                                            new DTCol (bShowExtensionDetails ? "Extension"
-                                                                             : "Extension?").setDataSort (1, 0),
-                                            new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
-        aFinalTable = aTable;
-      }
+      if (aSMPServiceGroupMgr.getSMPServiceGroupCount () <= 0)
+        aNodeList.addChild (info ("This SMP does not manage any participant yet."));
       else
-      {
-        // Static
-        final BootstrapTable aTable = new BootstrapTable ();
-        aTable.setBordered (true);
-        aTable.setCondensed (true);
-        aTable.setStriped (true);
-        aTable.addHeaderRow ()
-              .addCell ("Participant ID")
-              .addCell (bShowExtensionDetails ? "Extension" : "Extension?")
-              .addCell (EPhotonCoreText.ACTIONS.getDisplayText (aDisplayLocale));
-        aFinalTable = aTable;
-
-        // Sort manually
-        aServiceGroups.sort (Comparator.comparing (x -> x.getParticipantIdentifier ().getURIEncoded ()));
-      }
-
-      for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
-      {
-        final String sDisplayName = aServiceGroup.getParticipantIdentifier ().getURIEncoded ();
-
-        final HCRow aRow = aFinalTable.addBodyRow ();
-        aRow.addCell (sDisplayName);
-        if (bShowExtensionDetails)
+        if (bUseDataTables)
         {
-          if (aServiceGroup.getExtensions ().extensions ().isNotEmpty ())
-            aRow.addCell (code (HCExtHelper.nl2divList (aServiceGroup.getExtensions ().getFirstExtensionXMLString ())));
-          else
-            aRow.addCell ();
+          // Dynamic - the rows are provided page by page via AJAX_LIST
+          final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
+                                              new DTCol (bShowExtensionDetails ? "Extension"
+                                                                               : "Extension?").setOrderable (false),
+                                              new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
+          aNodeList.addChild (aTable);
+
+          final BootstrapDataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aTable);
+          AbstractSMPAjaxExecutorDataTables.setServerSide (aWPEC.getRequestScope (), aDataTables, AJAX_LIST);
+          aNodeList.addChild (aDataTables);
         }
         else
         {
-          aRow.addCell (EPhotonCoreText.getYesOrNo (aServiceGroup.getExtensions ().extensions ().isNotEmpty (),
-                                                    aDisplayLocale));
-        }
-        final SMPRestDataProvider aDP = new SMPRestDataProvider (aRequestScope,
-                                                                 aServiceGroup.getParticipantIdentifier ()
-                                                                              .getURIEncoded ());
-        aRow.addCell (new HCA (new SimpleURL (aDP.getServiceGroupHref (aServiceGroup.getParticipantIdentifier ()))).setTitle ("Perform SMP query on " +
-                                                                                                                              sDisplayName)
-                                                                                                                   .setTargetBlank ()
-                                                                                                                   .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
-      }
-      if (aFinalTable.hasBodyRows ())
-      {
-        aNodeList.addChild (aFinalTable);
+          // Static
+          final BootstrapTable aTable = new BootstrapTable ();
+          aTable.setBordered (true);
+          aTable.setCondensed (true);
+          aTable.setStriped (true);
+          aTable.addHeaderRow ()
+                .addCell ("Participant ID")
+                .addCell (bShowExtensionDetails ? "Extension" : "Extension?")
+                .addCell (EPhotonCoreText.ACTIONS.getDisplayText (aDisplayLocale));
 
-        if (bUseDataTables)
-        {
-          final BootstrapDataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aFinalTable);
-          aNodeList.addChild (aDataTables);
+          // Already sorted
+          aSMPServiceGroupMgr.forEachSMPServiceGroup (aServiceGroup -> {
+            final HCRow aRow = aTable.addBodyRow ();
+            for (final IHCNode aCell : _getRowCells (aWPEC, aServiceGroup))
+              aRow.addCell (aCell);
+          });
+          aNodeList.addChild (aTable);
         }
-      }
-      else
-        aNodeList.addChild (info ("This SMP does not manage any participant yet."));
     }
   }
 }
@@ -24,17 +24,19 @@ import javax.annotation.Nullable;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.attr.StringMap;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.state.EValidity;
 import com.helger.commons.state.IValidityIndicator;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.url.ISimpleURL;
 import com.helger.commons.url.URLHelper;
+import com.helger.html.hc.IHCNode;
 import com.helger.html.hc.html.HC_Target;
 import com.helger.html.hc.html.forms.HCEdit;
 import com.helger.html.hc.html.forms.HCHiddenField;
 import com.helger.html.hc.html.forms.HCTextArea;
-import com.helger.html.hc.html.tabular.HCRow;
 import com.helger.html.hc.html.tabular.HCTable;
 import com.helger.html.hc.html.textlevel.HCA;
 import com.helger.html.hc.impl.HCNodeList;
@@ -44,6 +46,7 @@ import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
@@ -53,7 +56,10 @@ import com.helger.phoss.smp.nicename.NiceNameUI;
 import com.helger.phoss.smp.rest.SMPRestFilter;
 import com.helger.phoss.smp.ui.AbstractSMPWebPageForm;
 import com.helger.phoss.smp.ui.SMPCommonUI;
+import com.helger.phoss.smp.ui.ajax.AbstractSMPAjaxExecutorDataTables;
+import com.helger.phoss.smp.ui.ajax.CAjax;
 import com.helger.phoss.smp.ui.secure.hc.HCServiceGroupSelect;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
 import com.helger.photon.app.url.LinkHelper;
 import com.helger.photon.bootstrap4.button.BootstrapButton;
 import com.helger.photon.bootstrap4.buttongroup.BootstrapButtonToolbar;
@@ -85,6 +91,32 @@ public final class PageSecureRedirect extends AbstractSMPWebPageForm <ISMPRedire
   private static final String ATTR_SERVICE_GROUP = "$servicegroup";
   private static final String ATTR_DOCTYPE_ID = "$doctypeid";
 
+  private static final IAjaxFunctionDeclaration AJAX_LIST;
+
+  static
+  {
+    AJAX_LIST = CAjax.addAjaxWithLogin (new AbstractSMPAjaxExecutorDataTables <PageSecureRedirect, ISMPRedirect> (PageSecureRedirect.class,
+                                                                                                                 CMenuSecure.MENU_REDIRECTS)
+    {
+      @Override
+      protected SMPResultPage <ISMPRedirect> getResultPage (@Nullable final String sFilter,
+                                                            final boolean bAscending,
+                                                            final int nOffset,
+                                                            final int nCount)
+      {
+        return SMPMetaManager.getRedirectMgr ().getSMPRedirectPage (sFilter, bAscending, nOffset, nCount);
+      }
+
+      @Override
+      protected ICommonsList <IHCNode> getRowCells (@Nonnull final PageSecureRedirect aPage,
+                                                    @Nonnull final WebPageExecutionContext aWPEC,
+                                                    @Nonnull final ISMPRedirect aItem)
+      {
+        return aPage._getListRowCells (aWPEC, aItem);
+      }
+    });
+  }
+
   public PageSecureRedirect (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Redirects");
@@ -397,59 +429,63 @@ public final class PageSecureRedirect extends AbstractSMPWebPageForm <ISMPRedire
                                                  .setErrorList (aFormErrors.getListOfField (FIELD_EXTENSION)));
   }
 
+  @Nonnull
+  private ICommonsList <IHCNode> _getListRowCells (@Nonnull final WebPageExecutionContext aWPEC,
+                                                   @Nonnull final ISMPRedirect aCurObject)
+  {
+    final StringMap aParams = new StringMap ();
+    aParams.putIn (FIELD_SERVICE_GROUP_ID, aCurObject.getServiceGroupID ());
+    aParams.putIn (FIELD_DOCTYPE_ID, aCurObject.getDocumentTypeIdentifier ().getURIEncoded ());
+    final ISimpleURL aViewLink = createViewURL (aWPEC, aCurObject, aParams);
+    final String sDisplayName = aCurObject.getServiceGroupID ();
+
+    final ICommonsList <IHCNode> aRow = new CommonsArrayList <> ();
+    aRow.add (new HCA (aViewLink).addChild (sDisplayName));
+    aRow.add (NiceNameUI.getDocumentTypeID (aCurObject.getDocumentTypeIdentifier (), false));
+    aRow.add (new HCTextNode (aCurObject.getTargetHref ()));
+
+    final ISimpleURL aEditURL = createEditURL (aWPEC, aCurObject).addAll (aParams);
+    final ISimpleURL aCopyURL = createCopyURL (aWPEC, aCurObject).addAll (aParams);
+    final ISimpleURL aDeleteURL = createDeleteURL (aWPEC, aCurObject).addAll (aParams);
+    final ISimpleURL aPreviewURL = LinkHelper.getURLWithServerAndContext (aCurObject.getServiceGroup ()
+                                                                                    .getParticipantIdentifier ()
+                                                                                    .getURIPercentEncoded () +
+                                                                          SMPRestFilter.PATH_SERVICES +
+                                                                          aCurObject.getDocumentTypeIdentifier ()
+                                                                                    .getURIPercentEncoded ());
+    aRow.add (new HCNodeList ().addChildren (new HCA (aEditURL).setTitle ("Edit " + sDisplayName)
+                                                               .addChild (EDefaultIcon.EDIT.getAsNode ()),
+                                             new HCTextNode (" "),
+                                             new HCA (aCopyURL).setTitle ("Create a copy of " + sDisplayName)
+                                                               .addChild (EDefaultIcon.COPY.getAsNode ()),
+                                             new HCTextNode (" "),
+                                             new HCA (aDeleteURL).setTitle ("Delete " + sDisplayName)
+                                                                 .addChild (EDefaultIcon.DELETE.getAsNode ()),
+                                             new HCTextNode (" "),
+                                             new HCA (aPreviewURL).setTitle ("Perform SMP query on " + sDisplayName)
+                                                                  .setTargetBlank ()
+                                                                  .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ())));
+    return aRow;
+  }
+
   @Override
   protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
   {
     final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
     final HCNodeList aNodeList = aWPEC.getNodeList ();
-    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
 
     final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
     aToolbar.addButton ("Create new Redirect", createCreateURL (aWPEC), EDefaultIcon.NEW);
     aNodeList.addChild (aToolbar);
 
-    final HCTable aTable = new HCTable (new DTCol ("Service Group").setDataSort (0, 1)
-                                                                   .setInitialSorting (ESortOrder.ASCENDING),
-                                        new DTCol ("Document type ID").setDataSort (1, 0),
-                                        new DTCol ("Target URL"),
+    // The rows are provided page by page via AJAX_LIST
+    final HCTable aTable = new HCTable (new DTCol ("Service Group").setInitialSorting (ESortOrder.ASCENDING),
+                                        new DTCol ("Document type ID").setOrderable (false),
+                                        new DTCol ("Target URL").setOrderable (false),
                                         new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
-    for (final ISMPRedirect aCurObject : aRedirectMgr.getAllSMPRedirects ())
-    {
-      final StringMap aParams = new StringMap ();
-      aParams.putIn (FIELD_SERVICE_GROUP_ID, aCurObject.getServiceGroupID ());
-      aParams.putIn (FIELD_DOCTYPE_ID, aCurObject.getDocumentTypeIdentifier ().getURIEncoded ());
-      final ISimpleURL aViewLink = createViewURL (aWPEC, aCurObject, aParams);
-      final String sDisplayName = aCurObject.getServiceGroupID ();
-
-      final HCRow aRow = aTable.addBodyRow ();
-      aRow.addCell (new HCA (aViewLink).addChild (sDisplayName));
-      aRow.addCell (NiceNameUI.getDocumentTypeID (aCurObject.getDocumentTypeIdentifier (), false));
-      aRow.addCell (aCurObject.getTargetHref ());
-
-      final ISimpleURL aEditURL = createEditURL (aWPEC, aCurObject).addAll (aParams);
-      final ISimpleURL aCopyURL = createCopyURL (aWPEC, aCurObject).addAll (aParams);
-      final ISimpleURL aDeleteURL = createDeleteURL (aWPEC, aCurObject).addAll (aParams);
-      final ISimpleURL aPreviewURL = LinkHelper.getURLWithServerAndContext (aCurObject.getServiceGroup ()
-                                                                                      .getParticipantIdentifier ()
-                                                                                      .getURIPercentEncoded () +
-                                                                            SMPRestFilter.PATH_SERVICES +
-                                                                            aCurObject.getDocumentTypeIdentifier ()
-                                                                                      .getURIPercentEncoded ());
-      aRow.addCell (new HCA (aEditURL).setTitle ("Edit " + sDisplayName).addChild (EDefaultIcon.EDIT.getAsNode ()),
-                    new HCTextNode (" "),
-                    new HCA (aCopyURL).setTitle ("Create a copy of " + sDisplayName)
-                                      .addChild (EDefaultIcon.COPY.getAsNode ()),
-                    new HCTextNode (" "),
-                    new HCA (aDeleteURL).setTitle ("Delete " + sDisplayName)
-                                        .addChild (EDefaultIcon.DELETE.getAsNode ()),
-                    new HCTextNode (" "),
-                    new HCA (aPreviewURL).setTitle ("Perform SMP query on " + sDisplayName)
-                                         .setTargetBlank ()
-                                         .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
-    }
 
     final DataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aTable);
-
+    AbstractSMPAjaxExecutorDataTables.setServerSide (aWPEC.getRequestScope (), aDataTables, AJAX_LIST);
     aNodeList.addChild (aTable).addChild (aDataTables);
   }
 }
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.WorkInProgress;
 import com.helger.commons.collection.attr.StringMap;
+import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.compare.ESortOrder;
 import com.helger.commons.state.EValidity;
@@ -58,6 +59,7 @@ import com.helger.phoss.smp.app.CSMP;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.SMPResultPage;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
@@ -72,7 +74,10 @@ import com.helger.phoss.smp.smlhook.RegistrationHookException;
 import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.phoss.smp.ui.AbstractSMPWebPageForm;
 import com.helger.phoss.smp.ui.SMPCommonUI;
+import com.helger.phoss.smp.ui.ajax.AbstractSMPAjaxExecutorDataTables;
+import com.helger.phoss.smp.ui.ajax.CAjax;
 import com.helger.phoss.smp.ui.secure.hc.HCUserSelect;
+import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
 import com.helger.photon.app.url.LinkHelper;
 import com.helger.photon.bootstrap4.alert.BootstrapQuestionBox;
 import com.helger.photon.bootstrap4.badge.BootstrapBadge;
@@ -127,6 +132,32 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
   private static final String ACTION_REGISTER_TO_SML = "register-to-sml";
   private static final String ACTION_UNREGISTER_FROM_SML = "unregister-from-sml";
 
+  private static final IAjaxFunctionDeclaration AJAX_LIST;
+
+  static
+  {
+    AJAX_LIST = CAjax.addAjaxWithLogin (new AbstractSMPAjaxExecutorDataTables <PageSecureServiceGroup, ISMPServiceGroup> (PageSecureServiceGroup.class,
+                                                                                                                         CMenuSecure.MENU_SERVICE_GROUPS)
+    {
+      @Override
+      protected SMPResultPage <ISMPServiceGroup> getResultPage (@Nullable final String sFilter,
+                                                                final boolean bAscending,
+                                                                final int nOffset,
+                                                                final int nCount)
+      {
+        return SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupPage (sFilter, bAscending, nOffset, nCount);
+      }
+
+      @Override
+      protected ICommonsList <IHCNode> getRowCells (@Nonnull final PageSecureServiceGroup aPage,
+                                                    @Nonnull final WebPageExecutionContext aWPEC,
+                                                    @Nonnull final ISMPServiceGroup aItem)
+      {
+        return aPage._getListRowCells (aWPEC, aItem);
+      }
+    });
+  }
+
   public PageSecureServiceGroup (@Nonnull @Nonempty final String sID)
   {
     super (sID, "Service Groups");
@@ -654,20 +685,103 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
     }
   }
 
+  @Nonnull
+  private ICommonsList <IHCNode> _getListRowCells (@Nonnull final WebPageExecutionContext aWPEC,
+                                                   @Nonnull final ISMPServiceGroup aCurObject)
+  {
+    final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    final ISMPBusinessCardManager aBCMgr = SMPMetaManager.getBusinessCardMgr ();
+    final ESMPRESTType eRESTType = SMPServerConfiguration.getRESTType ();
+    final boolean bShowExtensionDetails = SMPWebAppConfiguration.isServiceGroupsExtensionsShow ();
+    final boolean bShowBusinessCardName = _isShowBusinessCardName ();
+
+    final ISimpleURL aViewLink = createViewURL (aWPEC, aCurObject);
+    final String sDisplayName = aCurObject.getParticipantIdentifier ().getURIEncoded ();
+
+    final ICommonsList <IHCNode> aRow = new CommonsArrayList <> ();
+    aRow.add (new HCA (aViewLink).addChild (sDisplayName));
+    aRow.add (new HCTextNode (SMPCommonUI.getOwnerName (aCurObject.getOwnerID ())));
+    if (bShowBusinessCardName)
+    {
+      IHCNode aName = null;
+      final ISMPBusinessCard aBC = aBCMgr.getSMPBusinessCardOfServiceGroup (aCurObject);
+      if (aBC != null)
+      {
+        final SMPBusinessCardEntity aEntity = aBC.getEntityAtIndex (0);
+        if (aEntity != null && aEntity.names ().isNotEmpty ())
+          aName = HCTextNode.createOnDemand (aEntity.names ().getFirstOrNull ().getName ());
+      }
+      aRow.add (aName);
+    }
+    if (bShowExtensionDetails)
+    {
+      if (aCurObject.getExtensions ().extensions ().isNotEmpty ())
+        aRow.add (new HCCode ().addChildren (HCExtHelper.nl2divList (aCurObject.getExtensions ()
+                                                                               .getFirstExtensionXMLString ())));
+      else
+        aRow.add (null);
+    }
+    else
+    {
+      aRow.add (new HCTextNode (EPhotonCoreText.getYesOrNo (aCurObject.getExtensions ().extensions ().isNotEmpty (),
+                                                            aDisplayLocale)));
+    }
+
+    // Only the service groups of the current page are queried
+    int nProcesses = 0;
+    int nEndpoints = 0;
+    final ICommonsList <ISMPServiceInformation> aSIs = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aCurObject);
+    for (final ISMPServiceInformation aSI : aSIs)
+    {
+      nProcesses += aSI.getProcessCount ();
+      nEndpoints += aSI.getTotalEndpointCount ();
+    }
+
+    aRow.add (new HCTextNode (Integer.toString (aSIs.size ())));
+    aRow.add (new HCTextNode (Integer.toString (nProcesses)));
+    aRow.add (new HCTextNode (Integer.toString (nEndpoints)));
+
+    final HCNodeList aActions = new HCNodeList ();
+    aActions.addChildren (createEditLink (aWPEC, aCurObject, "Edit " + sDisplayName),
+                          new HCTextNode (" "),
+                          createCopyLink (aWPEC, aCurObject, "Copy " + sDisplayName),
+                          new HCTextNode (" "),
+                          createDeleteLink (aWPEC, aCurObject, "Delete " + sDisplayName),
+                          new HCTextNode (" "),
+                          new HCA (LinkHelper.getURLWithServerAndContext (aCurObject.getParticipantIdentifier ()
+                                                                                    .getURIPercentEncoded ())).setTitle ("Perform SMP query on " +
+                                                                                                                         sDisplayName)
+                                                                                                              .setTargetBlank ()
+                                                                                                              .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
+    if (eRESTType.isCompleteServiceGroupSupported ())
+    {
+      aActions.addChildren (new HCTextNode (" "),
+                            new HCA (LinkHelper.getURLWithServerAndContext ("complete/" +
+                                                                            aCurObject.getParticipantIdentifier ()
+                                                                                      .getURIPercentEncoded ())).setTitle ("Perform complete SMP query on " +
+                                                                                                                           sDisplayName)
+                                                                                                                .setTargetBlank ()
+                                                                                                                .addChild (EFamFamIcon.SCRIPT_LINK.getAsNode ()));
+    }
+    aRow.add (aActions);
+    return aRow;
+  }
+
+  private static boolean _isShowBusinessCardName ()
+  {
+    return CSMP.ENABLE_ISSUE_56 && SMPMetaManager.getSettings ().isDirectoryIntegrationEnabled ();
+  }
+
   @Override
   protected void showListOfExistingObjects (@Nonnull final WebPageExecutionContext aWPEC)
   {
     final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
     final HCNodeList aNodeList = aWPEC.getNodeList ();
     final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-    final ISMPBusinessCardManager aBCMgr = SMPMetaManager.getBusinessCardMgr ();
     final ISMPSettings aSettings = SMPMetaManager.getSettings ();
-    final ESMPRESTType eRESTType = SMPServerConfiguration.getRESTType ();
     final boolean bShowExtensionDetails = SMPWebAppConfiguration.isServiceGroupsExtensionsShow ();
-    final boolean bShowBusinessCardName = CSMP.ENABLE_ISSUE_56 && aSettings.isDirectoryIntegrationEnabled ();
-
-    final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
+    final boolean bShowBusinessCardName = _isShowBusinessCardName ();
 
     final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
     aToolbar.addButton ("Create new Service group", createCreateURL (aWPEC), EDefaultIcon.NEW);
@@ -680,104 +794,31 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
                                    aWPEC.getSelfHref ().add (CPageParam.PARAM_ACTION, ACTION_CHECK_DNS),
                                    EDefaultIcon.MAGNIFIER)
               .setDisabled (aSettings.getSMLDNSZone () == null ||
-                            aAllServiceGroups.isEmpty () ||
+                            aServiceGroupMgr.getSMPServiceGroupCount () <= 0 ||
                             !aSettings.isSMLEnabled ());
     }
     aNodeList.addChild (aToolbar);
 
-    final boolean bShowDetails = aAllServiceGroups.size () <= 1000;
-
+    // The rows are provided page by page via AJAX_LIST
     final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
-                                        new DTCol ("Owner"),
-                                        bShowBusinessCardName ? new DTCol ("Business Card Name") : null,
+                                        new DTCol ("Owner").setOrderable (false),
+                                        bShowBusinessCardName ? new DTCol ("Business Card Name").setOrderable (false)
+                                                              : null,
                                         new DTCol (span (bShowExtensionDetails ? "Ext"
-                                                                               : "Ext?").setTitle ("Is an Extension present?")),
-                                        bShowDetails ? new DTCol (span ("Docs").setTitle ("Number of assigned document types")).setDisplayType (EDTColType.INT,
-                                                                                                                                                aDisplayLocale)
-                                                     : null,
-                                        bShowDetails ? new DTCol (span ("Procs").setTitle ("Number of assigned processes")).setDisplayType (EDTColType.INT,
-                                                                                                                                            aDisplayLocale)
-                                                     : null,
-                                        bShowDetails ? new DTCol (span ("EPs").setTitle ("Number of assigned endpoints")).setDisplayType (EDTColType.INT,
-                                                                                                                                          aDisplayLocale)
-                                                     : null,
+                                                                               : "Ext?").setTitle ("Is an Extension present?")).setOrderable (false),
+                                        new DTCol (span ("Docs").setTitle ("Number of assigned document types")).setDisplayType (EDTColType.INT,
+                                                                                                                                 aDisplayLocale)
+                                                                                                                 .setOrderable (false),
+                                        new DTCol (span ("Procs").setTitle ("Number of assigned processes")).setDisplayType (EDTColType.INT,
+                                                                                                                             aDisplayLocale)
+                                                                                                             .setOrderable (false),
+                                        new DTCol (span ("EPs").setTitle ("Number of assigned endpoints")).setDisplayType (EDTColType.INT,
+                                                                                                                           aDisplayLocale)
+                                                                                                           .setOrderable (false),
                                         new BootstrapDTColAction (aDisplayLocale)).setID (getID ());
-    for (final ISMPServiceGroup aCurObject : aAllServiceGroups)
-    {
-      final ISimpleURL aViewLink = createViewURL (aWPEC, aCurObject);
-      final String sDisplayName = aCurObject.getParticipantIdentifier ().getURIEncoded ();
-
-      final HCRow aRow = aTable.addBodyRow ();
-      aRow.addCell (new HCA (aViewLink).addChild (sDisplayName));
-      aRow.addCell (SMPCommonUI.getOwnerName (aCurObject.getOwnerID ()));
-      if (bShowBusinessCardName)
-      {
-        IHCNode aName = null;
-        final ISMPBusinessCard aBC = aBCMgr.getSMPBusinessCardOfServiceGroup (aCurObject);
-        if (aBC != null)
-        {
-          final SMPBusinessCardEntity aEntity = aBC.getEntityAtIndex (0);
-          if (aEntity != null && aEntity.names ().isNotEmpty ())
-            aName = HCTextNode.createOnDemand (aEntity.names ().getFirstOrNull ().getName ());
-        }
-        aRow.addCell (aName);
-      }
-      if (bShowExtensionDetails)
-      {
-        if (aCurObject.getExtensions ().extensions ().isNotEmpty ())
-          aRow.addCell (new HCCode ().addChildren (HCExtHelper.nl2divList (aCurObject.getExtensions ()
-                                                                                     .getFirstExtensionXMLString ())));
-        else
-          aRow.addCell ();
-      }
-      else
-      {
-        aRow.addCell (EPhotonCoreText.getYesOrNo (aCurObject.getExtensions ().extensions ().isNotEmpty (),
-                                                  aDisplayLocale));
-      }
-
-      if (bShowDetails)
-      {
-        int nProcesses = 0;
-        int nEndpoints = 0;
-        final ICommonsList <ISMPServiceInformation> aSIs = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aCurObject);
-        for (final ISMPServiceInformation aSI : aSIs)
-        {
-          nProcesses += aSI.getProcessCount ();
-          nEndpoints += aSI.getTotalEndpointCount ();
-        }
-
-        aRow.addCell (Integer.toString (aSIs.size ()));
-        aRow.addCell (Integer.toString (nProcesses));
-        aRow.addCell (Integer.toString (nEndpoints));
-      }
-
-      final HCNodeList aActions = new HCNodeList ();
-      aActions.addChildren (createEditLink (aWPEC, aCurObject, "Edit " + sDisplayName),
-                            new HCTextNode (" "),
-                            createCopyLink (aWPEC, aCurObject, "Copy " + sDisplayName),
-                            new HCTextNode (" "),
-                            createDeleteLink (aWPEC, aCurObject, "Delete " + sDisplayName),
-                            new HCTextNode (" "),
-                            new HCA (LinkHelper.getURLWithServerAndContext (aCurObject.getParticipantIdentifier ()
-                                                                                      .getURIPercentEncoded ())).setTitle ("Perform SMP query on " +
-                                                                                                                           sDisplayName)
-                                                                                                                .setTargetBlank ()
-                                                                                                                .addChild (EFamFamIcon.SCRIPT_GO.getAsNode ()));
-      if (eRESTType.isCompleteServiceGroupSupported ())
-      {
-        aActions.addChildren (new HCTextNode (" "),
-                              new HCA (LinkHelper.getURLWithServerAndContext ("complete/" +
-                                                                              aCurObject.getParticipantIdentifier ()
-                                                                                        .getURIPercentEncoded ())).setTitle ("Perform complete SMP query on " +
-                                                                                                                             sDisplayName)
-                                                                                                                  .setTargetBlank ()
-                                                                                                                  .addChild (EFamFamIcon.SCRIPT_LINK.getAsNode ()));
-      }
-      aRow.addCell (aActions);
-    }
 
     final DataTables aDataTables = BootstrapDataTables.createDefaultDataTables (aWPEC, aTable);
+    AbstractSMPAjaxExecutorDataTables.setServerSide (aWPEC.getRequestScope (), aDataTables, AJAX_LIST);
     aNodeList.addChild (aTable).addChild (aDataTables);
   }
 }
@@ -21,7 +21,6 @@ import java.net.UnknownHostException;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.time.OffsetDateTime;
 import java.util.Locale;
@@ -30,11 +29,10 @@ import javax.annotation.Nonnull;
 
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.CollectionHelper;
-import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.datetime.PDTFactory;
 import com.helger.commons.datetime.PDTToString;
-import com.helger.commons.datetime.XMLOffsetDateTime;
 import com.helger.commons.debug.GlobalDebug;
+import com.helger.commons.error.level.EErrorLevel;
 import com.helger.commons.lang.ClassHelper;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.url.SimpleURL;
@@ -46,28 +44,24 @@ import com.helger.html.hc.html.textlevel.HCA;
 import com.helger.html.hc.impl.HCNodeList;
 import com.helger.pd.client.PDClientConfiguration;
 import com.helger.peppol.sml.ISMLInfo;
-import com.helger.peppol.smp.ESMPTransportProfile;
 import com.helger.peppol.utils.PeppolKeyStoreHelper;
 import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.problem.SMPProblem;
+import com.helger.phoss.smp.domain.problem.SMPProblemAnalyzer;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
-import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.security.SMPTrustManager;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.ui.AbstractSMPWebPage;
 import com.helger.phoss.smp.ui.SMPCommonUI;
+import com.helger.phoss.smp.ui.ajax.CAjax;
 import com.helger.photon.security.CSecurity;
 import com.helger.photon.security.mgr.PhotonSecurityManager;
 import com.helger.photon.uicore.css.CUICoreCSS;
 import com.helger.photon.uicore.page.WebPageExecutionContext;
-import com.helger.security.certificate.CertificateHelper;
 import com.helger.security.keystore.EKeyStoreLoadError;
 import com.helger.security.keystore.LoadedKey;
 import com.helger.security.keystore.LoadedKeyStore;
@@ -97,6 +91,16 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
     return badgeDanger ("Error: " + sMsg);
   }
 
+  @Nonnull
+  private IHCNode _createProblem (@Nonnull final SMPProblem aProblem)
+  {
+    if (aProblem.getErrorLevel ().isGE (EErrorLevel.ERROR))
+      return _createError (aProblem.getMessage ());
+    if (aProblem.getErrorLevel ().isGE (EErrorLevel.WARN))
+      return _createWarning (aProblem.getMessage ());
+    return _createInfo (aProblem.getMessage ());
+  }
+
   private void _checkSettings (@Nonnull final HCOL aOL)
   {
     // Check that public URL is set
@@ -410,12 +414,23 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
     final HCNodeList aNodeList = aWPEC.getNodeList ();
     final Locale aDisplayLocale = aWPEC.getDisplayLocale ();
     final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    final SMPProblemAnalyzer aProblemAnalyzer = SMPMetaManager.getProblemAnalyzer ();
     final OffsetDateTime aNowDT = PDTFactory.getCurrentOffsetDateTime ();
     final OffsetDateTime aNowPlusDT = aNowDT.plusMonths (3);
 
     aNodeList.addChild (info ("This page tries to identify upcoming tasks and potential problems in the SMP configuration. It is meant to highlight immediate and upcoming action items as well as potential misconfiguration."));
 
+    final OffsetDateTime aLastSweepDT = aProblemAnalyzer.getLastSweepDateTime ();
+    if (aLastSweepDT == null)
+      aNodeList.addChild (warn ("The service groups are currently analyzed. Please reload this page in a moment to see all results."));
+    else
+    {
+      final HCA aJsonLink = new HCA (CAjax.FUNCTION_TASKS_PROBLEMS.getInvocationURL (aWPEC.getRequestScope ())).addChild ("Show as JSON");
+      aNodeList.addChild (div ("All service groups were last analyzed at " +
+                               PDTToString.getAsString (aLastSweepDT, aDisplayLocale) +
+                               ". Changes are analyzed immediately. ").addChild (aJsonLink));
+    }
+
     final HCOL aOL = new HCOL ();
 
     // Check for default password
@@ -445,129 +460,38 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
 
     // check service groups and redirects
     {
-      final ICommonsList <ISMPServiceGroup> aServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
-      if (aServiceGroups.isEmpty ())
+      if (aServiceGroupMgr.getSMPServiceGroupCount () == 0)
       {
         aOL.addItem (_createWarning ("No service group is configured. This SMP is currently empty."));
       }
       else
       {
-        // For all service groups
-        for (final ISMPServiceGroup aServiceGroup : CollectionHelper.getSorted (aServiceGroups,
-                                                                                ISMPServiceGroup.comparator ()))
+        // Precomputed in the background
+        HCUL aULPerSG = null;
+        String sLastServiceGroupID = null;
+        for (final SMPProblem aProblem : aProblemAnalyzer.getAllProblems ())
         {
-          final HCUL aULPerSG = new HCUL ();
-          final ICommonsList <ISMPServiceInformation> aServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup);
-          if (aServiceInfos.isEmpty ())
-          {
-            // This is merely a warning or an error
-            aULPerSG.addItem (_createInfo ("No endpoint is configured for this service group."));
-          }
-          else
+          if (!aProblem.getServiceGroupID ().equals (sLastServiceGroupID))
           {
-            for (final ISMPServiceInformation aServiceInfo : aServiceInfos)
-            {
-              final HCUL aULPerDocType = new HCUL ();
-              final ICommonsList <ISMPProcess> aProcesses = aServiceInfo.getAllProcesses ();
-              for (final ISMPProcess aProcess : aProcesses)
-              {
-                final HCUL aULPerProcess = new HCUL ();
-                final ICommonsList <ISMPEndpoint> aEndpoints = aProcess.getAllEndpoints ();
-                for (final ISMPEndpoint aEndpoint : aEndpoints)
-                {
-                  final HCUL aULPerEndpoint = new HCUL ();
-
-                  final ESMPTransportProfile eTransportProfile = ESMPTransportProfile.getFromIDOrNull (aEndpoint.getTransportProfile ());
-                  if (eTransportProfile == null)
-                    aULPerEndpoint.addItem (_createWarning ("The endpoint uses the non-standard transport profile '" +
-                                                            aEndpoint.getTransportProfile () +
-                                                            "'."));
-
-                  if (aEndpoint.getServiceActivationDateTime () != null)
-                  {
-                    if (aEndpoint.getServiceActivationDateTime ().isAfter (XMLOffsetDateTime.of (aNowDT)))
-                      aULPerEndpoint.addItem (_createWarning ("The endpoint is not yet active."),
-                                              div ("It will be active from " +
-                                                   PDTToString.getAsString (aEndpoint.getServiceActivationDateTime (),
-                                                                            aDisplayLocale) +
-                                                   "."));
-                  }
-
-                  if (aEndpoint.getServiceExpirationDateTime () != null)
-                  {
-                    if (aEndpoint.getServiceExpirationDateTime ().isBefore (XMLOffsetDateTime.of (aNowDT)))
-                      aULPerEndpoint.addItem (_createError ("The endpoint is no longer active."),
-                                              div ("It was valid until " +
-                                                   PDTToString.getAsString (aEndpoint.getServiceExpirationDateTime (),
-                                                                            aDisplayLocale) +
-                                                   "."));
-                    else
-                      if (aEndpoint.getServiceExpirationDateTime ().isBefore (XMLOffsetDateTime.of (aNowPlusDT)))
-                        aULPerEndpoint.addItem (_createWarning ("The endpoint will be inactive soon."),
-                                                div ("It is only valid until " +
-                                                     PDTToString.getAsString (aEndpoint.getServiceExpirationDateTime (),
-                                                                              aDisplayLocale) +
-                                                     "."));
-                  }
-
-                  X509Certificate aX509Cert = null;
-                  try
-                  {
-                    aX509Cert = CertificateHelper.convertStringToCertficate (aEndpoint.getCertificate ());
-                  }
-                  catch (final CertificateException ex)
-                  {
-                    // Ignore
-                  }
-                  if (aX509Cert == null)
-                    aULPerEndpoint.addItem (_createError ("The X.509 certificate configured at the endpoint is invalid and could not be interpreted as a certificate."));
-                  else
-                  {
-                    final OffsetDateTime aNotBefore = PDTFactory.createOffsetDateTime (aX509Cert.getNotBefore ());
-                    if (aNowDT.isBefore (aNotBefore))
-                      aULPerEndpoint.addItem (_createError ("The endpoint certificate is not yet active."),
-                                              div ("It will be valid from " +
-                                                   PDTToString.getAsString (aNotBefore, aDisplayLocale) +
-                                                   "."));
-
-                    final OffsetDateTime aNotAfter = PDTFactory.createOffsetDateTime (aX509Cert.getNotAfter ());
-                    if (aNowDT.isAfter (aNotAfter))
-                      aULPerEndpoint.addItem (_createError ("The endpoint certificate is already expired."),
-                                              div ("It was valid until " +
-                                                   PDTToString.getAsString (aNotAfter, aDisplayLocale) +
-                                                   "."));
-                    else
-                      if (aNowPlusDT.isAfter (aNotAfter))
-                        aULPerEndpoint.addItem (_createWarning ("The endpoint certificate will expire soon."),
-                                                div ("It is only valid until " +
-                                                     PDTToString.getAsString (aNotAfter, aDisplayLocale) +
-                                                     "."));
-                  }
-
-                  // Show per endpoint errors
-                  if (aULPerEndpoint.hasChildren ())
-                    aULPerProcess.addItem (div ("Transport profile ").addChild (code (aEndpoint.getTransportProfile ())),
-                                           aULPerEndpoint);
-                }
-                // Show per process errors
-                if (aULPerProcess.hasChildren ())
-                  aULPerDocType.addItem (div ("Process ").addChild (code (aProcess.getProcessIdentifier ()
-                                                                                  .getURIEncoded ()).addClass (CUICoreCSS.CSS_CLASS_NOWRAP)),
-                                         aULPerProcess);
-              }
-              // Show per document type errors
-              if (aULPerDocType.hasChildren ())
-                aULPerSG.addItem (div ("Document type ").addChild (code (aServiceInfo.getDocumentTypeIdentifier ()
-                                                                                     .getURIEncoded ()).addClass (CUICoreCSS.CSS_CLASS_NOWRAP)),
-                                  aULPerDocType);
-            }
+            sLastServiceGroupID = aProblem.getServiceGroupID ();
+            aULPerSG = new HCUL ();
+            aOL.addItem (div ("Service group ").addChild (code (sLastServiceGroupID)), aULPerSG);
           }
 
-          // Show per service group errors
-          if (aULPerSG.hasChildren ())
-            aOL.addItem (div ("Service group ").addChild (code (aServiceGroup.getParticipantIdentifier ()
-                                                                             .getURIEncoded ())),
-                         aULPerSG);
+          final HCNodeList aItem = new HCNodeList ();
+          aItem.addChild (_createProblem (aProblem));
+          if (aProblem.getDocumentTypeID () != null)
+            aItem.addChild (div ("Document type ").addChild (code (aProblem.getDocumentTypeID ()).addClass (CUICoreCSS.CSS_CLASS_NOWRAP)));
+          if (aProblem.getProcessID () != null)
+            aItem.addChild (div ("Process ").addChild (code (aProblem.getProcessID ()).addClass (CUICoreCSS.CSS_CLASS_NOWRAP)));
+          if (aProblem.getTransportProfile () != null)
+            aItem.addChild (div ("Transport profile ").addChild (code (aProblem.getTransportProfile ())));
+          if (aProblem.getDetailText () != null && aProblem.getDetailDateTime () != null)
+            aItem.addChild (div (aProblem.getDetailText () +
+                                 " " +
+                                 PDTToString.getAsString (aProblem.getDetailDateTime (), aDisplayLocale) +
+                                 "."));
+          aULPerSG.addItem (aItem);
         }
       }
     }
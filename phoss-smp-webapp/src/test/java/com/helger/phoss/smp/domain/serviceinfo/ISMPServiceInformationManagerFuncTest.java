@@ -16,6 +16,7 @@
  */
 package com.helger.phoss.smp.domain.serviceinfo;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -23,6 +24,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.datetime.PDTFactory;
 import com.helger.commons.datetime.XMLOffsetDateTime;
 import com.helger.peppolid.IDocumentTypeIdentifier;
@@ -93,6 +95,11 @@ public final class ISMPServiceInformationManagerFuncTest
                                                                                    new CommonsArrayList <> (aProcess),
                                                                                    "<extsi/>");
       assertTrue (aServiceInfoMgr.mergeSMPServiceInformation (aServiceInformation).isSuccess ());
+
+      final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> aDocTypes = aServiceInfoMgr.getAllSMPDocumentTypesWithEndpointsOfServiceGroup (aSG);
+      assertEquals (1, aDocTypes.size ());
+      assertTrue (aDocTypes.getFirstKey ().hasSameContent (aDocTypeID));
+      assertEquals (Integer.valueOf (1), aDocTypes.getFirstValue ());
     }
     finally
     {
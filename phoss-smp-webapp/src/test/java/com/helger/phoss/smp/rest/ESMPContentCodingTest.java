@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.string.StringHelper;
+
+/**
+ * Test class for class {@link ESMPContentCoding}.
+ *
+ * @author Philip Helger
+ */
+public final class ESMPContentCodingTest
+{
+  @Test
+  public void testBasic ()
+  {
+    for (final ESMPContentCoding e : ESMPContentCoding.values ())
+    {
+      assertSame (e, ESMPContentCoding.getFromIDCaseInsensitiveOrNull (e.getID ()));
+      assertSame (e, ESMPContentCoding.getFromIDCaseInsensitiveOrNull (e.getID ().toUpperCase ()));
+    }
+    assertNull (ESMPContentCoding.getFromIDCaseInsensitiveOrNull ("br"));
+    assertNull (ESMPContentCoding.getFromIDCaseInsensitiveOrNull (null));
+  }
+
+  @Test
+  public void testCompress () throws Exception
+  {
+    final byte [] aBytes = ("<?xml version=\"1.0\"?><root>" +
+                            StringHelper.getRepeated ("<a>text</a>", 1000) +
+                            "</root>").getBytes (StandardCharsets.UTF_8);
+
+    final byte [] aGzip = ESMPContentCoding.GZIP.getCompressed (aBytes);
+    assertTrue (aGzip.length < aBytes.length);
+    try (final InputStream aIS = new GZIPInputStream (new NonBlockingByteArrayInputStream (aGzip)))
+    {
+      assertArrayEquals (aBytes, StreamHelper.getAllBytes (aIS));
+    }
+
+    final byte [] aDeflate = ESMPContentCoding.DEFLATE.getCompressed (aBytes);
+    assertTrue (aDeflate.length < aBytes.length);
+    try (final InputStream aIS = new InflaterInputStream (new NonBlockingByteArrayInputStream (aDeflate)))
+    {
+      assertArrayEquals (aBytes, StreamHelper.getAllBytes (aIS));
+    }
+  }
+}
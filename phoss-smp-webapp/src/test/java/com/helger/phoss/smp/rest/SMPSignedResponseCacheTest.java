@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014-2024 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.web.scope.mock.WebScopeTestRule;
+
+/**
+ * Test class for class {@link SMPSignedResponseCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPSignedResponseCacheTest
+{
+  // Each test uses a new global scope and therefore a new cache
+  @Rule
+  public final TestRule m_aTestRule = new WebScopeTestRule ();
+
+  private static final IParticipantIdentifier PI1 = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                      "0088:test1");
+  private static final IParticipantIdentifier PI2 = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                      "0088:test2");
+
+  @Nonnull
+  private static IDocumentTypeIdentifier _createDocTypeID (final int nIndex)
+  {
+    return new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                             "doctype" + nIndex);
+  }
+
+  @Nonnull
+  private static byte [] _createBytes (final int nIndex)
+  {
+    return ("<response" + nIndex + "/>").getBytes (StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final SMPSignedResponseCache aCache = SMPSignedResponseCache.getInstance ();
+    final IDocumentTypeIdentifier aDocTypeID = _createDocTypeID (0);
+    assertNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, aDocTypeID));
+    assertEquals (1, aCache.getMissCount ());
+
+    assertNotNull (aCache.putResponse (ESMPRESTType.PEPPOL, PI1, aDocTypeID, _createBytes (0), aCache.getGeneration ()));
+    assertEquals (1, aCache.getSize ());
+    assertArrayEquals (_createBytes (0), aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, aDocTypeID).getBytes ());
+    assertEquals (1, aCache.getHitCount ());
+
+    // Different REST type
+    assertNull (aCache.getCachedResponse (ESMPRESTType.OASIS_BDXR_V1, PI1, aDocTypeID));
+  }
+
+  @Test
+  public void testGenerationRace ()
+  {
+    final SMPSignedResponseCache aCache = SMPSignedResponseCache.getInstance ();
+    final IDocumentTypeIdentifier aDocTypeID = _createDocTypeID (0);
+
+    // Invalidation while the response is created
+    final long nGeneration = aCache.getGeneration ();
+    aCache.removeAllOfParticipant (PI2);
+    assertNull (aCache.putResponse (ESMPRESTType.PEPPOL, PI1, aDocTypeID, _createBytes (0), nGeneration));
+    assertEquals (0, aCache.getSize ());
+    assertNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, aDocTypeID));
+
+    // Clearing while the response is created
+    final long nGeneration2 = aCache.getGeneration ();
+    aCache.clearCache ();
+    assertNull (aCache.putResponse (ESMPRESTType.PEPPOL, PI1, aDocTypeID, _createBytes (0), nGeneration2));
+    assertEquals (0, aCache.getSize ());
+
+    // No change in between
+    assertNotNull (aCache.putResponse (ESMPRESTType.PEPPOL,
+                                       PI1,
+                                       aDocTypeID,
+                                       _createBytes (0),
+                                       aCache.getGeneration ()));
+    assertEquals (1, aCache.getSize ());
+  }
+
+  @Test
+  public void testInvalidatePerParticipant ()
+  {
+    final SMPSignedResponseCache aCache = SMPSignedResponseCache.getInstance ();
+    for (int i = 0; i < 3; ++i)
+    {
+      aCache.putResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (i), _createBytes (i), aCache.getGeneration ());
+      aCache.putResponse (ESMPRESTType.OASIS_BDXR_V1, PI1, _createDocTypeID (i), _createBytes (i), aCache.getGeneration ());
+      aCache.putResponse (ESMPRESTType.PEPPOL, PI2, _createDocTypeID (i), _createBytes (i), aCache.getGeneration ());
+    }
+    assertEquals (9, aCache.getSize ());
+
+    aCache.removeAllOfParticipant (PI1);
+    assertEquals (3, aCache.getSize ());
+    assertEquals (1, aCache.getInvalidationCount ());
+    for (int i = 0; i < 3; ++i)
+    {
+      assertNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (i)));
+      assertNull (aCache.getCachedResponse (ESMPRESTType.OASIS_BDXR_V1, PI1, _createDocTypeID (i)));
+      assertNotNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI2, _createDocTypeID (i)));
+    }
+
+    // Unknown participant
+    aCache.removeAllOfParticipant (PI1);
+    assertEquals (3, aCache.getSize ());
+  }
+
+  @Test
+  public void testSizeBound ()
+  {
+    final SMPSignedResponseCache aCache = SMPSignedResponseCache.getInstance ();
+    aCache.setMaxEntries (3);
+    for (int i = 0; i < 3; ++i)
+      aCache.putResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (i), _createBytes (i), aCache.getGeneration ());
+    assertEquals (3, aCache.getSize ());
+
+    // Access the eldest entry, so that the second entry is the least recently
+    // used one
+    assertNotNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (0)));
+
+    aCache.putResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (3), _createBytes (3), aCache.getGeneration ());
+    assertEquals (3, aCache.getSize ());
+    assertEquals (1, aCache.getEvictionCount ());
+    assertNotNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (0)));
+    assertNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (1)));
+    assertNotNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (2)));
+    assertNotNull (aCache.getCachedResponse (ESMPRESTType.PEPPOL, PI1, _createDocTypeID (3)));
+
+    // Evicted entries are also removed from the participant index
+    aCache.removeAllOfParticipant (PI1);
+    assertEquals (0, aCache.getSize ());
+  }
+}